@@ -17,28 +17,39 @@
 package com.javadeobfuscator.deobfuscator;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
 
+import com.javadeobfuscator.deobfuscator.asm.ClassInfo;
 import com.javadeobfuscator.deobfuscator.asm.ConstantPool;
 import com.javadeobfuscator.deobfuscator.config.Configuration;
 import com.javadeobfuscator.deobfuscator.config.TransformerConfig;
 import com.javadeobfuscator.deobfuscator.exceptions.NoClassInPathException;
+import com.javadeobfuscator.deobfuscator.executor.PreparedMethod;
+import com.javadeobfuscator.deobfuscator.executor.defined.MethodTable;
 import com.javadeobfuscator.deobfuscator.rules.Rule;
 import com.javadeobfuscator.deobfuscator.rules.Rules;
 import com.javadeobfuscator.deobfuscator.transformers.Transformer;
 import com.javadeobfuscator.deobfuscator.utils.ClassTree;
+import com.javadeobfuscator.deobfuscator.utils.HierarchyIndex;
+import com.javadeobfuscator.deobfuscator.utils.LazyClasspath;
+import com.javadeobfuscator.deobfuscator.utils.LibraryCache;
+import com.javadeobfuscator.deobfuscator.utils.LibraryIndex;
+import com.javadeobfuscator.deobfuscator.utils.PassthroughStore;
 import com.javadeobfuscator.deobfuscator.utils.Utils;
+import com.javadeobfuscator.deobfuscator.utils.ZipWriter;
 import me.coley.cafedude.classfile.ClassFile;
 import me.coley.cafedude.InvalidClassException;
 import me.coley.cafedude.io.ClassFileReader;
@@ -61,30 +72,98 @@ public class Deobfuscator {
 
     private static final boolean DEBUG = false;
 
+    /**
+     * How many parsed entries (or serialized classes, when writing) each worker may have waiting to be committed
+     */
+    private static final int LOAD_QUEUE_PER_THREAD = 16;
+
+    /**
+     * How many parsed library classes are kept around if the configuration doesn't say otherwise
+     */
+    private static final int DEFAULT_CLASSPATH_CACHE_SIZE = 16384;
+
+    private static final Comparator<String> OUTPUT_ORDER = Comparator.comparing((String name) -> !name.equalsIgnoreCase("META-INF/MANIFEST.MF"))
+            .thenComparing(Comparator.naturalOrder());
+
     private final Logger logger = LoggerFactory.getLogger(Deobfuscator.class);
 
     private final Configuration configuration;
 
-    private final Set<String> missingRefs = new HashSet<>();
-    private final Map<String, ClassNode> classpath = new HashMap<>();
-    private final Map<String, ClassNode> libraries = new HashMap<>();
+    private final Set<String> missingRefs = ConcurrentHashMap.newKeySet();
+    private final LibraryIndex libraryIndex;
+    /**
+     * Whether {@link #libraryIndex} was created by this instance, as opposed to being shared by a batch run
+     */
+    private final boolean ownsLibraryIndex;
+    private final LazyClasspath classpath;
+    private final Map<String, ClassNode> libraries;
     private final Map<String, ClassNode> classes = new HashMap<>();
-    private final Map<String, ClassTree> hierachy = new HashMap<>();
-    private final Set<ClassNode> libraryClassnodes = new HashSet<>();
+    private final Map<String, ClassTree> hierachy = new ConcurrentHashMap<>();
+    private final HierarchyIndex hierarchyIndex = new HierarchyIndex(this::assureInfo);
+    /**
+     * Library classes are parsed on demand and may be evicted, so this only tracks the instances currently alive
+     */
+    private final Set<ClassNode> libraryClassnodes = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
     /**
      * Entries from the input jar that will be passed through to the output
      */
-    private final Map<String, byte[]> inputPassthrough = new HashMap<>();
+    private final PassthroughStore inputPassthrough = new PassthroughStore();
     /**
-     * Constant pool data since ClassNodes don't support custom data
+     * Constant pool data since ClassNodes don't support custom data. Weak so that evicted library classes can be collected
      */
-    private final Map<ClassNode, ConstantPool> constantPools = new HashMap<>();
+    private final Map<ClassNode, ConstantPool> constantPools = Collections.synchronizedMap(new WeakHashMap<>());
     private final Map<ClassNode, ClassReader> readers = new HashMap<>();
+    /**
+     * Input classes which can be copied to the output as-is if no transformer changed them
+     */
+    private final Map<ClassNode, OriginalClass> originalClasses = new HashMap<>();
+    /**
+     * Wall-clock milliseconds spent in each phase of {@link #start()}, in the order the phases ran
+     */
+    private final Map<String, Long> phaseTimings = new LinkedHashMap<>();
+    private long phaseStart;
+    /**
+     * Number of emulated calls aborted by an execution budget, by transformer class name
+     */
+    private final Map<String, AtomicLong> budgetAborts = new ConcurrentHashMap<>();
     public Map<String, byte[]> invalidClasses = new HashMap<>();
     public List<String> junkFiles = new ArrayList<>();
 
     public Deobfuscator(Configuration configuration) {
+        this(configuration, createLibraryIndex(configuration), true);
+    }
+
+    /**
+     * Creates a deobfuscator on top of a library index that has already been loaded with {@link #loadClasspath(Configuration)}. The index is
+     * not closed when this deobfuscator finishes.
+     */
+    public Deobfuscator(Configuration configuration, LibraryIndex libraryIndex) {
+        this(configuration, libraryIndex, false);
+    }
+
+    private Deobfuscator(Configuration configuration, LibraryIndex libraryIndex, boolean ownsLibraryIndex) {
         this.configuration = configuration;
+        this.libraryIndex = libraryIndex;
+        this.ownsLibraryIndex = ownsLibraryIndex;
+        this.classpath = new LazyClasspath(libraryIndex, (node, constantPool) -> {
+            setConstantPool(node, constantPool);
+            libraryClassnodes.add(node);
+        });
+        this.libraries = classpath.libraryView();
+    }
+
+    private static LibraryIndex createLibraryIndex(Configuration configuration) {
+        int cacheSize = configuration.getClasspathCacheSize() > 0 ? configuration.getClasspathCacheSize() : DEFAULT_CLASSPATH_CACHE_SIZE;
+        return new LibraryIndex(cacheSize, configuration.getLibraryCache() != null ? new LibraryCache(configuration.getLibraryCache()) : null);
+    }
+
+    /**
+     * Creates and fills the library index for the path and libraries of the given configuration
+     */
+    public static LibraryIndex loadClasspath(Configuration configuration) throws IOException {
+        LibraryIndex libraryIndex = createLibraryIndex(configuration);
+        loadClasspath(configuration, libraryIndex);
+        return libraryIndex;
     }
 
     public ConstantPool getConstantPool(ClassNode classNode) {
@@ -119,41 +198,16 @@ public class Deobfuscator {
         return libraries;
     }
 
-    private Map<String, ClassNode> loadClasspathFile(File file, boolean skipCode) throws IOException {
-        Map<String, ClassNode> map = new HashMap<>();
-
-        ZipFile zipIn = new ZipFile(file);
-        Enumeration<? extends ZipEntry> entries = zipIn.entries();
-        while (entries.hasMoreElements()) {
-            ZipEntry ent = entries.nextElement();
-            if (ent.getName().endsWith(".class")) {
-                try {
-                    ClassReader reader = new ClassReader(zipIn.getInputStream(ent));
-                    ClassNode node = new ClassNode();
-                    reader.accept(node, (skipCode ? 0 : 0) | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-                    map.put(node.name, node);
-
-                    setConstantPool(node, new ConstantPool(reader));
-                } catch (Exception ex) {
-                    logger.warn("Could not load class " + ent.getName() + " from library " + file, ex);
-                }
-            }
-        }
-        zipIn.close();
-
-        return map;
-    }
-
-    private void loadClasspath() throws IOException {
+    private static void loadClasspath(Configuration configuration, LibraryIndex libraryIndex) throws IOException {
         if (configuration.getPath() != null) {
             for (File file : configuration.getPath()) {
                 if (file.isFile()) {
-                    classpath.putAll(loadClasspathFile(file, true));
+                    libraryIndex.index(file, false);
                 } else {
                     File[] files = file.listFiles(child -> child.getName().endsWith(".jar"));
                     if (files != null) {
                         for (File child : files) {
-                            classpath.putAll(loadClasspathFile(child, true));
+                            libraryIndex.index(child, false);
                         }
                     }
                 }
@@ -162,19 +216,17 @@ public class Deobfuscator {
         if (configuration.getLibraries() != null) {
             for (File file : configuration.getLibraries()) {
                 if (file.isFile()) {
-                    libraries.putAll(loadClasspathFile(file, false));
+                    libraryIndex.index(file, true);
                 } else {
                     File[] files = file.listFiles(child -> child.getName().endsWith(".jar"));
                     if (files != null) {
                         for (File child : files) {
-                            libraries.putAll(loadClasspathFile(child, false));
+                            libraryIndex.index(child, true);
                         }
                     }
                 }
             }
         }
-        classpath.putAll(libraries);
-        libraryClassnodes.addAll(classpath.values());
     }
 
     private boolean isClassIgnored(ClassNode classNode) {
@@ -254,7 +306,13 @@ public class Deobfuscator {
             }
             real.forEach(s -> invalidClasses.remove(s));
         }
+        inputPassthrough.open(configuration.getInput());
         try (ZipFile zipIn = new ZipFile(configuration.getInput())) {
+            int threads = getLoadThreads();
+            if (threads > 1) {
+                loadInputParallel(zipIn, threads);
+                return;
+            }
             Enumeration<? extends ZipEntry> e = zipIn.entries();
             while (e.hasMoreElements()) {
                 ZipEntry next = e.nextElement();
@@ -265,20 +323,80 @@ public class Deobfuscator {
                     continue;
                 }
 
+                if (isRawPassthrough(next.getName())) {
+                    commitInput(LoadedInput.raw(next.getName()));
+                    continue;
+                }
                 byte[] data = IOUtils.toByteArray(zipIn.getInputStream(next));
                 loadInput(next.getName(), data);
             }
         }
     }
 
+    private int getLoadThreads() {
+        int threads = configuration.getLoadThreads();
+        return threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * Entries are read on the calling thread and parsed on a fork-join pool. At most {@link #LOAD_QUEUE_PER_THREAD} entries per worker are in
+     * flight, and parsed entries are committed in ZIP order so the result matches the sequential path exactly.
+     */
+    private void loadInputParallel(ZipFile zipIn, int threads) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Deque<ForkJoinTask<LoadedInput>> pending = new ArrayDeque<>();
+        try {
+            Enumeration<? extends ZipEntry> e = zipIn.entries();
+            while (e.hasMoreElements()) {
+                ZipEntry next = e.nextElement();
+
+                if (next.isDirectory() || next.getName().endsWith(".class/")) {
+                    continue;
+                }
+
+                String name = next.getName();
+                if (isRawPassthrough(name)) {
+                    pending.add(pool.submit(() -> LoadedInput.raw(name)));
+                } else {
+                    byte[] data = IOUtils.toByteArray(zipIn.getInputStream(next));
+                    pending.add(pool.submit(() -> parseInput(name, data)));
+                }
+                if (pending.size() >= threads * LOAD_QUEUE_PER_THREAD) {
+                    commitInput(pending.poll().join());
+                }
+            }
+            while (!pending.isEmpty()) {
+                commitInput(pending.poll().join());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     public void loadInput(String name, byte[] data) {
-        boolean passthrough = true;
+        commitInput(parseInput(name, data));
+    }
+
+    /**
+     * @return whether the given input entry will certainly be passed through, and can be left in the input jar until it is needed
+     */
+    private boolean isRawPassthrough(String name) {
+        return !name.endsWith(".class") && !junkFiles.contains(name) && inputPassthrough.canPutRaw(name);
+    }
+
+    /**
+     * Parses an input entry without touching any shared state, so this may be called from any thread.
+     *
+     * @return the parsed entry, or null if the entry should be dropped
+     */
+    private LoadedInput parseInput(String name, byte[] data) {
+        LoadedInput input = new LoadedInput(name, data);
 
         if (name.endsWith(".class") || name.endsWith(".class/")) {
             // These 'classes' are likely red-herrings using the '.class/' trick.
             // So we will toss them since they're not real classes.
             if (data.length <= 30) {
-                return;
+                return null;
             }
 
             try {
@@ -290,17 +408,21 @@ public class Deobfuscator {
                     ClassFile cf = cfr.read(data);
                     new IllegalStrippingTransformer(cf).transform();
                     ClassFileWriter cfw = new ClassFileWriter();
-                    data = cfw.write(cf);
+                    input.data = cfw.write(cf);
                 }
                 // Should be compliant now unless a new crash is discovered.
                 // Check for updates or open an issue on the CAFED00D project if this occurs
-                ClassReader reader = new ClassReader(data);
+                ClassReader reader = new ClassReader(input.data);
                 ClassNode node = new ClassNode();
                 reader.accept(node, ClassReader.SKIP_FRAMES);
-                readers.put(node, reader);
-                setConstantPool(node, new ConstantPool(reader));
+                ConstantPool constantPool = new ConstantPool(reader);
 
-                if (!isClassIgnored(node)) {
+                boolean ignored = isClassIgnored(node);
+                if (!ignored) {
+                    // Taken before inlining subroutines, so classes with JSR/RET are always rewritten
+                    if (!configuration.isRewriteUnchangedClasses()) {
+                        input.fingerprint = fingerprint(node);
+                    }
                     for (int i = 0; i < node.methods.size(); i++) {
                         MethodNode methodNode = node.methods.get(i);
                         JSRInlinerAdapter adapter = new JSRInlinerAdapter(
@@ -313,18 +435,15 @@ public class Deobfuscator {
                         methodNode.accept(adapter);
                         node.methods.set(i, adapter);
                     }
-
-                    if (!invalidClasses.containsKey(name)) {
-                        classes.put(node.name, node);
-                    }
-                    classpath.put(node.name, node);
-                    passthrough = false;
-                } else {
-                    classpath.put(node.name, node);
                 }
+
+                input.reader = reader;
+                input.node = node;
+                input.constantPool = constantPool;
+                input.ignored = ignored;
             } catch (IllegalArgumentException | IndexOutOfBoundsException | InvalidClassException x) {
                 if (configuration.isParamorphismV2()) {
-                    invalidClasses.put(name, data);
+                    input.invalid = true;
                 } else  if (!configuration.isPatchAsm()) {
                     logger.error("Could not parse {} (Try adding \"patchAsm: true\" to the config?)", name, x);
                 } else {
@@ -332,9 +451,40 @@ public class Deobfuscator {
                 }
             }
         }
+        return input;
+    }
 
-        if (passthrough && !junkFiles.contains(name)) {
-            inputPassthrough.put(name, data);
+    private void commitInput(LoadedInput input) {
+        if (input == null) {
+            return;
+        }
+        boolean passthrough = true;
+
+        if (input.node != null) {
+            ClassNode node = input.node;
+            readers.put(node, input.reader);
+            setConstantPool(node, input.constantPool);
+
+            if (!input.ignored) {
+                if (!invalidClasses.containsKey(input.name)) {
+                    classes.put(node.name, node);
+                }
+                if (input.fingerprint != null) {
+                    originalClasses.put(node, new OriginalClass(input.data, input.fingerprint));
+                }
+                classpath.put(node.name, node);
+                passthrough = false;
+            } else {
+                classpath.put(node.name, node);
+            }
+        } else if (input.invalid) {
+            invalidClasses.put(input.name, input.data);
+        }
+
+        if (input.raw) {
+            inputPassthrough.putRaw(input.name);
+        } else if (passthrough && !junkFiles.contains(input.name)) {
+            inputPassthrough.put(input.name, input.data);
         }
     }
 
@@ -371,101 +521,201 @@ public class Deobfuscator {
     }
 
     public void start() throws Throwable {
-        logger.info("Loading classpath");
-        loadClasspath();
-
-        logger.info("Loading input");
-        loadInput();
-
-        if (getConfig().isDetect()) {
-            logger.info("Detecting known obfuscators");
-
-            for (Rule rule : Rules.RULES) {
-            	try
-            	{
-	                String message = rule.test(this);
-	                if (message == null) {
-	                    continue;
-	                }
-
-	                logger.info("");
-	                logger.info("{}: {}", rule.getClass().getSimpleName(), rule.getDescription());
-	                logger.info("\t{}", message);
-	                logger.info("Recommend transformers:");
-	                logger.info("(Choose one transformer. If there are multiple, it's recommended to try the transformer listed first)");
-
-	                Collection<Class<? extends Transformer<?>>> recommended = rule.getRecommendTransformers();
-	                if (recommended == null) {
-	                    logger.info("\tNone");
-	                } else {
-	                    for (Class<? extends Transformer<?>> transformer : recommended) {
-	                        logger.info("\t{}", transformer.getName());
-	                    }
-	                }
-            	}catch(Exception e)
-            	{
-            		e.printStackTrace();
-            	}
-            }
-
-            logger.info("All detectors have been run. If you do not see anything listed, check if your file only contains name obfuscation.");
-            logger.info("Do note that some obfuscators do not have detectors.");
-            return;
-        }
+        try {
+            phaseStart = System.nanoTime();
+            if (ownsLibraryIndex) {
+                logger.info("Loading classpath");
+                loadClasspath(configuration, libraryIndex);
+                endPhase("classpath");
+            }
 
-        logger.info("Computing callers");
-        computeCallers();
+            logger.info("Loading input");
+            loadInput();
+            endPhase("input");
+
+            if (getConfig().isDetect()) {
+                logger.info("Detecting known obfuscators");
+
+                for (Rule rule : Rules.RULES) {
+                	try
+                	{
+    	                String message = rule.test(this);
+    	                if (message == null) {
+    	                    continue;
+    	                }
+
+    	                logger.info("");
+    	                logger.info("{}: {}", rule.getClass().getSimpleName(), rule.getDescription());
+    	                logger.info("\t{}", message);
+    	                logger.info("Recommend transformers:");
+    	                logger.info("(Choose one transformer. If there are multiple, it's recommended to try the transformer listed first)");
+
+    	                Collection<Class<? extends Transformer<?>>> recommended = rule.getRecommendTransformers();
+    	                if (recommended == null) {
+    	                    logger.info("\tNone");
+    	                } else {
+    	                    for (Class<? extends Transformer<?>> transformer : recommended) {
+    	                        logger.info("\t{}", transformer.getName());
+    	                    }
+    	                }
+                	}catch(Exception e)
+                	{
+                		e.printStackTrace();
+                	}
+                }
 
-        if (configuration.isDeleteUselessClasses()) {
-        	logger.warn("Warning: You have enabled the option \"delete useless classes\".");
-        	logger.warn("This option will delete any classes whose superclasses or interfaces cannot be resolved for certain transformers.");
-        	logger.warn("This feature is only to be used when your file contains trash classes that prevent transformers from working.");
-        	logger.warn("All libraries must be added for this to work properly.");
+                logger.info("All detectors have been run. If you do not see anything listed, check if your file only contains name obfuscation.");
+                logger.info("Do note that some obfuscators do not have detectors.");
+                endPhase("detect");
+                return;
+            }
+
+            logger.info("Computing callers");
+            computeCallers();
+            endPhase("callers");
+
+            if (configuration.isDeleteUselessClasses()) {
+            	logger.warn("Warning: You have enabled the option \"delete useless classes\".");
+            	logger.warn("This option will delete any classes whose superclasses or interfaces cannot be resolved for certain transformers.");
+            	logger.warn("This feature is only to be used when your file contains trash classes that prevent transformers from working.");
+            	logger.warn("All libraries must be added for this to work properly.");
+            }
+
+            if (configuration.isSmartRedo()) {
+            	logger.warn("You have enabled \"smart redo\". For some transformers, this may result in an infinite loop.");
+            }
+
+            logger.info("Transforming");
+            if (configuration.getTransformers() != null) {
+                for (TransformerConfig config : configuration.getTransformers()) {
+                    logger.info("Running {}", config.getImplementation().getCanonicalName());
+                    runFromConfig(config);
+                    endPhase(config.getImplementation().getCanonicalName());
+                }
+            }
+
+            logger.info("Writing");
+            if (DEBUG) {
+                classes.values().forEach(Utils::printClass);
+            }
+
+            writeOutput();
+            endPhase("write");
+            reportBudgetAborts();
+        } finally {
+            try {
+                inputPassthrough.close();
+            } finally {
+                closeLibraryIndex();
+            }
+        }
+    }
+
+    private void endPhase(String phase) {
+        long now = System.nanoTime();
+        synchronized (phaseTimings) {
+            phaseTimings.merge(phase, (now - phaseStart) / 1000000, Long::sum);
         }
+        phaseStart = now;
+    }
 
-        if (configuration.isSmartRedo()) {
-        	logger.warn("You have enabled \"smart redo\". For some transformers, this may result in an infinite loop.");
+    /**
+     * @return milliseconds spent in each phase that has finished so far, in order. Transformers are listed by class name.
+     */
+    public Map<String, Long> getPhaseTimings() {
+        synchronized (phaseTimings) {
+            return new LinkedHashMap<>(phaseTimings);
         }
+    }
+
+    /**
+     * @return the counter of emulated calls aborted by the execution budget of the transformer
+     */
+    public AtomicLong getBudgetAborts(String transformer) {
+        return budgetAborts.computeIfAbsent(transformer, k -> new AtomicLong());
+    }
 
-        logger.info("Transforming");
-        if (configuration.getTransformers() != null) {
-            for (TransformerConfig config : configuration.getTransformers()) {
-                logger.info("Running {}", config.getImplementation().getCanonicalName());
-                runFromConfig(config);
+    private void reportBudgetAborts() {
+        for (Entry<String, AtomicLong> entry : budgetAborts.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                logger.warn("{} emulated calls were aborted by the execution budget of {}", entry.getValue().get(), entry.getKey());
             }
         }
+    }
 
-        logger.info("Writing");
-        if (DEBUG) {
-            classes.values().forEach(Utils::printClass);
+    private void closeLibraryIndex() throws IOException {
+        if (ownsLibraryIndex) {
+            libraryIndex.close();
         }
+    }
 
-        ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(configuration.getOutput()));
-        inputPassthrough.forEach((name, val) -> {
-            ZipEntry entry = new ZipEntry(name);
-            try {
-                zipOut.putNextEntry(entry);
-                zipOut.write(val);
-                zipOut.closeEntry();
-            } catch (IOException e) {
-                logger.error("Error writing entry {}", name, e);
+    /**
+     * Writes the passthrough entries and then every class, both sorted by name so that output jars are stable across runs. The manifest always
+     * goes first so that {@link java.util.jar.JarInputStream} can find it.
+     * <p>
+     * Classes are serialized (including frame computation and verification) on a fork-join pool and written to the ZIP in order by this thread.
+     */
+    private void writeOutput() throws IOException {
+        List<String> passthroughNames = new ArrayList<>(inputPassthrough.keySet());
+        passthroughNames.sort(OUTPUT_ORDER);
+        List<ClassNode> classNodes = new ArrayList<>(classes.values());
+        classNodes.sort(Comparator.comparing(classNode -> classNode.name));
+
+        try (ZipWriter zipOut = new ZipWriter(configuration.getOutput())) {
+            for (String name : passthroughNames) {
+                try {
+                    inputPassthrough.writeTo(zipOut, name);
+                } catch (IOException e) {
+                    logger.error("Error writing entry {}", name, e);
+                }
             }
-        });
 
-        classes.values().forEach(classNode -> {
+            int threads = getWriteThreads();
+            if (threads <= 1) {
+                for (ClassNode classNode : classNodes) {
+                    writeEntry(zipOut, classNode.name + ".class", toByteArray(classNode));
+                }
+                return;
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Deque<Entry<String, ForkJoinTask<byte[]>>> pending = new ArrayDeque<>();
             try {
-                byte[] b = toByteArray(classNode);
-                if (b != null) {
-                    zipOut.putNextEntry(new ZipEntry(classNode.name + ".class"));
-                    zipOut.write(b);
-                    zipOut.closeEntry();
+                for (ClassNode classNode : classNodes) {
+                    pending.add(new SimpleEntry<>(classNode.name + ".class", pool.submit(() -> toByteArray(classNode))));
+                    if (pending.size() >= threads * LOAD_QUEUE_PER_THREAD) {
+                        Entry<String, ForkJoinTask<byte[]>> next = pending.poll();
+                        writeEntry(zipOut, next.getKey(), next.getValue().join());
+                    }
                 }
-            } catch (IOException e) {
-                logger.error("Error writing entry {}", classNode.name, e);
+                while (!pending.isEmpty()) {
+                    Entry<String, ForkJoinTask<byte[]>> next = pending.poll();
+                    writeEntry(zipOut, next.getKey(), next.getValue().join());
+                }
+            } finally {
+                pool.shutdownNow();
             }
-        });
+        }
+    }
 
-        zipOut.close();
+    private void writeEntry(ZipWriter zipOut, String name, byte[] data) {
+        if (data == null) {
+            return;
+        }
+        try {
+            zipOut.write(name, data);
+        } catch (IOException e) {
+            logger.error("Error writing entry {}", name, e);
+        }
+    }
+
+    private int getWriteThreads() {
+        // Resolving hierarchies may remove classes when this is enabled
+        if (configuration.isDeleteUselessClasses()) {
+            return 1;
+        }
+        int threads = configuration.getWriteThreads();
+        return threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
     }
 
     public boolean runFromConfig(TransformerConfig config) throws Throwable {
@@ -476,7 +726,15 @@ public class Deobfuscator {
         do {
             madeChanges = transformer.transform();
             madeChangesAtLeastOnce = madeChangesAtLeastOnce || madeChanges;
+            // The next transformer must not execute code prepared before this one changed it
+            for (ClassNode classNode : classes.values()) {
+                for (MethodNode methodNode : classNode.methods) {
+                    PreparedMethod.invalidate(methodNode);
+                }
+            }
+            MethodTable.invalidate();
         } while (madeChanges && getConfig().isSmartRedo());
+        transformer.writeProfile();
         return madeChangesAtLeastOnce;
     }
 
@@ -503,6 +761,33 @@ public class Deobfuscator {
         return clazz;
     }
 
+    /**
+     * Like {@link #assureLoaded(String)}, but only loads the header of the class. Library classes are never fully parsed through this method.
+     */
+    public ClassInfo assureInfo(String ref) {
+        ClassInfo info = classpath.getInfo(ref);
+        if (info == null) {
+            ClassNode clazz = pullFromRuntime(ref);
+            if (clazz != null) {
+                info = ClassInfo.of(clazz);
+            }
+        }
+        if (info == null) {
+            throw new NoClassInPathException(ref);
+        }
+        return info;
+    }
+
+    private ClassInfo assureInfoElseRemove(String referencer, String ref) {
+        ClassInfo info = classpath.getInfo(ref);
+        if (info == null) {
+            classes.remove(referencer);
+            classpath.remove(referencer);
+            return null;
+        }
+        return info;
+    }
+
     private ClassNode pullFromRuntime(String ref) {
         try {
             if (!missingRefs.contains(ref)) {
@@ -522,9 +807,12 @@ public class Deobfuscator {
 
     public void loadHierachy() {
         Set<String> processed = new HashSet<>();
-        LinkedList<ClassNode> toLoad = new LinkedList<>(this.classes.values());
+        LinkedList<ClassInfo> toLoad = new LinkedList<>();
+        for (ClassNode classNode : this.classes.values()) {
+            toLoad.add(ClassInfo.of(classNode));
+        }
         while (!toLoad.isEmpty()) {
-            for (ClassNode toProcess : loadHierachy(toLoad.poll())) {
+            for (ClassInfo toProcess : loadHierachy(toLoad.poll())) {
                 if (processed.add(toProcess.name)) {
                     toLoad.add(toProcess);
                 }
@@ -533,11 +821,15 @@ public class Deobfuscator {
     }
 
     public void loadHierachyAll(ClassNode classNode) {
+        loadHierachyAll(ClassInfo.of(classNode));
+    }
+
+    public void loadHierachyAll(ClassInfo classInfo) {
         Set<String> processed = new HashSet<>();
-        LinkedList<ClassNode> toLoad = new LinkedList<>();
-        toLoad.add(classNode);
+        LinkedList<ClassInfo> toLoad = new LinkedList<>();
+        toLoad.add(classInfo);
         while (!toLoad.isEmpty()) {
-            for (ClassNode toProcess : loadHierachy(toLoad.poll())) {
+            for (ClassInfo toProcess : loadHierachy(toLoad.poll())) {
                 if (processed.add(toProcess.name)) {
                     toLoad.add(toProcess);
                 }
@@ -547,28 +839,29 @@ public class Deobfuscator {
 
     public void resetHierachy() {
         this.hierachy.clear();
+        this.hierarchyIndex.clear();
     }
 
     private ClassTree getOrCreateClassTree(String name) {
         return this.hierachy.computeIfAbsent(name, ClassTree::new);
     }
 
-    public List<ClassNode> loadHierachy(ClassNode specificNode) {
+    public List<ClassInfo> loadHierachy(ClassInfo specificNode) {
         if (specificNode.name.equals("java/lang/Object")) {
             return Collections.emptyList();
         }
-        List<ClassNode> toProcess = new ArrayList<>();
+        List<ClassInfo> toProcess = new ArrayList<>();
 
         ClassTree thisTree = getOrCreateClassTree(specificNode.name);
-        ClassNode superClass;
+        ClassInfo superClass;
         if (this.configuration.isDeleteUselessClasses()) {
-            superClass = assureLoadedElseRemove(specificNode.name, specificNode.superName);
+            superClass = assureInfoElseRemove(specificNode.name, specificNode.superName);
             if (superClass == null) {
                 //It got removed
                 return toProcess;
             }
         } else {
-            superClass = assureLoaded(specificNode.superName);
+            superClass = assureInfo(specificNode.superName);
         }
         if (superClass == null) {
             throw new IllegalArgumentException("Could not load " + specificNode.name);
@@ -579,15 +872,15 @@ public class Deobfuscator {
         toProcess.add(superClass);
 
         for (String interfaceReference : specificNode.interfaces) {
-            ClassNode interfaceNode;
+            ClassInfo interfaceNode;
             if (this.configuration.isDeleteUselessClasses()) {
-                interfaceNode = assureLoadedElseRemove(specificNode.name, interfaceReference);
+                interfaceNode = assureInfoElseRemove(specificNode.name, interfaceReference);
                 if (interfaceNode == null) {
                     //It got removed
                     return toProcess;
                 }
             } else {
-                interfaceNode = assureLoaded(interfaceReference);
+                interfaceNode = assureInfo(interfaceReference);
             }
             if (interfaceNode == null) {
                 throw new IllegalArgumentException("Could not load " + interfaceReference);
@@ -604,8 +897,8 @@ public class Deobfuscator {
         if (possibleParent.equals(possibleChild)) {
             return true;
         }
-        loadHierachyAll(assureLoaded(possibleParent));
-        loadHierachyAll(assureLoaded(possibleChild));
+        loadHierachyAll(assureInfo(possibleParent));
+        loadHierachyAll(assureInfo(possibleChild));
         ClassTree parentTree = hierachy.get(possibleParent);
         if (parentTree != null && hierachy.get(possibleChild) != null) {
             List<String> layer = new ArrayList<>();
@@ -631,12 +924,16 @@ public class Deobfuscator {
     public ClassTree getClassTree(String classNode) {
         ClassTree tree = hierachy.get(classNode);
         if (tree == null) {
-            loadHierachyAll(assureLoaded(classNode));
+            loadHierachyAll(assureInfo(classNode));
             return getClassTree(classNode);
         }
         return tree;
     }
 
+    /**
+     * Serializes a class for the output. Input classes which are structurally identical to how they were loaded are returned as their original
+     * bytes, unless {@link Configuration#isRewriteUnchangedClasses()} is set.
+     */
     public byte[] toByteArray(ClassNode node) {
         if (node.innerClasses != null) {
             node.innerClasses.stream().filter(in -> in.innerName != null).forEach(in -> {
@@ -645,6 +942,52 @@ public class Deobfuscator {
                 }
             });
         }
+        byte[] classBytes = getUnchangedBytes(node);
+        if (classBytes == null) {
+            classBytes = writeClass(node);
+        }
+
+        if (configuration.isVerify()) {
+            ClassReader cr = new ClassReader(classBytes);
+            try {
+                cr.accept(new CheckClassAdapter(new ClassWriter(0)), 0);
+            } catch (Throwable t) {
+                System.out.println("Error: " + node.name + " failed verification");
+                t.printStackTrace(System.out);
+            }
+        }
+
+        return classBytes;
+    }
+
+    private byte[] getUnchangedBytes(ClassNode node) {
+        if (configuration.isRewriteUnchangedClasses()) {
+            return null;
+        }
+        OriginalClass original = originalClasses.get(node);
+        if (original == null) {
+            return null;
+        }
+        byte[] fingerprint = fingerprint(node);
+        return fingerprint != null && MessageDigest.isEqual(fingerprint, original.fingerprint) ? original.data : null;
+    }
+
+    /**
+     * Hashes everything a class node would write, without computing frames or maxs.
+     *
+     * @return the fingerprint, or null if the node cannot be written
+     */
+    private static byte[] fingerprint(ClassNode node) {
+        try {
+            ClassWriter writer = new ClassWriter(0);
+            node.accept(writer);
+            return MessageDigest.getInstance("MD5").digest(writer.toByteArray());
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private byte[] writeClass(ClassNode node) {
         ClassWriter writer = new CustomClassWriter(ClassWriter.COMPUTE_FRAMES);
         try {
             node.accept(writer);
@@ -672,19 +1015,7 @@ public class Deobfuscator {
                 e.printStackTrace(System.out);
             }
         }
-        byte[] classBytes = writer.toByteArray();
-
-        if (configuration.isVerify()) {
-            ClassReader cr = new ClassReader(classBytes);
-            try {
-                cr.accept(new CheckClassAdapter(new ClassWriter(0)), 0);
-            } catch (Throwable t) {
-                System.out.println("Error: " + node.name + " failed verification");
-                t.printStackTrace(System.out);
-            }
-        }
-
-        return classBytes;
+        return writer.toByteArray();
     }
 
     public class CustomClassWriter extends ClassWriter {
@@ -695,65 +1026,49 @@ public class Deobfuscator {
 
         @Override
         protected String getCommonSuperClass(String type1, String type2) {
-            return getCommonSuperClass1(type1, type2);
+            return hierarchyIndex.getCommonSuperClass(type1, type2);
         }
+    }
 
-        private String getCommonSuperClass1(String type1, String type2) {
-            if (type1.equals("java/lang/Object") || type2.equals("java/lang/Object")) {
-                return "java/lang/Object";
-            }
-            String a = getCommonSuperClass0(type1, type2);
-            String b = getCommonSuperClass0(type2, type1);
-            if (!a.equals("java/lang/Object")) {
-                return a;
-            }
-            if (!b.equals("java/lang/Object")) {
-                return b;
-            }
-            ClassNode first = assureLoaded(type1);
-            ClassNode second = assureLoaded(type2);
-            return getCommonSuperClass(first.superName, second.superName);
+    /**
+     * Result of parsing a single input entry, see {@link #parseInput(String, byte[])}
+     */
+    private static class LoadedInput {
+        private final String name;
+        private byte[] data;
+        private ClassReader reader;
+        private ClassNode node;
+        private ConstantPool constantPool;
+        private boolean ignored;
+        private boolean invalid;
+        private byte[] fingerprint;
+        /**
+         * Passthrough entry which was not read, see {@link PassthroughStore#putRaw(String)}
+         */
+        private boolean raw;
+
+        private LoadedInput(String name, byte[] data) {
+            this.name = name;
+            this.data = data;
         }
 
-        private String getCommonSuperClass0(String type1, String type2) {
-            ClassNode first = assureLoaded(type1);
-            ClassNode second = assureLoaded(type2);
-            if (isAssignableFrom(type1, type2)) {
-                return type1;
-            } else if (isAssignableFrom(type2, type1)) {
-                return type2;
-            } else if (Modifier.isInterface(first.access) || Modifier.isInterface(second.access)) {
-                return "java/lang/Object";
-            } else {
-                do {
-                    type1 = first.superName;
-                    first = assureLoaded(type1);
-                } while (!isAssignableFrom(type1, type2));
-                return type1;
-            }
+        private static LoadedInput raw(String name) {
+            LoadedInput input = new LoadedInput(name, null);
+            input.raw = true;
+            return input;
         }
+    }
 
-        private boolean isAssignableFrom(String type1, String type2) {
-            if (type1.equals("java/lang/Object")) {
-                return true;
-            }
-            if (type1.equals(type2)) {
-                return true;
-            }
-            assureLoaded(type1);
-            assureLoaded(type2);
-            ClassTree firstTree = getClassTree(type1);
-            Set<String> allChilds1 = new HashSet<>();
-            LinkedList<String> toProcess = new LinkedList<>(firstTree.subClasses);
-            while (!toProcess.isEmpty()) {
-                String s = toProcess.poll();
-                if (allChilds1.add(s)) {
-                    assureLoaded(s);
-                    ClassTree tempTree = getClassTree(s);
-                    toProcess.addAll(tempTree.subClasses);
-                }
-            }
-            return allChilds1.contains(type2);
+    /**
+     * The bytes an input class was loaded from, and the fingerprint of its node right after loading
+     */
+    private static class OriginalClass {
+        private final byte[] data;
+        private final byte[] fingerprint;
+
+        private OriginalClass(byte[] data, byte[] fingerprint) {
+            this.data = data;
+            this.fingerprint = fingerprint;
         }
     }
 }
@@ -0,0 +1,413 @@
+package com.javadeobfuscator.deobfuscator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javadeobfuscator.deobfuscator.config.Configuration;
+import com.javadeobfuscator.deobfuscator.utils.LibraryIndex;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resident mode which keeps the JVM, and the library index of every distinct classpath it has seen, warm between jobs.
+ * <p>
+ * Jobs are submitted over HTTP on the loopback interface only. A random token is generated at startup and written to a file only the
+ * current user can read; every request must carry it in the {@value #TOKEN_HEADER} header. Requests addressed to a host other than the
+ * loopback interface and requests with an {@code Origin} header are rejected as well, so web pages can't reach the daemon through the
+ * browser, not even by rebinding a name of their own to the loopback address.
+ * <ul>
+ * <li>{@code POST /jobs} with a YAML configuration as the body queues a job. The {@code input} and {@code output} query parameters override the
+ * ones in the configuration. Responds with the job.</li>
+ * <li>{@code GET /jobs} lists all jobs, {@code GET /jobs/<id>} shows one, including the time spent in each phase so far.</li>
+ * <li>{@code POST /shutdown} stops accepting jobs, waits for the queued ones and exits.</li>
+ * </ul>
+ * Only the last {@value #MAX_FINISHED_JOBS} finished jobs are kept. Library indexes are never refreshed, so the daemon must be restarted when
+ * a path or library jar changes.
+ */
+public class DeobfuscatorDaemon {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeobfuscatorDaemon.class);
+
+    public static final String TOKEN_HEADER = "X-Deobfuscator-Token";
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final ObjectMapper configMapper;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ExecutorService workers;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+    /**
+     * Keyed by everything {@link Deobfuscator#loadClasspath(Configuration)} depends on
+     */
+    private final Map<List<Object>, LibraryIndex> libraryIndexes = new HashMap<>();
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private final byte[] token;
+    private HttpServer server;
+    private Path tokenFile;
+
+    /**
+     * @param configMapper mapper used to read job configurations
+     * @param threads      number of jobs run at the same time
+     */
+    public DeobfuscatorDaemon(ObjectMapper configMapper, int threads) {
+        this.configMapper = configMapper;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        StringBuilder token = new StringBuilder();
+        for (byte b : random) {
+            token.append(String.format("%02x", b & 0xFF));
+        }
+        this.token = token.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param tokenFile where to write the token clients must send. The file is replaced, readable by the current user only, and deleted on
+     *                  shutdown.
+     */
+    public void start(int port, File tokenFile) throws IOException {
+        this.tokenFile = tokenFile.toPath();
+        writeToken(this.tokenFile);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        Filter filter = new AccessFilter();
+        for (HttpContext context : Arrays.asList(server.createContext("/jobs", this::handleJobs), server.createContext("/shutdown", this::handleShutdown))) {
+            context.getFilters().add(filter);
+        }
+        server.start();
+        LOGGER.info("Listening on {}, the access token is in {}", server.getAddress(), tokenFile);
+    }
+
+    private void writeToken(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system, restrict the new file as far as java.io allows
+            Files.createFile(file);
+            File f = file.toFile();
+            if (!f.setReadable(false, false) || !f.setReadable(true, true) || !f.setWritable(false, false) || !f.setWritable(true, true)) {
+                LOGGER.warn("Could not restrict access to {}", file);
+            }
+        }
+        Files.write(file, token);
+    }
+
+    public void awaitShutdown() throws InterruptedException {
+        shutdown.await();
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/jobs") || path.equals("/jobs/")) {
+                if (exchange.getRequestMethod().equals("POST")) {
+                    Job job = submit(readBody(exchange.getRequestBody()), parseQuery(exchange.getRequestURI().getRawQuery()));
+                    respond(exchange, 202, job.describe());
+                } else {
+                    List<Map<String, Object>> result = new ArrayList<>();
+                    synchronized (jobs) {
+                        for (Job job : jobs.values()) {
+                            result.add(job.describe());
+                        }
+                    }
+                    respond(exchange, 200, result);
+                }
+                return;
+            }
+            Job job;
+            try {
+                job = jobs.get(Integer.parseInt(path.substring("/jobs/".length())));
+            } catch (NumberFormatException e) {
+                job = null;
+            }
+            if (job == null) {
+                respond(exchange, 404, Collections.singletonMap("error", "No such job"));
+            } else {
+                respond(exchange, 200, job.describe());
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, Collections.singletonMap("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            LOGGER.error("An error occurred while handling a request", e);
+            respond(exchange, 500, Collections.singletonMap("error", String.valueOf(e)));
+        }
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, Collections.singletonMap("error", "Use POST"));
+            return;
+        }
+        respond(exchange, 202, Collections.singletonMap("status", "shutting down"));
+        Thread thread = new Thread(() -> {
+            server.stop(0);
+            workers.shutdown();
+            try {
+                while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.info("Waiting for running jobs to finish");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (libraryIndexes) {
+                for (LibraryIndex libraryIndex : libraryIndexes.values()) {
+                    try {
+                        libraryIndex.close();
+                    } catch (IOException e) {
+                        LOGGER.warn("An error occurred while closing a classpath", e);
+                    }
+                }
+            }
+            try {
+                Files.deleteIfExists(tokenFile);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete the access token file", e);
+            }
+            shutdown.countDown();
+        }, "Deobfuscator daemon shutdown");
+        thread.start();
+    }
+
+    private Job submit(byte[] body, Map<String, String> query) {
+        Configuration configuration;
+        try {
+            configuration = configMapper.readValue(body, Configuration.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not parse the configuration: " + e.getMessage());
+        }
+        if (query.containsKey("input")) {
+            configuration.setInput(new File(query.get("input")));
+        }
+        if (query.containsKey("output")) {
+            configuration.setOutput(new File(query.get("output")));
+        }
+        if (configuration.getInput() == null) {
+            throw new IllegalArgumentException("An input JAR must be specified");
+        }
+        if (!configuration.isDetect()) {
+            if (configuration.getOutput() == null) {
+                throw new IllegalArgumentException("An output JAR must be specified");
+            }
+            if (configuration.getTransformers() == null || configuration.getTransformers().isEmpty()) {
+                throw new IllegalArgumentException("At least one transformer must be specified");
+            }
+        }
+
+        Job job = new Job(nextId.getAndIncrement(), configuration);
+        jobs.put(job.id, job);
+        workers.execute(() -> run(job));
+        return job;
+    }
+
+    private void run(Job job) {
+        job.started = System.currentTimeMillis();
+        job.state = JobState.RUNNING;
+        try {
+            long start = System.nanoTime();
+            LibraryIndex libraryIndex = getLibraryIndex(job.configuration);
+            job.classpathMillis = (System.nanoTime() - start) / 1000000;
+            if (!job.configuration.isDetect()) {
+                DeobfuscatorMain.backupOutput(job.configuration.getOutput(), LOGGER);
+            }
+            Deobfuscator deobfuscator = new Deobfuscator(job.configuration, libraryIndex);
+            job.deobfuscator = deobfuscator;
+            job.exitCode = DeobfuscatorMain.run(deobfuscator);
+            job.state = job.exitCode == 0 ? JobState.SUCCEEDED : JobState.FAILED;
+        } catch (Throwable t) {
+            LOGGER.error("Job " + job.id + " failed", t);
+            job.error = String.valueOf(t);
+            job.state = JobState.FAILED;
+        } finally {
+            // Keep the timings, but not the classes of the finished run
+            Deobfuscator deobfuscator = job.deobfuscator;
+            if (deobfuscator != null) {
+                job.phaseTimings = deobfuscator.getPhaseTimings();
+                job.deobfuscator = null;
+            }
+            job.finished = System.currentTimeMillis();
+            pruneJobs();
+        }
+    }
+
+    /**
+     * Forgets the oldest finished jobs beyond {@link #MAX_FINISHED_JOBS}
+     */
+    private void pruneJobs() {
+        synchronized (jobs) {
+            int finished = 0;
+            for (Job job : jobs.values()) {
+                if (job.finished != 0) {
+                    finished++;
+                }
+            }
+            for (Iterator<Job> it = jobs.values().iterator(); finished > MAX_FINISHED_JOBS && it.hasNext(); ) {
+                if (it.next().finished != 0) {
+                    it.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    private LibraryIndex getLibraryIndex(Configuration configuration) throws IOException {
+        List<Object> key = Arrays.asList(configuration.getPath(), configuration.getLibraries(), configuration.getClasspathCacheSize(),
+                configuration.getLibraryCache());
+        synchronized (libraryIndexes) {
+            LibraryIndex libraryIndex = libraryIndexes.get(key);
+            if (libraryIndex == null) {
+                LOGGER.info("Loading classpath");
+                libraryIndex = Deobfuscator.loadClasspath(configuration);
+                libraryIndexes.put(key, libraryIndex);
+            }
+            return libraryIndex;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> result = new HashMap<>();
+        if (query == null) {
+            return result;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq != -1) {
+                result.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rejects requests without the access token, requests for another host and requests made on behalf of a web page
+     */
+    private class AccessFilter extends Filter {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            String provided = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+            if (host == null || !isLoopbackHost(host) || exchange.getRequestHeaders().containsKey("Origin")) {
+                respond(exchange, 403, Collections.singletonMap("error", "Forbidden"));
+            } else if (provided == null || !MessageDigest.isEqual(token, provided.trim().getBytes(StandardCharsets.US_ASCII))) {
+                respond(exchange, 401, Collections.singletonMap("error", "Missing or wrong " + TOKEN_HEADER + " header"));
+            } else {
+                chain.doFilter(exchange);
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Access token, host and origin check";
+        }
+    }
+
+    private static boolean isLoopbackHost(String host) {
+        host = host.trim().toLowerCase();
+        int colon = host.lastIndexOf(':');
+        if (colon != -1 && host.indexOf(']') < colon) {
+            host = host.substring(0, colon);
+        }
+        return host.equals("localhost") || host.equals("127.0.0.1") || host.equals("[::1]");
+    }
+
+    private enum JobState {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private static class Job {
+        private final int id;
+        private final Configuration configuration;
+        private final long submitted = System.currentTimeMillis();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile long started;
+        private volatile long finished;
+        private volatile long classpathMillis;
+        /**
+         * The run while it is in progress, dropped once it is finished
+         */
+        private volatile Deobfuscator deobfuscator;
+        private volatile Map<String, Long> phaseTimings;
+        private volatile Integer exitCode;
+        private volatile String error;
+
+        private Job(int id, Configuration configuration) {
+            this.id = id;
+            this.configuration = configuration;
+        }
+
+        private Map<String, Object> describe() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("state", state);
+            result.put("input", configuration.getInput().getPath());
+            result.put("output", configuration.getOutput() == null ? null : configuration.getOutput().getPath());
+            result.put("submitted", submitted);
+            result.put("started", started == 0 ? null : started);
+            result.put("finished", finished == 0 ? null : finished);
+            result.put("exitCode", exitCode);
+            result.put("error", error);
+            Map<String, Long> phases = new LinkedHashMap<>();
+            if (started != 0) {
+                phases.put("classpath", classpathMillis);
+            }
+            Deobfuscator deobfuscator = this.deobfuscator;
+            Map<String, Long> phaseTimings = this.phaseTimings;
+            if (phaseTimings != null) {
+                phases.putAll(phaseTimings);
+            } else if (deobfuscator != null) {
+                phases.putAll(deobfuscator.getPhaseTimings());
+            }
+            result.put("phases", phases);
+            return result;
+        }
+    }
+}
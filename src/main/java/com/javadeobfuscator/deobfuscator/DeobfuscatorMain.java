@@ -28,8 +28,22 @@ import org.apache.commons.cli.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.javadeobfuscator.deobfuscator.utils.LibraryIndex;
+
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 public class DeobfuscatorMain {
     public static void main(String[] args) throws ClassNotFoundException {
@@ -41,6 +55,9 @@ public class DeobfuscatorMain {
 
         Options options = new Options();
         options.addOption("c", "config", true, "The configuration file to use");
+        options.addOption("d", "daemon", true, "Run as a daemon accepting jobs on the given localhost port");
+        options.addOption("t", "daemon-threads", true, "The number of jobs the daemon runs at the same time");
+        options.addOption("k", "daemon-token", true, "Where the daemon writes the token clients must send (default: ~/.deobfuscator-daemon.token)");
 
         CommandLineParser cmdlineParser = new DefaultParser();
         CommandLine cmdLine;
@@ -51,15 +68,33 @@ public class DeobfuscatorMain {
             return 1;
         }
 
+        if (cmdLine.hasOption("daemon")) {
+            try {
+                int port = Integer.parseInt(cmdLine.getOptionValue("daemon"));
+                int threads = cmdLine.hasOption("daemon-threads") ? Integer.parseInt(cmdLine.getOptionValue("daemon-threads")) : 1;
+                DeobfuscatorDaemon daemon = new DeobfuscatorDaemon(createMapper(logger), threads);
+                File tokenFile = cmdLine.hasOption("daemon-token") ? new File(cmdLine.getOptionValue("daemon-token"))
+                        : new File(System.getProperty("user.home"), ".deobfuscator-daemon.token");
+                daemon.start(port, tokenFile);
+                daemon.awaitShutdown();
+                return 0;
+            } catch (NumberFormatException e) {
+                logger.error("The daemon port and thread count must be numbers", e);
+                return 1;
+            } catch (IOException e) {
+                logger.error("An error occurred while starting the daemon", e);
+                return 1;
+            } catch (InterruptedException e) {
+                return 1;
+            }
+        }
+
         if (!cmdLine.hasOption("config")) {
             logger.error("A config file must be specified");
             return 2;
         }
 
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
-                .registerModule(
-                        new SimpleModule().addDeserializer(TransformerConfig.class, new TransformerConfigDeserializer(logger))
-                );
+        ObjectMapper mapper = createMapper(logger);
 
         Configuration configuration;
         try {
@@ -69,6 +104,10 @@ public class DeobfuscatorMain {
             return 3;
         }
 
+        if (configuration.hasBatch()) {
+            return runBatch(configuration, logger);
+        }
+
         if (configuration.getInput() == null) {
             logger.error("An input JAR must be specified");
             return 4;
@@ -83,25 +122,154 @@ public class DeobfuscatorMain {
             return 5;
         }
 
-        if (configuration.getOutput().exists()) {
+        backupOutput(configuration.getOutput(), logger);
+
+        if (configuration.getTransformers() == null || configuration.getTransformers().size() == 0) {
+            logger.error("At least one transformer must be specified");
+            return 6;
+        }
+
+        return run(configuration);
+    }
+
+    static ObjectMapper createMapper(Logger logger) {
+        return new ObjectMapper(new YAMLFactory())
+                .registerModule(
+                        new SimpleModule().addDeserializer(TransformerConfig.class, new TransformerConfigDeserializer(logger))
+                );
+    }
+
+    static void backupOutput(File output, Logger logger) {
+        if (output.exists()) {
             logger.warn("The specified output JAR already exists!");
-            File parent = configuration.getOutput().getParentFile();
-            if (!configuration.getOutput().renameTo(new File(parent, configuration.getOutput().getName() + ".bak"))) {
+            File parent = output.getParentFile();
+            if (!output.renameTo(new File(parent, output.getName() + ".bak"))) {
                 logger.warn("I was unable to back up the previous output JAR");
             }
         }
+    }
 
+    /**
+     * Deobfuscates every input of a batch configuration against a single, shared library index.
+     *
+     * @return zero if every input succeeded, else the exit code of the first input that failed
+     */
+    private static int runBatch(Configuration configuration, Logger logger) {
         if (configuration.getTransformers() == null || configuration.getTransformers().size() == 0) {
             logger.error("At least one transformer must be specified");
             return 6;
         }
 
-        return run(configuration);
+        List<Configuration.BatchEntry> entries;
+        try {
+            entries = resolveBatch(configuration);
+        } catch (IOException e) {
+            logger.error("An error occurred while looking for batch inputs", e);
+            return 4;
+        }
+        for (Configuration.BatchEntry entry : entries) {
+            if (entry.getInput() == null || entry.getOutput() == null) {
+                logger.error("Every batch entry needs an input and an output JAR");
+                return 5;
+            }
+            if (!configuration.isDetect()) {
+                backupOutput(entry.getOutput(), logger);
+            }
+        }
+
+        LibraryIndex libraryIndex;
+        try {
+            logger.info("Loading classpath");
+            libraryIndex = Deobfuscator.loadClasspath(configuration);
+        } catch (IOException e) {
+            logger.error("An error occurred while loading the classpath", e);
+            return 3;
+        }
+
+        int threads = Math.max(1, configuration.getBatchThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, entries.size())));
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Configuration.BatchEntry entry : entries) {
+                results.add(executor.submit(() -> {
+                    logger.info("Deobfuscating {}", entry.getInput());
+                    Configuration inputConfiguration = configuration.forInput(entry.getInput(), entry.getOutput());
+                    int result = run(new Deobfuscator(inputConfiguration, libraryIndex));
+                    logger.info("Finished {} with exit code {}", entry.getInput(), result);
+                    return result;
+                }));
+            }
+            int failed = 0;
+            int exitCode = 0;
+            for (Future<Integer> result : results) {
+                int code;
+                try {
+                    code = result.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    logger.error("Batch entry did not complete", e);
+                    code = -1;
+                }
+                if (code != 0) {
+                    failed++;
+                    if (exitCode == 0) {
+                        exitCode = code;
+                    }
+                }
+            }
+            logger.info("Batch finished: {} of {} inputs succeeded", entries.size() - failed, entries.size());
+            return exitCode;
+        } finally {
+            executor.shutdownNow();
+            try {
+                libraryIndex.close();
+            } catch (IOException e) {
+                logger.warn("An error occurred while closing the classpath", e);
+            }
+        }
+    }
+
+    private static List<Configuration.BatchEntry> resolveBatch(Configuration configuration) throws IOException {
+        List<Configuration.BatchEntry> entries = new ArrayList<>();
+        if (configuration.getBatch() != null) {
+            entries.addAll(configuration.getBatch());
+        }
+        if (configuration.getBatchInputs() != null) {
+            if (configuration.getBatchOutput() == null) {
+                throw new IOException("batchOutput must be set when using batchInputs");
+            }
+            String glob = configuration.getBatchInputs().replace('\\', '/');
+            int wildcard = glob.length();
+            for (char c : new char[]{'*', '?', '[', '{'}) {
+                int index = glob.indexOf(c);
+                if (index != -1 && index < wildcard) {
+                    wildcard = index;
+                }
+            }
+            Path base = Paths.get(glob.lastIndexOf('/', wildcard) == -1 ? "." : glob.substring(0, glob.lastIndexOf('/', wildcard) + 1));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            List<Path> matches = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(base)) {
+                files.filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(file) || matcher.matches(base.relativize(file)))
+                        .sorted()
+                        .forEach(matches::add);
+            }
+            for (Path match : matches) {
+                Configuration.BatchEntry entry = new Configuration.BatchEntry();
+                entry.setInput(match.toFile());
+                entry.setOutput(configuration.getBatchOutput().toPath().resolve(base.relativize(match).toString()).toFile());
+                entry.getOutput().getParentFile().mkdirs();
+                entries.add(entry);
+            }
+        }
+        return entries;
     }
 
     private static int run(Configuration configuration) {
-        Deobfuscator deobfuscator = new Deobfuscator(configuration);
+        return run(new Deobfuscator(configuration));
+    }
 
+    static int run(Deobfuscator deobfuscator) {
         try {
             deobfuscator.start();
             return 0;
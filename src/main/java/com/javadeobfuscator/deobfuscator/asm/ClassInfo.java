@@ -0,0 +1,127 @@
+package com.javadeobfuscator.deobfuscator.asm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Header-only view of a class: names, supertypes, access flags and member signatures, but no code.
+ * <p>
+ * This is all the hierarchy code and frame computation need, and is much smaller than a {@link ClassNode}. Strings read from class files are
+ * interned since library classes repeat the same names and descriptors over and over.
+ */
+public class ClassInfo {
+    public final int access;
+    public final String name;
+    public final String superName;
+    public final List<String> interfaces;
+    public final List<Member> fields;
+    public final List<Member> methods;
+
+    public ClassInfo(int access, String name, String superName, List<String> interfaces, List<Member> fields, List<Member> methods) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    /**
+     * Snapshots the header of a class node. Later changes to the node are not reflected.
+     */
+    public static ClassInfo of(ClassNode classNode) {
+        List<Member> fields = new ArrayList<>(classNode.fields.size());
+        for (FieldNode fieldNode : classNode.fields) {
+            fields.add(new Member(fieldNode.access, fieldNode.name, fieldNode.desc));
+        }
+        List<Member> methods = new ArrayList<>(classNode.methods.size());
+        for (MethodNode methodNode : classNode.methods) {
+            methods.add(new Member(methodNode.access, methodNode.name, methodNode.desc));
+        }
+        List<String> interfaces = classNode.interfaces == null ? Collections.emptyList() : new ArrayList<>(classNode.interfaces);
+        return new ClassInfo(classNode.access, classNode.name, classNode.superName, interfaces, fields, methods);
+    }
+
+    /**
+     * Reads the header of a class, skipping all code, debug information and frames.
+     */
+    public static ClassInfo read(ClassReader reader) {
+        Builder builder = new Builder();
+        reader.accept(builder, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return builder.build();
+    }
+
+    private static String intern(String s) {
+        return s == null ? null : s.intern();
+    }
+
+    public static class Member {
+        public final int access;
+        public final String name;
+        public final String desc;
+
+        public Member(int access, String name, String desc) {
+            this.access = access;
+            this.name = name;
+            this.desc = desc;
+        }
+    }
+
+    private static class Builder extends ClassVisitor {
+        private int access;
+        private String name;
+        private String superName;
+        private List<String> interfaces = Collections.emptyList();
+        private final List<Member> fields = new ArrayList<>();
+        private final List<Member> methods = new ArrayList<>();
+
+        private Builder() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.access = access;
+            this.name = intern(name);
+            this.superName = intern(superName);
+            if (interfaces != null && interfaces.length > 0) {
+                String[] interned = new String[interfaces.length];
+                for (int i = 0; i < interfaces.length; i++) {
+                    interned[i] = intern(interfaces[i]);
+                }
+                this.interfaces = Collections.unmodifiableList(Arrays.asList(interned));
+            }
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            fields.add(new Member(access, intern(name), intern(descriptor)));
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            methods.add(new Member(access, intern(name), intern(descriptor)));
+            return null;
+        }
+
+        private ClassInfo build() {
+            return new ClassInfo(access, name, superName, interfaces, trim(fields), trim(methods));
+        }
+
+        private static List<Member> trim(List<Member> members) {
+            return members.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(members));
+        }
+    }
+}
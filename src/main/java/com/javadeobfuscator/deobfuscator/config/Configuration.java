@@ -78,6 +78,97 @@ public class Configuration {
     @JsonProperty
     private boolean deleteUselessClasses;
 
+    /**
+     * Number of worker threads used to parse input classes. Zero or less uses one thread per available processor, one disables parallel loading.
+     */
+    @JsonProperty
+    private int loadThreads;
+
+    /**
+     * Number of worker threads used to serialize output classes. Zero or less uses one thread per available processor, one disables parallel
+     * writing.
+     */
+    @JsonProperty
+    private int writeThreads;
+
+    /**
+     * Maximum number of library classes kept parsed in memory. Library jars are only indexed on startup and their classes are parsed when first
+     * used. Zero or less uses the default.
+     */
+    @JsonProperty
+    private int classpathCacheSize;
+
+    /**
+     * Input classes which no transformer changed are normally copied to the output byte for byte. Enable this to run every class through ASM
+     * again, which recomputes all frames.
+     */
+    @JsonProperty
+    private boolean rewriteUnchangedClasses;
+
+    /**
+     * Directory in which the index and class headers of every path and library jar are cached between runs. Cache files are rebuilt when the
+     * size or modification time of their jar changes. Unset disables the cache.
+     */
+    @JsonProperty
+    private File libraryCache;
+
+    /**
+     * Input/output pairs to deobfuscate in one run instead of {@link #input} and {@link #output}. The path and libraries are loaded once and
+     * shared by all inputs, every other setting applies to each input.
+     */
+    @JsonProperty
+    private List<BatchEntry> batch;
+
+    /**
+     * Glob matching further inputs for a batch run, e.g. {@code plugins/**.jar}. Every match is written to {@link #batchOutput} under its path
+     * relative to the part of the glob before the first wildcard.
+     */
+    @JsonProperty
+    private String batchInputs;
+
+    @JsonProperty
+    private File batchOutput;
+
+    /**
+     * Number of batch inputs deobfuscated at the same time. Zero or less processes them one after another.
+     */
+    @JsonProperty
+    private int batchThreads;
+
+    /**
+     * @return a shallow copy of this configuration for a single input of a batch run
+     */
+    public Configuration forInput(File input, File output) {
+        Configuration copy = new Configuration();
+        copy.input = input;
+        copy.output = output;
+        copy.transformers = transformers;
+        copy.path = path;
+        copy.libraries = libraries;
+        copy.ignoredClasses = ignoredClasses;
+        copy.smartRedo = smartRedo;
+        copy.verify = verify;
+        copy.detect = detect;
+        copy.patchAsm = patchAsm;
+        copy.paramorphism = paramorphism;
+        copy.paramorphismV2 = paramorphismV2;
+        copy.debugRulesAnalyzer = debugRulesAnalyzer;
+        copy.deleteUselessClasses = deleteUselessClasses;
+        copy.loadThreads = loadThreads;
+        copy.writeThreads = writeThreads;
+        copy.classpathCacheSize = classpathCacheSize;
+        copy.rewriteUnchangedClasses = rewriteUnchangedClasses;
+        copy.libraryCache = libraryCache;
+        return copy;
+    }
+
+    /**
+     * @return whether this configuration describes a batch run
+     */
+    public boolean hasBatch() {
+        return batch != null || batchInputs != null;
+    }
+
     public File getInput() {
         return input;
     }
@@ -189,4 +280,100 @@ public class Configuration {
     public void setDeleteUselessClasses(boolean deleteUselessClasses) {
         this.deleteUselessClasses = deleteUselessClasses;
     }
+
+    public int getLoadThreads() {
+        return loadThreads;
+    }
+
+    public void setLoadThreads(int loadThreads) {
+        this.loadThreads = loadThreads;
+    }
+
+    public int getClasspathCacheSize() {
+        return classpathCacheSize;
+    }
+
+    public void setClasspathCacheSize(int classpathCacheSize) {
+        this.classpathCacheSize = classpathCacheSize;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    public boolean isRewriteUnchangedClasses() {
+        return rewriteUnchangedClasses;
+    }
+
+    public void setRewriteUnchangedClasses(boolean rewriteUnchangedClasses) {
+        this.rewriteUnchangedClasses = rewriteUnchangedClasses;
+    }
+
+    public File getLibraryCache() {
+        return libraryCache;
+    }
+
+    public void setLibraryCache(File libraryCache) {
+        this.libraryCache = libraryCache;
+    }
+
+    public List<BatchEntry> getBatch() {
+        return batch;
+    }
+
+    public void setBatch(List<BatchEntry> batch) {
+        this.batch = batch;
+    }
+
+    public String getBatchInputs() {
+        return batchInputs;
+    }
+
+    public void setBatchInputs(String batchInputs) {
+        this.batchInputs = batchInputs;
+    }
+
+    public File getBatchOutput() {
+        return batchOutput;
+    }
+
+    public void setBatchOutput(File batchOutput) {
+        this.batchOutput = batchOutput;
+    }
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+    public static class BatchEntry {
+        @JsonProperty
+        private File input;
+
+        @JsonProperty
+        private File output;
+
+        public File getInput() {
+            return input;
+        }
+
+        public void setInput(File input) {
+            this.input = input;
+        }
+
+        public File getOutput() {
+            return output;
+        }
+
+        public void setOutput(File output) {
+            this.output = output;
+        }
+    }
 }
@@ -37,6 +37,39 @@ public class TransformerConfig {
 
     private List<Consumer<VirtualMachine>> vmModifiers = new ArrayList<>();
 
+    /**
+     * Number of instructions one emulated call may execute before it is aborted. Zero or less means no limit.
+     */
+    private long maxInstructions;
+
+    /**
+     * Number of nested emulated calls after which a call is aborted. Zero or less means no limit.
+     */
+    private int maxCallDepth;
+
+    /**
+     * Milliseconds one emulated call may run before it is aborted. Zero or less means no limit.
+     */
+    private long executionTimeout;
+
+    /**
+     * File to write emulator profiling counters to once the transformer is done, as CSV if it ends in .csv and as JSON otherwise. Profiling
+     * is off if this isn't set.
+     */
+    private String profileOutput;
+
+    /**
+     * Number of times a self-contained decryptor is emulated before it is compiled to run on the JVM.
+     * Zero or less means decryptors are always emulated.
+     */
+    private int compileThreshold;
+
+    /**
+     * Number of threads started by emulated code which may run at once. Zero or less means each one runs to completion when it is started,
+     * which keeps emulation deterministic but hangs on code whose threads wait for each other.
+     */
+    private int emulatorThreads;
+
     public TransformerConfig(Class<? extends Transformer> implementation) {
         this.implementation = implementation;
     }
@@ -53,6 +86,54 @@ public class TransformerConfig {
         this.vmModifiers = vmModifiers;
     }
 
+    public long getMaxInstructions() {
+        return maxInstructions;
+    }
+
+    public void setMaxInstructions(long maxInstructions) {
+        this.maxInstructions = maxInstructions;
+    }
+
+    public int getMaxCallDepth() {
+        return maxCallDepth;
+    }
+
+    public void setMaxCallDepth(int maxCallDepth) {
+        this.maxCallDepth = maxCallDepth;
+    }
+
+    public long getExecutionTimeout() {
+        return executionTimeout;
+    }
+
+    public void setExecutionTimeout(long executionTimeout) {
+        this.executionTimeout = executionTimeout;
+    }
+
+    public String getProfileOutput() {
+        return profileOutput;
+    }
+
+    public void setProfileOutput(String profileOutput) {
+        this.profileOutput = profileOutput;
+    }
+
+    public int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    public void setCompileThreshold(int compileThreshold) {
+        this.compileThreshold = compileThreshold;
+    }
+
+    public int getEmulatorThreads() {
+        return emulatorThreads;
+    }
+
+    public void setEmulatorThreads(int emulatorThreads) {
+        this.emulatorThreads = emulatorThreads;
+    }
+
     public static TransformerConfig configFor(Class<? extends Transformer> implementation) {
         TransformerConfig.ConfigOptions options = implementation.getAnnotation(TransformerConfig.ConfigOptions.class);
         if (options != null) {
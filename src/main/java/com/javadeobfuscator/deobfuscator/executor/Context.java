@@ -1,8 +1,11 @@
 package com.javadeobfuscator.deobfuscator.executor;
 
 import com.javadeobfuscator.deobfuscator.asm.ConstantPool;
+import com.javadeobfuscator.deobfuscator.executor.defined.types.JavaThread;
 import com.javadeobfuscator.deobfuscator.executor.providers.Provider;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaObject;
 import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+import com.javadeobfuscator.deobfuscator.utils.TypeStore;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -11,7 +14,11 @@ import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
-public class Context { //FIXME clinit classes
+/**
+ * Everything one emulation works with. All state of the emulated program lives in the context and its provider, so contexts which don't
+ * share them can run at the same time on different threads: use {@link #fork(Provider)} to create one per worker.
+ */
+public class Context implements AutoCloseable { //FIXME clinit classes
     private final List<StackTraceElement> stackTrace = new ArrayList<>();
 
     public Provider provider;
@@ -20,13 +27,47 @@ public class Context { //FIXME clinit classes
     public Map<AbstractInsnNode, BiFunction<List<JavaValue>, Context, JavaValue>> customMethodFunc = new HashMap<>();
     public ThreadStore threadStore = new ThreadStore();
     public Monitor monitor = new Monitor();
+    /**
+     * The emulated thread this context runs, or null for the thread the emulation was started on
+     */
+    public JavaThread thread;
+    /**
+     * Results of pure method calls, or null to always execute them
+     */
+    public InvocationCache invocationCache;
+    /**
+     * Compiles hot decryptors to run on the JVM, or null to always emulate them
+     */
+    public MethodCompiler compiler;
+    /**
+     * Limits on each execution, or null for none
+     */
+    public ExecutionBudget budget;
+    /**
+     * Counters of what is executed, or null to not profile
+     */
+    public ExecutionProfile profile;
 
     public Set<String> clinit = Collections.synchronizedSet(new HashSet<>());
+    /**
+     * Static state of classes right after their {@code <clinit>}, see {@link StaticSnapshot#initialize}
+     */
+    public Map<String, StaticSnapshot> staticSnapshots = Collections.synchronizedMap(new HashMap<>());
+
+    /**
+     * Element types of arrays and declared types of objects stored in fields, shared by all contexts on the same provider
+     */
+    public TypeStore typeStore;
+    /**
+     * The object returned by the last emulated method, so that the caller can recover its type
+     */
+    JavaObject returnObject;
 
     public File file;
 
     public Context(Provider provider) {
         this.provider = provider;
+        this.typeStore = TypeStore.of(provider);
     }
 
     public Context copyForNewThread() {
@@ -36,13 +77,62 @@ public class Context { //FIXME clinit classes
         threadContext.customMethodFunc = customMethodFunc;
         threadContext.threadStore = threadStore;
         threadContext.monitor = monitor;
+        threadContext.invocationCache = invocationCache;
+        threadContext.compiler = compiler;
+        threadContext.budget = budget == null ? null : budget.copy();
+        threadContext.profile = profile == null ? null : profile.copy();
         threadContext.clinit = clinit;
+        threadContext.staticSnapshots = staticSnapshots;
         threadContext.file = file;
         threadContext.breakpointsBefore = breakpointsBefore;
         threadContext.breakpointsAfter = breakpointsAfter;
         return threadContext;
     }
 
+    /**
+     * Creates a context for emulating on another worker thread, independently of this one. Unlike {@link #copyForNewThread()}, which is for
+     * threads of the emulated program, the fork gets a heap of its own: static and instance fields live in the provider, so every worker
+     * needs its own provider, built the same way as the one of this context. Initialized classes and static snapshots are not carried
+     * over, and field types belong to the new provider.
+     * <p>
+     * The dictionary and constant pools are shared and must not be changed while workers are running. The invocation cache and the compiler,
+     * if any, are shared as well. Budgets and profiles are copied, with profiles sharing their counters.
+     *
+     * <pre>
+     * for (MethodNode decryptor : decryptors) {
+     *     Context context = template.fork(createProvider());
+     *     executor.submit(() -&gt; MethodExecutor.execute(owner, decryptor, args, null, context));
+     * }
+     * </pre>
+     */
+    public Context fork(Provider provider) {
+        Context fork = new Context(provider);
+        fork.dictionary = dictionary;
+        fork.constantPools = constantPools;
+        fork.customMethodFunc = new HashMap<>(customMethodFunc);
+        fork.invocationCache = invocationCache;
+        fork.compiler = compiler;
+        fork.budget = budget == null ? null : budget.copy();
+        fork.profile = profile == null ? null : profile.copy();
+        fork.file = file;
+        fork.breakpointsBefore = new HashMap<>(breakpointsBefore);
+        fork.breakpointsAfter = new HashMap<>(breakpointsAfter);
+        return fork;
+    }
+
+    /**
+     * Releases the state of the emulated program: initialized classes and static snapshots, and stops the threads it started. The context
+     * can still be used, as if no class had been initialized yet. Contexts of threads started by the emulated program share this state and
+     * are affected as well. Field values and their types stay with the provider, which other contexts may be using.
+     */
+    @Override
+    public void close() {
+        threadStore.close();
+        clinit.clear();
+        staticSnapshots.clear();
+        returnObject = null;
+    }
+
     public StackTraceElement at(int index) {
         return stackTrace.get(index);
     }
@@ -81,11 +171,17 @@ public class Context { //FIXME clinit classes
     private Map<AbstractInsnNode, Consumer<BreakpointInfo>> breakpointsBefore = new HashMap<>();
     private Map<AbstractInsnNode, Consumer<BreakpointInfo>> breakpointsAfter = new HashMap<>();
 
+    /**
+     * @return whether any breakpoint is set, so the executor can skip looking up every instruction when there are none
+     */
+    public boolean hasBreakpoints() {
+        return !breakpointsBefore.isEmpty() || !breakpointsAfter.isEmpty();
+    }
+
     public void doBreakpoint(AbstractInsnNode now, boolean before, List<JavaValue> stack, List<JavaValue> locals, Object tothrow) {
-        if (before && breakpointsBefore.containsKey(now)) {
-            breakpointsBefore.get(now).accept(new BreakpointInfo(tothrow, stack, locals));
-        } else if (!before && breakpointsAfter.containsKey(now)) {
-            breakpointsAfter.get(now).accept(new BreakpointInfo(tothrow, stack, locals));
+        Consumer<BreakpointInfo> breakpoint = (before ? breakpointsBefore : breakpointsAfter).get(now);
+        if (breakpoint != null) {
+            breakpoint.accept(new BreakpointInfo(tothrow, stack, locals));
         }
     }
 
@@ -0,0 +1,116 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionBudgetExceededException;
+
+/**
+ * Limits how much work one call into {@link MethodExecutor} may do, so that decryptors which loop forever or try to outlast the emulator
+ * fail instead of stalling the deobfuscator. A budget is set on a {@link Context} and applies to each outermost execution separately:
+ * the instruction count and the deadline start over whenever an execution begins with no other execution of the context in progress.
+ * <p>
+ * Instructions are counted across all nested calls that are emulated. Time spent in methods which are run by the real JVM is included in
+ * the deadline, but such a method can't be interrupted, so the budget is only enforced once it returns.
+ * <p>
+ * A budget belongs to one thread. Contexts created with {@link Context#copyForNewThread()} get a budget of their own with the same limits.
+ */
+public class ExecutionBudget {
+    /**
+     * How many instructions run between looks at the clock
+     */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final long maxInstructions;
+    private final int maxCallDepth;
+    private final long timeoutNanos;
+    private final AtomicLong aborts;
+
+    private long instructions;
+    private int depth;
+    private long deadline;
+
+    /**
+     * @param maxInstructions the number of instructions after which execution is aborted, or zero for no limit
+     * @param maxCallDepth    the number of nested emulated calls after which execution is aborted, or zero for no limit
+     * @param timeoutMillis   the wall-clock milliseconds after which execution is aborted, or zero for no limit
+     * @param aborts          incremented every time an execution is aborted
+     */
+    public ExecutionBudget(long maxInstructions, int maxCallDepth, long timeoutMillis, AtomicLong aborts) {
+        this.maxInstructions = maxInstructions <= 0 ? Long.MAX_VALUE : maxInstructions;
+        this.maxCallDepth = maxCallDepth <= 0 ? Integer.MAX_VALUE : maxCallDepth;
+        this.timeoutNanos = timeoutMillis <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.aborts = aborts;
+    }
+
+    private ExecutionBudget(ExecutionBudget other) {
+        this.maxInstructions = other.maxInstructions;
+        this.maxCallDepth = other.maxCallDepth;
+        this.timeoutNanos = other.timeoutNanos;
+        this.aborts = other.aborts;
+    }
+
+    /**
+     * @return a budget with the same limits and abort counter, for another thread
+     */
+    public ExecutionBudget copy() {
+        return new ExecutionBudget(this);
+    }
+
+    /**
+     * Called when a method starts executing. Must be followed by {@link #exit()} unless it throws.
+     */
+    void enter() {
+        if (depth == 0) {
+            instructions = 0;
+            deadline = System.nanoTime() + timeoutNanos;
+        }
+        if (depth >= maxCallDepth) {
+            throw abort("Exceeded call depth of " + maxCallDepth);
+        }
+        depth++;
+    }
+
+    void exit() {
+        depth--;
+    }
+
+    /**
+     * Called before every instruction that is executed.
+     */
+    void step() {
+        if (++instructions > maxInstructions) {
+            throw abort("Exceeded instruction budget of " + maxInstructions);
+        }
+        if (timeoutNanos != 0 && instructions % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+            throw abort("Exceeded time limit of " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+    }
+
+    /**
+     * @return how many nanoseconds are left until the deadline of the current execution, or {@link Long#MAX_VALUE} if it has none
+     */
+    long remainingNanos() {
+        return timeoutNanos == 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Called while waiting, as no instructions are stepped then.
+     */
+    void checkDeadline() {
+        if (timeoutNanos != 0 && System.nanoTime() - deadline > 0) {
+            throw abort("Exceeded time limit of " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+    }
+
+    private ExecutionBudgetExceededException abort(String message) {
+        if (aborts != null) {
+            aborts.incrementAndGet();
+        }
+        return new ExecutionBudgetExceededException(message);
+    }
+
+    public long getInstructions() {
+        return instructions;
+    }
+}
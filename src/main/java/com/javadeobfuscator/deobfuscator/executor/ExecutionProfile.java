@@ -0,0 +1,205 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.util.Printer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javadeobfuscator.deobfuscator.executor.providers.Provider;
+
+/**
+ * Counts what the emulator spends its time on: instructions executed per opcode, emulated invocations per method, calls and time per
+ * outermost execution, and requests handled per provider. Profiling is enabled by setting {@link Context#profile}; without it the emulator
+ * only pays for a null check per instruction.
+ * <p>
+ * A profile may be shared by several contexts, including ones on other threads as long as each thread uses a copy made with
+ * {@link #copy()}, which shares the counters.
+ */
+public class ExecutionProfile {
+    private final AtomicLongArray opcodes;
+    private final Map<String, LongAdder> invocations;
+    private final Map<String, Timing> executions;
+    private final Map<String, LongAdder> dispatches;
+
+    private int depth;
+    private long start;
+
+    public ExecutionProfile() {
+        this.opcodes = new AtomicLongArray(256);
+        this.invocations = new ConcurrentHashMap<>();
+        this.executions = new ConcurrentHashMap<>();
+        this.dispatches = new ConcurrentHashMap<>();
+    }
+
+    private ExecutionProfile(ExecutionProfile other) {
+        this.opcodes = other.opcodes;
+        this.invocations = other.invocations;
+        this.executions = other.executions;
+        this.dispatches = other.dispatches;
+    }
+
+    /**
+     * @return a profile sharing the counters of this one, for another thread
+     */
+    public ExecutionProfile copy() {
+        return new ExecutionProfile(this);
+    }
+
+    void instruction(int opcode) {
+        if (opcode >= 0) {
+            opcodes.incrementAndGet(opcode);
+        }
+    }
+
+    void invoked(ClassNode classNode, MethodNode method) {
+        invocations.computeIfAbsent(classNode.name + "." + method.name + method.desc, k -> new LongAdder()).increment();
+    }
+
+    void enter() {
+        if (depth++ == 0) {
+            start = System.nanoTime();
+        }
+    }
+
+    void exit(ClassNode classNode, MethodNode method) {
+        if (--depth == 0) {
+            executions.computeIfAbsent(classNode.name + "." + method.name + method.desc, k -> new Timing()).add(System.nanoTime() - start);
+        }
+    }
+
+    public void dispatched(Provider provider) {
+        dispatches.computeIfAbsent(provider.getClass().getName(), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Writes the counters to the file, as CSV if its name ends in {@code .csv} and as JSON otherwise.
+     */
+    public void write(File file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (file.getName().endsWith(".csv")) {
+                writeCsv(writer);
+            } else {
+                writeJson(writer);
+            }
+        }
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("opcodes", sorted(opcodeCounts()));
+        json.put("invocations", sorted(counts(invocations)));
+        Map<String, Object> timings = new LinkedHashMap<>();
+        for (Map.Entry<String, Timing> entry : sortedTimings()) {
+            Map<String, Long> timing = new LinkedHashMap<>();
+            timing.put("count", entry.getValue().count);
+            timing.put("totalNanos", entry.getValue().totalNanos);
+            timing.put("maxNanos", entry.getValue().maxNanos);
+            timings.put(entry.getKey(), timing);
+        }
+        json.put("executions", timings);
+        json.put("dispatches", sorted(counts(dispatches)));
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(writer, json);
+    }
+
+    public void writeCsv(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("section,key,count,totalNanos,maxNanos");
+        for (Map.Entry<String, Long> entry : sorted(opcodeCounts()).entrySet()) {
+            out.println("opcode," + quote(entry.getKey()) + "," + entry.getValue() + ",,");
+        }
+        for (Map.Entry<String, Long> entry : sorted(counts(invocations)).entrySet()) {
+            out.println("invocation," + quote(entry.getKey()) + "," + entry.getValue() + ",,");
+        }
+        for (Map.Entry<String, Timing> entry : sortedTimings()) {
+            Timing timing = entry.getValue();
+            out.println("execution," + quote(entry.getKey()) + "," + timing.count + "," + timing.totalNanos + "," + timing.maxNanos);
+        }
+        for (Map.Entry<String, Long> entry : sorted(counts(dispatches)).entrySet()) {
+            out.println("dispatch," + quote(entry.getKey()) + "," + entry.getValue() + ",,");
+        }
+        out.flush();
+    }
+
+    private Map<String, Long> opcodeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int opcode = 0; opcode < opcodes.length(); opcode++) {
+            long count = opcodes.get(opcode);
+            if (count > 0) {
+                counts.put(opcode < Printer.OPCODES.length ? Printer.OPCODES[opcode] : String.valueOf(opcode), count);
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : adders.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * @return the counts, highest first
+     */
+    private static Map<String, Long> sorted(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    /**
+     * @return snapshots of the timings, most total time first
+     */
+    private List<Map.Entry<String, Timing>> sortedTimings() {
+        List<Map.Entry<String, Timing>> entries = new ArrayList<>();
+        for (Map.Entry<String, Timing> entry : executions.entrySet()) {
+            entries.add(new SimpleEntry<>(entry.getKey(), entry.getValue().snapshot()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        return entries;
+    }
+
+    private static String quote(String key) {
+        return "\"" + key.replace("\"", "\"\"") + "\"";
+    }
+
+    private static class Timing {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private synchronized void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        private synchronized Timing snapshot() {
+            Timing timing = new Timing();
+            timing.count = count;
+            timing.totalNanos = totalNanos;
+            timing.maxNanos = maxNanos;
+            return timing;
+        }
+    }
+}
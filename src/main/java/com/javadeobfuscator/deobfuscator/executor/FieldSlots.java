@@ -0,0 +1,214 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage for the values of emulated fields. A field is resolved once to a slot, after which its static value lives in an array owned by
+ * its class and its value in an object lives in an array owned by that object. Objects are told apart by identity, so that distinct
+ * objects which happen to be equal, such as two strings with the same contents, don't share their fields. Objects are only weakly
+ * referenced, so the fields of objects the emulated program no longer uses are released with them.
+ * <p>
+ * Fields are looked up by owner, then name, then descriptor, so resolving one never builds a combined key. The emulator passes the same
+ * string instances every time an instruction runs, which makes this a few lookups on cached hash codes.
+ * <p>
+ * This class is not synchronized.
+ */
+public class FieldSlots<T> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Map<String, Owner> owners = new HashMap<>();
+    private final ObjectTable objects = new ObjectTable();
+    private int instanceSlots;
+
+    @SuppressWarnings("unchecked")
+    public T getStatic(String owner, String name, String desc) {
+        Owner fields = owners.get(owner);
+        Slot slot = fields == null ? null : fields.find(name, desc);
+        if (slot == null || slot.staticIndex < 0) {
+            return null;
+        }
+        return (T) fields.statics[slot.staticIndex];
+    }
+
+    public void setStatic(String owner, String name, String desc, T value) {
+        Owner fields = owners.computeIfAbsent(owner, k -> new Owner());
+        Slot slot = fields.resolve(name, desc);
+        if (slot.staticIndex < 0) {
+            slot.staticIndex = fields.staticSlots++;
+            if (fields.statics.length < fields.staticSlots) {
+                fields.statics = Arrays.copyOf(fields.statics, Math.max(4, fields.staticSlots * 2));
+            }
+        }
+        fields.statics[slot.staticIndex] = value;
+    }
+
+    /**
+     * @param target the object whose field is read, compared by identity
+     */
+    @SuppressWarnings("unchecked")
+    public T getInstance(String owner, String name, String desc, Object target) {
+        Object[] values = objects.get(target);
+        if (values == null) {
+            return null;
+        }
+        Owner fields = owners.get(owner);
+        Slot slot = fields == null ? null : fields.find(name, desc);
+        if (slot == null || slot.instanceIndex < 0 || slot.instanceIndex >= values.length) {
+            return null;
+        }
+        return (T) values[slot.instanceIndex];
+    }
+
+    /**
+     * @param target the object whose field is written, compared by identity
+     */
+    public void setInstance(String owner, String name, String desc, Object target, T value) {
+        Slot slot = owners.computeIfAbsent(owner, k -> new Owner()).resolve(name, desc);
+        if (slot.instanceIndex < 0) {
+            slot.instanceIndex = instanceSlots++;
+        }
+        Object[] values = objects.get(target);
+        if (values == null || values.length <= slot.instanceIndex) {
+            // Objects are sized for the slots known so far, as most are created after the fields of their class were first used
+            values = values == null ? new Object[instanceSlots] : Arrays.copyOf(values, Math.max(instanceSlots, values.length * 2));
+            objects.put(target, values);
+        }
+        values[slot.instanceIndex] = value;
+    }
+
+    public void clear() {
+        owners.clear();
+        objects.clear();
+        instanceSlots = 0;
+    }
+
+    /**
+     * Slot arrays by object, compared by identity and weakly referenced
+     */
+    private static class ObjectTable {
+        private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        private ObjectEntry[] table = new ObjectEntry[16];
+        private int size;
+        private Object[] nullValues;
+
+        private Object[] get(Object key) {
+            expunge();
+            if (key == null) {
+                return nullValues;
+            }
+            int hash = System.identityHashCode(key);
+            for (ObjectEntry entry = table[hash & (table.length - 1)]; entry != null; entry = entry.next) {
+                if (entry.get() == key) {
+                    return entry.values;
+                }
+            }
+            return null;
+        }
+
+        private void put(Object key, Object[] values) {
+            expunge();
+            if (key == null) {
+                nullValues = values;
+                return;
+            }
+            int hash = System.identityHashCode(key);
+            int index = hash & (table.length - 1);
+            for (ObjectEntry entry = table[index]; entry != null; entry = entry.next) {
+                if (entry.get() == key) {
+                    entry.values = values;
+                    return;
+                }
+            }
+            table[index] = new ObjectEntry(key, hash, values, table[index], queue);
+            if (++size > table.length * 3 / 4) {
+                resize();
+            }
+        }
+
+        private void resize() {
+            ObjectEntry[] old = table;
+            table = new ObjectEntry[old.length * 2];
+            for (ObjectEntry head : old) {
+                for (ObjectEntry entry = head; entry != null; ) {
+                    ObjectEntry next = entry.next;
+                    int index = entry.hash & (table.length - 1);
+                    entry.next = table[index];
+                    table[index] = entry;
+                    entry = next;
+                }
+            }
+        }
+
+        /**
+         * Removes the entries of objects which have been collected
+         */
+        private void expunge() {
+            Reference<?> reference;
+            while ((reference = queue.poll()) != null) {
+                ObjectEntry stale = (ObjectEntry) reference;
+                int index = stale.hash & (table.length - 1);
+                ObjectEntry previous = null;
+                for (ObjectEntry entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                    if (entry == stale) {
+                        if (previous == null) {
+                            table[index] = entry.next;
+                        } else {
+                            previous.next = entry.next;
+                        }
+                        size--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void clear() {
+            while (queue.poll() != null) {
+            }
+            table = new ObjectEntry[16];
+            size = 0;
+            nullValues = null;
+        }
+    }
+
+    private static class ObjectEntry extends WeakReference<Object> {
+        private final int hash;
+        private Object[] values;
+        private ObjectEntry next;
+
+        private ObjectEntry(Object key, int hash, Object[] values, ObjectEntry next, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = hash;
+            this.values = values;
+            this.next = next;
+        }
+    }
+
+    private static class Owner {
+        /**
+         * Slots by name and then descriptor
+         */
+        private final Map<String, Map<String, Slot>> slots = new HashMap<>();
+        private Object[] statics = EMPTY;
+        private int staticSlots;
+
+        private Slot find(String name, String desc) {
+            Map<String, Slot> byDesc = slots.get(name);
+            return byDesc == null ? null : byDesc.get(desc);
+        }
+
+        private Slot resolve(String name, String desc) {
+            return slots.computeIfAbsent(name, k -> new HashMap<>()).computeIfAbsent(desc, k -> new Slot());
+        }
+    }
+
+    private static class Slot {
+        private int staticIndex = -1;
+        private int instanceIndex = -1;
+    }
+}
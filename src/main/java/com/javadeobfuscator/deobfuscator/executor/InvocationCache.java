@@ -0,0 +1,426 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.SourceInterpreter;
+import org.objectweb.asm.tree.analysis.SourceValue;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+/**
+ * Remembers what pure static methods returned for a given set of constant arguments, so that decryptors called with the same key from many
+ * call sites are only emulated once. Results are keyed by owner, name, descriptor and argument values.
+ * <p>
+ * Only methods which are known to be pure are cached. A method is pure if it was passed to {@link #markPure(MethodNode)}, or, if heuristic
+ * detection is enabled, if neither it nor anything outside the JDK it calls in the dictionary
+ * <ul>
+ * <li>writes a static field or an object field,</li>
+ * <li>reads a static field which is written outside of {@code <clinit>}, or holds an array which is stored into outside of it,</li>
+ * <li>looks at the stack trace or the current thread, or uses time, randomness or identity hash codes,</li>
+ * <li>uses invokedynamic.</li>
+ * </ul>
+ * Other stores into arrays are allowed. A decryptor which memoizes its results in a static array of its class is therefore only cached if it
+ * is marked pure. Only calls whose arguments are all primitives, strings or null are cached, and a method which is changed after it was
+ * cached is executed again.
+ * <p>
+ * A cache is enabled by setting {@link Context#invocationCache}, and is shared by contexts created with {@link Context#copyForNewThread()}.
+ */
+public class InvocationCache {
+
+    private static final Set<String> IMPURE_CALLS = new HashSet<>(Arrays.asList(
+            "java/lang/Thread.currentThread",
+            "java/lang/System.currentTimeMillis",
+            "java/lang/System.nanoTime",
+            "java/lang/System.identityHashCode",
+            "java/lang/Object.hashCode",
+            "java/lang/Object.toString",
+            "java/lang/Math.random",
+            "java/lang/StrictMath.random"
+    ));
+    private static final Set<String> IMPURE_OWNERS = new HashSet<>(Arrays.asList(
+            "java/lang/Thread",
+            "java/util/Random",
+            "java/util/concurrent/ThreadLocalRandom",
+            "java/security/SecureRandom"
+    ));
+
+    private final boolean detectPure;
+    private final Set<MethodNode> markedPure = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Map<MethodNode, Boolean> purity = new IdentityHashMap<>();
+    private final List<MethodNode> checking = new ArrayList<>();
+    private final Map<ClassNode, Set<String>> mutableStatics = new IdentityHashMap<>();
+    private final Map<Key, Entry> results = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param detectPure whether methods which weren't marked pure should be checked with the purity heuristic
+     */
+    public InvocationCache(boolean detectPure) {
+        this.detectPure = detectPure;
+    }
+
+    /**
+     * Marks a method as safe to cache, whatever the heuristic would say about it.
+     */
+    public void markPure(MethodNode method) {
+        markedPure.add(method);
+    }
+
+    /**
+     * Returns the cached result of the call if there is one, otherwise executes it and caches the result if the call can be cached.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T invoke(ClassNode classNode, MethodNode method, PreparedMethod prepared, List<JavaValue> args, Context context, Supplier<T> execute) {
+        Key key = keyFor(classNode, method, args, context);
+        if (key == null) {
+            return execute.get();
+        }
+        Entry entry = results.get(key);
+        if (entry != null && entry.prepared == prepared) {
+            hits.incrementAndGet();
+            return (T) copy(entry.result);
+        }
+        misses.incrementAndGet();
+        T result = execute.get();
+        results.put(key, new Entry(prepared, copy(result)));
+        return result;
+    }
+
+    private Key keyFor(ClassNode classNode, MethodNode method, List<JavaValue> args, Context context) {
+        if (!Modifier.isStatic(method.access) || method.name.startsWith("<") || !isPure(method, classNode, context)) {
+            return null;
+        }
+        Object[] values = new Object[args == null ? 0 : args.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = args.get(i).value();
+            if (value != null && !(value instanceof Number) && !(value instanceof Character) && !(value instanceof Boolean)
+                    && !(value instanceof String)) {
+                return null;
+            }
+            values[i] = value;
+        }
+        return new Key(classNode.name, method.name, method.desc, values);
+    }
+
+    private boolean isPure(MethodNode method, ClassNode owner, Context context) {
+        if (markedPure.contains(method)) {
+            return true;
+        }
+        if (!detectPure) {
+            return false;
+        }
+        synchronized (purity) {
+            boolean pure = checkPure(method, owner, context);
+            if (!pure) {
+                // Anything found pure on the way may have relied on an impure method in a cycle being assumed pure
+                for (MethodNode checked : checking) {
+                    if (purity.get(checked) == Boolean.TRUE) {
+                        purity.remove(checked);
+                    }
+                }
+            }
+            checking.clear();
+            return pure;
+        }
+    }
+
+    private boolean checkPure(MethodNode method, ClassNode owner, Context context) {
+        Boolean known = purity.get(method);
+        if (known != null) {
+            return known;
+        }
+        if (markedPure.contains(method)) {
+            return true;
+        }
+        // Assume recursive calls are pure while this method is being checked
+        purity.put(method, Boolean.TRUE);
+        checking.add(method);
+        boolean pure = scan(method, owner, context);
+        purity.put(method, pure);
+        return pure;
+    }
+
+    private boolean scan(MethodNode method, ClassNode owner, Context context) {
+        if (method.instructions.size() == 0) {
+            return false;
+        }
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            switch (insn.getOpcode()) {
+                case Opcodes.PUTSTATIC:
+                case Opcodes.PUTFIELD:
+                case Opcodes.INVOKEDYNAMIC:
+                    return false;
+                case Opcodes.GETSTATIC: {
+                    FieldInsnNode fieldInsn = (FieldInsnNode) insn;
+                    ClassNode fieldOwner = context.dictionary == null ? null : context.dictionary.get(fieldInsn.owner);
+                    if (fieldOwner != null && getMutableStatics(fieldOwner).contains(fieldInsn.name + fieldInsn.desc)) {
+                        return false;
+                    }
+                    break;
+                }
+                case Opcodes.INVOKEVIRTUAL:
+                case Opcodes.INVOKESPECIAL:
+                case Opcodes.INVOKESTATIC:
+                case Opcodes.INVOKEINTERFACE: {
+                    MethodInsnNode methodInsn = (MethodInsnNode) insn;
+                    if (methodInsn.name.equals("getStackTrace") || IMPURE_OWNERS.contains(methodInsn.owner)
+                            || IMPURE_CALLS.contains(methodInsn.owner + "." + methodInsn.name)) {
+                        return false;
+                    }
+                    if (isJdk(methodInsn.owner)) {
+                        break;
+                    }
+                    ClassNode calleeOwner = context.dictionary == null ? null : context.dictionary.get(methodInsn.owner);
+                    while (calleeOwner != null) {
+                        MethodNode callee = findMethod(calleeOwner, methodInsn.name, methodInsn.desc);
+                        if (callee != null) {
+                            if (!checkPure(callee, calleeOwner, context)) {
+                                return false;
+                            }
+                            break;
+                        }
+                        calleeOwner = calleeOwner.superName == null || isJdk(calleeOwner.superName) ? null
+                                : context.dictionary.get(calleeOwner.superName);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the static fields of the class which are written, or whose arrays are stored into, outside of its {@code <clinit>}, as name
+     * followed by descriptor
+     */
+    private Set<String> getMutableStatics(ClassNode classNode) {
+        Set<String> fields = mutableStatics.get(classNode);
+        if (fields == null) {
+            fields = new HashSet<>();
+            for (MethodNode method : classNode.methods) {
+                if (method.name.equals("<clinit>")) {
+                    continue;
+                }
+                boolean readsArray = false;
+                boolean storesArray = false;
+                for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                    if (insn.getOpcode() == Opcodes.PUTSTATIC && ((FieldInsnNode) insn).owner.equals(classNode.name)) {
+                        fields.add(((FieldInsnNode) insn).name + ((FieldInsnNode) insn).desc);
+                    } else if (insn.getOpcode() == Opcodes.GETSTATIC && ((FieldInsnNode) insn).owner.equals(classNode.name)
+                            && ((FieldInsnNode) insn).desc.startsWith("[")) {
+                        readsArray = true;
+                    } else if (insn.getOpcode() >= Opcodes.IASTORE && insn.getOpcode() <= Opcodes.SASTORE) {
+                        storesArray = true;
+                    }
+                }
+                if (readsArray && storesArray) {
+                    addStoredStatics(classNode, method, fields);
+                }
+            }
+            mutableStatics.put(classNode, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Adds the static array fields of the class which the method stores into, directly or through nested arrays. If the method can't be
+     * analyzed, every static array field it reads is assumed to be stored into.
+     */
+    private static void addStoredStatics(ClassNode classNode, MethodNode method, Set<String> fields) {
+        Frame<SourceValue>[] frames;
+        try {
+            frames = new Analyzer<>(new SourceInterpreter()).analyze(classNode.name, method);
+        } catch (AnalyzerException | RuntimeException e) {
+            for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                if (insn.getOpcode() == Opcodes.GETSTATIC && ((FieldInsnNode) insn).owner.equals(classNode.name)
+                        && ((FieldInsnNode) insn).desc.startsWith("[")) {
+                    fields.add(((FieldInsnNode) insn).name + ((FieldInsnNode) insn).desc);
+                }
+            }
+            return;
+        }
+        Set<AbstractInsnNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            Frame<SourceValue> frame = frames[method.instructions.indexOf(insn)];
+            if (frame != null && insn.getOpcode() >= Opcodes.IASTORE && insn.getOpcode() <= Opcodes.SASTORE) {
+                // Long and double values take a single stack entry in a frame
+                addSources(classNode, method, frames, frame.getStack(frame.getStackSize() - 3), fields, visited);
+            }
+        }
+    }
+
+    /**
+     * Follows a value back through locals, stack copies, casts and array loads to the static fields of the class it was read from
+     */
+    private static void addSources(ClassNode classNode, MethodNode method, Frame<SourceValue>[] frames, SourceValue value, Set<String> fields,
+                                   Set<AbstractInsnNode> visited) {
+        for (AbstractInsnNode source : value.insns) {
+            if (!visited.add(source)) {
+                continue;
+            }
+            Frame<SourceValue> frame = frames[method.instructions.indexOf(source)];
+            if (frame == null) {
+                continue;
+            }
+            switch (source.getOpcode()) {
+                case Opcodes.GETSTATIC:
+                    if (((FieldInsnNode) source).owner.equals(classNode.name)) {
+                        fields.add(((FieldInsnNode) source).name + ((FieldInsnNode) source).desc);
+                    }
+                    break;
+                case Opcodes.ALOAD:
+                    addSources(classNode, method, frames, frame.getLocal(((VarInsnNode) source).var), fields, visited);
+                    break;
+                case Opcodes.AALOAD:
+                    addSources(classNode, method, frames, frame.getStack(frame.getStackSize() - 2), fields, visited);
+                    break;
+                case Opcodes.ASTORE:
+                case Opcodes.CHECKCAST:
+                case Opcodes.DUP:
+                    addStackSources(classNode, method, frames, frame, 1, fields, visited);
+                    break;
+                // Every value these push is recorded as coming from the instruction, so follow everything they may have copied
+                case Opcodes.DUP_X1:
+                case Opcodes.DUP2:
+                case Opcodes.SWAP:
+                    addStackSources(classNode, method, frames, frame, 2, fields, visited);
+                    break;
+                case Opcodes.DUP_X2:
+                case Opcodes.DUP2_X1:
+                    addStackSources(classNode, method, frames, frame, 3, fields, visited);
+                    break;
+                case Opcodes.DUP2_X2:
+                    addStackSources(classNode, method, frames, frame, 4, fields, visited);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void addStackSources(ClassNode classNode, MethodNode method, Frame<SourceValue>[] frames, Frame<SourceValue> frame, int count,
+                                        Set<String> fields, Set<AbstractInsnNode> visited) {
+        for (int i = Math.max(0, frame.getStackSize() - count); i < frame.getStackSize(); i++) {
+            addSources(classNode, method, frames, frame.getStack(i), fields, visited);
+        }
+    }
+
+    /**
+     * JDK methods are judged by the list of impure calls alone rather than scanned, as they are run by the real JVM or emulated through
+     * their public behaviour.
+     */
+    private static boolean isJdk(String owner) {
+        return owner.startsWith("java/") || owner.startsWith("javax/") || owner.startsWith("sun/") || owner.startsWith("jdk/");
+    }
+
+    private static MethodNode findMethod(ClassNode classNode, String name, String desc) {
+        for (MethodNode method : classNode.methods) {
+            if (method.name.equals(name) && method.desc.equals(desc)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Arrays are copied both ways, so that neither the caller nor the emulated code can change a cached result.
+     */
+    private static Object copy(Object result) {
+        if (result != null && result.getClass().isArray()) {
+            int length = Array.getLength(result);
+            Object copy = Array.newInstance(result.getClass().getComponentType(), length);
+            System.arraycopy(result, 0, copy, 0, length);
+            return copy;
+        }
+        return result;
+    }
+
+    /**
+     * Drops all cached results. Purity is still remembered.
+     */
+    public void clear() {
+        results.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return hits + " hits, " + getMisses() + " misses (" + (total == 0 ? 0 : hits * 100 / total) + "% hit rate), " + results.size()
+                + " results cached";
+    }
+
+    private static class Key {
+        private final String owner;
+        private final String name;
+        private final String desc;
+        private final Object[] args;
+        private final int hash;
+
+        private Key(String owner, String name, String desc, Object[] args) {
+            this.owner = owner;
+            this.name = name;
+            this.desc = desc;
+            this.args = args;
+            this.hash = ((owner.hashCode() * 31 + name.hashCode()) * 31 + desc.hashCode()) * 31 + Arrays.hashCode(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && owner.equals(other.owner) && name.equals(other.name) && desc.equals(other.desc)
+                    && Arrays.equals(args, other.args);
+        }
+    }
+
+    private static class Entry {
+        private final PreparedMethod prepared;
+        private final Object result;
+
+        private Entry(PreparedMethod prepared, Object result) {
+            this.prepared = prepared;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+/**
+ * Local variables of an executing method, backed by an array sized from the method's max locals. Unset slots are null.
+ * <p>
+ * Obfuscated methods sometimes lie about their max locals, so reading past the end returns null and writing past the end grows the array.
+ */
+public class LocalVariables extends AbstractList<JavaValue> {
+    private JavaValue[] values;
+
+    public LocalVariables(int size) {
+        this.values = new JavaValue[size];
+    }
+
+    @Override
+    public JavaValue get(int index) {
+        return index < values.length ? values[index] : null;
+    }
+
+    @Override
+    public JavaValue set(int index, JavaValue value) {
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, Math.max(index + 1, values.length * 2));
+        }
+        JavaValue previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
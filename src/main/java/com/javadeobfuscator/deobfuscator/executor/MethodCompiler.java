@@ -0,0 +1,588 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.security.CodeSource;
+import java.security.Permissions;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.MethodRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
+import com.javadeobfuscator.deobfuscator.executor.providers.Provider;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+import com.javadeobfuscator.deobfuscator.utils.Utils;
+
+/**
+ * Runs hot decryptors on the real JVM instead of emulating them. Once a static method has been emulated a number of times, it is checked
+ * against a whitelist: it may only
+ * <ul>
+ * <li>take and return primitives, strings and arrays of primitives,</li>
+ * <li>call pure methods of strings, string builders, boxes and {@code Math}, {@code System.arraycopy} and static methods of its own class
+ * which pass this check too,</li>
+ * <li>create, check and catch those types and common runtime exceptions,</li>
+ * <li>read static fields of its own class which are only written in {@code <clinit>}.</li>
+ * </ul>
+ * A method which passes is copied, with the methods it calls, into a class of its own, which is defined by a class loader that only sees
+ * the JDK and grants no permissions. Each provider gets its own copy of the class, as the static fields the method reads are copied into
+ * it: before every call, they are set to the values the provider of the calling context holds, if those changed. Arrays are shared rather
+ * than copied. The method is then called through a method handle.
+ * <p>
+ * Methods which fail the check, which the JVM refuses to verify, or whose context sets breakpoints or custom handlers on their instructions
+ * keep being emulated, as are calls made while the {@code <clinit>} of the class is running. Contexts with an {@link ExecutionBudget} never
+ * compile, as compiled code can't be held to it. An exception thrown by a compiled call is thrown to the caller, as it would have been by the
+ * emulated method; the call isn't emulated again, as the compiled one may already have changed the arrays it was given.
+ * <p>
+ * Methods and classes are only referenced weakly. Compiling is enabled by setting {@link Context#compiler}, and is shared by contexts
+ * created with {@link Context#copyForNewThread()} or {@link Context#fork(Provider)}.
+ */
+public class MethodCompiler {
+    /**
+     * Returned by {@link #invoke} when the method has to be emulated
+     */
+    static final Object NOT_COMPILED = new Object();
+
+    private static final String COMPILED_NAME = "Compiled";
+
+    private static final Set<String> OWNERS = new HashSet<>(Arrays.asList(
+            "java/lang/String",
+            "java/lang/StringBuilder",
+            "java/lang/StringBuffer",
+            "java/lang/CharSequence",
+            "java/lang/Math",
+            "java/lang/StrictMath",
+            "java/lang/Integer",
+            "java/lang/Long",
+            "java/lang/Short",
+            "java/lang/Byte",
+            "java/lang/Character",
+            "java/lang/Boolean",
+            "java/lang/Float",
+            "java/lang/Double",
+            "java/util/Arrays"
+    ));
+    private static final Set<String> DENIED_NAMES = new HashSet<>(Arrays.asList(
+            "getClass",
+            "wait",
+            "notify",
+            "notifyAll",
+            "random",
+            "getInteger",
+            "getLong",
+            "getBoolean"
+    ));
+    private static final Set<String> CALLS = new HashSet<>(Arrays.asList(
+            "java/lang/System.arraycopy(Ljava/lang/Object;ILjava/lang/Object;II)V"
+    ));
+    private static final Set<String> THROWABLES = new HashSet<>(Arrays.asList(
+            "java/lang/Throwable",
+            "java/lang/Exception",
+            "java/lang/RuntimeException",
+            "java/lang/Error",
+            "java/lang/ArithmeticException",
+            "java/lang/ArrayIndexOutOfBoundsException",
+            "java/lang/StringIndexOutOfBoundsException",
+            "java/lang/IndexOutOfBoundsException",
+            "java/lang/NegativeArraySizeException",
+            "java/lang/NullPointerException",
+            "java/lang/ClassCastException",
+            "java/lang/IllegalArgumentException",
+            "java/lang/IllegalStateException",
+            "java/lang/NumberFormatException"
+    ));
+
+    private final int threshold;
+    private final Map<MethodNode, Entry> entries = new MapMaker().weakKeys().makeMap();
+    private final Map<ClassNode, Set<String>> mutableStatics = new MapMaker().weakKeys().makeMap();
+    private final AtomicLong compiled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param threshold how many times a method is emulated before it is compiled
+     */
+    public MethodCompiler(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Calls the compiled method, compiling it if it has become hot.
+     *
+     * @return what the method returned, boxed the way the emulator would have returned it, or {@link #NOT_COMPILED}
+     */
+    Object invoke(ClassNode classNode, MethodNode method, PreparedMethod prepared, List<JavaValue> args, Context context) {
+        if (!Modifier.isStatic(method.access) || method.name.startsWith("<") || context.budget != null || context.hasBreakpoints()) {
+            return NOT_COMPILED;
+        }
+        Entry entry = entries.get(method);
+        if (entry == null || entry.prepared != prepared) {
+            entry = new Entry(prepared, method.desc);
+            entries.put(method, entry);
+        }
+        Program program = entry.program;
+        if (program == null) {
+            if (entry.rejected || entry.calls.incrementAndGet() < threshold || isInitializing(classNode, context)) {
+                return NOT_COMPILED;
+            }
+            synchronized (entry) {
+                if (entry.program == null && !entry.rejected) {
+                    entry.program = compile(classNode, method, context);
+                    entry.rejected = entry.program == null;
+                    (entry.rejected ? rejected : compiled).incrementAndGet();
+                }
+                program = entry.program;
+            }
+            if (program == null) {
+                return NOT_COMPILED;
+            }
+        }
+        Linked linked = program.linked.get(context.provider);
+        if (linked == null) {
+            linked = program.link();
+            if (linked == null) {
+                return NOT_COMPILED;
+            }
+            program.linked.put(context.provider, linked);
+        }
+        Type[] types = entry.argumentTypes;
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = toArgument(args.get(i), types[i]);
+        }
+        try {
+            linked.seed(program, classNode, context);
+        } catch (Throwable t) {
+            return NOT_COMPILED;
+        }
+        Object result;
+        try {
+            result = (Object) linked.handle.invokeExact(values);
+        } catch (Throwable t) {
+            Utils.sneakyThrow(t);
+            return null;
+        }
+        return entry.returnsVoid ? Optional.absent() : result;
+    }
+
+    /**
+     * @return whether the {@code <clinit>} of the class is being emulated by the context, in which case its static fields may not hold their
+     * final values yet
+     */
+    private static boolean isInitializing(ClassNode classNode, Context context) {
+        String name = classNode.name.replace('/', '.');
+        for (int i = 0; i < context.size(); i++) {
+            StackTraceElement element = context.at(i);
+            if (element.getMethodName().equals("<clinit>") && element.getClassName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getCompiled() {
+        return compiled.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the compiled class, linked once for the provider of the context to make sure the JVM accepts it, or null if the method can't
+     * be compiled
+     */
+    private Program compile(ClassNode classNode, MethodNode method, Context context) {
+        Set<MethodNode> methods = new LinkedHashSet<>();
+        Set<FieldNode> fields = new LinkedHashSet<>();
+        if (!collect(classNode, method, methods, fields, context)) {
+            return null;
+        }
+        ClassNode compiledNode = new ClassNode();
+        compiledNode.version = Opcodes.V1_8;
+        compiledNode.access = Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER;
+        compiledNode.name = COMPILED_NAME;
+        compiledNode.superName = "java/lang/Object";
+        SimpleRemapper remapper = new SimpleRemapper(classNode.name, COMPILED_NAME);
+        for (MethodNode original : methods) {
+            MethodNode copy = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, original.name, original.desc, null, null);
+            original.accept(new MethodRemapper(copy, remapper));
+            compiledNode.methods.add(copy);
+        }
+        for (FieldNode field : fields) {
+            compiledNode.fields.add(new FieldNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, field.name, field.desc, null, null));
+        }
+        byte[] bytes;
+        try {
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+            compiledNode.accept(writer);
+            bytes = writer.toByteArray();
+        } catch (Throwable t) {
+            return null;
+        }
+        Program program = new Program(bytes, method.name, method.desc, fields.toArray(new FieldNode[0]));
+        Linked linked = program.link();
+        if (linked == null) {
+            return null;
+        }
+        program.linked.put(context.provider, linked);
+        return program;
+    }
+
+    /**
+     * Adds the method and the methods of its class it calls to the set, and the static fields they read to the other, if all of them may be
+     * compiled.
+     */
+    private boolean collect(ClassNode classNode, MethodNode method, Set<MethodNode> methods, Set<FieldNode> fields, Context context) {
+        if (!methods.add(method)) {
+            return true;
+        }
+        if (!Modifier.isStatic(method.access) || method.name.startsWith("<") || method.instructions.size() == 0) {
+            return false;
+        }
+        for (Type type : Type.getArgumentTypes(method.desc)) {
+            if (!isValueType(type)) {
+                return false;
+            }
+        }
+        Type returnType = Type.getReturnType(method.desc);
+        if (returnType.getSort() != Type.VOID && !isValueType(returnType)) {
+            return false;
+        }
+        for (TryCatchBlockNode tryCatch : method.tryCatchBlocks) {
+            if (tryCatch.type != null && !THROWABLES.contains(tryCatch.type)) {
+                return false;
+            }
+        }
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (context.customMethodFunc.containsKey(insn)) {
+                return false;
+            }
+            switch (insn.getOpcode()) {
+                case Opcodes.JSR:
+                case Opcodes.RET:
+                case Opcodes.MONITORENTER:
+                case Opcodes.MONITOREXIT:
+                case Opcodes.INVOKEDYNAMIC:
+                case Opcodes.GETFIELD:
+                case Opcodes.PUTFIELD:
+                case Opcodes.PUTSTATIC:
+                    return false;
+                case Opcodes.GETSTATIC: {
+                    FieldNode field = findStatic(classNode, (FieldInsnNode) insn);
+                    if (field == null) {
+                        return false;
+                    }
+                    fields.add(field);
+                    break;
+                }
+                case Opcodes.LDC: {
+                    Object cst = ((LdcInsnNode) insn).cst;
+                    if (cst instanceof Type || cst instanceof Handle || cst instanceof ConstantDynamic) {
+                        return false;
+                    }
+                    break;
+                }
+                case Opcodes.NEW:
+                case Opcodes.ANEWARRAY:
+                case Opcodes.CHECKCAST:
+                case Opcodes.INSTANCEOF:
+                    if (!isAllowedType(Type.getObjectType(((TypeInsnNode) insn).desc))) {
+                        return false;
+                    }
+                    break;
+                case Opcodes.MULTIANEWARRAY:
+                    if (!isAllowedType(Type.getType(((MultiANewArrayInsnNode) insn).desc))) {
+                        return false;
+                    }
+                    break;
+                case Opcodes.INVOKEVIRTUAL:
+                case Opcodes.INVOKESPECIAL:
+                case Opcodes.INVOKESTATIC:
+                case Opcodes.INVOKEINTERFACE: {
+                    MethodInsnNode methodInsn = (MethodInsnNode) insn;
+                    if (methodInsn.owner.equals(classNode.name)) {
+                        MethodNode callee = methodInsn.getOpcode() != Opcodes.INVOKESTATIC ? null : findMethod(classNode, methodInsn.name, methodInsn.desc);
+                        if (callee == null || !collect(classNode, callee, methods, fields, context)) {
+                            return false;
+                        }
+                    } else if (!isAllowedCall(methodInsn)) {
+                        return false;
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the field read by the instruction, if it is a static field of the class which is only written in {@code <clinit>}
+     */
+    private FieldNode findStatic(ClassNode classNode, FieldInsnNode fieldInsn) {
+        if (!fieldInsn.owner.equals(classNode.name) || !isValueType(Type.getType(fieldInsn.desc))
+                || getMutableStatics(classNode).contains(fieldInsn.name + fieldInsn.desc)) {
+            return null;
+        }
+        for (FieldNode field : classNode.fields) {
+            if (field.name.equals(fieldInsn.name) && field.desc.equals(fieldInsn.desc) && Modifier.isStatic(field.access)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the static fields of the class which are written outside of its {@code <clinit>}, as name followed by descriptor
+     */
+    private Set<String> getMutableStatics(ClassNode classNode) {
+        return mutableStatics.computeIfAbsent(classNode, k -> {
+            Set<String> fields = new HashSet<>();
+            for (MethodNode method : classNode.methods) {
+                if (method.name.equals("<clinit>")) {
+                    continue;
+                }
+                for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                    if (insn.getOpcode() == Opcodes.PUTSTATIC && ((FieldInsnNode) insn).owner.equals(classNode.name)) {
+                        fields.add(((FieldInsnNode) insn).name + ((FieldInsnNode) insn).desc);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static boolean isAllowedCall(MethodInsnNode methodInsn) {
+        if (CALLS.contains(methodInsn.owner + "." + methodInsn.name + methodInsn.desc)) {
+            return true;
+        }
+        if (methodInsn.getOpcode() == Opcodes.INVOKESPECIAL) {
+            return methodInsn.name.equals("<init>") && (OWNERS.contains(methodInsn.owner) || THROWABLES.contains(methodInsn.owner));
+        }
+        return OWNERS.contains(methodInsn.owner) && !DENIED_NAMES.contains(methodInsn.name);
+    }
+
+    private static boolean isAllowedType(Type type) {
+        if (type.getSort() == Type.ARRAY) {
+            type = type.getElementType();
+        }
+        return type.getSort() != Type.OBJECT || OWNERS.contains(type.getInternalName()) || THROWABLES.contains(type.getInternalName());
+    }
+
+    /**
+     * Object arrays aren't allowed to cross between the emulator and compiled code, as the emulator doesn't keep their element type.
+     */
+    private static boolean isValueType(Type type) {
+        switch (type.getSort()) {
+            case Type.OBJECT:
+                return type.getInternalName().equals("java/lang/String");
+            case Type.ARRAY:
+                return type.getElementType().getSort() != Type.OBJECT;
+            case Type.METHOD:
+            case Type.VOID:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static MethodNode findMethod(ClassNode classNode, String name, String desc) {
+        for (MethodNode method : classNode.methods) {
+            if (method.name.equals(name) && method.desc.equals(desc)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Object toArgument(JavaValue value, Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return value.intValue() != 0;
+            case Type.CHAR:
+                return (char) value.intValue();
+            case Type.BYTE:
+                return (byte) value.intValue();
+            case Type.SHORT:
+                return (short) value.intValue();
+            case Type.INT:
+                return value.intValue();
+            case Type.FLOAT:
+                return value.floatValue();
+            case Type.LONG:
+                return value.longValue();
+            case Type.DOUBLE:
+                return value.doubleValue();
+            default:
+                return value.value();
+        }
+    }
+
+    /**
+     * @return the value the emulator holds for the field, boxed to match its type, or its constant value if the emulator holds none
+     */
+    private static Object toField(Object value, FieldNode field) {
+        if (value == null) {
+            value = field.value;
+        }
+        if (!(value instanceof Number) && !(value instanceof Character)) {
+            return value;
+        }
+        long number = value instanceof Character ? (Character) value : ((Number) value).longValue();
+        switch (Type.getType(field.desc).getSort()) {
+            case Type.BOOLEAN:
+                return number != 0;
+            case Type.CHAR:
+                return (char) number;
+            case Type.BYTE:
+                return (byte) number;
+            case Type.SHORT:
+                return (short) number;
+            case Type.INT:
+                return (int) number;
+            case Type.LONG:
+                return number;
+            case Type.FLOAT:
+                return value instanceof Character ? (float) number : ((Number) value).floatValue();
+            case Type.DOUBLE:
+                return value instanceof Character ? (double) number : ((Number) value).doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    private static class Entry {
+        private final PreparedMethod prepared;
+        private final Type[] argumentTypes;
+        private final boolean returnsVoid;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Program program;
+        private volatile boolean rejected;
+
+        private Entry(PreparedMethod prepared, String desc) {
+            this.prepared = prepared;
+            this.argumentTypes = Type.getArgumentTypes(desc);
+            this.returnsVoid = Type.getReturnType(desc).getSort() == Type.VOID;
+        }
+    }
+
+    /**
+     * A compiled class, and its copies linked for each provider
+     */
+    private static class Program {
+        private final byte[] bytes;
+        private final String name;
+        private final String desc;
+        private final FieldNode[] fields;
+        private final Map<Provider, Linked> linked = new MapMaker().weakKeys().makeMap();
+
+        private Program(byte[] bytes, String name, String desc, FieldNode[] fields) {
+            this.bytes = bytes;
+            this.name = name;
+            this.desc = desc;
+            this.fields = fields;
+        }
+
+        /**
+         * @return a new copy of the class, or null if the JVM rejects it
+         */
+        private Linked link() {
+            try {
+                IsolatedClassLoader loader = new IsolatedClassLoader();
+                Class<?> clazz = loader.define(bytes);
+                // Links the class, so that code the verifier rejects is emulated instead
+                Class.forName(clazz.getName(), true, loader);
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                MethodHandle handle = lookup.findStatic(clazz, name, MethodType.fromMethodDescriptorString(desc, loader));
+                MethodHandle[] setters = new MethodHandle[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    MethodHandle setter = lookup.findStaticSetter(clazz, fields[i].name, clazz.getField(fields[i].name).getType());
+                    setters[i] = setter.asType(MethodType.methodType(void.class, Object.class));
+                }
+                return new Linked(handle.asType(handle.type().generic()).asSpreader(Object[].class, handle.type().parameterCount()), setters);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * One copy of a compiled class, with the field values it was last given
+     */
+    private static class Linked {
+        private final MethodHandle handle;
+        private final MethodHandle[] setters;
+        private final Object[] seeded;
+
+        private Linked(MethodHandle handle, MethodHandle[] setters) {
+            this.handle = handle;
+            this.setters = setters;
+            this.seeded = new Object[setters.length];
+        }
+
+        /**
+         * Copies the static fields the provider of the context holds into the class, where they changed since the last call
+         */
+        private void seed(Program program, ClassNode classNode, Context context) throws Throwable {
+            for (int i = 0; i < setters.length; i++) {
+                FieldNode field = program.fields[i];
+                Object value = toField(context.provider.getField(classNode.name, field.name, field.desc, null, context), field);
+                if (value != null && !Objects.equals(value, seeded[i])) {
+                    setters[i].invokeExact(value);
+                    seeded[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Defines one compiled class. Its parent is the bootstrap loader, so the class can see nothing but the JDK, and it is given no
+     * permissions, so a security manager would stop it from touching anything outside the heap.
+     */
+    private static class IsolatedClassLoader extends ClassLoader {
+        private static final ProtectionDomain DOMAIN;
+
+        static {
+            Permissions permissions = new Permissions();
+            permissions.setReadOnly();
+            DOMAIN = new ProtectionDomain(new CodeSource(null, (Certificate[]) null), permissions);
+        }
+
+        private IsolatedClassLoader() {
+            super(null);
+        }
+
+        private Class<?> define(byte[] bytes) {
+            return defineClass(COMPILED_NAME, bytes, 0, bytes.length, DOMAIN);
+        }
+    }
+}
@@ -22,7 +22,6 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.function.BiFunction;
 
 import com.google.common.base.Optional;
 import com.javadeobfuscator.deobfuscator.executor.defined.types.JavaClass;
@@ -32,7 +31,6 @@ import com.javadeobfuscator.deobfuscator.executor.values.*;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 import com.javadeobfuscator.deobfuscator.utils.PrimitiveUtils;
-import com.javadeobfuscator.deobfuscator.utils.TypeStore;
 import com.javadeobfuscator.deobfuscator.utils.Utils;
 
 public class MethodExecutor {
@@ -53,41 +51,81 @@ public class MethodExecutor {
     public static <T> T execute(ClassNode classNode, MethodNode method, List<JavaValue> args, Object instance, Context context) {
         if (context == null)
             throw new IllegalArgumentException("Null context");
-        List<JavaValue> stack = new LinkedList<>();
-        List<JavaValue> locals = new LinkedList<>();
+        ExecutionBudget budget = context.budget;
+        ExecutionProfile profile = context.profile;
+        if (budget == null && profile == null) {
+            return call(classNode, method, args, instance, context);
+        }
+        if (budget != null) {
+            budget.enter();
+        }
+        if (profile != null) {
+            profile.enter();
+        }
+        try {
+            return call(classNode, method, args, instance, context);
+        } finally {
+            if (profile != null) {
+                profile.exit(classNode, method);
+            }
+            if (budget != null) {
+                budget.exit();
+            }
+        }
+    }
+
+    private static <T> T call(ClassNode classNode, MethodNode method, List<JavaValue> args, Object instance, Context context) {
+        PreparedMethod prepared = PreparedMethod.of(method);
+        if (context.compiler != null) {
+            Object result = context.compiler.invoke(classNode, method, prepared, args, context);
+            if (result != MethodCompiler.NOT_COMPILED) {
+                return (T) result;
+            }
+        }
+        if (context.invocationCache != null) {
+            return context.invocationCache.invoke(classNode, method, prepared, args, context,
+                    () -> enter(classNode, method, prepared, args, instance, context));
+        }
+        return enter(classNode, method, prepared, args, instance, context);
+    }
+
+    private static <T> T enter(ClassNode classNode, MethodNode method, PreparedMethod prepared, List<JavaValue> args, Object instance, Context context) {
+        if (context.profile != null) {
+            context.profile.invoked(classNode, method);
+        }
+        OperandStack stack = new OperandStack(method.maxStack);
+        LocalVariables locals = new LocalVariables(method.maxLocals);
+        int local = 0;
         if (!Modifier.isStatic(method.access)) {
         	if (instance == null) {
-            	locals.add(new JavaObject(null, "java/lang/Object"));
+            	locals.set(local++, new JavaObject(null, "java/lang/Object"));
         	} else {
-        		locals.add((JavaValue)instance);
+        		locals.set(local++, (JavaValue)instance);
         	}
         }
         if (args != null) {
             for (JavaValue arg : args) {
-                locals.add(arg.copy());
+                locals.set(local++, arg.copy());
                 if (arg instanceof JavaDouble || arg instanceof JavaLong) {
-                    locals.add(new JavaTop());
+                    locals.set(local++, JavaTop.INSTANCE);
                 }
             }
         }
-        for (int i = 0; i < method.maxLocals + 50; i++) {
-            locals.add(null);
-        }
-        return execute(classNode, method, method.instructions.getFirst(), stack, locals, context);
+        return execute(classNode, method, method.instructions.getFirst(), stack, locals, context, prepared);
     }
 
-    private static void executeArrayLoad(List<JavaValue> stack, Class<?> type) {
+    private static void executeArrayLoad(OperandStack stack, Class<?> type) {
         if (VERIFY && stack.size() < 2) {
             throw new ExecutionException("Stack underflow");
         }
-        if (VERIFY && !(stack.get(0) instanceof JavaInteger)) {
+        if (VERIFY && !(stack.peek() instanceof JavaInteger)) {
             throw new ExecutionException("Expected Integer on stack");
         }
         if (VERIFY && !(stack.get(1) instanceof JavaObject)) {
             throw new ExecutionException("Expected Object on stack");
         }
-        int index = stack.remove(0).intValue();
-        JavaValue arrValue = stack.remove(0);
+        int index = stack.pop().intValue();
+        JavaValue arrValue = stack.pop();
         Object array = arrValue.value();
         if (VERIFY && array == null) {
             throw new ExecutionException("Array is null");
@@ -100,14 +138,14 @@ public class MethodExecutor {
         switch (type.getCanonicalName()) {
             case "byte":
                 if (value instanceof Byte)
-                    result = new JavaByte((Byte) value);
+                    result = JavaByte.of((Byte) value);
                 else if (value instanceof Boolean)
-                    result = new JavaBoolean((Boolean) value);
+                    result = JavaBoolean.of((Boolean) value);
                 else
                     throw new IllegalStateException(value.getClass().getName());
                 break;
             case "char":
-                result = new JavaCharacter((Character) value);
+                result = JavaCharacter.of((Character) value);
                 break;
             case "double":
                 result = new JavaDouble((Double) value);
@@ -116,13 +154,13 @@ public class MethodExecutor {
                 result = new JavaFloat((Float) value);
                 break;
             case "int":
-                result = new JavaInteger((Integer) value);
+                result = JavaInteger.of((Integer) value);
                 break;
             case "long":
-                result = new JavaLong((Long) value);
+                result = JavaLong.of((Long) value);
                 break;
             case "short":
-                result = new JavaShort((Short) value);
+                result = JavaShort.of((Short) value);
                 break;
             default:
             	if(value != null && value.getClass().isArray())
@@ -131,28 +169,28 @@ public class MethodExecutor {
             		result = new JavaObject(value, ((JavaArray)arrValue).getValueType(index));
                 break;
         }
-        stack.add(0, result);
+        stack.push(result);
         if (result instanceof JavaDouble || result instanceof JavaLong) {
-            stack.add(0, new JavaTop());
+            stack.push(JavaTop.INSTANCE);
         }
     }
 
-    private static void executeArrayStore(List<JavaValue> stack) {
+    private static void executeArrayStore(OperandStack stack) {
         if (VERIFY && stack.size() < 3) {
             throw new ExecutionException("Stack underflow");
         }
-        JavaValue value = stack.remove(0);
+        JavaValue value = stack.pop();
         if (value instanceof JavaTop) {
-            value = stack.remove(0);
+            value = stack.pop();
             if (VERIFY && !(value instanceof JavaDouble) && !(value instanceof JavaLong)) {
                 throw new ExecutionException("JavaTop not followed by JavaLong or JavaDouble");
             }
         }
-        JavaValue index = stack.remove(0);
+        JavaValue index = stack.pop();
         if (VERIFY && !(index instanceof JavaInteger)) {
             throw new ExecutionException("Expected Integer");
         }
-        JavaValue array = stack.remove(0);
+        JavaValue array = stack.pop();
         if (VERIFY && !array.value().getClass().isArray()) {
             throw new ExecutionException("Expected Array");
         }
@@ -223,164 +261,500 @@ public class MethodExecutor {
         for(int i = 0; i < args.size(); i++) {
         	JavaValue arg = args.get(i);
         	if(arg instanceof JavaInteger && methodParams[i].getDescriptor().equals("I"))
-        		args.set(i, new JavaInteger(arg.intValue()));
+        		args.set(i, JavaInteger.of(arg.intValue()));
         }
     }
 
+    /*
+     * Pops the arguments of a call off the stack, first argument first in the returned list. Leaves room for the instance.
+     */
+    private static List<JavaValue> popArguments(OperandStack stack, Type[] argumentTypes, AbstractInsnNode insn) {
+        JavaValue[] popped = new JavaValue[argumentTypes.length];
+        for (int i = argumentTypes.length - 1; i >= 0; i--) {
+            int sort = argumentTypes[i].getSort();
+            if (sort == Type.LONG || sort == Type.DOUBLE) {
+                if (!(stack.peek() instanceof JavaTop)) {
+                    if (insn instanceof MethodInsnNode) {
+                        MethodInsnNode cast = (MethodInsnNode) insn;
+                        throw new ExecutionException("Expected JavaTop while invoking " + cast.owner + " " + cast.name + " " + cast.desc + ", but got " + stack.peek().getClass().getSimpleName());
+                    }
+                    throw new ExecutionException("Expected JavaTop");
+                }
+                stack.pop();
+            }
+            popped[i] = stack.pop().copy();
+        }
+        List<JavaValue> args = new ArrayList<>(popped.length + 1);
+        Collections.addAll(args, popped);
+        return args;
+    }
+
+    /*
+     * Finds the first try-catch block covering the instruction which catches the throwable, or null if it isn't caught in this method
+     */
+    private static TryCatchBlockNode findHandler(PreparedMethod prepared, AbstractInsnNode now, Throwable thrown, Context context) {
+        for (TryCatchBlockNode tcbn : prepared.getHandlers(now)) {
+            if (tcbn.type == null || tcbn.type.equals("java/lang/Throwable")) {
+                return tcbn;
+            }
+            ClassNode cn = context.dictionary.get(Type.getType(thrown.getClass()).getInternalName());
+            while (cn != null) {
+                if (cn.name.equals(tcbn.type)) {
+                    return tcbn;
+                }
+                if (cn.superName == null) {
+                    break;
+                }
+                cn = context.dictionary.get(cn.superName);
+            }
+        }
+        return null;
+    }
+
     public static Object value(JavaValue value) {
-        Object val;
+        return value.value();
+    }
 
-        switch (value.getClass().getSimpleName()) {
-            case "JavaByte":
-                val = ((JavaByte) value).byteValue();
-                break;
-            case "JavaCharacter":
-                val = ((JavaCharacter) value).charValue();
+    private static void pushCustomResult(OperandStack stack, Type returnType, JavaValue result) {
+        if (returnType.getSort() == Type.VOID) {
+            return;
+        }
+        stack.push(result);
+        if (result instanceof JavaLong || result instanceof JavaDouble) {
+            stack.push(JavaTop.INSTANCE);
+        }
+    }
+
+    /*
+     * The lookup, name, type and static arguments passed to a custom invokedynamic handler before the call's own arguments
+     */
+    private static List<JavaValue> bootstrapArguments(InvokeDynamicInsnNode cast, Type[] argumentTypes, Context context) {
+        List<JavaValue> args = new ArrayList<>();
+        //First we add bootstrap args, then normal pulled args
+        args.add(new JavaObject(null, "java/lang/invoke/MethodHandles$Lookup")); // Lookup
+        args.add(JavaValue.valueOf(cast.name));
+        args.add(new JavaObject(cast.desc, "java/lang/invoke/MethodType")); // dyn methodtype
+        for(int i = 0; i < cast.bsmArgs.length; i++)
+        {
+            Object arg = cast.bsmArgs[i];
+            if(arg.getClass() == Type.class)
+            {
+                Type type = (Type)arg;
+                args.add(JavaValue.valueOf(new JavaClass(
+                    type.getInternalName().replace('/', '.'), context)));
+            }else if(argumentTypes[i + 3].getSort() == Type.BOOLEAN)
+                args.add(JavaBoolean.of((Boolean)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.CHAR)
+                args.add(JavaCharacter.of((Character)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.BYTE)
+                args.add(JavaByte.of((Byte)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.SHORT)
+                args.add(JavaShort.of((Short)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.INT)
+                args.add(JavaInteger.of((Integer)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.FLOAT)
+                args.add(new JavaFloat((Float)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.LONG)
+                args.add(JavaLong.of((Long)arg));
+            else if(argumentTypes[i + 3].getSort() == Type.DOUBLE)
+                args.add(new JavaDouble((Double)arg));
+            else
+                args.add(JavaValue.valueOf(arg));
+        }
+        return args;
+    }
+
+    private static void executeNewArray(OperandStack stack, IntInsnNode cast) {
+        int len = stack.pop().intValue();
+        Object add = null;
+        switch (cast.operand) {
+            case T_BOOLEAN:
+                add = new boolean[len];
                 break;
-            case "JavaShort":
-                val = ((JavaShort) value).shortValue();
+            case T_CHAR:
+                add = new char[len];
                 break;
-            case "JavaInteger":
-                val = value.intValue();
+            case T_FLOAT:
+                add = new float[len];
                 break;
-            case "JavaBoolean":
-                val = value.booleanValue();
+            case T_DOUBLE:
+                add = new double[len];
                 break;
-            case "JavaLong":
-                val = value.longValue();
+            case T_BYTE:
+                add = new byte[len];
                 break;
-            case "JavaFloat":
-                val = value.floatValue();
+            case T_SHORT:
+                add = new short[len];
                 break;
-            case "JavaDouble":
-                val = value.doubleValue();
+            case T_INT:
+                add = new int[len];
                 break;
-            case "JavaObject":
-            case "JavaArray":
-                val = value.value();
+            case T_LONG:
+                add = new long[len];
                 break;
             default:
-                throw new ExecutionException("Unknown value type " + value.getClass().getSimpleName());
+                throw new ExecutionException("Unknown newarray type " + cast.operand);
         }
-        return val;
+        stack.push(new JavaArray(add));
     }
 
-    private static void doIntegerMath(List<JavaValue> stack, BiFunction<Integer, Integer, Integer> action) {
+    private static void executeMultiANewArray(OperandStack stack, MultiANewArrayInsnNode cast) {
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < cast.dims; i++) {
+            sizes.add(0, stack.pop().intValue());
+        }
+        Type type = Type.getType(cast.desc);
+        Class<?> clazz = PrimitiveUtils.getPrimitiveByName(type.getClassName());
+        Class<?> create = clazz == null ? Object.class : clazz;
+        Object root = Array.newInstance(create, sizes.get(0));
+        List<Object> currentArray = new ArrayList<>();
+        currentArray.add(root);
+
+        for (int i = 0; i < sizes.size() - 1; i++) {
+            List<Object> temp = new ArrayList<>(currentArray);
+            currentArray.clear();
+            int size = sizes.get(i);
+            for (int s = 0; s < size; s++) {
+                for (Object o : temp) {
+                    Object created = Array.newInstance(create, sizes.get(i + 1));
+                    currentArray.add(created);
+                    Array.set(o, s, created);
+                }
+            }
+        }
+        stack.push(new JavaArray(root));
+    }
+
+    /*
+     * Shared by the field and invoke instructions, which keeps the main executor small enough to be JIT compiled
+     */
+    private static void pushPrimitive(OperandStack stack, Type type, Object provided) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                stack.push(JavaBoolean.of((Boolean) provided));
+                break;
+            case Type.CHAR:
+                stack.push(JavaCharacter.of((Character) provided));
+                break;
+            case Type.BYTE:
+                stack.push(JavaByte.of((Byte) provided));
+                break;
+            case Type.SHORT:
+                stack.push(JavaShort.of((Short) provided));
+                break;
+            case Type.INT:
+                stack.push(JavaInteger.of((Integer) provided));
+                break;
+            case Type.FLOAT:
+                stack.push(new JavaFloat((Float) provided));
+                break;
+            case Type.LONG:
+                stack.push(JavaLong.of((Long) provided));
+                stack.push(JavaTop.INSTANCE);
+                break;
+            case Type.DOUBLE:
+                stack.push(new JavaDouble((Double) provided));
+                stack.push(JavaTop.INSTANCE);
+                break;
+        }
+    }
+
+    private static void pushFieldValue(OperandStack stack, Type type, Object provided, FieldInsnNode cast, JavaValue obj, Context context) {
+        if (type.getSort() != Type.ARRAY && type.getSort() != Type.OBJECT) {
+            pushPrimitive(stack, type, provided);
+            return;
+        }
+        if(provided != null && provided.getClass().isArray())
+        {
+            if(context.typeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj) != null)
+            {
+                Entry<Object, String[]> entry = (Entry<Object, String[]>)context.typeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj).getKey();
+                stack.push(new JavaArray(entry.getKey(), entry.getValue()));
+            }else if(provided != null)
+                stack.push(new JavaArray(provided));
+        }else if(context.typeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj) == null)
+            stack.push(JavaValue.valueOf(provided));
+        else
+            stack.push(new JavaObject(provided, context.typeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj).getValue()));
+    }
+
+    private static void pushReturnValue(OperandStack stack, Type type, Object provided, Context context) {
+        if (type.getSort() != Type.ARRAY && type.getSort() != Type.OBJECT) {
+            pushPrimitive(stack, type, provided);
+            return;
+        }
+        if(provided != null && provided.getClass().isArray())
+        {
+            if(context.returnObject != null && context.returnObject.value() == provided)
+            {
+                JavaArray array = (JavaArray)context.returnObject;
+                stack.push(new JavaArray(array.value(), array.getTypeArray()));
+                context.returnObject = null;
+            }else
+                stack.push(new JavaArray(provided));
+        }else if(provided != null && context.returnObject != null && context.returnObject.value() == provided)
+        {
+            stack.push(new JavaObject(provided, context.returnObject.type()));
+            context.returnObject = null;
+        }else
+            stack.push(JavaValue.valueOf(provided));
+    }
+
+    /*
+     * The math handlers below take the opcode instead of a lambda, so operands are never boxed
+     */
+    private static void doIntegerMath(OperandStack stack, int opcode) {
         if (VERIFY && stack.size() < 2) {
             throw new ExecutionException("Stack underflow");
         }
-        JavaValue b = stack.remove(0);
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaInteger(action.apply(a.intValue(), b.intValue())));
+        int b = stack.pop().intValue();
+        int a = stack.pop().intValue();
+        int result;
+        switch (opcode) {
+            case IADD:
+                result = a + b;
+                break;
+            case ISUB:
+                result = a - b;
+                break;
+            case IMUL:
+                result = a * b;
+                break;
+            case IDIV:
+                result = a / b;
+                break;
+            case IREM:
+                result = a % b;
+                break;
+            case ISHL:
+                result = a << b;
+                break;
+            case ISHR:
+                result = a >> b;
+                break;
+            case IUSHR:
+                result = a >>> b;
+                break;
+            case IAND:
+                result = a & b;
+                break;
+            case IOR:
+                result = a | b;
+                break;
+            case IXOR:
+                result = a ^ b;
+                break;
+            default:
+                throw new ExecutionException("Unknown integer math opcode " + opcode);
+        }
+        stack.push(JavaInteger.of(result));
     }
 
-    private static void doLongMath(List<JavaValue> stack, BiFunction<Long, Long, Long> action) {
+    private static void doLongMath(OperandStack stack, int opcode) {
         if (stack.size() < 4) {
             throw new ExecutionException("Stack underflow");
         }
-        stack.remove(0); //top
-        JavaValue b = stack.remove(0);
-        stack.remove(0); //top
-        JavaValue a = stack.remove(0);
-        if (!(a instanceof JavaLong) || !(b instanceof JavaLong)) {
+        stack.pop(); //top
+        JavaValue second = stack.pop();
+        stack.pop(); //top
+        JavaValue first = stack.pop();
+        if (!(first instanceof JavaLong) || !(second instanceof JavaLong)) {
             throw new ExecutionException("Expected two JavaLongs");
         }
-        stack.add(0, new JavaLong(action.apply(a.longValue(), b.longValue())));
-        stack.add(0, new JavaTop());
+        long a = first.longValue();
+        long b = second.longValue();
+        long result;
+        switch (opcode) {
+            case LADD:
+                result = a + b;
+                break;
+            case LSUB:
+                result = a - b;
+                break;
+            case LMUL:
+                result = a * b;
+                break;
+            case LDIV:
+                result = a / b;
+                break;
+            case LREM:
+                result = a % b;
+                break;
+            case LAND:
+                result = a & b;
+                break;
+            case LOR:
+                result = a | b;
+                break;
+            case LXOR:
+                result = a ^ b;
+                break;
+            default:
+                throw new ExecutionException("Unknown long math opcode " + opcode);
+        }
+        stack.push(JavaLong.of(result));
+        stack.push(JavaTop.INSTANCE);
     }
 
-    private static void doLongShift(List<JavaValue> stack, BiFunction<Long, Integer, Long> action) {
+    private static void doLongShift(OperandStack stack, int opcode) {
         if (stack.size() < 3) {
             throw new ExecutionException("Stack underflow");
         }
-        JavaValue b = stack.remove(0);
-        stack.remove(0); //top
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaLong(action.apply(a.longValue(), b.intValue())));
-        stack.add(0, new JavaTop());
+        int b = stack.pop().intValue();
+        stack.pop(); //top
+        long a = stack.pop().longValue();
+        long result;
+        switch (opcode) {
+            case LSHL:
+                result = a << b;
+                break;
+            case LSHR:
+                result = a >> b;
+                break;
+            case LUSHR:
+                result = a >>> b;
+                break;
+            default:
+                throw new ExecutionException("Unknown long shift opcode " + opcode);
+        }
+        stack.push(JavaLong.of(result));
+        stack.push(JavaTop.INSTANCE);
     }
 
-    private static void doLongMathReturnInteger(List<JavaValue> stack, BiFunction<Long, Long, Integer> action) {
+    private static void doLongCompare(OperandStack stack) {
         if (VERIFY && stack.size() < 4) {
             throw new ExecutionException("Stack underflow");
         }
-        stack.remove(0); //top
-        JavaValue b = stack.remove(0);
-        stack.remove(0); //top
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaInteger(action.apply(a.longValue(), b.longValue())));
+        stack.pop(); //top
+        long b = stack.pop().longValue();
+        stack.pop(); //top
+        long a = stack.pop().longValue();
+        stack.push(JavaInteger.of(Long.compare(a, b)));
     }
 
-    private static void doDoubleMath(List<JavaValue> stack, BiFunction<Double, Double, Double> action) {
+    private static void doDoubleMath(OperandStack stack, int opcode) {
         if (VERIFY && stack.size() < 4) {
             throw new ExecutionException("Stack underflow");
         }
-        stack.remove(0); //top
-        JavaValue b = stack.remove(0);
-        stack.remove(0); //top
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaDouble(action.apply(a.doubleValue(), b.doubleValue())));
-        stack.add(0, new JavaTop());
+        stack.pop(); //top
+        double b = stack.pop().doubleValue();
+        stack.pop(); //top
+        double a = stack.pop().doubleValue();
+        double result;
+        switch (opcode) {
+            case DADD:
+                result = a + b;
+                break;
+            case DSUB:
+                result = a - b;
+                break;
+            case DMUL:
+                result = a * b;
+                break;
+            case DDIV:
+                result = a / b;
+                break;
+            case DREM:
+                result = a % b;
+                break;
+            default:
+                throw new ExecutionException("Unknown double math opcode " + opcode);
+        }
+        stack.push(new JavaDouble(result));
+        stack.push(JavaTop.INSTANCE);
     }
 
-    private static void doDoubleMathReturnInteger(List<JavaValue> stack, BiFunction<Double, Double, Integer> action) {
+    /*
+     * DCMPL and DCMPG only differ in what NaN compares as. Unlike Double.compare, -0.0 and 0.0 are equal.
+     */
+    private static void doDoubleCompare(OperandStack stack, int nanResult) {
         if (VERIFY && stack.size() < 4) {
             throw new ExecutionException("Stack underflow");
         }
-        stack.remove(0); //top
-        JavaValue b = stack.remove(0);
-        stack.remove(0); //top
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaInteger(action.apply(a.doubleValue(), b.doubleValue())));
+        stack.pop(); //top
+        double b = stack.pop().doubleValue();
+        stack.pop(); //top
+        double a = stack.pop().doubleValue();
+        stack.push(JavaInteger.of(a > b ? 1 : a == b ? 0 : a < b ? -1 : nanResult));
     }
 
-    private static void doFloatMath(List<JavaValue> stack, BiFunction<Float, Float, Float> action) {
+    private static void doFloatMath(OperandStack stack, int opcode) {
         if (VERIFY && stack.size() < 2) {
             throw new ExecutionException("Stack underflow");
         }
-        JavaValue b = stack.remove(0);
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaFloat(action.apply(a.floatValue(), b.floatValue())));
+        float b = stack.pop().floatValue();
+        float a = stack.pop().floatValue();
+        float result;
+        switch (opcode) {
+            case FADD:
+                result = a + b;
+                break;
+            case FSUB:
+                result = a - b;
+                break;
+            case FMUL:
+                result = a * b;
+                break;
+            case FDIV:
+                result = a / b;
+                break;
+            case FREM:
+                result = a % b;
+                break;
+            default:
+                throw new ExecutionException("Unknown float math opcode " + opcode);
+        }
+        stack.push(new JavaFloat(result));
     }
 
-    private static void doFloatMathReturnInteger(List<JavaValue> stack, BiFunction<Float, Float, Integer> action) {
+    private static void doFloatCompare(OperandStack stack, int nanResult) {
         if (VERIFY && stack.size() < 2) {
             throw new ExecutionException("Stack underflow");
         }
-        JavaValue b = stack.remove(0);
-        JavaValue a = stack.remove(0);
-        stack.add(0, new JavaInteger(action.apply(a.floatValue(), b.floatValue())));
+        float b = stack.pop().floatValue();
+        float a = stack.pop().floatValue();
+        stack.push(JavaInteger.of(a > b ? 1 : a == b ? 0 : a < b ? -1 : nanResult));
     }
 
     /*
      * Main executor. This will go through each instruction and execute the instruction using a switch statement
      */
-    private static <T> T execute(ClassNode classNode, MethodNode method, AbstractInsnNode now, List<JavaValue> stack, List<JavaValue> locals, Context context) {
+    private static <T> T execute(ClassNode classNode, MethodNode method, AbstractInsnNode now, OperandStack stack, LocalVariables locals, Context context, PreparedMethod prepared) {
         context.push(classNode.name, method.name, classNode.sourceFile, 0); // constantPoolSize isn't even used, is it?
+        ExecutionBudget budget = context.budget;
+        ExecutionProfile profile = context.profile;
         if (DEBUG) {
             System.out.println("Executing " + classNode.name + " " + method.name + method.desc);
         }
         forever:
         while (true) {
             try {
+                if (budget != null) {
+                    budget.step();
+                }
+                if (profile != null && now != null) {
+                    profile.instruction(now.getOpcode());
+                }
                 if (DEBUG && (DEBUG_CLASSES.isEmpty() || DEBUG_CLASSES.contains(classNode.name)) && (DEBUG_METHODS_WITH_DESC.isEmpty() || DEBUG_METHODS_WITH_DESC.contains(method.name + method.desc))) {
                     System.out.println("\t Stack: " + stack);
                     System.out.println("\t Locals: " + locals);
                     System.out.println();
-                    System.out.println(method.instructions.indexOf(now) + " " + Utils.prettyprint(now));
+                    System.out.println(prepared.indexOf(now) + " " + Utils.prettyprint(now));
                 }
                 if (now == null) {
                     throw new FallingOffCodeException();
                 }
 
-                context.doBreakpoint(now, true, stack, locals, null);
+                if (context.hasBreakpoints()) {
+                    context.doBreakpoint(now, true, stack, locals, null);
+                }
 
                 Throwable toThrow = null;
                 switch (now.getOpcode()) {
                     case NOP:
                         break;
                     case ACONST_NULL:
-                        stack.add(0, new JavaObject(null, "java/lang/Object"));
+                        stack.push(new JavaObject(null, "java/lang/Object"));
                         break;
                     case ICONST_M1:
                     case ICONST_0:
@@ -389,31 +763,31 @@ public class MethodExecutor {
                     case ICONST_3:
                     case ICONST_4:
                     case ICONST_5:
-                        stack.add(0, new JavaInteger(now.getOpcode() - 3));
+                        stack.push(JavaInteger.of(now.getOpcode() - 3));
                         break;
                     case LCONST_0:
                     case LCONST_1:
-                        stack.add(0, new JavaLong(now.getOpcode() - 9));
-                        stack.add(0, new JavaTop());
+                        stack.push(JavaLong.of(now.getOpcode() - 9));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     case FCONST_0:
                     case FCONST_1:
                     case FCONST_2:
-                        stack.add(0, new JavaFloat(now.getOpcode() - 11));
+                        stack.push(new JavaFloat(now.getOpcode() - 11));
                         break;
                     case DCONST_0:
                     case DCONST_1:
-                        stack.add(0, new JavaDouble(now.getOpcode() - 14));
-                        stack.add(0, new JavaTop());
+                        stack.push(new JavaDouble(now.getOpcode() - 14));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     case BIPUSH: {
                         IntInsnNode cast = (IntInsnNode) now;
-                        stack.add(0, new JavaByte((byte) cast.operand));
+                        stack.push(JavaByte.of((byte) cast.operand));
                         break;
                     }
                     case SIPUSH: {
                         IntInsnNode cast = (IntInsnNode) now;
-                        stack.add(0, new JavaShort((short) cast.operand));
+                        stack.push(JavaShort.of((short) cast.operand));
                         break;
                     }
                     case LDC: {
@@ -424,19 +798,19 @@ public class MethodExecutor {
                             load = new JavaClass(type.getInternalName().replace('/', '.'), context);
                         }
                         if (load instanceof Integer) {
-                            stack.add(0, new JavaInteger((Integer) load));
+                            stack.push(JavaInteger.of((Integer) load));
                         } else if (load instanceof Float) {
-                            stack.add(0, new JavaFloat((Float) load));
+                            stack.push(new JavaFloat((Float) load));
                         } else if (load instanceof Double) {
-                            stack.add(0, new JavaDouble((Double) load));
-                            stack.add(0, new JavaTop());
+                            stack.push(new JavaDouble((Double) load));
+                            stack.push(JavaTop.INSTANCE);
                         } else if (load instanceof Long) {
-                            stack.add(0, new JavaLong((Long) load));
-                            stack.add(0, new JavaTop());
+                            stack.push(JavaLong.of((Long) load));
+                            stack.push(JavaTop.INSTANCE);
                         } else if (load instanceof String) {
-                            stack.add(0, new JavaObject(load, "java/lang/String"));
+                            stack.push(new JavaObject(load, "java/lang/String"));
                         } else if (load instanceof JavaClass) {
-                            stack.add(0, new JavaObject(load, "java/lang/Class"));
+                            stack.push(new JavaObject(load, "java/lang/Class"));
                         } else {
                             throw new ExecutionException("Unexpected ldc type " + (load == null ? "null" : load.getClass()));
                         }
@@ -446,21 +820,21 @@ public class MethodExecutor {
                     case FLOAD:
                     case ALOAD: {
                         VarInsnNode cast = (VarInsnNode) now;
-                        stack.add(0, locals.get(cast.var).copy());
+                        stack.push(locals.get(cast.var).copy());
                         if (VERIFY) {
                             switch (now.getOpcode()) {
                                 case ILOAD:
-                                    if (!(stack.get(0) instanceof JavaInteger)) {
+                                    if (!(stack.peek() instanceof JavaInteger)) {
                                         throw new ExecutionException("Expected Integer");
                                     }
                                     break;
                                 case FLOAD:
-                                    if (!(stack.get(0) instanceof JavaFloat)) {
+                                    if (!(stack.peek() instanceof JavaFloat)) {
                                         throw new ExecutionException("Expected Float");
                                     }
                                     break;
                                 case ALOAD:
-                                    if (!(stack.get(0) instanceof JavaObject)) {
+                                    if (!(stack.peek() instanceof JavaObject)) {
                                         throw new ExecutionException("Expected Object");
                                     }
                                     break;
@@ -471,8 +845,8 @@ public class MethodExecutor {
                     case LLOAD:
                     case DLOAD: {
                         VarInsnNode cast = (VarInsnNode) now;
-                        stack.add(0, locals.get(cast.var).copy());
-                        stack.add(0, new JavaTop());
+                        stack.push(locals.get(cast.var).copy());
+                        stack.push(JavaTop.INSTANCE);
                         if (VERIFY) {
                             switch (now.getOpcode()) {
                                 case DLOAD:
@@ -517,14 +891,14 @@ public class MethodExecutor {
                     case FSTORE:
                     case ASTORE: {
                         VarInsnNode cast = (VarInsnNode) now;
-                        locals.set(cast.var, stack.remove(0).copy());
+                        locals.set(cast.var, stack.pop().copy());
                         break;
                     }
                     case LSTORE:
                     case DSTORE: {
-                        stack.remove(0);
+                        stack.pop();
                         VarInsnNode cast = (VarInsnNode) now;
-                        locals.set(cast.var, stack.remove(0).copy());
+                        locals.set(cast.var, stack.pop().copy());
                         break;
                     }
                     case IASTORE:
@@ -538,26 +912,26 @@ public class MethodExecutor {
                     	executeArrayStore(stack);
                         break;
                     case POP:
-                        stack.remove(0);
+                        stack.pop();
                         break;
                     case POP2: {
-                        stack.remove(0);
-                        stack.remove(0);
+                        stack.pop();
+                        stack.pop();
                         break;
                     }
                     case DUP:
-                        stack.add(0, stack.get(0));
+                        stack.push(stack.peek());
                         break;
                     case DUP_X1: {
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         if (obj instanceof JavaDouble || obj instanceof JavaLong) {
                             throw new ExecutionException("Dup with double/long");
                         }
-                        stack.add(2, stack.get(0));
+                        stack.add(2, stack.peek());
                         break;
                     }
                     case DUP_X2: {
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         if (obj instanceof JavaDouble || obj instanceof JavaLong) {
                             throw new ExecutionException("Dup with double/long");
                         }
@@ -565,190 +939,189 @@ public class MethodExecutor {
                         break;
                     }
                     case DUP2: {
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         JavaValue obj1 = stack.get(1);
                         stack.add(2, obj);
                         stack.add(3, obj1);
                         break;
                     }
                     case DUP2_X1: {
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         JavaValue obj1 = stack.get(1);
                         stack.add(3, obj);
                         stack.add(4, obj1);
                         break;
                     }
                     case DUP2_X2: {
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         JavaValue obj1 = stack.get(1);
                         stack.add(4, obj);
                         stack.add(5, obj1);
                         break;
                     }
                     case SWAP: {
-                        JavaValue a = stack.remove(0);
-                        JavaValue b = stack.remove(0);
-                        stack.add(0, a);
-                        stack.add(0, b);
+                        JavaValue a = stack.pop();
+                        JavaValue b = stack.pop();
+                        stack.push(a);
+                        stack.push(b);
                         break;
                     }
                     case IADD:
-                        doIntegerMath(stack, (x, y) -> x + y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case ISUB:
-                        doIntegerMath(stack, (x, y) -> x - y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IMUL:
-                        doIntegerMath(stack, (x, y) -> x * y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IDIV:
-                        doIntegerMath(stack, (x, y) -> x / y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IREM:
-                        doIntegerMath(stack, (x, y) -> x % y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case ISHL:
-                        doIntegerMath(stack, (x, y) -> x << y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case ISHR:
-                        doIntegerMath(stack, (x, y) -> x >> y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IUSHR:
-                        doIntegerMath(stack, (x, y) -> x >>> y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IAND:
-                        doIntegerMath(stack, (x, y) -> x & y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IOR:
-                        doIntegerMath(stack, (x, y) -> x | y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case IXOR:
-                        doIntegerMath(stack, (x, y) -> x ^ y);
+                        doIntegerMath(stack, now.getOpcode());
                         break;
                     case LADD:
-                        doLongMath(stack, (x, y) -> x + y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LSUB:
-                        doLongMath(stack, (x, y) -> x - y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LMUL:
-                        doLongMath(stack, (x, y) -> x * y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LDIV:
-                        doLongMath(stack, (x, y) -> x / y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LREM:
-                        doLongMath(stack, (x, y) -> x % y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LSHL:
-                        doLongShift(stack, (x, y) -> x << y);
+                        doLongShift(stack, now.getOpcode());
                         break;
                     case LSHR:
-                        doLongShift(stack, (x, y) -> x >> y);
+                        doLongShift(stack, now.getOpcode());
                         break;
                     case LUSHR:
-                        doLongShift(stack, (x, y) -> x >>> y);
+                        doLongShift(stack, now.getOpcode());
                         break;
                     case LAND:
-                        doLongMath(stack, (x, y) -> x & y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LOR:
-                        doLongMath(stack, (x, y) -> x | y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LXOR:
-                        doLongMath(stack, (x, y) -> x ^ y);
+                        doLongMath(stack, now.getOpcode());
                         break;
                     case LCMP:
-                        doLongMathReturnInteger(stack, (x, y) -> x.compareTo(y));
+                        doLongCompare(stack);
                         break;
                     case FADD:
-                        doFloatMath(stack, (x, y) -> x + y);
+                        doFloatMath(stack, now.getOpcode());
                         break;
                     case FSUB:
-                        doFloatMath(stack, (x, y) -> x - y);
+                        doFloatMath(stack, now.getOpcode());
                         break;
                     case FMUL:
-                        doFloatMath(stack, (x, y) -> x * y);
+                        doFloatMath(stack, now.getOpcode());
                         break;
                     case FDIV:
-                        doFloatMath(stack, (x, y) -> x / y);
+                        doFloatMath(stack, now.getOpcode());
                         break;
                     case FREM:
-                        doFloatMath(stack, (x, y) -> x % y);
+                        doFloatMath(stack, now.getOpcode());
                         break;
                     case FCMPL:
-                        doFloatMathReturnInteger(stack, (x, y) -> Float.isNaN(x) || Float.isNaN(y) ? -1 : x.compareTo(y));
+                        doFloatCompare(stack, -1);
                         break;
                     case FCMPG:
-                        doFloatMathReturnInteger(stack, (x, y) -> Float.isNaN(x) || Float.isNaN(y) ? 1 : x.compareTo(y));
+                        doFloatCompare(stack, 1);
                         break;
                     case DADD:
-                        doDoubleMath(stack, (x, y) -> x + y);
+                        doDoubleMath(stack, now.getOpcode());
                         break;
                     case DSUB:
-                        doDoubleMath(stack, (x, y) -> x - y);
+                        doDoubleMath(stack, now.getOpcode());
                         break;
                     case DMUL:
-                        doDoubleMath(stack, (x, y) -> x * y);
+                        doDoubleMath(stack, now.getOpcode());
                         break;
                     case DDIV:
-                        doDoubleMath(stack, (x, y) -> x / y);
+                        doDoubleMath(stack, now.getOpcode());
                         break;
                     case DREM:
-                        doDoubleMath(stack, (x, y) -> x % y);
+                        doDoubleMath(stack, now.getOpcode());
                         break;
                     case DCMPL:
-                        doDoubleMathReturnInteger(stack, (x, y) -> Double.isNaN(x) || Double.isNaN(y) ? -1 : x.compareTo(y));
+                        doDoubleCompare(stack, -1);
                         break;
                     case DCMPG:
-                        doDoubleMathReturnInteger(stack, (x, y) -> Double.isNaN(x) || Double.isNaN(y) ? 1 : x.compareTo(y));
+                        doDoubleCompare(stack, 1);
                         break;
                     case INEG:
-                        stack.set(0, new JavaInteger(-stack.get(0).intValue()));
+                        stack.set(0, JavaInteger.of(-stack.peek().intValue()));
                         break;
                     case LNEG:
-                        stack.set(1, new JavaLong(-stack.get(1).longValue()));
+                        stack.set(1, JavaLong.of(-stack.get(1).longValue()));
                         break;
                     case FNEG:
-                        stack.set(0, new JavaFloat(-stack.get(0).floatValue()));
+                        stack.set(0, new JavaFloat(-stack.peek().floatValue()));
                         break;
                     case DNEG:
                         stack.set(1, new JavaDouble(-stack.get(1).doubleValue()));
                         break;
                     case IINC: {
                         IincInsnNode cast = (IincInsnNode) now;
-                        JavaInteger integer = (JavaInteger) locals.get(cast.var);
-                        integer.increment(cast.incr);
+                        locals.set(cast.var, JavaInteger.of(locals.get(cast.var).intValue() + cast.incr));
                         break;
                     }
                     case I2L: {
-                        stack.add(0, new JavaLong(stack.remove(0).intValue()));
-                        stack.add(0, new JavaTop());
+                        stack.push(JavaLong.of(stack.pop().intValue()));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     }
                     case I2F: {
-                        stack.add(0, new JavaFloat(stack.remove(0).intValue()));
+                        stack.push(new JavaFloat(stack.pop().intValue()));
                         break;
                     }
                     case I2D: {
-                        stack.add(0, new JavaDouble(stack.remove(0).intValue()));
-                        stack.add(0, new JavaTop());
+                        stack.push(new JavaDouble(stack.pop().intValue()));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     }
                     case L2I: {
-                        JavaValue value = stack.remove(0);
+                        JavaValue value = stack.pop();
                         if (VERIFY && !(value instanceof JavaTop)) {
                             throw new ExecutionException("Expected JavaTop");
                         }
-                        stack.add(0, new JavaInteger((int) stack.remove(0).longValue()));
+                        stack.push(JavaInteger.of((int) stack.pop().longValue()));
                         break;
                     }
                     case L2F: {
-                        JavaValue value = stack.remove(0);
+                        JavaValue value = stack.pop();
                         if (VERIFY && !(value instanceof JavaTop)) {
                             throw new ExecutionException("Expected JavaTop");
                         }
-                        stack.add(0, new JavaFloat((float) stack.remove(0).longValue()));
+                        stack.push(new JavaFloat((float) stack.pop().longValue()));
                         break;
                     }
                     case L2D: {
@@ -756,54 +1129,54 @@ public class MethodExecutor {
                         break;
                     }
                     case F2I: {
-                        stack.add(0, new JavaInteger((int) stack.remove(0).floatValue()));
+                        stack.push(JavaInteger.of((int) stack.pop().floatValue()));
                         break;
                     }
                     case F2L: {
-                        stack.add(0, new JavaLong((long) stack.remove(0).floatValue()));
-                        stack.add(0, new JavaTop());
+                        stack.push(JavaLong.of((long) stack.pop().floatValue()));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     }
                     case F2D: {
-                        stack.add(0, new JavaDouble((double) stack.remove(0).floatValue()));
-                        stack.add(0, new JavaTop());
+                        stack.push(new JavaDouble((double) stack.pop().floatValue()));
+                        stack.push(JavaTop.INSTANCE);
                         break;
                     }
                     case D2I: {
-                        JavaValue value = stack.remove(0);
+                        JavaValue value = stack.pop();
                         if (VERIFY && !(value instanceof JavaTop)) {
                             throw new ExecutionException("Expected JavaTop");
                         }
-                        stack.add(0, new JavaInteger((int) stack.remove(0).doubleValue()));
+                        stack.push(JavaInteger.of((int) stack.pop().doubleValue()));
                         break;
                     }
                     case D2L: {
-                        stack.add(1, new JavaLong((long) stack.remove(1).doubleValue()));
+                        stack.add(1, JavaLong.of((long) stack.remove(1).doubleValue()));
                         break;
                     }
                     case D2F: {
-                        JavaValue value = stack.remove(0);
+                        JavaValue value = stack.pop();
                         if (VERIFY && !(value instanceof JavaTop)) {
                             throw new ExecutionException("Expected JavaTop");
                         }
-                        stack.add(0, new JavaFloat((float) stack.remove(0).doubleValue()));
+                        stack.push(new JavaFloat((float) stack.pop().doubleValue()));
                         break;
                     }
                     case I2B: {
-                        stack.add(0, new JavaByte((byte) stack.remove(0).intValue()));
+                        stack.push(JavaByte.of((byte) stack.pop().intValue()));
                         break;
                     }
                     case I2C: {
-                        stack.add(0, new JavaCharacter((char) stack.remove(0).intValue()));
+                        stack.push(JavaCharacter.of((char) stack.pop().intValue()));
                         break;
                     }
                     case I2S: {
-                        stack.add(0, new JavaShort((short) stack.remove(0).intValue()));
+                        stack.push(JavaShort.of((short) stack.pop().intValue()));
                         break;
                     }
                     case IFEQ: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() == 0) {
                             now = cast.label;
                         }
@@ -811,7 +1184,7 @@ public class MethodExecutor {
                     }
                     case IFNE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() != 0) {
                             now = cast.label;
                         }
@@ -819,7 +1192,7 @@ public class MethodExecutor {
                     }
                     case IFLT: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() < 0) {
                             now = cast.label;
                         }
@@ -827,7 +1200,7 @@ public class MethodExecutor {
                     }
                     case IFGE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() >= 0) {
                             now = cast.label;
                         }
@@ -835,7 +1208,7 @@ public class MethodExecutor {
                     }
                     case IFGT: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() > 0) {
                             now = cast.label;
                         }
@@ -843,7 +1216,7 @@ public class MethodExecutor {
                     }
                     case IFLE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
+                        JavaValue o = stack.pop();
                         if (o.intValue() <= 0) {
                             now = cast.label;
                         }
@@ -851,8 +1224,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPEQ: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o.intValue() == o1.intValue()) {
                             now = cast.label;
                         }
@@ -860,8 +1233,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPNE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o.intValue() != o1.intValue()) {
                             now = cast.label;
                         }
@@ -869,8 +1242,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPLT: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o1.intValue() < o.intValue()) {
                             now = cast.label;
                         }
@@ -878,8 +1251,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPGE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o1.intValue() >= o.intValue()) {
                             now = cast.label;
                         }
@@ -887,8 +1260,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPGT: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o1.intValue() > o.intValue()) {
                             now = cast.label;
                         }
@@ -896,8 +1269,8 @@ public class MethodExecutor {
                     }
                     case IF_ICMPLE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (o1.intValue() <= o.intValue()) {
                             now = cast.label;
                         }
@@ -905,8 +1278,8 @@ public class MethodExecutor {
                     }
                     case IF_ACMPNE: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (context.provider.canCheckEquality(o, o1, context)) {
                             boolean eq = context.provider.checkEquality(o, o1, context);
                             if (!eq) {
@@ -919,8 +1292,8 @@ public class MethodExecutor {
                     }
                     case IF_ACMPEQ: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue o = stack.remove(0);
-                        JavaValue o1 = stack.remove(0);
+                        JavaValue o = stack.pop();
+                        JavaValue o1 = stack.pop();
                         if (context.provider.canCheckEquality(o, o1, context)) {
                             boolean eq = context.provider.checkEquality(o, o1, context);
                             if (eq) {
@@ -938,7 +1311,7 @@ public class MethodExecutor {
                     }
                     case JSR: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        stack.add(0, new JavaAddress(now));
+                        stack.push(new JavaAddress(now));
                         now = cast.label;
                         break;
                     }
@@ -952,7 +1325,7 @@ public class MethodExecutor {
                         break;
                     }
                     case TABLESWITCH: {
-                        int x = stack.remove(0).intValue();
+                        int x = stack.pop().intValue();
                         TableSwitchInsnNode cast = (TableSwitchInsnNode) now;
                         int offset = cast.min;
                         if (x < cast.labels.size() + offset && x - offset >= 0) {
@@ -963,7 +1336,7 @@ public class MethodExecutor {
                         break;
                     }
                     case LOOKUPSWITCH: {
-                        Integer x = stack.remove(0).intValue();
+                        Integer x = stack.pop().intValue();
                         LookupSwitchInsnNode cast = (LookupSwitchInsnNode) now;
                         if (cast.keys.indexOf(x) != -1) {
                             now = cast.labels.get(cast.keys.indexOf(x));
@@ -974,26 +1347,26 @@ public class MethodExecutor {
                     }
                     case IRETURN: {
                         context.pop();
-                        return (T) convert(value(stack.remove(0)), Type.getReturnType(method.desc).getDescriptor());
+                        return (T) convert(value(stack.pop()), Type.getReturnType(method.desc).getDescriptor());
                     }
                     case LRETURN: {
                         context.pop();
-                        stack.remove(0);
-                        return (T) (Long) stack.remove(0).longValue();
+                        stack.pop();
+                        return (T) (Long) stack.pop().longValue();
                     }
                     case FRETURN: {
                         context.pop();
-                        return (T) (Float) stack.remove(0).floatValue();
+                        return (T) (Float) stack.pop().floatValue();
                     }
                     case DRETURN: {
                         context.pop();
-                        stack.remove(0);
-                        return (T) (Double) stack.remove(0).doubleValue();
+                        stack.pop();
+                        return (T) (Double) stack.pop().doubleValue();
                     }
                     case ARETURN: {
                         context.pop();
-                        JavaValue value = stack.remove(0);
-                        TypeStore.returnObjects.put(Thread.currentThread().getId(), (JavaObject)value);
+                        JavaValue value = stack.pop();
+                        context.returnObject = (JavaObject)value;
                         return (T) value.value();
                     }
                     case RETURN: {
@@ -1020,69 +1393,27 @@ public class MethodExecutor {
                     		context.provider.setField(cast.owner, cast.name, cast.desc, null, provided, context);
                     	}
 
-                        switch (type.getSort()) {
-                            case Type.BOOLEAN:
-                                stack.add(0, new JavaBoolean((Boolean) provided));
-                                break;
-                            case Type.CHAR:
-                                stack.add(0, new JavaCharacter((Character) provided));
-                                break;
-                            case Type.BYTE:
-                                stack.add(0, new JavaByte((Byte) provided));
-                                break;
-                            case Type.SHORT:
-                                stack.add(0, new JavaShort((Short) provided));
-                                break;
-                            case Type.INT:
-                                stack.add(0, new JavaInteger((Integer) provided));
-                                break;
-                            case Type.FLOAT:
-                                stack.add(0, new JavaFloat((Float) provided));
-                                break;
-                            case Type.LONG:
-                                stack.add(0, new JavaLong((Long) provided));
-                                stack.add(0, new JavaTop());
-                                break;
-                            case Type.DOUBLE:
-                                stack.add(0, new JavaDouble((Double) provided));
-                                stack.add(0, new JavaTop());
-                                break;
-                            case Type.ARRAY:
-                            case Type.OBJECT:
-                            	if(provided != null && provided.getClass().isArray())
-                            	{
-                            		if(TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, null) != null)
-                            		{
-                            			Entry<Object, String[]> entry = (Entry<Object, String[]>)TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, null).getKey();
-                            			stack.add(0, new JavaArray(entry.getKey(), entry.getValue()));
-                            		}else if(provided != null)
-                            			stack.add(0, new JavaArray(provided));
-                            	}else if(TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, null) == null)
-                            		stack.add(0, JavaValue.valueOf(provided));
-                            	else
-                            		stack.add(0, new JavaObject(provided, TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, null).getValue()));
-                            	break;
-                        }
+                        pushFieldValue(stack, type, provided, cast, null, context);
                         break;
                     }
                     case PUTSTATIC: {
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         if (obj instanceof JavaTop) {
-                        	obj = stack.remove(0);
+                        	obj = stack.pop();
                         	if (VERIFY && !(obj instanceof JavaDouble) && !(obj instanceof JavaLong)) {
                         		throw new ExecutionException("JavaTop not followed by JavaLong or JavaDouble");
                         	}
                         }
                         FieldInsnNode cast = (FieldInsnNode) now;
                         if(obj instanceof JavaArray)
-                        	TypeStore.setFieldToStore(cast.owner, cast.name, cast.desc, null, new AbstractMap.SimpleEntry<>(((JavaArray)obj).getObjectArrayWithValues(), obj.type()));
+                        	context.typeStore.setFieldToStore(cast.owner, cast.name, cast.desc, null, new AbstractMap.SimpleEntry<>(((JavaArray)obj).getObjectArrayWithValues(), obj.type()));
                         else if(obj instanceof JavaObject)
-                        	TypeStore.setFieldToStore(cast.owner, cast.name, cast.desc, null, new AbstractMap.SimpleEntry<>(convert(value(obj), cast.desc), obj.type()));
+                        	context.typeStore.setFieldToStore(cast.owner, cast.name, cast.desc, null, new AbstractMap.SimpleEntry<>(convert(value(obj), cast.desc), obj.type()));
                         context.provider.setField(cast.owner, cast.name, cast.desc, null, convert(value(obj), cast.desc), context);
                         break;
                     }
                     case GETFIELD: {
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         FieldInsnNode cast = (FieldInsnNode) now;
                         Type type = Type.getType(cast.desc);
                         Class<?> clazz = PrimitiveUtils.getPrimitiveByName(type.getClassName());
@@ -1102,93 +1433,36 @@ public class MethodExecutor {
                     		context.provider.setField(cast.owner, cast.name, cast.desc, obj, provided, context);
                     	}
                         
-                        switch (type.getSort()) {
-                            case Type.BOOLEAN:
-                                stack.add(0, new JavaBoolean((Boolean) provided));
-                                break;
-                            case Type.CHAR:
-                                stack.add(0, new JavaCharacter((Character) provided));
-                                break;
-                            case Type.BYTE:
-                                stack.add(0, new JavaByte((Byte) provided));
-                                break;
-                            case Type.SHORT:
-                                stack.add(0, new JavaShort((Short) provided));
-                                break;
-                            case Type.INT:
-                                stack.add(0, new JavaInteger((Integer) provided));
-                                break;
-                            case Type.FLOAT:
-                                stack.add(0, new JavaFloat((Float) provided));
-                                break;
-                            case Type.LONG:
-                                stack.add(0, new JavaLong((Long) provided));
-                                stack.add(0, new JavaTop());
-                                break;
-                            case Type.DOUBLE:
-                                stack.add(0, new JavaDouble((Double) provided));
-                                stack.add(0, new JavaTop());
-                                break;
-                            case Type.ARRAY:
-                            case Type.OBJECT:
-                            	if(provided != null && provided.getClass().isArray())
-                            	{
-                            		if(TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj) != null)
-                            		{
-                            			Entry<Object, String[]> entry = (Entry<Object, String[]>)TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj).getKey();
-                            			stack.add(0, new JavaArray(entry.getKey(), entry.getValue()));
-                            		}else if(provided != null)
-                            			stack.add(0, new JavaArray(provided));
-                            	}else if(TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj) == null)
-                            		stack.add(0, JavaValue.valueOf(provided));
-                            	else
-                            		stack.add(0, new JavaObject(provided, TypeStore.getFieldFromStore(cast.owner, cast.name, cast.desc, obj).getValue()));
-                                break;
-                        }
+                        pushFieldValue(stack, type, provided, cast, obj, context);
                         break;
                     }
                     case PUTFIELD: {
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         if (obj instanceof JavaTop) {
-                        	obj = stack.remove(0);
+                        	obj = stack.pop();
                         	if (VERIFY && !(obj instanceof JavaDouble) && !(obj instanceof JavaLong)) {
                         		throw new ExecutionException("JavaTop not followed by JavaLong or JavaDouble");
                         	}
                         }
-                        JavaValue instance = stack.remove(0);
+                        JavaValue instance = stack.pop();
                         FieldInsnNode cast = (FieldInsnNode) now;
                         if(obj instanceof JavaArray)
-                        	TypeStore.setFieldToStore(cast.owner, cast.name, cast.desc, instance, new AbstractMap.SimpleEntry<>(((JavaArray)obj).getObjectArrayWithValues(), obj.type()));
+                        	context.typeStore.setFieldToStore(cast.owner, cast.name, cast.desc, instance, new AbstractMap.SimpleEntry<>(((JavaArray)obj).getObjectArrayWithValues(), obj.type()));
                         else if(obj instanceof JavaObject)	
-                        	TypeStore.setFieldToStore(cast.owner, cast.name, cast.desc, instance, new AbstractMap.SimpleEntry<>(convert(value(obj), cast.desc), obj.type()));
+                        	context.typeStore.setFieldToStore(cast.owner, cast.name, cast.desc, instance, new AbstractMap.SimpleEntry<>(convert(value(obj), cast.desc), obj.type()));
                         context.provider.setField(cast.owner, cast.name, cast.desc, instance, convert(value(obj), cast.desc), context);
                         break;
                     }
                     case INVOKEVIRTUAL: {
                         MethodInsnNode cast = (MethodInsnNode) now;
-                        Type type = Type.getReturnType(cast.desc);
-                        List<JavaValue> args = new ArrayList<>();
-                        List<Type> l = new ArrayList<>(Arrays.asList(Type.getArgumentTypes(cast.desc)));
-                        Collections.reverse(l);
-                        for (Type t1 : l) {
-                            if (t1.getSort() == Type.LONG || t1.getSort() == Type.DOUBLE) {
-                                if (!(stack.get(0) instanceof JavaTop)) {
-                                    throw new ExecutionException("Expected JavaTop");
-                                }
-                                stack.remove(0);
-                            }
-                            args.add(0, stack.remove(0).copy());
-                        }
-                        convertArgs(args, Type.getArgumentTypes(cast.desc));
-                        args.add(stack.remove(0));
+                        PreparedMethod.CallSite site = prepared.getCallSite(now);
+                        Type type = site.getReturnType();
+                        List<JavaValue> args = popArguments(stack, site.getArgumentTypes(), cast);
+                        convertArgs(args, site.getArgumentTypes());
+                        args.add(stack.pop());
                         if(context.customMethodFunc.containsKey(now))
                         {
-                        	JavaValue res = context.customMethodFunc.get(now).apply(args, context);
-                        	if(type.getSort() == Type.VOID)
-                        		break;
-                        	stack.add(0, res);
-                        	if(res instanceof JavaLong || res instanceof JavaDouble)
-                        		stack.add(0, new JavaTop());
+                        	pushCustomResult(stack, type, context.customMethodFunc.get(now).apply(args, context));
                         	break;
                         }
                         String owner = args.get(args.size() - 1).type();
@@ -1196,54 +1470,7 @@ public class MethodExecutor {
                             try {
                                 if (context.provider.canInvokeMethod(owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context)) {
                                     Object provided = context.provider.invokeMethod(owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context);
-                                    switch (type.getSort()) {
-                                        case Type.BOOLEAN:
-                                            stack.add(0, new JavaBoolean((Boolean) provided));
-                                            break;
-                                        case Type.CHAR:
-                                            stack.add(0, new JavaCharacter((Character) provided));
-                                            break;
-                                        case Type.BYTE:
-                                            stack.add(0, new JavaByte((Byte) provided));
-                                            break;
-                                        case Type.SHORT:
-                                            stack.add(0, new JavaShort((Short) provided));
-                                            break;
-                                        case Type.INT:
-                                            stack.add(0, new JavaInteger((Integer) provided));
-                                            break;
-                                        case Type.FLOAT:
-                                            stack.add(0, new JavaFloat((Float) provided));
-                                            break;
-                                        case Type.LONG:
-                                            stack.add(0, new JavaLong((Long) provided));
-                                            stack.add(0, new JavaTop());
-                                            break;
-                                        case Type.DOUBLE:
-                                            stack.add(0, new JavaDouble((Double) provided));
-                                            stack.add(0, new JavaTop());
-                                            break;
-                                        case Type.ARRAY:
-                                        case Type.OBJECT:
-                                        	if(provided != null && provided.getClass().isArray())
-                                        	{
-        	                                	if(TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-        	                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-        	                                	{
-        	                                		JavaArray array = (JavaArray)TypeStore.returnObjects.get(Thread.currentThread().getId());
-        	                                		stack.add(0, new JavaArray(array.value(), array.getTypeArray()));
-        	                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-        	                                	}else
-        	                                		stack.add(0, new JavaArray(provided));
-                                        	}else if(provided != null && TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-                                        		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-                                        	{
-                                        		stack.add(0, new JavaObject(provided, TypeStore.returnObjects.get(Thread.currentThread().getId()).type()));
-                                        		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-                                        	}else
-                                        		stack.add(0, JavaValue.valueOf(provided));
-                                        	break;
-                                    }
+                                    pushReturnValue(stack, type, provided, context);
                                 } else {
                                     throw new NoSuchMethodHandlerException("Could not find invoker for " + args.get(args.size() - 1).type() + " " + cast.owner + " " + cast.name + cast.desc).setThrownFromInvoke(true);
                                 }
@@ -1266,29 +1493,14 @@ public class MethodExecutor {
                     }
                     case INVOKESPECIAL: {
                         MethodInsnNode cast = (MethodInsnNode) now;
-                        Type type = Type.getReturnType(cast.desc);
-                        List<JavaValue> args = new ArrayList<>();
-                        List<Type> l = new ArrayList<>(Arrays.asList(Type.getArgumentTypes(cast.desc)));
-                        Collections.reverse(l);
-                        for (Type t1 : l) {
-                            if (t1.getSort() == Type.LONG || t1.getSort() == Type.DOUBLE) {
-                                if (!(stack.get(0) instanceof JavaTop)) {
-                                    throw new ExecutionException("Expected JavaTop");
-                                }
-                                stack.remove(0);
-                            }
-                            args.add(0, stack.remove(0).copy());
-                        }
-                        convertArgs(args, Type.getArgumentTypes(cast.desc));
-                        args.add(stack.remove(0));
+                        PreparedMethod.CallSite site = prepared.getCallSite(now);
+                        Type type = site.getReturnType();
+                        List<JavaValue> args = popArguments(stack, site.getArgumentTypes(), cast);
+                        convertArgs(args, site.getArgumentTypes());
+                        args.add(stack.pop());
                         if(context.customMethodFunc.containsKey(now))
                         {
-                        	JavaValue res = context.customMethodFunc.get(now).apply(args, context);
-                        	if(type.getSort() == Type.VOID)
-                        		break;
-                        	stack.add(0, res);
-                        	if(res instanceof JavaLong || res instanceof JavaDouble)
-                        		stack.add(0, new JavaTop());
+                        	pushCustomResult(stack, type, context.customMethodFunc.get(now).apply(args, context));
                         	break;
                         }
                         String owner = cast.owner;
@@ -1296,54 +1508,7 @@ public class MethodExecutor {
                             try {
                                 if (context.provider.canInvokeMethod(owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context)) {
                                     Object provided = context.provider.invokeMethod(owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context);
-                                    switch (type.getSort()) {
-                                        case Type.BOOLEAN:
-                                            stack.add(0, new JavaBoolean((Boolean) provided));
-                                            break;
-                                        case Type.CHAR:
-                                            stack.add(0, new JavaCharacter((Character) provided));
-                                            break;
-                                        case Type.BYTE:
-                                            stack.add(0, new JavaByte((Byte) provided));
-                                            break;
-                                        case Type.SHORT:
-                                            stack.add(0, new JavaShort((Short) provided));
-                                            break;
-                                        case Type.INT:
-                                            stack.add(0, new JavaInteger((Integer) provided));
-                                            break;
-                                        case Type.FLOAT:
-                                            stack.add(0, new JavaFloat((Float) provided));
-                                            break;
-                                        case Type.LONG:
-                                            stack.add(0, new JavaLong((Long) provided));
-                                            stack.add(0, new JavaTop());
-                                            break;
-                                        case Type.DOUBLE:
-                                            stack.add(0, new JavaDouble((Double) provided));
-                                            stack.add(0, new JavaTop());
-                                            break;
-                                        case Type.ARRAY:
-                                        case Type.OBJECT:
-                                        	if(provided != null && provided.getClass().isArray())
-                                        	{
-        	                                	if(TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-        	                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-        	                                	{
-        	                                		JavaArray array = (JavaArray)TypeStore.returnObjects.get(Thread.currentThread().getId());
-        	                                		stack.add(0, new JavaArray(array.value(), array.getTypeArray()));
-        	                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-        	                                	}else
-        	                                		stack.add(0, new JavaArray(provided));
-                                        	}else if(provided != null && TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-                                        		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-                                        	{
-                                        		stack.add(0, new JavaObject(provided, TypeStore.returnObjects.get(Thread.currentThread().getId()).type()));
-                                        		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-                                        	}else
-                                        		stack.add(0, JavaValue.valueOf(provided));
-                                            break;
-                                    }
+                                    pushReturnValue(stack, type, provided, context);
                                 } else {
                                     throw new NoSuchMethodHandlerException("Could not find invoker for " + cast.owner + " " + cast.name + cast.desc).setThrownFromInvoke(true);
                                 }
@@ -1366,80 +1531,18 @@ public class MethodExecutor {
                     }
                     case INVOKESTATIC: {
                         MethodInsnNode cast = (MethodInsnNode) now;
-                        Type type = Type.getReturnType(cast.desc);
-                        List<JavaValue> args = new ArrayList<>();
-                        List<Type> l = new ArrayList<>(Arrays.asList(Type.getArgumentTypes(cast.desc)));
-                        Collections.reverse(l);
-                        for (Type t1 : l) {
-                            if (t1.getSort() == Type.LONG || t1.getSort() == Type.DOUBLE) {
-                                if (!(stack.get(0) instanceof JavaTop)) {
-                                    throw new ExecutionException("Expected JavaTop while invoking " + cast.owner + " " + cast.name + " " + cast.desc + ", but got " + stack.get(0).getClass().getSimpleName());
-                                }
-                                stack.remove(0);
-                            }
-                            args.add(0, stack.remove(0).copy());
-                        }
-                        convertArgs(args, Type.getArgumentTypes(cast.desc));
+                        PreparedMethod.CallSite site = prepared.getCallSite(now);
+                        Type type = site.getReturnType();
+                        List<JavaValue> args = popArguments(stack, site.getArgumentTypes(), cast);
+                        convertArgs(args, site.getArgumentTypes());
                         if(context.customMethodFunc.containsKey(now))
                         {
-                        	JavaValue res = context.customMethodFunc.get(now).apply(args, context);
-                        	if(type.getSort() == Type.VOID)
-                        		break;
-                        	stack.add(0, res);
-                        	if(res instanceof JavaLong || res instanceof JavaDouble)
-                        		stack.add(0, new JavaTop());
+                        	pushCustomResult(stack, type, context.customMethodFunc.get(now).apply(args, context));
                         	break;
                         }
                         if (context.provider.canInvokeMethod(cast.owner, cast.name, cast.desc, null, args, context)) {
                             Object provided = context.provider.invokeMethod(cast.owner, cast.name, cast.desc, null, args, context);
-                            switch (type.getSort()) {
-                                case Type.BOOLEAN:
-                                    stack.add(0, new JavaBoolean((Boolean) provided));
-                                    break;
-                                case Type.CHAR:
-                                    stack.add(0, new JavaCharacter((Character) provided));
-                                    break;
-                                case Type.BYTE:
-                                    stack.add(0, new JavaByte((Byte) provided));
-                                    break;
-                                case Type.SHORT:
-                                    stack.add(0, new JavaShort((Short) provided));
-                                    break;
-                                case Type.INT:
-                                    stack.add(0, new JavaInteger((Integer) provided));
-                                    break;
-                                case Type.FLOAT:
-                                    stack.add(0, new JavaFloat((Float) provided));
-                                    break;
-                                case Type.LONG:
-                                    stack.add(0, new JavaLong((Long) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.DOUBLE:
-                                    stack.add(0, new JavaDouble((Double) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.ARRAY:
-                                case Type.OBJECT:
-                                	if(provided != null && provided.getClass().isArray())
-                                	{
-	                                	if(TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-	                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-	                                	{
-	                                		JavaArray array = (JavaArray)TypeStore.returnObjects.get(Thread.currentThread().getId());
-	                                		stack.add(0, new JavaArray(array.value(), array.getTypeArray()));
-	                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-	                                	}else
-	                                		stack.add(0, new JavaArray(provided));
-                                	}else if(provided != null && TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-                                	{
-                                		stack.add(0, new JavaObject(provided, TypeStore.returnObjects.get(Thread.currentThread().getId()).type()));
-                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-                                	}else
-                                		stack.add(0, JavaValue.valueOf(provided));
-                                    break;
-                            }
+                            pushReturnValue(stack, type, provided, context);
                         } else {
                             throw new NoSuchMethodHandlerException("Could not find invoker for " + cast.owner + " " + cast.name + cast.desc).setThrownFromInvoke(true);
                         }
@@ -1447,131 +1550,22 @@ public class MethodExecutor {
                     }
                     case INVOKEINTERFACE: {
                         MethodInsnNode cast = (MethodInsnNode) now;
-                        Type type = Type.getReturnType(cast.desc);
-                        List<JavaValue> args = new ArrayList<>();
-                        List<Type> l = new ArrayList<>(Arrays.asList(Type.getArgumentTypes(cast.desc)));
-                        Collections.reverse(l);
-                        for (Type t1 : l) {
-                            if (t1.getSort() == Type.LONG || t1.getSort() == Type.DOUBLE) {
-                                if (!(stack.get(0) instanceof JavaTop)) {
-                                    throw new ExecutionException("Expected JavaTop");
-                                }
-                                stack.remove(0);
-                            }
-                            args.add(0, stack.remove(0).copy());
-                        }
-                        convertArgs(args, Type.getArgumentTypes(cast.desc));
-                        args.add(stack.remove(0));
+                        PreparedMethod.CallSite site = prepared.getCallSite(now);
+                        Type type = site.getReturnType();
+                        List<JavaValue> args = popArguments(stack, site.getArgumentTypes(), cast);
+                        convertArgs(args, site.getArgumentTypes());
+                        args.add(stack.pop());
                         if(context.customMethodFunc.containsKey(now))
                         {
-                        	JavaValue res = context.customMethodFunc.get(now).apply(args, context);
-                        	if(type.getSort() == Type.VOID)
-                        		break;
-                        	stack.add(0, res);
-                        	if(res instanceof JavaLong || res instanceof JavaDouble)
-                        		stack.add(0, new JavaTop());
+                        	pushCustomResult(stack, type, context.customMethodFunc.get(now).apply(args, context));
                         	break;
                         }
                         if (context.provider.canInvokeMethod(args.get(args.size() - 1).type(), cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context)) {
                         	Object provided = context.provider.invokeMethod(args.get(args.size() - 1).type(), cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context);
-                            switch (type.getSort()) {
-                                case Type.BOOLEAN:
-                                    stack.add(0, new JavaBoolean((Boolean) provided));
-                                    break;
-                                case Type.CHAR:
-                                    stack.add(0, new JavaCharacter((Character) provided));
-                                    break;
-                                case Type.BYTE:
-                                    stack.add(0, new JavaByte((Byte) provided));
-                                    break;
-                                case Type.SHORT:
-                                    stack.add(0, new JavaShort((Short) provided));
-                                    break;
-                                case Type.INT:
-                                    stack.add(0, new JavaInteger((Integer) provided));
-                                    break;
-                                case Type.FLOAT:
-                                    stack.add(0, new JavaFloat((Float) provided));
-                                    break;
-                                case Type.LONG:
-                                    stack.add(0, new JavaLong((Long) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.DOUBLE:
-                                    stack.add(0, new JavaDouble((Double) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.ARRAY:
-                                case Type.OBJECT:
-                                	if(provided != null && provided.getClass().isArray())
-                                	{
-	                                	if(TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-	                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-	                                	{
-	                                		JavaArray array = (JavaArray)TypeStore.returnObjects.get(Thread.currentThread().getId());
-	                                		stack.add(0, new JavaArray(array.value(), array.getTypeArray()));
-	                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-	                                	}else
-	                                		stack.add(0, new JavaArray(provided));
-                                	}else if(provided != null && TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-                                	{
-                                		stack.add(0, new JavaObject(provided, TypeStore.returnObjects.get(Thread.currentThread().getId()).type()));
-                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-                                	}else
-                                		stack.add(0, JavaValue.valueOf(provided));
-                                    break;
-                            }
+                            pushReturnValue(stack, type, provided, context);
                         } else if (context.provider.canInvokeMethod(cast.owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context)) {
                             Object provided = context.provider.invokeMethod(cast.owner, cast.name, cast.desc, args.get(args.size() - 1), args.subList(0, args.size() - 1), context);
-                            switch (type.getSort()) {
-                                case Type.BOOLEAN:
-                                    stack.add(0, new JavaBoolean((Boolean) provided));
-                                    break;
-                                case Type.CHAR:
-                                    stack.add(0, new JavaCharacter((Character) provided));
-                                    break;
-                                case Type.BYTE:
-                                    stack.add(0, new JavaByte((Byte) provided));
-                                    break;
-                                case Type.SHORT:
-                                    stack.add(0, new JavaShort((Short) provided));
-                                    break;
-                                case Type.INT:
-                                    stack.add(0, new JavaInteger((Integer) provided));
-                                    break;
-                                case Type.FLOAT:
-                                    stack.add(0, new JavaFloat((Float) provided));
-                                    break;
-                                case Type.LONG:
-                                    stack.add(0, new JavaLong((Long) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.DOUBLE:
-                                    stack.add(0, new JavaDouble((Double) provided));
-                                    stack.add(0, new JavaTop());
-                                    break;
-                                case Type.ARRAY:
-                                case Type.OBJECT:
-                                	if(provided != null && provided.getClass().isArray())
-                                	{
-	                                	if(TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-	                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-	                                	{
-	                                		JavaArray array = (JavaArray)TypeStore.returnObjects.get(Thread.currentThread().getId());
-	                                		stack.add(0, new JavaArray(array.value(), array.getTypeArray()));
-	                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-	                                	}else
-	                                		stack.add(0, new JavaArray(provided));
-                                	}else if(provided != null && TypeStore.returnObjects.containsKey(Thread.currentThread().getId())
-                                		&& TypeStore.returnObjects.get(Thread.currentThread().getId()).value() == provided)
-                                	{
-                                		stack.add(0, new JavaObject(provided, TypeStore.returnObjects.get(Thread.currentThread().getId()).type()));
-                                		TypeStore.returnObjects.remove(Thread.currentThread().getId());
-                                	}else
-                                		stack.add(0, JavaValue.valueOf(provided));
-                                    break;
-                            }
+                            pushReturnValue(stack, type, provided, context);
                         }else {
                             throw new NoSuchMethodHandlerException("Could not find invoker for " + args.get(args.size() - 1).type() + " " + cast.owner + " " + cast.name + cast.desc).setThrownFromInvoke(true);
                         }
@@ -1581,118 +1575,39 @@ public class MethodExecutor {
                     	if(context.customMethodFunc.containsKey(now))
                         {
                     		InvokeDynamicInsnNode cast = (InvokeDynamicInsnNode)now;
-                    		List<JavaValue> args = new ArrayList<>();
-                    		//First we add bootstrap args, then normal pulled args
-                    		args.add(new JavaObject(null, "java/lang/invoke/MethodHandles$Lookup")); // Lookup
-							args.add(JavaValue.valueOf(cast.name));
-							args.add(new JavaObject(cast.desc, "java/lang/invoke/MethodType")); // dyn methodtype
-							Type[] argumentTypes = Type.getArgumentTypes(cast.bsm.getDesc());
-							for(int i = 0; i < cast.bsmArgs.length; i++)
-							{
-								Object arg = cast.bsmArgs[i];
-								if(arg.getClass() == Type.class)
-								{
-									Type type = (Type)arg;
-									args.add(JavaValue.valueOf(new JavaClass(
-										type.getInternalName().replace('/', '.'), context)));
-								}else if(argumentTypes[i + 3].getSort() == Type.BOOLEAN)
-									args.add(new JavaBoolean((Boolean)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.CHAR)
-									args.add(new JavaCharacter((Character)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.BYTE)
-								args.add(new JavaByte((Byte)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.SHORT)
-									args.add(new JavaShort((Short)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.INT)
-									args.add(new JavaInteger((Integer)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.FLOAT)
-									args.add(new JavaFloat((Float)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.LONG)
-									args.add(new JavaLong((Long)arg));
-								else if(argumentTypes[i + 3].getSort() == Type.DOUBLE)
-									args.add(new JavaDouble((Double)arg));
-								else
-									args.add(JavaValue.valueOf(arg));
-							}
-							List<JavaValue> newArgs = new ArrayList<>();
-							List<Type> l = new ArrayList<>(Arrays.asList(Type.getArgumentTypes(cast.desc)));
-	                        Collections.reverse(l);
-	                        for (Type t1 : l) {
-	                            if (t1.getSort() == Type.LONG || t1.getSort() == Type.DOUBLE) {
-	                                if (!(stack.get(0) instanceof JavaTop)) {
-	                                    throw new ExecutionException("Expected JavaTop");
-	                                }
-	                                stack.remove(0);
-	                            }
-	                            newArgs.add(0, stack.remove(0).copy());
-	                        }
-							args.addAll(newArgs);
-                        	JavaValue res = context.customMethodFunc.get(now).apply(args, context);
-                        	if(Type.getReturnType(cast.desc).getSort() == Type.VOID)
-                        		break;
-                        	stack.add(0, res);
-                        	if(res instanceof JavaLong || res instanceof JavaDouble)
-                        		stack.add(0, new JavaTop());
+							PreparedMethod.CallSite site = prepared.getCallSite(now);
+							List<JavaValue> args = bootstrapArguments(cast, site.getBootstrapArgumentTypes(), context);
+							args.addAll(popArguments(stack, site.getArgumentTypes(), cast));
+                        	pushCustomResult(stack, site.getReturnType(), context.customMethodFunc.get(now).apply(args, context));
                         	break;
                         }
                         throw new ExecutionException(new UnsupportedOperationException());
                     }
                     case NEW: {
                         TypeInsnNode cast = (TypeInsnNode) now;
-                        stack.add(0, new JavaObject(cast.desc));
+                        stack.push(new JavaObject(cast.desc));
                         break;
                     }
                     case NEWARRAY: {
-                        int len = stack.remove(0).intValue();
-                        IntInsnNode cast = (IntInsnNode) now;
-                        Object add = null;
-                        switch (cast.operand) {
-                            case T_BOOLEAN:
-                                add = new boolean[len];
-                                break;
-                            case T_CHAR:
-                                add = new char[len];
-                                break;
-                            case T_FLOAT:
-                                add = new float[len];
-                                break;
-                            case T_DOUBLE:
-                                add = new double[len];
-                                break;
-                            case T_BYTE:
-                                add = new byte[len];
-                                break;
-                            case T_SHORT:
-                                add = new short[len];
-                                break;
-                            case T_INT:
-                                add = new int[len];
-                                break;
-                            case T_LONG:
-                                add = new long[len];
-                                break;
-                            default:
-                                throw new ExecutionException("Unknown newarray type " + cast.operand);
-                        }
-                        stack.add(0, new JavaArray(add));
+                        executeNewArray(stack, (IntInsnNode) now);
                         break;
                     }
                     case ANEWARRAY: {
-                        int len = stack.remove(0).intValue();
-                        stack.add(0, new JavaArray(new Object[len]));
+                        int len = stack.pop().intValue();
+                        stack.push(new JavaArray(new Object[len]));
                         break;
                     }
                     case ARRAYLENGTH: {
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         if (VERIFY && obj.value() == null) {
                             throw new ExecutionException("Array is null");
                         }
                         int len = Array.getLength(obj.value());
-                        stack.add(0, new JavaInteger(len));
+                        stack.push(JavaInteger.of(len));
                         break;
                     }
                     case ATHROW: {
-                        Object throwable = stack.remove(0).value();
+                        Object throwable = stack.pop().value();
                         if (throwable instanceof Throwable) {
                             toThrow = (Throwable) throwable;
                             break;
@@ -1707,7 +1622,7 @@ public class MethodExecutor {
                     }
                     case CHECKCAST: {
                         TypeInsnNode cast = (TypeInsnNode) now;
-                        JavaValue obj = stack.get(0);
+                        JavaValue obj = stack.peek();
                         Type type;
                         try {
                             type = Type.getType(cast.desc);
@@ -1727,7 +1642,7 @@ public class MethodExecutor {
                     }
                     case INSTANCEOF: {
                         TypeInsnNode cast = (TypeInsnNode) now;
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         Type type;
                         try {
                             type = Type.getType(cast.desc);
@@ -1736,51 +1651,27 @@ public class MethodExecutor {
                         }
                         if (context.provider.canCheckInstanceOf(obj, type, context)) {
                             boolean is = context.provider.instanceOf(obj, type, context);
-                            stack.add(0, new JavaInteger(is ? 1 : 0));
+                            stack.push(JavaInteger.of(is ? 1 : 0));
                         } else {
                             throw new NoSuchComparisonHandlerException("No comparator found for " + cast.desc);
                         }
                         break;
                     }
                     case MONITORENTER: {
-                        context.monitor.enter(stack.remove(0));
+                        context.monitor.enter(stack.pop(), context);
                         break;
                     }
                     case MONITOREXIT: {
-                        context.monitor.exit(stack.remove(0));
+                        context.monitor.exit(stack.pop(), context);
                         break;
                     }
                     case MULTIANEWARRAY: {
-                        MultiANewArrayInsnNode cast = (MultiANewArrayInsnNode) now;
-                        List<Integer> sizes = new ArrayList<>();
-                        for (int i = 0; i < cast.dims; i++) {
-                            sizes.add(0, stack.remove(0).intValue());
-                        }
-                        Type type = Type.getType(cast.desc);
-                        Class<?> clazz = PrimitiveUtils.getPrimitiveByName(type.getClassName());
-                        Class<?> create = clazz == null ? Object.class : clazz;
-                        Object root = Array.newInstance(create, sizes.get(0));
-                        List<Object> currentArray = new ArrayList<>();
-                        currentArray.add(root);
-
-                        for (int i = 0; i < sizes.size() - 1; i++) {
-                            List<Object> temp = new ArrayList<>(currentArray);
-                            currentArray.clear();
-                            int size = sizes.get(i);
-                            for (int s = 0; s < size; s++) {
-                                for (Object o : temp) {
-                                    Object created = Array.newInstance(create, sizes.get(i + 1));
-                                    currentArray.add(created);
-                                    Array.set(o, s, created);
-                                }
-                            }
-                        }
-                        stack.add(0, new JavaArray(root));
+                        executeMultiANewArray(stack, (MultiANewArrayInsnNode) now);
                         break;
                     }
                     case IFNULL: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         if (obj.value() == null) {
                             now = cast.label;
                         }
@@ -1788,7 +1679,7 @@ public class MethodExecutor {
                     }
                     case IFNONNULL: {
                         JumpInsnNode cast = (JumpInsnNode) now;
-                        JavaValue obj = stack.remove(0);
+                        JavaValue obj = stack.pop();
                         if (obj.value() != null) {
                             now = cast.label;
                         }
@@ -1802,44 +1693,20 @@ public class MethodExecutor {
                     }
                 }
 
-                context.doBreakpoint(now, false, stack, locals, toThrow);
+                if (context.hasBreakpoints()) {
+                    context.doBreakpoint(now, false, stack, locals, toThrow);
+                }
 
                 if (toThrow != null) {
                     if (DEBUG_PRINT_EXCEPTIONS) {
                         toThrow.printStackTrace(System.out);
                     }
-                    if (method.tryCatchBlocks != null) {
-                        for (TryCatchBlockNode tcbn : method.tryCatchBlocks) {
-                            if (method.instructions.indexOf(tcbn.start) <= method.instructions.indexOf(now) && method.instructions.indexOf(now) < method.instructions.indexOf(tcbn.end)) {
-                                if (tcbn.type == null || tcbn.type.equals("java/lang/Throwable")) {
-                                    stack.clear();
-                                    stack.add(JavaValue.valueOf(toThrow));
-                                    now = tcbn.handler;
-                                    continue forever;
-                                } else {
-                                    ClassNode cn = context.dictionary.get(Type.getType(toThrow.getClass()).getInternalName());
-                                    if (cn != null) {
-                                        boolean ok = false;
-                                        while (cn != null) {
-                                            if (cn.name.equals(tcbn.type)) {
-                                                ok = true;
-                                                break;
-                                            }
-                                            if (cn.superName == null) {
-                                                break;
-                                            }
-                                            cn = context.dictionary.get(cn.superName);
-                                        }
-                                        if (ok) {
-                                            stack.clear();
-                                            stack.add(JavaValue.valueOf(toThrow));
-                                            now = tcbn.handler;
-                                            continue forever;
-                                        }
-                                    }
-                                }
-                            }
-                        }
+                    TryCatchBlockNode handler = findHandler(prepared, now, toThrow, context);
+                    if (handler != null) {
+                        stack.clear();
+                        stack.push(JavaValue.valueOf(toThrow));
+                        now = handler.handler;
+                        continue forever;
                     }
                     throw new ExecutionException(toThrow);
                 }
@@ -1856,38 +1723,12 @@ public class MethodExecutor {
                 if (DEBUG_PRINT_EXCEPTIONS) {
                     t.printStackTrace(System.out);
                 }
-                if (method.tryCatchBlocks != null) {
-                    for (TryCatchBlockNode tcbn : method.tryCatchBlocks) {
-                        if (method.instructions.indexOf(tcbn.start) <= method.instructions.indexOf(now) && method.instructions.indexOf(now) < method.instructions.indexOf(tcbn.end)) {
-                            if (tcbn.type == null || tcbn.type.equals("java/lang/Throwable")) {
-                                stack.clear();
-                                stack.add(JavaValue.valueOf(t));
-                                now = tcbn.handler;
-                                continue forever;
-                            } else {
-                                ClassNode cn = context.dictionary.get(Type.getType(t.getClass()).getInternalName());
-                                if (cn != null) {
-                                    boolean ok = false;
-                                    while (cn != null) {
-                                        if (cn.name.equals(tcbn.type)) {
-                                            ok = true;
-                                            break;
-                                        }
-                                        if (cn.superName == null) {
-                                            break;
-                                        }
-                                        cn = context.dictionary.get(cn.superName);
-                                    }
-                                    if (ok) {
-                                        stack.clear();
-                                        stack.add(JavaValue.valueOf(t));
-                                        now = tcbn.handler;
-                                        continue forever;
-                                    }
-                                }
-                            }
-                        }
-                    }
+                TryCatchBlockNode handler = findHandler(prepared, now, t, context);
+                if (handler != null) {
+                    stack.clear();
+                    stack.push(JavaValue.valueOf(t));
+                    now = handler.handler;
+                    continue forever;
                 }
                 Utils.sneakyThrow(t);
                 return null;
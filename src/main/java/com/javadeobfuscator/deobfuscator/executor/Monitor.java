@@ -1,65 +1,163 @@
 package com.javadeobfuscator.deobfuscator.executor;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
+import com.javadeobfuscator.deobfuscator.executor.exceptions.DeadlockException;
 import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
 
+/**
+ * The monitors of emulated objects. Locks are held by emulated threads, which are told apart by their {@link Context}, and are keyed by the
+ * identity of the object itself rather than the value wrapping it. The lock table is striped, so threads locking unrelated objects rarely
+ * contend, and threads waiting for a lock or in {@link Object#wait()} wait on their stripe.
+ * <p>
+ * Waits which can never end fail with a {@link DeadlockException} instead: taking a lock held by a thread which is suspended on the same
+ * real thread until the waiting one finishes, and waiting without a timeout while the {@link ThreadStore} runs every thread to completion.
+ * Every wait also ends at the deadline of the {@link ExecutionBudget} of the context.
+ */
 public class Monitor {
-    private final Map<Object, Thread> locks = new HashMap<>();
-    private final Map<Thread, AtomicInteger> counters = new HashMap<>();
+    private static final int STRIPES = 64;
 
-    public void enter(Object obj) {
-    	if (((JavaValue)obj).value() == null) throw new NullPointerException();
+    private final Stripe[] stripes = new Stripe[STRIPES];
 
-        while (true) {
-            synchronized (locks) {
-                Thread current = Thread.currentThread();
-                if (!locks.containsKey(obj)) {
-                    locks.put(obj, current);
-                    counters.put(current, new AtomicInteger(1));
-                    break;
-                } else if (locks.get(obj) == current) {
-                    counters.get(current).getAndIncrement();
-                    break;
-                }
+    public Monitor() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void enter(JavaValue obj, Context context) {
+        Object value = value(obj);
+        Stripe stripe = stripe(value);
+        synchronized (stripe) {
+            acquire(stripe, value, context, 1);
+        }
+    }
+
+    public void exit(JavaValue obj, Context context) {
+        Object value = value(obj);
+        Stripe stripe = stripe(value);
+        synchronized (stripe) {
+            Lock lock = stripe.locks.get(value);
+            if (lock == null) {
+                throw new IllegalMonitorStateException("Object not locked");
+            }
+            if (lock.owner != context) {
+                throw new IllegalMonitorStateException("Object not owned by this thread");
+            }
+            if (--lock.count == 0) {
+                stripe.locks.remove(value);
+                stripe.notifyAll();
             }
+        }
+    }
 
-            synchronized (obj) {
-                try {
-                    obj.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+    /**
+     * Emulates {@link Object#wait(long)}: releases the lock on the object if the thread holds it, waits to be notified or for the timeout,
+     * then takes the lock back. Like the real method, this may return early.
+     */
+    public void await(JavaValue obj, long timeout, Context context) throws InterruptedException {
+        if (timeout == 0 && !context.threadStore.isConcurrent()) {
+            throw new DeadlockException("Object.wait() can never be notified while emulated threads run to completion");
+        }
+        Object value = value(obj);
+        Stripe stripe = stripe(value);
+        synchronized (stripe) {
+            Lock lock = stripe.locks.get(value);
+            int held = 0;
+            if (lock != null && lock.owner == context) {
+                held = lock.count;
+                stripe.locks.remove(value);
+                stripe.notifyAll();
+            }
+            waitOn(stripe, timeout, context);
+            if (held > 0) {
+                acquire(stripe, value, context, held);
             }
         }
     }
 
-    public void exit(Object obj) {
-    	if (((JavaValue)obj).value() == null) throw new NullPointerException();
-
-        boolean notify = false;
-        Thread current = Thread.currentThread();
-        synchronized (locks) {
-            if (!locks.containsKey(obj)) throw new IllegalMonitorStateException("Object not locked");
-            else if (locks.get(obj) != current)
-                throw new IllegalMonitorStateException("This object not owned by " + current);
-
-            AtomicInteger counter = counters.get(current);
-            if (counter.get() == 0) throw new IllegalMonitorStateException("Counter should not be zero");
-            else if (counter.decrementAndGet() == 0) {
-                locks.remove(obj);
-                counters.remove(current);
-                notify = true;
+    /**
+     * Emulates {@link Object#notifyAll()}. Threads waiting on other objects of the same stripe wake up as well, which they treat as a
+     * spurious wakeup.
+     */
+    public void notifyAll(JavaValue obj) {
+        Stripe stripe = stripe(value(obj));
+        synchronized (stripe) {
+            stripe.notifyAll();
+        }
+    }
+
+    private static void acquire(Stripe stripe, Object value, Context context, int count) {
+        while (true) {
+            Lock lock = stripe.locks.get(value);
+            if (lock == null) {
+                stripe.locks.put(value, new Lock(context, count));
+                return;
+            }
+            if (lock.owner == context) {
+                lock.count += count;
+                return;
+            }
+            if (lock.thread == Thread.currentThread()) {
+                throw new DeadlockException("Monitor is held by a thread which is suspended until this one finishes");
+            }
+            try {
+                waitOn(stripe, 0, context);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a monitor", e);
             }
         }
+    }
 
-        if (notify) {
-            synchronized (obj) {
-                obj.notifyAll();
+    /**
+     * Waits on the stripe for the timeout, or without one if it is zero, but no later than the deadline of the budget of the context
+     */
+    private static void waitOn(Stripe stripe, long timeout, Context context) throws InterruptedException {
+        ExecutionBudget budget = context.budget;
+        if (budget != null) {
+            budget.checkDeadline();
+            long remaining = budget.remainingNanos();
+            if (remaining != Long.MAX_VALUE) {
+                long limit = TimeUnit.NANOSECONDS.toMillis(remaining) + 1;
+                timeout = timeout == 0 ? limit : Math.min(timeout, limit);
             }
         }
+        stripe.wait(timeout);
+        if (budget != null) {
+            budget.checkDeadline();
+        }
+    }
+
+    private static Object value(JavaValue obj) {
+        Object value = obj.value();
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        return value;
     }
-}
 
+    private Stripe stripe(Object value) {
+        return stripes[System.identityHashCode(value) & (STRIPES - 1)];
+    }
+
+    private static class Stripe {
+        private final Map<Object, Lock> locks = new IdentityHashMap<>();
+    }
+
+    private static class Lock {
+        private final Context owner;
+        /**
+         * The real thread the owner was running on when it took the lock
+         */
+        private final Thread thread = Thread.currentThread();
+        private int count;
+
+        private Lock(Context owner, int count) {
+            this.owner = owner;
+            this.count = count;
+        }
+    }
+}
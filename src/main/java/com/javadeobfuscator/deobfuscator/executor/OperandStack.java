@@ -0,0 +1,106 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+/**
+ * Operand stack of an executing method, backed by an array sized from the method's max stack.
+ * <p>
+ * As a {@link java.util.List}, index 0 is the top of the stack, which is how the executor has always addressed it. {@link #push(JavaValue)}
+ * and {@link #pop()} are the same as {@code add(0, value)} and {@code remove(0)}, but don't have to shift anything.
+ */
+public class OperandStack extends AbstractList<JavaValue> {
+    private JavaValue[] values;
+    private int size;
+
+    public OperandStack(int capacity) {
+        this.values = new JavaValue[Math.max(capacity, 2)];
+    }
+
+    public void push(JavaValue value) {
+        if (size == values.length) {
+            // Only if max stack is wrong
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    public JavaValue pop() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Stack underflow");
+        }
+        JavaValue value = values[--size];
+        values[size] = null;
+        return value;
+    }
+
+    public JavaValue peek() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Stack underflow");
+        }
+        return values[size - 1];
+    }
+
+    @Override
+    public JavaValue get(int index) {
+        return values[slot(index)];
+    }
+
+    @Override
+    public JavaValue set(int index, JavaValue value) {
+        int slot = slot(index);
+        JavaValue previous = values[slot];
+        values[slot] = value;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, JavaValue value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == 0) {
+            push(value);
+            return;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        int slot = size - index;
+        System.arraycopy(values, slot, values, slot + 1, index);
+        values[slot] = value;
+        size++;
+    }
+
+    @Override
+    public JavaValue remove(int index) {
+        if (index == 0) {
+            return pop();
+        }
+        int slot = slot(index);
+        JavaValue value = values[slot];
+        System.arraycopy(values, slot + 1, values, slot, index);
+        values[--size] = null;
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return size - 1 - index;
+    }
+}
@@ -0,0 +1,218 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.MapMaker;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+/**
+ * Everything {@link MethodExecutor} would otherwise decode again on every call of a method: the instruction indexes, the exception handlers
+ * covering each instruction and the parsed descriptors of each call site.
+ * <p>
+ * Prepared methods are cached per {@link MethodNode}, in a concurrent map holding the methods weakly, so emulating threads don't contend on
+ * it. Callers look a method up once per call and hand the prepared form on. A cached one is discarded when the instruction list, its first or last instruction or the
+ * try-catch blocks no longer match what it was built from. That check is cheap but can't see every edit, so code which changes a method in
+ * place and then executes it again should call {@link #invalidate(MethodNode)}. The deobfuscator does so for every input class after each
+ * transformer.
+ */
+public class PreparedMethod {
+
+    private static final TryCatchBlockNode[] NO_HANDLERS = new TryCatchBlockNode[0];
+    private static final Map<MethodNode, PreparedMethod> CACHE = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Weak, as the cache is keyed by the method and would otherwise keep every method that was ever executed alive
+     */
+    private final WeakReference<MethodNode> method;
+    private final AbstractInsnNode[] instructions;
+    private final AbstractInsnNode first;
+    private final AbstractInsnNode last;
+    private final List<TryCatchBlockNode> tryCatchBlocks;
+    private final int tryCatchBlockCount;
+    private final Map<AbstractInsnNode, Integer> indexes;
+    /**
+     * Handlers covering each instruction, in the order they are tried. Instructions covered by the same handlers share one array.
+     */
+    private final TryCatchBlockNode[][] handlers;
+    private final Map<AbstractInsnNode, CallSite> callSites = new IdentityHashMap<>();
+
+    private PreparedMethod(MethodNode method) {
+        this.method = new WeakReference<>(method);
+        this.instructions = method.instructions.toArray();
+        this.first = method.instructions.getFirst();
+        this.last = method.instructions.getLast();
+        this.tryCatchBlocks = method.tryCatchBlocks;
+        this.tryCatchBlockCount = tryCatchBlocks == null ? 0 : tryCatchBlocks.size();
+        this.indexes = new IdentityHashMap<>(instructions.length);
+        for (int i = 0; i < instructions.length; i++) {
+            AbstractInsnNode insn = instructions[i];
+            indexes.put(insn, i);
+            if (insn instanceof MethodInsnNode) {
+                callSites.put(insn, new CallSite(((MethodInsnNode) insn).desc, null));
+            } else if (insn instanceof InvokeDynamicInsnNode) {
+                InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
+                callSites.put(insn, new CallSite(indy.desc, indy.bsm.getDesc()));
+            }
+        }
+        this.handlers = computeHandlers();
+    }
+
+    /**
+     * @return the prepared form of the given method, building it if it isn't cached or the method has changed
+     */
+    public static PreparedMethod of(MethodNode method) {
+        PreparedMethod prepared = CACHE.get(method);
+        if (prepared == null || !prepared.matches(method)) {
+            prepared = new PreparedMethod(method);
+            CACHE.put(method, prepared);
+        }
+        return prepared;
+    }
+
+    /**
+     * Drops the prepared form of the given method, if any.
+     */
+    public static void invalidate(MethodNode method) {
+        CACHE.remove(method);
+    }
+
+    private boolean matches(MethodNode method) {
+        return method.instructions.size() == instructions.length && method.instructions.getFirst() == first
+                && method.instructions.getLast() == last && method.tryCatchBlocks == tryCatchBlocks
+                && (tryCatchBlocks == null ? 0 : tryCatchBlocks.size()) == tryCatchBlockCount;
+    }
+
+    private TryCatchBlockNode[][] computeHandlers() {
+        TryCatchBlockNode[][] result = new TryCatchBlockNode[instructions.length][];
+        if (tryCatchBlockCount == 0) {
+            Arrays.fill(result, NO_HANDLERS);
+            return result;
+        }
+        List<List<TryCatchBlockNode>> covering = new ArrayList<>(instructions.length);
+        for (int i = 0; i < instructions.length; i++) {
+            covering.add(null);
+        }
+        for (TryCatchBlockNode tcbn : tryCatchBlocks) {
+            Integer start = indexes.get(tcbn.start);
+            Integer end = indexes.get(tcbn.end);
+            if (start == null || end == null) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                if (covering.get(i) == null) {
+                    covering.set(i, new ArrayList<>());
+                }
+                covering.get(i).add(tcbn);
+            }
+        }
+        TryCatchBlockNode[] previous = NO_HANDLERS;
+        for (int i = 0; i < instructions.length; i++) {
+            List<TryCatchBlockNode> list = covering.get(i);
+            if (list == null) {
+                previous = NO_HANDLERS;
+            } else if (!list.equals(Arrays.asList(previous))) {
+                previous = list.toArray(NO_HANDLERS);
+            }
+            result[i] = previous;
+        }
+        return result;
+    }
+
+    public MethodNode getMethod() {
+        return method.get();
+    }
+
+    /**
+     * @return the index of the instruction, or -1 if it wasn't part of the method when it was prepared
+     */
+    public int indexOf(AbstractInsnNode insn) {
+        Integer index = indexes.get(insn);
+        return index == null ? -1 : index;
+    }
+
+    public AbstractInsnNode get(int index) {
+        return instructions[index];
+    }
+
+    public int size() {
+        return instructions.length;
+    }
+
+    /**
+     * @return the try-catch blocks covering the instruction, in the order they should be tried
+     */
+    public TryCatchBlockNode[] getHandlers(AbstractInsnNode insn) {
+        Integer index = indexes.get(insn);
+        if (index != null) {
+            return handlers[index];
+        }
+        MethodNode method = this.method.get();
+        if (method == null || method.tryCatchBlocks == null || method.tryCatchBlocks.isEmpty()) {
+            return NO_HANDLERS;
+        }
+        // Inserted after this method was prepared
+        List<TryCatchBlockNode> result = new ArrayList<>();
+        int insnIndex = method.instructions.indexOf(insn);
+        for (TryCatchBlockNode tcbn : method.tryCatchBlocks) {
+            if (method.instructions.indexOf(tcbn.start) <= insnIndex && insnIndex < method.instructions.indexOf(tcbn.end)) {
+                result.add(tcbn);
+            }
+        }
+        return result.toArray(NO_HANDLERS);
+    }
+
+    /**
+     * @return the parsed descriptor of a {@link MethodInsnNode} or {@link InvokeDynamicInsnNode}
+     */
+    public CallSite getCallSite(AbstractInsnNode insn) {
+        CallSite site = callSites.get(insn);
+        String desc = insn instanceof MethodInsnNode ? ((MethodInsnNode) insn).desc : ((InvokeDynamicInsnNode) insn).desc;
+        if (site == null || !site.desc.equals(desc)) {
+            // Inserted or changed after this method was prepared
+            site = new CallSite(desc, insn instanceof InvokeDynamicInsnNode ? ((InvokeDynamicInsnNode) insn).bsm.getDesc() : null);
+        }
+        return site;
+    }
+
+    public static class CallSite {
+        private final String desc;
+        private final Type returnType;
+        private final Type[] argumentTypes;
+        private final Type[] bootstrapArgumentTypes;
+
+        private CallSite(String desc, String bootstrapDesc) {
+            this.desc = desc;
+            this.returnType = Type.getReturnType(desc);
+            this.argumentTypes = Type.getArgumentTypes(desc);
+            this.bootstrapArgumentTypes = bootstrapDesc == null ? null : Type.getArgumentTypes(bootstrapDesc);
+        }
+
+        public Type getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * @return the argument types, which must not be modified
+         */
+        public Type[] getArgumentTypes() {
+            return argumentTypes;
+        }
+
+        /**
+         * @return the argument types of the bootstrap method of an invokedynamic, which must not be modified
+         */
+        public Type[] getBootstrapArgumentTypes() {
+            return bootstrapArgumentTypes;
+        }
+    }
+}
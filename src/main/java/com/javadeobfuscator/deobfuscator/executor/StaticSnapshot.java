@@ -0,0 +1,131 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * The static fields of a class as they were when its {@code <clinit>} finished, so that the class can be put back into that state without
+ * running {@code <clinit>} again.
+ * <p>
+ * Both the values held by the field provider and the types recorded in the {@link Context#typeStore} are saved. Arrays reachable from the fields,
+ * including arrays nested in arrays, have their contents saved as well and are restored in place, so that anything else still referring to
+ * them sees the restored contents. Other objects are not copied: if a decryptor changes the fields of an object it keeps in a static field,
+ * that change survives a restore.
+ */
+public class StaticSnapshot {
+
+    private final PreparedMethod clinit;
+    private final List<FieldState> fields = new ArrayList<>();
+    private final List<SavedArray> arrays = new ArrayList<>();
+
+    private StaticSnapshot(ClassNode classNode, MethodNode clinit, Context context) {
+        this.clinit = PreparedMethod.of(clinit);
+        Map<Object, SavedArray> seen = new IdentityHashMap<>();
+        for (FieldNode field : classNode.fields) {
+            if (!Modifier.isStatic(field.access)) {
+                continue;
+            }
+            FieldState state = new FieldState(classNode.name, field, context);
+            save(state.value, seen);
+            if (state.type != null && state.type.getKey() instanceof Entry) {
+                save(((Entry<?, ?>) state.type.getKey()).getKey(), seen);
+            }
+            fields.add(state);
+        }
+    }
+
+    /**
+     * Brings the class into its initialized state. The first time this is called for a class its {@code <clinit>} is executed and the
+     * resulting state is saved in the context. Later calls restore that state instead, unless {@code <clinit>} has been changed since.
+     * <p>
+     * If {@code <clinit>} throws, nothing is saved and the next call will execute it again. Classes without a {@code <clinit>} are left
+     * alone.
+     */
+    public static void initialize(ClassNode classNode, MethodNode clinit, Context context) {
+        if (clinit == null) {
+            return;
+        }
+        StaticSnapshot snapshot = context.staticSnapshots.get(classNode.name);
+        if (snapshot != null && snapshot.clinit == PreparedMethod.of(clinit)) {
+            snapshot.restore(context);
+            return;
+        }
+        MethodExecutor.execute(classNode, clinit, Collections.emptyList(), null, context);
+        context.staticSnapshots.put(classNode.name, new StaticSnapshot(classNode, clinit, context));
+    }
+
+    /**
+     * Puts the static fields of the class, and the contents of the arrays they referred to, back to what they were when this snapshot was
+     * taken.
+     */
+    public void restore(Context context) {
+        for (FieldState state : fields) {
+            state.restore(context);
+        }
+        for (SavedArray array : arrays) {
+            array.restore();
+        }
+    }
+
+    private void save(Object value, Map<Object, SavedArray> seen) {
+        if (value == null || !value.getClass().isArray() || seen.containsKey(value)) {
+            return;
+        }
+        SavedArray saved = new SavedArray(value);
+        seen.put(value, saved);
+        arrays.add(saved);
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                save(element, seen);
+            }
+        }
+    }
+
+    private static class FieldState {
+        private final String owner;
+        private final String name;
+        private final String desc;
+        private final Object value;
+        private final Entry<Object, String> type;
+
+        private FieldState(String owner, FieldNode field, Context context) {
+            this.owner = owner;
+            this.name = field.name;
+            this.desc = field.desc;
+            this.value = context.provider.getField(owner, name, desc, null, context);
+            this.type = context.typeStore.getFieldFromStore(owner, name, desc, null);
+        }
+
+        private void restore(Context context) {
+            context.provider.setField(owner, name, desc, null, value, context);
+            context.typeStore.setFieldToStore(owner, name, desc, null, type);
+        }
+    }
+
+    private static class SavedArray {
+        private final Object array;
+        private final Object contents;
+        private final int length;
+
+        private SavedArray(Object array) {
+            this.array = array;
+            this.length = Array.getLength(array);
+            this.contents = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, 0, contents, 0, length);
+        }
+
+        private void restore() {
+            System.arraycopy(contents, 0, array, 0, length);
+        }
+    }
+}
@@ -1,18 +1,89 @@
 package com.javadeobfuscator.deobfuscator.executor;
 
 import com.javadeobfuscator.deobfuscator.executor.defined.types.JavaThread;
+import com.javadeobfuscator.deobfuscator.executor.exceptions.DeadlockException;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class ThreadStore {
-    private Map<Long, JavaThread> threads = Collections.synchronizedMap(new HashMap<>());
+/**
+ * The threads of an emulated program. By default nothing runs concurrently: every thread the program starts runs to completion when it is
+ * started, on the thread that started it. This makes emulation deterministic, at the cost of hanging on programs whose threads wait for each
+ * other.
+ * <p>
+ * A store created with a thread limit runs the threads the program starts concurrently, but still doesn't give them a real thread each:
+ * they run on virtual threads where the JVM has them, and on a bounded pool of daemon threads otherwise. A thread which hasn't been picked up
+ * yet when another thread joins it runs on the joining thread instead, so the usual start-then-join pattern runs in order and can't starve
+ * the pool.
+ * <p>
+ * {@link #close()} stops the threads that are still running and releases the pool.
+ */
+public class ThreadStore implements AutoCloseable {
+    /**
+     * Ids of emulated threads start here, well above the ids the JVM hands out to the threads it starts itself
+     */
+    private static final long FIRST_ID = 1 << 20;
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private final Map<Long, JavaThread> threads = Collections.synchronizedMap(new HashMap<>());
+    private final AtomicLong nextId = new AtomicLong(FIRST_ID);
+    private final int maxThreads;
+    private final List<FutureTask<?>> running = new ArrayList<>();
+    private ExecutorService executor;
+    private volatile boolean multithreaded;
+
+    /**
+     * Creates a store which runs every thread when it is started
+     */
+    public ThreadStore() {
+        this(0);
+    }
+
+    /**
+     * @param maxThreads how many emulated threads may run at once if the JVM has no virtual threads, or zero to run every thread when it
+     *                   is started
+     */
+    public ThreadStore(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
 
     public void addThread(long threadId, JavaThread thread) {
+        if (threadId != Thread.currentThread().getId()) {
+            multithreaded = true;
+        }
         threads.put(threadId, thread);
     }
 
+    /**
+     * @return whether threads started by the emulated program run alongside the one which started them, rather than to completion when
+     * they are started
+     */
+    public boolean isConcurrent() {
+        return maxThreads != 0;
+    }
+
+    /**
+     * @return whether a thread other than the one which is emulating has been started. Until this returns true everything sharing this
+     * store runs on one thread.
+     */
+    public boolean isMultithreaded() {
+        return multithreaded;
+    }
+
     public JavaThread retrieveThread(long threadId) {
         JavaThread thread = threads.get(threadId);
 
@@ -23,4 +94,89 @@ public class ThreadStore {
 
         return thread;
     }
+
+    /**
+     * @return the emulated thread running in the context
+     */
+    public JavaThread currentThread(Context context) {
+        return context.thread != null ? context.thread : retrieveThread(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return a new id for an emulated thread
+     */
+    public long nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Schedules the body of an emulated thread. The task may also be run by whoever joins the thread first. When threads run to completion,
+     * a {@link DeadlockException} in the thread ends the one which started it as well, as that one would otherwise hang.
+     */
+    public void start(FutureTask<?> task) {
+        if (maxThreads == 0) {
+            task.run();
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DeadlockException) {
+                    throw (DeadlockException) e.getCause();
+                }
+            } catch (CancellationException e) {
+                // The store was closed while the thread ran
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        multithreaded = true;
+        synchronized (this) {
+            running.removeIf(FutureTask::isDone);
+            running.add(task);
+            if (executor == null) {
+                executor = newExecutor();
+            }
+            executor.execute(task);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException ignored) {
+        }
+        int pool = POOLS.incrementAndGet();
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Emulator-" + pool + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Cancels the emulated threads which haven't finished, interrupting them, and shuts the pool down. Threads started afterwards get a new
+     * pool.
+     */
+    @Override
+    public void close() {
+        List<FutureTask<?>> tasks;
+        ExecutorService executor;
+        synchronized (this) {
+            tasks = new ArrayList<>(running);
+            running.clear();
+            executor = this.executor;
+            this.executor = null;
+        }
+        for (FutureTask<?> task : tasks) {
+            task.cancel(true);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        threads.clear();
+    }
 }
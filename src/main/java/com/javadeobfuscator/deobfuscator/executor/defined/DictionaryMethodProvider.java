@@ -30,6 +30,7 @@ import org.objectweb.asm.tree.MethodNode;
 
 public class DictionaryMethodProvider extends MethodProvider {
     private final Map<String, ClassNode> classes;
+    private final MethodTable methods = new MethodTable();
 
     public DictionaryMethodProvider(Map<String, ClassNode> classes) {
         this.classes = classes;
@@ -38,7 +39,7 @@ public class DictionaryMethodProvider extends MethodProvider {
     public Object invokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
         ClassNode classNode = classes.get(className);
         if (classNode != null) {
-            MethodNode methodNode = classNode.methods.stream().filter(mn -> mn.name.equals(methodName) && mn.desc.equals(methodDesc)).findFirst().orElse(null);
+            MethodNode methodNode = methods.find(classNode, methodName, methodDesc);
             if (methodNode != null) {
                 List<JavaValue> argsClone = new ArrayList<>();
                 for (JavaValue arg : args) {
@@ -53,7 +54,7 @@ public class DictionaryMethodProvider extends MethodProvider {
     public boolean canInvokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
         ClassNode classNode = classes.get(className);
         if (classNode != null) {
-            MethodNode methodNode = classNode.methods.stream().filter(mn -> mn.name.equals(methodName) && mn.desc.equals(methodDesc)).findFirst().orElse(null);
+            MethodNode methodNode = methods.find(classNode, methodName, methodDesc);
             return methodNode != null;
         }
         return false;
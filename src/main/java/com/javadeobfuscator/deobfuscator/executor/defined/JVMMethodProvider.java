@@ -17,6 +17,8 @@
 package com.javadeobfuscator.deobfuscator.executor.defined;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -34,6 +36,8 @@ import java.security.cert.Certificate;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.KeySpec;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -62,26 +66,37 @@ import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
 
 public class JVMMethodProvider extends MethodProvider {
-    @SuppressWarnings({"serial", "CloneableClassWithoutClone"})
+    /**
+     * Hand-written implementations by owner. They are only put into a table when something of that owner is first called.
+     */
+    private static final Map<String, List<Consumer<Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>>>> REGISTRY = new HashMap<>();
+    /**
+     * Classes whose public methods are pure and only take and return primitives, strings and primitive arrays, so that they can be bound
+     * with method handles instead of being written out by hand.
+     */
+    private static final Set<Class<?>> PURE_CLASSES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static final Map<String, OwnerTable> TABLES = new ConcurrentHashMap<>();
+    private static final OwnerTable EMPTY = new OwnerTable();
+
     //@formatter:off
-    private static final Map<String, Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>> functions = new HashMap<String, Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>>() {{
+    static {
         // Java
-        put("java/lang/Object", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getClass()Ljava/lang/Class;", (targetObject, args, context) -> new JavaClass(Type.getType(targetObject.value().getClass()).getInternalName(), context));
-            put("notifyAll()V", (targetObject, args, context) -> {
-                synchronized (targetObject.as(Object.class)) {
-                    targetObject.as(Object.class).notifyAll();
-                }
+        owner("java/lang/Object", methods -> {
+            methods.put("getClass()Ljava/lang/Class;", (targetObject, args, context) -> new JavaClass(Type.getType(targetObject.value().getClass()).getInternalName(), context));
+            methods.put("notifyAll()V", (targetObject, args, context) -> {
+                context.monitor.notifyAll(targetObject);
                 return null;
             });
-            put("wait(J)V", (targetObject, args, context) -> {
-                synchronized (targetObject.as(Object.class)) {
-                    targetObject.as(Object.class).wait(args.get(0).longValue());
-                }
+            methods.put("wait()V", (targetObject, args, context) -> {
+                context.monitor.await(targetObject, 0, context);
                 return null;
             });
-            put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.value().equals(args.get(0).value()));
-            put("clone()Ljava/lang/Object;", (targetObject, args, context) -> {
+            methods.put("wait(J)V", (targetObject, args, context) -> {
+                context.monitor.await(targetObject, args.get(0).longValue(), context);
+                return null;
+            });
+            methods.put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.value().equals(args.get(0).value()));
+            methods.put("clone()Ljava/lang/Object;", (targetObject, args, context) -> {
             	Method clone = Object.class.getDeclaredMethod("clone");
             	clone.setAccessible(true);
             	try
@@ -92,36 +107,36 @@ public class JVMMethodProvider extends MethodProvider {
             		throw e.getTargetException();
             	}
             });
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, targetObject.type()); 
                 targetObject.initialize(new JavaObject(null, targetObject.type())); 
                 initObject(context, targetObject.type(), targetObject); 
                 return null;
             });
-        }});
-        put("java/nio/charset/Charset", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("availableCharsets()Ljava/util/SortedMap;", (targetObject, args, context) -> Charset.availableCharsets());
-        }});
-        put("java/nio/ByteBuffer", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("wrap([B)Ljava/nio/ByteBuffer;", (targetObject, args, context) -> ByteBuffer.wrap(args.get(0).as(byte[].class)));
-            put("getDouble()D", (targetObject, args, context) -> targetObject.as(ByteBuffer.class).getDouble());
-        }});
-        put("java/util/SortedMap", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("keySet()Ljava/util/Set;", (targetObject, args, context) -> targetObject.as(SortedMap.class).keySet());
-        }});
-        put("java/util/Set", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(Set.class).iterator());
-        }});
-        put("java/util/Iterator", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("hasNext()Z", (targetObject, args, context) -> targetObject.as(Iterator.class).hasNext());
-            put("next()Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Iterator.class).next());
-        }});
-        put("java/io/ByteArrayOutputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        });
+        owner("java/nio/charset/Charset", methods -> {
+            methods.put("availableCharsets()Ljava/util/SortedMap;", (targetObject, args, context) -> Charset.availableCharsets());
+        });
+        owner("java/nio/ByteBuffer", methods -> {
+            methods.put("wrap([B)Ljava/nio/ByteBuffer;", (targetObject, args, context) -> ByteBuffer.wrap(args.get(0).as(byte[].class)));
+            methods.put("getDouble()D", (targetObject, args, context) -> targetObject.as(ByteBuffer.class).getDouble());
+        });
+        owner("java/util/SortedMap", methods -> {
+            methods.put("keySet()Ljava/util/Set;", (targetObject, args, context) -> targetObject.as(SortedMap.class).keySet());
+        });
+        owner("java/util/Set", methods -> {
+            methods.put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(Set.class).iterator());
+        });
+        owner("java/util/Iterator", methods -> {
+            methods.put("hasNext()Z", (targetObject, args, context) -> targetObject.as(Iterator.class).hasNext());
+            methods.put("next()Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Iterator.class).next());
+        });
+        owner("java/io/ByteArrayOutputStream", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 targetObject.initialize(new ByteArrayOutputStream());
                 return null;
             });
-            put("close()V", (targetObject, args, context) -> {
+            methods.put("close()V", (targetObject, args, context) -> {
                 try {
                     targetObject.as(ByteArrayOutputStream.class).close();
                 } catch (IOException e) {
@@ -129,8 +144,8 @@ public class JVMMethodProvider extends MethodProvider {
                 }
                 return null;
             });
-            put("toByteArray()[B", (targetObject, args, context) -> targetObject.as(ByteArrayOutputStream.class).toByteArray());
-            put("write([B)V", (targetObject, args, context) -> {
+            methods.put("toByteArray()[B", (targetObject, args, context) -> targetObject.as(ByteArrayOutputStream.class).toByteArray());
+            methods.put("write([B)V", (targetObject, args, context) -> {
                 try {
                     targetObject.as(ByteArrayOutputStream.class).write(args.get(0).as(byte[].class));
                 } catch (IOException e) {
@@ -138,7 +153,7 @@ public class JVMMethodProvider extends MethodProvider {
                 }
                 return null;
             });
-            put("write([BII)V", (targetObject, args, context) -> {
+            methods.put("write([BII)V", (targetObject, args, context) -> {
                 try {
                     targetObject.as(ByteArrayOutputStream.class).write(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue());
                 } catch (Exception e) {
@@ -146,10 +161,10 @@ public class JVMMethodProvider extends MethodProvider {
                 }
                 return null;
             });
-        }});
-        put("java/io/ByteArrayInputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("available()I", (targetObject, args, context) -> targetObject.as(ByteArrayInputStream.class).available());
-        	put("close()V", (targetObject, args, context) -> {
+        });
+        owner("java/io/ByteArrayInputStream", methods -> {
+        	methods.put("available()I", (targetObject, args, context) -> targetObject.as(ByteArrayInputStream.class).available());
+        	methods.put("close()V", (targetObject, args, context) -> {
         		try {
         			targetObject.as(ByteArrayInputStream.class).close();
         		} catch (IOException e) {
@@ -157,402 +172,403 @@ public class JVMMethodProvider extends MethodProvider {
         		}
         		return null;
         	});
-        	put("read([B)I", (targetObject, args, context) -> targetObject.as(ByteArrayInputStream.class).read(args.get(0).as(byte[].class)));
-        }});
-        put("java/io/PushbackInputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(Ljava/io/InputStream;I)V", (targetObject, args, context) -> {
+        	methods.put("read([B)I", (targetObject, args, context) -> targetObject.as(ByteArrayInputStream.class).read(args.get(0).as(byte[].class)));
+        });
+        owner("java/io/PushbackInputStream", methods -> {
+        	methods.put("<init>(Ljava/io/InputStream;I)V", (targetObject, args, context) -> {
         		targetObject.initialize(new PushbackInputStream(args.get(0).as(InputStream.class), args.get(1).intValue()));
         		return null;
         	});
-        	put("unread([BII)V", (targetObject, args, context) -> {
+        	methods.put("unread([BII)V", (targetObject, args, context) -> {
         		targetObject.as(PushbackInputStream.class).unread(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue());
         		return null;
         	});
-        	put("read([BII)I", (targetObject, args, context) -> targetObject.as(PushbackInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
-        }});
-        put("java/io/FilterInputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/io/InputStream;)V", (targetObject, args, context) -> {
+        	methods.put("read([BII)I", (targetObject, args, context) -> targetObject.as(PushbackInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
+        });
+        owner("java/io/FilterInputStream", methods -> {
+            methods.put("<init>(Ljava/io/InputStream;)V", (targetObject, args, context) -> {
             	Constructor<FilterInputStream> init = FilterInputStream.class.getDeclaredConstructor(InputStream.class);
             	init.setAccessible(true);
             	targetObject.initialize(init.newInstance(args.get(0).as(InputStream.class)));
                 return null;
             });
-            put("read([BII)I", (targetObject, args, context) -> targetObject.as(FilterInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
-        }});
-        put("java/util/zip/InflaterInputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	 put("<init>(Ljava/io/InputStream;Ljava/util/zip/Inflater;)V", (targetObject, args, context) -> {
+            methods.put("read([BII)I", (targetObject, args, context) -> targetObject.as(FilterInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
+        });
+        owner("java/util/zip/InflaterInputStream", methods -> {
+        	 methods.put("<init>(Ljava/io/InputStream;Ljava/util/zip/Inflater;)V", (targetObject, args, context) -> {
                  targetObject.initialize(new InflaterInputStream(args.get(0).as(InputStream.class), args.get(1).as(Inflater.class)));
                  return null;
              });
-        	 put("read([B)I", (targetObject, args, context) -> targetObject.as(InflaterInputStream.class).read(args.get(0).as(byte[].class)));
-        	 put("read([BII)I", (targetObject, args, context) -> targetObject.as(InflaterInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
-        }});
-        put("java/util/zip/Inflater", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(Z)V", (targetObject, args, context) -> {
+        	 methods.put("read([B)I", (targetObject, args, context) -> targetObject.as(InflaterInputStream.class).read(args.get(0).as(byte[].class)));
+        	 methods.put("read([BII)I", (targetObject, args, context) -> targetObject.as(InflaterInputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
+        });
+        owner("java/util/zip/Inflater", methods -> {
+        	methods.put("<init>(Z)V", (targetObject, args, context) -> {
         		targetObject.initialize(new Inflater(args.get(0).as(boolean.class)));
         		return null;
         	});
-        	put("setInput([BII)V", (targetObject, args, context) -> {
+        	methods.put("setInput([BII)V", (targetObject, args, context) -> {
         		targetObject.as(Inflater.class).setInput(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue());
         		return null;
         	});
-       }});
-        put("java/io/InputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("read([BII)I", (targetObject, args, context) -> targetObject.as(InputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
-        }});
-        put("java/util/List", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("add(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(List.class).add(args.get(0).as(Object.class)));
-            put("size()I", (targetObject, args, context) -> targetObject.as(List.class).size());
-            put("get(I)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).get(args.get(0).intValue()));
-            put("set(ILjava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).set(args.get(0).intValue(), args.get(1).as(Object.class)));
-            put("toArray()[Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).toArray());
-            put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(List.class).iterator());
-        }});
-        put("java/util/Arrays", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("asList([Ljava/lang/Object;)Ljava/util/List;", (targetObject, args, context) -> Arrays.asList(args.get(0).as(Object[].class)));
-            put("toString([Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> Arrays.toString(args.get(0).as(Object[].class)));
-            put("copyOf([BI)[B", (targetObject, args, context) -> Arrays.copyOf(args.get(0).as(byte[].class), args.get(1).intValue()));
-            put("equals([Ljava/lang/Object;[Ljava/lang/Object;)Z", (targetObject, args, context) -> Arrays.equals(args.get(0).as(Object[].class), args.get(1).as(Object[].class)));
-        }});
-        put("java/util/ArrayList", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        });
+        owner("java/io/InputStream", methods -> {
+        	methods.put("read([BII)I", (targetObject, args, context) -> targetObject.as(InputStream.class).read(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
+        });
+        owner("java/util/List", methods -> {
+            methods.put("add(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(List.class).add(args.get(0).as(Object.class)));
+            methods.put("size()I", (targetObject, args, context) -> targetObject.as(List.class).size());
+            methods.put("get(I)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).get(args.get(0).intValue()));
+            methods.put("set(ILjava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).set(args.get(0).intValue(), args.get(1).as(Object.class)));
+            methods.put("toArray()[Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(List.class).toArray());
+            methods.put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(List.class).iterator());
+        });
+        owner("java/util/Arrays", methods -> {
+            methods.put("asList([Ljava/lang/Object;)Ljava/util/List;", (targetObject, args, context) -> Arrays.asList(args.get(0).as(Object[].class)));
+            methods.put("toString([Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> Arrays.toString(args.get(0).as(Object[].class)));
+            methods.put("copyOf([BI)[B", (targetObject, args, context) -> Arrays.copyOf(args.get(0).as(byte[].class), args.get(1).intValue()));
+            methods.put("equals([Ljava/lang/Object;[Ljava/lang/Object;)Z", (targetObject, args, context) -> Arrays.equals(args.get(0).as(Object[].class), args.get(1).as(Object[].class)));
+        });
+        owner("java/util/ArrayList", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/ArrayList");
                 targetObject.initialize(new ArrayList<>());
                 return null;
             });
-            put("<init>(Ljava/util/Collection;)V", (targetObject, args, context) -> {
+            methods.put("<init>(Ljava/util/Collection;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/ArrayList");
-                targetObject.initialize(new ArrayList<>(args.get(0).as(Collection.class)));
-                return null;
-            });
-            put("add(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(ArrayList.class).add(args.get(0).as(Object.class)));
-            put("size()I", (targetObject, args, context) -> targetObject.as(ArrayList.class).size());
-            put("get(I)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).get(args.get(0).intValue()));
-            put("set(ILjava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).set(args.get(0).intValue(), args.get(1).as(Object.class)));
-            put("toArray()[Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).toArray());
-            put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(ArrayList.class).iterator());
-        }});
-        put("java/lang/String", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(Ljava/lang/StringBuffer;)V", (targetObject, args, context) -> {
+                Collection<?> collection = args.get(0).as(Collection.class);
+                targetObject.initialize(new ArrayList<Object>(collection));
+                return null;
+            });
+            methods.put("add(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(ArrayList.class).add(args.get(0).as(Object.class)));
+            methods.put("size()I", (targetObject, args, context) -> targetObject.as(ArrayList.class).size());
+            methods.put("get(I)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).get(args.get(0).intValue()));
+            methods.put("set(ILjava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).set(args.get(0).intValue(), args.get(1).as(Object.class)));
+            methods.put("toArray()[Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(ArrayList.class).toArray());
+            methods.put("iterator()Ljava/util/Iterator;", (targetObject, args, context) -> targetObject.as(ArrayList.class).iterator());
+        });
+        owner("java/lang/String", methods -> {
+        	methods.put("<init>(Ljava/lang/StringBuffer;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(StringBuffer.class)));
                 return null;
             });
-            put("<init>([CII)V", (targetObject, args, context) -> {
+            methods.put("<init>([CII)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(char[].class), args.get(1).intValue(), args.get(2).intValue()));
                 return null;
             });
-            put("<init>([C)V", (targetObject, args, context) -> {
+            methods.put("<init>([C)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(char[].class)));
                 return null;
             });
-            put("<init>([B)V", (targetObject, args, context) -> {
+            methods.put("<init>([B)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(byte[].class)));
                 return null;
             });
-            put("<init>([BI)V", (targetObject, args, context) -> {
+            methods.put("<init>([BI)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(byte[].class), args.get(1).intValue()));
                 return null;
             });
-            put("<init>([BII)V", (targetObject, args, context) -> {
+            methods.put("<init>([BII)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue()));
                 return null;
             });
-            put("<init>([BLjava/lang/String;)V", (targetObject, args, context) -> {
+            methods.put("<init>([BLjava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/String");
                 targetObject.initialize(new String(args.get(0).as(byte[].class), args.get(1).as(String.class)));
                 return null;
             });
-            put("getBytes()[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes());
-            put("getBytes(Ljava/nio/charset/Charset;)[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes(args.get(0).as(Charset.class)));
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).toString());
-            put("intern()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).intern());
-            put("valueOf(I)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).intValue()));
-            put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(String.class).equals(args.get(0).value()));
-            put("trim()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).trim());
-            put("toCharArray()[C", (targetObject, args, context) -> targetObject.as(String.class).toCharArray());
-            put("length()I", (targetObject, args, context) -> targetObject.as(String.class).length());
-            put("hashCode()I", (targetObject, args, context) -> targetObject.as(String.class).hashCode());
-            put("charAt(I)C", (targetObject, args, context) -> targetObject.as(String.class).charAt(args.get(0).intValue()));
-            put("indexOf(I)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).intValue()));
-            put("endsWith(Ljava/lang/String;)Z", (targetObject, args, context) -> targetObject.as(String.class).endsWith(args.get(0).as(String.class)));
-            put("startsWith(Ljava/lang/String;)Z", (targetObject, args, context) -> targetObject.as(String.class).startsWith(args.get(0).as(String.class)));
-            put("substring(I)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).substring(args.get(0).intValue()));
-            put("substring(II)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).substring(args.get(0).intValue(), args.get(1).intValue()));
-            put("indexOf(Ljava/lang/String;)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).as(String.class)));
-            put("indexOf(II)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).intValue(), args.get(1).intValue()));
-            put("lastIndexOf(Ljava/lang/String;)I", (targetObject, args, context) -> targetObject.as(String.class).lastIndexOf(args.get(0).as(String.class)));
-            put("lastIndexOf(I)I", (targetObject, args, context) -> targetObject.as(String.class).lastIndexOf(args.get(0).intValue()));
-            put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(String.class).isEmpty());
-            put("format(Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> String.format(args.get(0).as(String.class), args.get(1).as(Object[].class)));
-            put("split(Ljava/lang/String;)[Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).split(args.get(0).as(String.class)));
-            put("valueOf(Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).value()));
-            put("valueOf([C)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).as(char[].class)));
-            put("replaceAll(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).replaceAll(args.get(0).as(String.class), args.get(1).as(String.class)));
-            put("getBytes(Ljava/lang/String;)[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes(args.get(0).as(String.class)));
-            put("valueOf([CII)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).as(char[].class), args.get(1).intValue(), args.get(2).intValue()));
-            put("replace(CC)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).replace(args.get(0).as(char.class), args.get(1).as(char.class)));
-        }});
-        put("java/lang/StringBuilder", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("getBytes()[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes());
+            methods.put("getBytes(Ljava/nio/charset/Charset;)[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes(args.get(0).as(Charset.class)));
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).toString());
+            methods.put("intern()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).intern());
+            methods.put("valueOf(I)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).intValue()));
+            methods.put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(String.class).equals(args.get(0).value()));
+            methods.put("trim()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).trim());
+            methods.put("toCharArray()[C", (targetObject, args, context) -> targetObject.as(String.class).toCharArray());
+            methods.put("length()I", (targetObject, args, context) -> targetObject.as(String.class).length());
+            methods.put("hashCode()I", (targetObject, args, context) -> targetObject.as(String.class).hashCode());
+            methods.put("charAt(I)C", (targetObject, args, context) -> targetObject.as(String.class).charAt(args.get(0).intValue()));
+            methods.put("indexOf(I)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).intValue()));
+            methods.put("endsWith(Ljava/lang/String;)Z", (targetObject, args, context) -> targetObject.as(String.class).endsWith(args.get(0).as(String.class)));
+            methods.put("startsWith(Ljava/lang/String;)Z", (targetObject, args, context) -> targetObject.as(String.class).startsWith(args.get(0).as(String.class)));
+            methods.put("substring(I)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).substring(args.get(0).intValue()));
+            methods.put("substring(II)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).substring(args.get(0).intValue(), args.get(1).intValue()));
+            methods.put("indexOf(Ljava/lang/String;)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).as(String.class)));
+            methods.put("indexOf(II)I", (targetObject, args, context) -> targetObject.as(String.class).indexOf(args.get(0).intValue(), args.get(1).intValue()));
+            methods.put("lastIndexOf(Ljava/lang/String;)I", (targetObject, args, context) -> targetObject.as(String.class).lastIndexOf(args.get(0).as(String.class)));
+            methods.put("lastIndexOf(I)I", (targetObject, args, context) -> targetObject.as(String.class).lastIndexOf(args.get(0).intValue()));
+            methods.put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(String.class).isEmpty());
+            methods.put("format(Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> String.format(args.get(0).as(String.class), args.get(1).as(Object[].class)));
+            methods.put("split(Ljava/lang/String;)[Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).split(args.get(0).as(String.class)));
+            methods.put("valueOf(Ljava/lang/Object;)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).value()));
+            methods.put("valueOf([C)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).as(char[].class)));
+            methods.put("replaceAll(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).replaceAll(args.get(0).as(String.class), args.get(1).as(String.class)));
+            methods.put("getBytes(Ljava/lang/String;)[B", (targetObject, args, context) -> targetObject.as(String.class).getBytes(args.get(0).as(String.class)));
+            methods.put("valueOf([CII)Ljava/lang/String;", (targetObject, args, context) -> String.valueOf(args.get(0).as(char[].class), args.get(1).intValue(), args.get(2).intValue()));
+            methods.put("replace(CC)Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(String.class).replace(args.get(0).as(char.class), args.get(1).as(char.class)));
+        });
+        owner("java/lang/StringBuilder", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuilder");
                 targetObject.initialize(new StringBuilder());
                 return null;
             });
-            put("<init>(I)V", (targetObject, args, context) -> {
+            methods.put("<init>(I)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuilder");
                 targetObject.initialize(new StringBuilder(args.get(0).intValue()));
                 return null;
             });
-            put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
+            methods.put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuilder");
                 targetObject.initialize(new StringBuilder(args.get(0).as(String.class)));
                 return null;
             });
-            put("append(I)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).intValue()));
-            put("append(C)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(char.class)));
-            put("append(Ljava/lang/String;)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(String.class)));
-            put("append(Ljava/lang/Object;)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(Object.class)));
-            put("reverse()Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).reverse());
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).toString());
-            put("length()I", (targetObject, args, context) -> targetObject.as(StringBuilder.class).length());
-            put("charAt(I)C", (targetObject, args, context) -> targetObject.as(StringBuilder.class).charAt(args.get(0).intValue()));
-            put("setCharAt(IC)V", (targetObject, args, context) -> {
+            methods.put("append(I)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).intValue()));
+            methods.put("append(C)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(char.class)));
+            methods.put("append(Ljava/lang/String;)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(String.class)));
+            methods.put("append(Ljava/lang/Object;)Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).append(args.get(0).as(Object.class)));
+            methods.put("reverse()Ljava/lang/StringBuilder;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).reverse());
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StringBuilder.class).toString());
+            methods.put("length()I", (targetObject, args, context) -> targetObject.as(StringBuilder.class).length());
+            methods.put("charAt(I)C", (targetObject, args, context) -> targetObject.as(StringBuilder.class).charAt(args.get(0).intValue()));
+            methods.put("setCharAt(IC)V", (targetObject, args, context) -> {
                 targetObject.as(StringBuilder.class).setCharAt(args.get(0).intValue(), (char) ((JavaCharacter) args.get(1)).charValue());
                 return null;
             });
-        }});
-        put("java/lang/StringBuffer", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
+        });
+        owner("java/lang/StringBuffer", methods -> {
+            methods.put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuffer");
                 targetObject.initialize(new StringBuffer(args.get(0).as(String.class)));
                 return null;
             });
-            put("<init>(I)V", (targetObject, args, context) -> {
+            methods.put("<init>(I)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuffer");
                 targetObject.initialize(new StringBuffer(args.get(0).intValue()));
                 return null;
             });
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/StringBuffer");
                 targetObject.initialize(new StringBuffer());
                 return null;
             });
-            put("insert(ILjava/lang/String;)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).insert(args.get(0).intValue(), args.get(1).as(String.class)));
-            put("append(Ljava/lang/String;)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).append(args.get(0).as(String.class)));
-            put("append(C)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).append(args.get(0).as(char.class)));
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).toString());
-        }});
-        put("java/lang/CharSequence", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(CharSequence.class).toString());
-        	put("length()I", (targetObject, args, context) -> targetObject.as(CharSequence.class).length());
-        	put("charAt(I)C", (targetObject, args, context) -> targetObject.as(CharSequence.class).charAt(args.get(0).intValue()));
-        }});
-        put("java/lang/Exception", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("insert(ILjava/lang/String;)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).insert(args.get(0).intValue(), args.get(1).as(String.class)));
+            methods.put("append(Ljava/lang/String;)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).append(args.get(0).as(String.class)));
+            methods.put("append(C)Ljava/lang/StringBuffer;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).append(args.get(0).as(char.class)));
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StringBuffer.class).toString());
+        });
+        owner("java/lang/CharSequence", methods -> {
+        	methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(CharSequence.class).toString());
+        	methods.put("length()I", (targetObject, args, context) -> targetObject.as(CharSequence.class).length());
+        	methods.put("charAt(I)C", (targetObject, args, context) -> targetObject.as(CharSequence.class).charAt(args.get(0).intValue()));
+        });
+        owner("java/lang/Exception", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/Exception");
                 targetObject.initialize(null);
                 return null;
             });
-            put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
-        }});
-        put("java/lang/Throwable", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
+        });
+        owner("java/lang/Throwable", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/Throwable");
                 targetObject.initialize(null);
                 return null;
             });
-            put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
-        }});
-        put("java/lang/NullPointerException", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
+        });
+        owner("java/lang/NullPointerException", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/NullPointerException");
                 targetObject.initialize(null);
                 return null;
             });
-            put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
-            put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
-        }});
-        put("java/lang/RuntimeException", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
+            methods.put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
+            methods.put("toString()Ljava/lang/String;", (targetObject, args, context) -> targetObject.toString());
+        });
+        owner("java/lang/RuntimeException", methods -> {
+            methods.put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/RuntimeException");
                 targetObject.initialize(new RuntimeException(args.get(0).as(String.class)));
                 return null;
             });
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/RuntimeException");
                 targetObject.initialize(new RuntimeException());
                 return null;
             });
-            put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
-        }});
-        put("java/lang/Class", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("forName(Ljava/lang/String;)Ljava/lang/Class;", (targetObject, args, context) -> new JavaClass(args.get(0).as(String.class), context));
-            put("getDeclaredConstructor([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredConstructor(toJavaClass(args.get(0).as(Object[].class))));
-            put("getDeclaredConstructors()[Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredConstructors());
-            put("getConstructor([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getConstructor(toJavaClass(args.get(0).as(Object[].class))));
-            put("getConstructors()[Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getConstructors());
-            put("getDeclaredMethod(Ljava/lang/String;[Ljava/lang/Class;)Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredMethod(args.get(0).as(String.class), toJavaClass(args.get(1).as(Object[].class))));
-            put("getDeclaredMethods()[Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredMethods());
-            put("getMethod(Ljava/lang/String;[Ljava/lang/Class;)Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getMethod(args.get(0).as(String.class), toJavaClass(args.get(1).as(Object[].class))));
-            put("getMethods()[Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getMethods());
-            put("getDeclaredField(Ljava/lang/String;)Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredField(args.get(0).as(String.class)));
-            put("getDeclaredFields()[Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredFields());
-            put("getField(Ljava/lang/String;)Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getField(args.get(0).as(String.class)));
-            put("getFields()[Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getFields());
-            put("getClassLoader()Ljava/lang/ClassLoader;", (targetObject, args, context) -> null);
-            put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getName());
-            put("getSimpleName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getSimpleName());
-            put("getSuperclass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getSuperclass());
-            put("getInterfaces()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getInterfaces());
-            put("getProtectionDomain()Ljava/security/ProtectionDomain;", (targetObject, args, context) -> new ProtectionDomain(new CodeSource(context.file.toURI().toURL(), new Certificate[0]), null));
-            put("isInterface()Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).isInterface());
-            put("isArray()Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).getType().getSort() == Type.ARRAY);
-            put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).equals(args.get(0).as(JavaClass.class)));
-        }});
-        put("java/security/ProtectionDomain", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getCodeSource()Ljava/security/CodeSource;", (targetObject, args, context) -> targetObject.as(ProtectionDomain.class).getCodeSource());
-        }});
-        put("java/security/CodeSource", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getLocation()Ljava/net/URL;", (targetObject, args, context) -> targetObject.as(CodeSource.class).getLocation());
-        }});
-        put("java/security/MessageDigest", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getInstance(Ljava/lang/String;)Ljava/security/MessageDigest;", (targetObject, args, context) -> MessageDigest.getInstance(args.get(0).as(String.class)));
-            put("digest([B)[B", (targetObject, args, context) -> targetObject.as(MessageDigest.class).digest(args.get(0).as(byte[].class)));
-        }});
-        put("java/security/MessageDigest$Delegate", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("digest([B)[B", (targetObject, args, context) -> ((MessageDigest)targetObject.as(Class.forName("java.security.MessageDigest$Delegate"))).digest(args.get(0).as(byte[].class)));
-        }});
-        put("java/security/MessageDigest$Delegate$CloneableDelegate", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("digest([B)[B", (targetObject, args, context) -> ((MessageDigest)targetObject.as(Class.forName("java.security.MessageDigest$Delegate$CloneableDelegate"))).digest(args.get(0).as(byte[].class)));
-        }});
-        put("java/net/URL", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("toURI()Ljava/net/URI;", (targetObject, args, context) -> targetObject.as(URL.class).toURI());
+            methods.put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> context.getStackTrace());
+        });
+        owner("java/lang/Class", methods -> {
+            methods.put("forName(Ljava/lang/String;)Ljava/lang/Class;", (targetObject, args, context) -> new JavaClass(args.get(0).as(String.class), context));
+            methods.put("getDeclaredConstructor([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredConstructor(toJavaClass(args.get(0).as(Object[].class))));
+            methods.put("getDeclaredConstructors()[Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredConstructors());
+            methods.put("getConstructor([Ljava/lang/Class;)Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getConstructor(toJavaClass(args.get(0).as(Object[].class))));
+            methods.put("getConstructors()[Ljava/lang/reflect/Constructor;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getConstructors());
+            methods.put("getDeclaredMethod(Ljava/lang/String;[Ljava/lang/Class;)Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredMethod(args.get(0).as(String.class), toJavaClass(args.get(1).as(Object[].class))));
+            methods.put("getDeclaredMethods()[Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredMethods());
+            methods.put("getMethod(Ljava/lang/String;[Ljava/lang/Class;)Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getMethod(args.get(0).as(String.class), toJavaClass(args.get(1).as(Object[].class))));
+            methods.put("getMethods()[Ljava/lang/reflect/Method;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getMethods());
+            methods.put("getDeclaredField(Ljava/lang/String;)Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredField(args.get(0).as(String.class)));
+            methods.put("getDeclaredFields()[Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getDeclaredFields());
+            methods.put("getField(Ljava/lang/String;)Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getField(args.get(0).as(String.class)));
+            methods.put("getFields()[Ljava/lang/reflect/Field;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getFields());
+            methods.put("getClassLoader()Ljava/lang/ClassLoader;", (targetObject, args, context) -> null);
+            methods.put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getName());
+            methods.put("getSimpleName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getSimpleName());
+            methods.put("getSuperclass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getSuperclass());
+            methods.put("getInterfaces()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaClass.class).getInterfaces());
+            methods.put("getProtectionDomain()Ljava/security/ProtectionDomain;", (targetObject, args, context) -> new ProtectionDomain(new CodeSource(context.file.toURI().toURL(), new Certificate[0]), null));
+            methods.put("isInterface()Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).isInterface());
+            methods.put("isArray()Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).getType().getSort() == Type.ARRAY);
+            methods.put("equals(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(JavaClass.class).equals(args.get(0).as(JavaClass.class)));
+        });
+        owner("java/security/ProtectionDomain", methods -> {
+            methods.put("getCodeSource()Ljava/security/CodeSource;", (targetObject, args, context) -> targetObject.as(ProtectionDomain.class).getCodeSource());
+        });
+        owner("java/security/CodeSource", methods -> {
+            methods.put("getLocation()Ljava/net/URL;", (targetObject, args, context) -> targetObject.as(CodeSource.class).getLocation());
+        });
+        owner("java/security/MessageDigest", methods -> {
+            methods.put("getInstance(Ljava/lang/String;)Ljava/security/MessageDigest;", (targetObject, args, context) -> MessageDigest.getInstance(args.get(0).as(String.class)));
+            methods.put("digest([B)[B", (targetObject, args, context) -> targetObject.as(MessageDigest.class).digest(args.get(0).as(byte[].class)));
+        });
+        owner("java/security/MessageDigest$Delegate", methods -> {
+            methods.put("digest([B)[B", (targetObject, args, context) -> ((MessageDigest)targetObject.as(Class.forName("java.security.MessageDigest$Delegate"))).digest(args.get(0).as(byte[].class)));
+        });
+        owner("java/security/MessageDigest$Delegate$CloneableDelegate", methods -> {
+            methods.put("digest([B)[B", (targetObject, args, context) -> ((MessageDigest)targetObject.as(Class.forName("java.security.MessageDigest$Delegate$CloneableDelegate"))).digest(args.get(0).as(byte[].class)));
+        });
+        owner("java/net/URL", methods -> {
+        	methods.put("toURI()Ljava/net/URI;", (targetObject, args, context) -> targetObject.as(URL.class).toURI());
             // Probably not an issue because you can't construct URLs yet
-            put("openStream()Ljava/io/InputStream;", (targetObject, args, context) -> {
+            methods.put("openStream()Ljava/io/InputStream;", (targetObject, args, context) -> {
                 URL url = targetObject.as(URL.class);
                 if (url.getProtocol().equals("file")) {
                     return url.openStream();
                 }
                 throw new ExecutionException("Disallowed opening URL for now");
             });
-        }});
-        put("java/net/URI", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("getPath()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(URI.class).getPath());
-        }});
-        put("java/io/File", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
+        });
+        owner("java/net/URI", methods -> {
+        	methods.put("getPath()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(URI.class).getPath());
+        });
+        owner("java/io/File", methods -> {
+        	methods.put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/io/File");
                 targetObject.initialize(new File(args.get(0).as(String.class)));
                 return null;
             });
-        }});
-        put("java/util/zip/ZipFile", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
+        });
+        owner("java/util/zip/ZipFile", methods -> {
+        	methods.put("<init>(Ljava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/zip/ZipFile");
                 targetObject.initialize(new ZipFile(args.get(0).as(String.class)));
                 return null;
             });
-        	put("<init>(Ljava/io/File;)V", (targetObject, args, context) -> {
+        	methods.put("<init>(Ljava/io/File;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/zip/ZipFile");
                 targetObject.initialize(new ZipFile(args.get(0).as(File.class)));
                 return null;
             });
-        	put("entries()Ljava/util/Enumeration;", (targetObject, args, context) -> targetObject.as(ZipFile.class).entries());
-        	put("close()V", (targetObject, args, context) -> {
+        	methods.put("entries()Ljava/util/Enumeration;", (targetObject, args, context) -> targetObject.as(ZipFile.class).entries());
+        	methods.put("close()V", (targetObject, args, context) -> {
         		targetObject.as(ZipFile.class).close();
         		return null;
         	});
-        }});
-        put("java/util/Enumeration", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("hasMoreElements()Z", (targetObject, args, context) -> targetObject.as(Enumeration.class).hasMoreElements());
-        	put("nextElement()Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Enumeration.class).nextElement());
-        }});
-        put("java/util/zip/ZipInputStream", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/io/InputStream;)V", (targetObject, args, context) -> {
+        });
+        owner("java/util/Enumeration", methods -> {
+        	methods.put("hasMoreElements()Z", (targetObject, args, context) -> targetObject.as(Enumeration.class).hasMoreElements());
+        	methods.put("nextElement()Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Enumeration.class).nextElement());
+        });
+        owner("java/util/zip/ZipInputStream", methods -> {
+            methods.put("<init>(Ljava/io/InputStream;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/zip/ZipInputStream");
                 targetObject.initialize(new ZipInputStream(args.get(0).as(InputStream.class)));
                 return null;
             });
-            put("getNextEntry()Ljava/util/zip/ZipEntry;", (targetObject, args, context) -> targetObject.as(ZipInputStream.class).getNextEntry());
-            put("closeEntry()V", (targetObject, args, context) -> {
+            methods.put("getNextEntry()Ljava/util/zip/ZipEntry;", (targetObject, args, context) -> targetObject.as(ZipInputStream.class).getNextEntry());
+            methods.put("closeEntry()V", (targetObject, args, context) -> {
                 targetObject.as(ZipInputStream.class).closeEntry();
                 return null;
             });
-        }});
-        put("java/util/zip/ZipEntry", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getName());
-            put("getExtra()[B", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getExtra());
-            put("getLastAccessTime()Ljava/nio/file/attribute/FileTime;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getLastAccessTime());
-            put("getCreationTime()Ljava/nio/file/attribute/FileTime;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getCreationTime());
-        }});
-        put("java/lang/reflect/Constructor", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getParameterTypes()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaConstructor.class).getParameterTypes());
-            put("setAccessible(Z)V", (targetObject, args, context) -> {
+        });
+        owner("java/util/zip/ZipEntry", methods -> {
+            methods.put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getName());
+            methods.put("getExtra()[B", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getExtra());
+            methods.put("getLastAccessTime()Ljava/nio/file/attribute/FileTime;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getLastAccessTime());
+            methods.put("getCreationTime()Ljava/nio/file/attribute/FileTime;", (targetObject, args, context) -> targetObject.as(ZipEntry.class).getCreationTime());
+        });
+        owner("java/lang/reflect/Constructor", methods -> {
+            methods.put("getParameterTypes()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaConstructor.class).getParameterTypes());
+            methods.put("setAccessible(Z)V", (targetObject, args, context) -> {
                 targetObject.as(JavaConstructor.class).setAccessible(args.get(0).as(boolean.class));
                 return null;
             });
 
-            put("newInstance([Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(JavaConstructor.class).newInstance(context, args.get(0)));
-        }});
-        put("java/lang/reflect/Method", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getName());
-            put("getReturnType()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getReturnType());
-            put("getParameterTypes()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getParameterTypes());
-            put("setAccessible(Z)V", (targetObject, args, context) -> {
+            methods.put("newInstance([Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(JavaConstructor.class).newInstance(context, args.get(0)));
+        });
+        owner("java/lang/reflect/Method", methods -> {
+            methods.put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getName());
+            methods.put("getReturnType()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getReturnType());
+            methods.put("getParameterTypes()[Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getParameterTypes());
+            methods.put("setAccessible(Z)V", (targetObject, args, context) -> {
                 targetObject.as(JavaMethod.class).setAccessible(args.get(0).as(boolean.class));
                 return null;
             });
-            put("hashCode()I", (targetObject, args, context) -> targetObject.as(JavaMethod.class).hashCode());
-            put("invoke(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> {
+            methods.put("hashCode()I", (targetObject, args, context) -> targetObject.as(JavaMethod.class).hashCode());
+            methods.put("invoke(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> {
             	context.push("java.lang.reflect.Method", "invoke", 0);
             	context.push("sun.reflect.DelegatingMethodAccessorImpl", "invoke", 0);
             	context.push("sun.reflect.NativeMethodAccessorImpl", "invoke", 0);
             	context.push("sun.reflect.NativeMethodAccessorImpl", "invoke0", 0);
             	return targetObject.as(JavaMethod.class).invoke(args.get(0), args.get(1), context);
             });
-            put("getDeclaringClass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getDeclaringClass());
-        }});
-        put("java/lang/reflect/Field", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaField.class).getName());
-            put("getType()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaField.class).getType());
-            put("setAccessible(Z)V", (targetObject, args, context) -> {
+            methods.put("getDeclaringClass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaMethod.class).getDeclaringClass());
+        });
+        owner("java/lang/reflect/Field", methods -> {
+            methods.put("getName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(JavaField.class).getName());
+            methods.put("getType()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaField.class).getType());
+            methods.put("setAccessible(Z)V", (targetObject, args, context) -> {
                 targetObject.as(JavaField.class).setAccessible(args.get(0).as(boolean.class));
                 return null;
             });
-            put("getModifiers()I", (targetObject, args, context) -> targetObject.as(JavaField.class).getModifiers());
-            put("setInt(Ljava/lang/Object;I)V", (targetObject, args, context) -> {
+            methods.put("getModifiers()I", (targetObject, args, context) -> targetObject.as(JavaField.class).getModifiers());
+            methods.put("setInt(Ljava/lang/Object;I)V", (targetObject, args, context) -> {
                 targetObject.as(JavaField.class).setInt(args.get(0).as(Object.class), args.get(1).intValue());
                 return null;
             });
-            put("set(Ljava/lang/Object;Ljava/lang/Object;)V", (targetObject, args, context) -> {
+            methods.put("set(Ljava/lang/Object;Ljava/lang/Object;)V", (targetObject, args, context) -> {
                 targetObject.as(JavaField.class).set(args.get(0).as(Object.class), args.get(0).as(Object.class));
                 return null;
             });
-            put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(JavaField.class).get(args.get(0).as(Object.class)));
-            put("getDeclaringClass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaField.class).getDeclaringClass());
-        }});
-        put("java/lang/reflect/Modifier", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("isStatic(I)Z", (targetObject, args, context) -> Modifier.isStatic(args.get(0).intValue()));
-            put("isFinal(I)Z", (targetObject, args, context) -> Modifier.isFinal(args.get(0).intValue()));
-        }});
-        put("java/lang/invoke/MethodType", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("fromMethodDescriptorString(Ljava/lang/String;Ljava/lang/ClassLoader;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> args.get(0).value());
-            put("methodType(Ljava/lang/Class;[Ljava/lang/Class;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
+            methods.put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(JavaField.class).get(args.get(0).as(Object.class)));
+            methods.put("getDeclaringClass()Ljava/lang/Class;", (targetObject, args, context) -> targetObject.as(JavaField.class).getDeclaringClass());
+        });
+        owner("java/lang/reflect/Modifier", methods -> {
+            methods.put("isStatic(I)Z", (targetObject, args, context) -> Modifier.isStatic(args.get(0).intValue()));
+            methods.put("isFinal(I)Z", (targetObject, args, context) -> Modifier.isFinal(args.get(0).intValue()));
+        });
+        owner("java/lang/invoke/MethodType", methods -> {
+            methods.put("fromMethodDescriptorString(Ljava/lang/String;Ljava/lang/ClassLoader;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> args.get(0).value());
+            methods.put("methodType(Ljava/lang/Class;[Ljava/lang/Class;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
             	JavaClass[] arguments = toJavaClass(args.get(1).as(Object[].class));
             	Type[] types = new Type[arguments.length];
             	for(int i = 0; i < arguments.length; i++)
             		types[i] = arguments[i].getType();
             	return Type.getMethodDescriptor(args.get(0).as(JavaClass.class).getType(), types);
             });
-            put("methodType(Ljava/lang/Class;Ljava/lang/Class;[Ljava/lang/Class;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
+            methods.put("methodType(Ljava/lang/Class;Ljava/lang/Class;[Ljava/lang/Class;)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
             	JavaClass[] array = new JavaClass[args.get(2).as(Object[].class).length + 1];
             	array[0] = args.get(1).as(JavaClass.class);
             	System.arraycopy(toJavaClass(args.get(2).as(Object[].class)), 0, array, 1, args.get(2).as(Object[].class).length);
@@ -561,11 +577,11 @@ public class JVMMethodProvider extends MethodProvider {
             		types[i] = array[i].getType();
             	return Type.getMethodDescriptor(args.get(0).as(JavaClass.class).getType(), types);
             });
-            put("parameterCount()I", (targetObject, args, context) -> {
+            methods.put("parameterCount()I", (targetObject, args, context) -> {
             	Type[] type = Type.getArgumentTypes(targetObject.as(String.class));
             	return type.length;
             });
-            put("dropParameterTypes(II)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
+            methods.put("dropParameterTypes(II)Ljava/lang/invoke/MethodType;", (targetObject, args, context) -> {
             	Type[] type = Type.getArgumentTypes(targetObject.as(String.class));
             	int start = args.get(0).intValue();
             	int end = args.get(1).intValue();
@@ -592,290 +608,308 @@ public class JVMMethodProvider extends MethodProvider {
             	 }
             	return Type.getMethodDescriptor(Type.getReturnType(targetObject.as(String.class)), copy);
             });
-        }});
-        put("java/lang/invoke/MethodHandles$Lookup", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("findStatic(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "static"));
-            put("findVirtual(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "virtual"));
-            put("findSpecial(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "special"));
-            put("unreflect(Ljava/lang/reflect/Method;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaMethod.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaMethod.class).getName(), args.get(0).as(JavaMethod.class).getDesc(), args.get(0).as(JavaMethod.class).isStatic() ? "static" : "virtual"));
-            put("findStaticGetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "static", false));
-            put("findGetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "virtual", false));
-            put("findStaticSetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "static", true));
-            put("findSetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "virtual", true));
-            put("unreflectGetter(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaField.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaField.class).getName(), args.get(0).as(JavaField.class).getDesc(), Modifier.isStatic(args.get(0).as(JavaField.class).getModifiers()) ? "static" : "virtual", false));
-            put("unreflectSetter(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaField.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaField.class).getName(), args.get(0).as(JavaField.class).getDesc(), Modifier.isStatic(args.get(0).as(JavaField.class).getModifiers()) ? "static" : "virtual", true));
-        }});
-        put("java/lang/invoke/MethodHandle", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("asType(Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> targetObject.value());
-        }});
-        put("java/lang/invoke/MethodHandles", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("dropArguments(Ljava/lang/invoke/MethodHandle;I[Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> args.get(0).value());
-        }});
-        put("java/lang/invoke/ConstantCallSite", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> {
+        });
+        owner("java/lang/invoke/MethodHandles$Lookup", methods -> {
+            methods.put("findStatic(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "static"));
+            methods.put("findVirtual(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "virtual"));
+            methods.put("findSpecial(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(String.class), "special"));
+            methods.put("unreflect(Ljava/lang/reflect/Method;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaMethodHandle(args.get(0).as(JavaMethod.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaMethod.class).getName(), args.get(0).as(JavaMethod.class).getDesc(), args.get(0).as(JavaMethod.class).isStatic() ? "static" : "virtual"));
+            methods.put("findStaticGetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "static", false));
+            methods.put("findGetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "virtual", false));
+            methods.put("findStaticSetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "static", true));
+            methods.put("findSetter(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaClass.class).getType().getInternalName(), args.get(1).as(String.class), args.get(2).as(JavaClass.class).getType().getDescriptor(), "virtual", true));
+            methods.put("unreflectGetter(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaField.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaField.class).getName(), args.get(0).as(JavaField.class).getDesc(), Modifier.isStatic(args.get(0).as(JavaField.class).getModifiers()) ? "static" : "virtual", false));
+            methods.put("unreflectSetter(Ljava/lang/reflect/Field;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> new JavaFieldHandle(args.get(0).as(JavaField.class).getDeclaringClass().getName().replace(".", "/"), args.get(0).as(JavaField.class).getName(), args.get(0).as(JavaField.class).getDesc(), Modifier.isStatic(args.get(0).as(JavaField.class).getModifiers()) ? "static" : "virtual", true));
+        });
+        owner("java/lang/invoke/MethodHandle", methods -> {
+            methods.put("asType(Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> targetObject.value());
+        });
+        owner("java/lang/invoke/MethodHandles", methods -> {
+            methods.put("dropArguments(Ljava/lang/invoke/MethodHandle;I[Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> args.get(0).value());
+        });
+        owner("java/lang/invoke/ConstantCallSite", methods -> {
+            methods.put("<init>(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/invoke/ConstantCallSite");
                 targetObject.initialize(args.get(0).value());
                 return null;
             });
-        }});
-        put("java/lang/invoke/MutableCallSite", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> {
+        });
+        owner("java/lang/invoke/MutableCallSite", methods -> {
+            methods.put("<init>(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/invoke/MutableCallSite");
                 targetObject.initialize(args.get(0).value());
                 return null;
             });
-            put("setTarget(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> null);
-            put("getTarget()Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> targetObject.value());
-        }});
-        put("java/lang/System", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("currentTimeMillis()J", (targetObject, args, context) -> System.currentTimeMillis());
-            put("arraycopy(Ljava/lang/Object;ILjava/lang/Object;II)V", (targetObject, args, context) -> {
+            methods.put("setTarget(Ljava/lang/invoke/MethodHandle;)V", (targetObject, args, context) -> null);
+            methods.put("getTarget()Ljava/lang/invoke/MethodHandle;", (targetObject, args, context) -> targetObject.value());
+        });
+        owner("java/lang/System", methods -> {
+            methods.put("currentTimeMillis()J", (targetObject, args, context) -> System.currentTimeMillis());
+            methods.put("arraycopy(Ljava/lang/Object;ILjava/lang/Object;II)V", (targetObject, args, context) -> {
                 System.arraycopy(args.get(0).value(), args.get(1).intValue(), args.get(2).value(), args.get(3).intValue(), args.get(4).intValue());
                 return null;
             });
-        }});
-        put("java/lang/Thread", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("start()V", (targetObject, args, context) -> {
+        });
+        owner("java/lang/Thread", methods -> {
+            methods.put("start()V", (targetObject, args, context) -> {
                 targetObject.as(JavaThread.class).start();
                 return null;
             });
-            put("currentThread()Ljava/lang/Thread;", (targetObject, args, context) -> context.threadStore.retrieveThread(Thread.currentThread().getId()));
-            put("getId()J", (targetObject, args, context) -> targetObject.as(JavaThread.class).getThread().getId());
-            put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> {
+            methods.put("currentThread()Ljava/lang/Thread;", (targetObject, args, context) -> context.threadStore.currentThread(context));
+            methods.put("getId()J", (targetObject, args, context) -> targetObject.as(JavaThread.class).getId());
+            methods.put("getStackTrace()[Ljava/lang/StackTraceElement;", (targetObject, args, context) -> {
                 context.push("java.lang.Thread", "getStackTrace", 0);
                 StackTraceElement[] elems = context.getStackTrace();
                 context.pop();
                 return elems;
             });
-            put("join()V", (targetObject, args, context) -> {
-                targetObject.as(JavaThread.class).getThread().join();
+            methods.put("join()V", (targetObject, args, context) -> {
+                targetObject.as(JavaThread.class).join();
                 return null;
             });
-            put("yield()V", (targetObject, args, context) -> {
+            methods.put("yield()V", (targetObject, args, context) -> {
                 Thread.yield();
                 return null;
             });
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 targetObject.initialize(new JavaThread(context, (JavaObject) targetObject));
                 return null;
             });
-        }});
-        put("java/lang/StackTraceElement", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getClassName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getClassName());
-            put("getMethodName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getMethodName());
-            put("getFileName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getFileName());
-        }});
-        put("java/lang/Float", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("intBitsToFloat(I)F", (targetObject, args, context) -> Float.intBitsToFloat(args.get(0).intValue()));
-            put("valueOf(F)Ljava/lang/Float;", (targetObject, args, context) -> Float.valueOf(args.get(0).floatValue()));
-        }});
-        put("java/lang/Double", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("longBitsToDouble(J)D", (targetObject, args, context) -> Double.longBitsToDouble(args.get(0).longValue()));
-            put("valueOf(D)Ljava/lang/Double;", (targetObject, args, context) -> Double.valueOf(args.get(0).doubleValue()));
-        }});
-        put("java/lang/Long", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(J)V", (targetObject, args, context) -> {
+        });
+        owner("java/lang/StackTraceElement", methods -> {
+            methods.put("getClassName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getClassName());
+            methods.put("getMethodName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getMethodName());
+            methods.put("getFileName()Ljava/lang/String;", (targetObject, args, context) -> targetObject.as(StackTraceElement.class).getFileName());
+        });
+        owner("java/lang/Float", methods -> {
+            methods.put("intBitsToFloat(I)F", (targetObject, args, context) -> Float.intBitsToFloat(args.get(0).intValue()));
+            methods.put("valueOf(F)Ljava/lang/Float;", (targetObject, args, context) -> Float.valueOf(args.get(0).floatValue()));
+        });
+        owner("java/lang/Double", methods -> {
+            methods.put("longBitsToDouble(J)D", (targetObject, args, context) -> Double.longBitsToDouble(args.get(0).longValue()));
+            methods.put("valueOf(D)Ljava/lang/Double;", (targetObject, args, context) -> Double.valueOf(args.get(0).doubleValue()));
+        });
+        owner("java/lang/Long", methods -> {
+        	methods.put("<init>(J)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/Long");
                 targetObject.initialize(new Long(args.get(0).longValue()));
                 return null;
             });
-            put("parseLong(Ljava/lang/String;)J", (targetObject, args, context) -> Long.parseLong(args.get(0).as(String.class)));
-            put("parseLong(Ljava/lang/String;I)J", (targetObject, args, context) -> Long.parseLong(args.get(0).as(String.class), args.get(1).intValue()));
-            put("valueOf(J)Ljava/lang/Long;", (targetObject, args, context) -> Long.valueOf(args.get(0).longValue()));
-            put("valueOf(Ljava/lang/String;)Ljava/lang/Long;", (targetObject, args, context) -> Long.valueOf(args.get(0).as(String.class)));
-            put("longValue()J", (targetObject, args, context) -> ((Long)targetObject.value()).longValue());
-            put("intValue()I", (targetObject, args, context) -> ((Long)targetObject.value()).intValue());
-        }});
-        put("java/lang/Integer", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(I)V", (targetObject, args, context) -> {
+            methods.put("parseLong(Ljava/lang/String;)J", (targetObject, args, context) -> Long.parseLong(args.get(0).as(String.class)));
+            methods.put("parseLong(Ljava/lang/String;I)J", (targetObject, args, context) -> Long.parseLong(args.get(0).as(String.class), args.get(1).intValue()));
+            methods.put("valueOf(J)Ljava/lang/Long;", (targetObject, args, context) -> Long.valueOf(args.get(0).longValue()));
+            methods.put("valueOf(Ljava/lang/String;)Ljava/lang/Long;", (targetObject, args, context) -> Long.valueOf(args.get(0).as(String.class)));
+            methods.put("longValue()J", (targetObject, args, context) -> ((Long)targetObject.value()).longValue());
+            methods.put("intValue()I", (targetObject, args, context) -> ((Long)targetObject.value()).intValue());
+        });
+        owner("java/lang/Integer", methods -> {
+        	methods.put("<init>(I)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/Integer");
                 targetObject.initialize(new Integer(args.get(0).intValue()));
                 return null;
             });
-        	put("parseInt(Ljava/lang/String;)I", (targetObject, args, context) -> Integer.parseInt(args.get(0).as(String.class)));
-        	put("parseInt(Ljava/lang/String;I)I", (targetObject, args, context) -> Integer.parseInt(args.get(0).as(String.class), args.get(1).intValue()));
-            put("valueOf(Ljava/lang/String;)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).as(String.class)));
-            put("valueOf(Ljava/lang/String;I)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).as(String.class), args.get(1).intValue()));
-            put("valueOf(I)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).intValue()));
-            put("intValue()I", (targetObject, args, context) -> ((Integer)targetObject.value()).intValue());
-        }});
-        put("java/lang/Character", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("valueOf(C)Ljava/lang/Character;", (targetObject, args, context) -> Character.valueOf(args.get(0).as(char.class)));
-            put("charValue()C", (targetObject, args, context) -> ((Character)targetObject.value()).charValue());
-        }});
-        put("java/lang/Boolean", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("valueOf(Z)Ljava/lang/Boolean;", (targetObject, args, context) -> Boolean.valueOf(args.get(0).as(boolean.class)));
-            put("booleanValue()Z", (targetObject, args, context) -> ((Boolean)targetObject.value()).booleanValue());
-        }});
-        put("java/util/regex/Pattern", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("compile(Ljava/lang/String;)Ljava/util/regex/Pattern;", (targetObject, args, context) -> Pattern.compile(args.get(0).as(String.class)));
-        }});
-        put("java/util/Random", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>(J)V", (targetObject, args, context) -> {
+        	methods.put("parseInt(Ljava/lang/String;)I", (targetObject, args, context) -> Integer.parseInt(args.get(0).as(String.class)));
+        	methods.put("parseInt(Ljava/lang/String;I)I", (targetObject, args, context) -> Integer.parseInt(args.get(0).as(String.class), args.get(1).intValue()));
+            methods.put("valueOf(Ljava/lang/String;)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).as(String.class)));
+            methods.put("valueOf(Ljava/lang/String;I)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).as(String.class), args.get(1).intValue()));
+            methods.put("valueOf(I)Ljava/lang/Integer;", (targetObject, args, context) -> Integer.valueOf(args.get(0).intValue()));
+            methods.put("intValue()I", (targetObject, args, context) -> ((Integer)targetObject.value()).intValue());
+        });
+        owner("java/lang/Character", methods -> {
+            methods.put("valueOf(C)Ljava/lang/Character;", (targetObject, args, context) -> Character.valueOf(args.get(0).as(char.class)));
+            methods.put("charValue()C", (targetObject, args, context) -> ((Character)targetObject.value()).charValue());
+        });
+        owner("java/lang/Boolean", methods -> {
+            methods.put("valueOf(Z)Ljava/lang/Boolean;", (targetObject, args, context) -> Boolean.valueOf(args.get(0).as(boolean.class)));
+            methods.put("booleanValue()Z", (targetObject, args, context) -> ((Boolean)targetObject.value()).booleanValue());
+        });
+        owner("java/util/regex/Pattern", methods -> {
+            methods.put("compile(Ljava/lang/String;)Ljava/util/regex/Pattern;", (targetObject, args, context) -> Pattern.compile(args.get(0).as(String.class)));
+        });
+        owner("java/util/Random", methods -> {
+        	methods.put("<init>(J)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/Random");
                 targetObject.initialize(new Random(args.get(0).longValue()));
                 return null;
             });
-        	put("nextDouble()D", (targetObject, args, context) -> targetObject.as(Random.class).nextDouble());
-        }});
-        put("java/lang/BootstrapMethodError", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        	methods.put("nextDouble()D", (targetObject, args, context) -> targetObject.as(Random.class).nextDouble());
+        });
+        owner("java/lang/BootstrapMethodError", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/lang/BootstrapMethodError");
                 targetObject.initialize(new BootstrapMethodError());
                 return null;
             });
-        }});
-        put("java/util/TreeMap", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        });
+        owner("java/util/TreeMap", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/TreeMap");
                 targetObject.initialize(new TreeMap<>());
                 return null;
             });
-        }});
-        put("java/util/HashMap", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        });
+        owner("java/util/HashMap", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/HashMap");
                 targetObject.initialize(new HashMap<>());
                 return null;
             });
-            put("<init>(I)V", (targetObject, args, context) -> {
+            methods.put("<init>(I)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/HashMap");
                 targetObject.initialize(new HashMap<>(args.get(0).intValue()));
                 return null;
             });
-            put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(HashMap.class).put(args.get(0).value(), args.get(1).value()));
-            put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(HashMap.class).get(args.get(0).value()));
-            put("containsKey(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(HashMap.class).containsKey(args.get(0).value()));
-            put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(HashMap.class).isEmpty()); 
-        }});
-        put("java/util/HashSet", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+            methods.put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(HashMap.class).put(args.get(0).value(), args.get(1).value()));
+            methods.put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(HashMap.class).get(args.get(0).value()));
+            methods.put("containsKey(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(HashMap.class).containsKey(args.get(0).value()));
+            methods.put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(HashMap.class).isEmpty()); 
+        });
+        owner("java/util/HashSet", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/HashSet");
                 targetObject.initialize(new HashSet<>());
                 return null;
             });
-        }});
-        put("java/util/LinkedList", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>()V", (targetObject, args, context) -> {
+        });
+        owner("java/util/LinkedList", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> {
                 expect(targetObject, "java/util/LinkedList");
                 targetObject.initialize(new LinkedList<>());
                 return null;
             });
-        }});
-        put("java/util/Map", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{ 
-        	put("containsKey(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(Map.class).containsKey(args.get(0).value()));
-        	put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Map.class).put(args.get(0).value(), args.get(1).value()));
-        	put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Map.class).get(args.get(0).value()));
-        }});
-        put("java/util/LinkedHashMap", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{ 
-            put("<init>()V", (targetObject, args, context) -> { 
+        });
+        owner("java/util/Map", methods -> {
+        	methods.put("containsKey(Ljava/lang/Object;)Z", (targetObject, args, context) -> targetObject.as(Map.class).containsKey(args.get(0).value()));
+        	methods.put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Map.class).put(args.get(0).value(), args.get(1).value()));
+        	methods.put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(Map.class).get(args.get(0).value()));
+        });
+        owner("java/util/LinkedHashMap", methods -> {
+            methods.put("<init>()V", (targetObject, args, context) -> { 
                 expect(targetObject, "java/util/LinkedHashMap"); 
                 targetObject.initialize(new LinkedHashMap<>()); 
                 return null; 
             }); 
-            put("<init>(Ljava/util/Map;)V", (targetObject, args, context) -> { 
+            methods.put("<init>(Ljava/util/Map;)V", (targetObject, args, context) -> { 
                 expect(targetObject, "java/util/LinkedHashMap"); 
-                targetObject.initialize(new LinkedHashMap<>(args.get(0).as(Map.class))); 
+                Map<?, ?> map = args.get(0).as(Map.class); 
+                targetObject.initialize(new LinkedHashMap<Object, Object>(map)); 
                 return null; 
             }); 
-            put("<init>(IFZ)V", (targetObject, args, context) -> { 
+            methods.put("<init>(IFZ)V", (targetObject, args, context) -> { 
                 expect(targetObject, "java/util/LinkedHashMap"); 
                 JavaValue accessOrder = args.get(2); 
                 targetObject.initialize(new LinkedHashMap<>(args.get(0).intValue(), args.get(1).floatValue(), accessOrder instanceof JavaBoolean ? accessOrder.booleanValue() : accessOrder.intValue() == 1)); 
                 return null; 
             }); 
-            put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).get(args.get(0).value())); 
-            put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).put(args.get(0).value(), args.get(1).value())); 
-            put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).isEmpty()); 
-            put("entrySet()Ljava/util/Set;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).entrySet()); 
-            put("remove(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).remove(args.get(0).value())); 
-        }}); 
-        put("java/lang/Math", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("abs(J)J", (targetObject, args, context) -> Math.abs(args.get(0).longValue()));
-            put("round(D)J", (targetObject, args, context) -> Math.round(args.get(0).doubleValue()));
-        }});
-        put("java/math/BigInteger", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("<init>(Ljava/lang/String;I)V", (targetObject, args, context) -> {
+            methods.put("get(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).get(args.get(0).value())); 
+            methods.put("put(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).put(args.get(0).value(), args.get(1).value())); 
+            methods.put("isEmpty()Z", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).isEmpty()); 
+            methods.put("entrySet()Ljava/util/Set;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).entrySet()); 
+            methods.put("remove(Ljava/lang/Object;)Ljava/lang/Object;", (targetObject, args, context) -> targetObject.as(LinkedHashMap.class).remove(args.get(0).value())); 
+        });
+        owner("java/lang/Math", methods -> {
+            methods.put("abs(J)J", (targetObject, args, context) -> Math.abs(args.get(0).longValue()));
+            methods.put("round(D)J", (targetObject, args, context) -> Math.round(args.get(0).doubleValue()));
+        });
+        owner("java/math/BigInteger", methods -> {
+            methods.put("<init>(Ljava/lang/String;I)V", (targetObject, args, context) -> {
                 expect(targetObject, "java/math/BigInteger");
                 targetObject.initialize(new BigInteger(args.get(0).as(String.class), args.get(1).intValue()));
                 return null;
             });
-            put("add(Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).add(args.get(0).as(BigInteger.class)));
-            put("xor(Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).xor(args.get(0).as(BigInteger.class)));
-            put("modPow(Ljava/math/BigInteger;Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).modPow(args.get(0).as(BigInteger.class), args.get(1).as(BigInteger.class)));
-            put("intValue()I", (targetObject, args, context) -> new JavaInteger(targetObject.as(BigInteger.class).intValue()).intValue());
-            put("valueOf(J)Ljava/math/BigInteger;", (targetObject, args, context) -> BigInteger.valueOf(args.get(0).longValue()));
-        }});
-        put("java/util/Base64", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("getDecoder()Ljava/util/Base64$Decoder;", (targetObject, args, context) -> Base64.getDecoder());
-        }});
-        put("java/util/Base64$Decoder", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("decode(Ljava/lang/String;)[B", (targetObject, args, context) -> targetObject.as(Base64.Decoder.class).decode(args.get(0).as(String.class)));
-        	put("decode([B)[B", (targetObject, args, context) -> targetObject.as(Base64.Decoder.class).decode(args.get(0).as(byte[].class)));
-        }});
+            methods.put("add(Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).add(args.get(0).as(BigInteger.class)));
+            methods.put("xor(Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).xor(args.get(0).as(BigInteger.class)));
+            methods.put("modPow(Ljava/math/BigInteger;Ljava/math/BigInteger;)Ljava/math/BigInteger;", (targetObject, args, context) -> targetObject.as(BigInteger.class).modPow(args.get(0).as(BigInteger.class), args.get(1).as(BigInteger.class)));
+            methods.put("intValue()I", (targetObject, args, context) -> new JavaInteger(targetObject.as(BigInteger.class).intValue()).intValue());
+            methods.put("valueOf(J)Ljava/math/BigInteger;", (targetObject, args, context) -> BigInteger.valueOf(args.get(0).longValue()));
+        });
+        owner("java/util/Base64", methods -> {
+        	methods.put("getDecoder()Ljava/util/Base64$Decoder;", (targetObject, args, context) -> Base64.getDecoder());
+        });
+        owner("java/util/Base64$Decoder", methods -> {
+        	methods.put("decode(Ljava/lang/String;)[B", (targetObject, args, context) -> targetObject.as(Base64.Decoder.class).decode(args.get(0).as(String.class)));
+        	methods.put("decode([B)[B", (targetObject, args, context) -> targetObject.as(Base64.Decoder.class).decode(args.get(0).as(byte[].class)));
+        });
 
         // Javax
-        put("javax/xml/bind/DatatypeConverter", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("parseBase64Binary(Ljava/lang/String;)[B", (targetObject, args, context) -> DatatypeConverter.parseBase64Binary(args.get(0).as(String.class)));
-            put("parseHexBinary(Ljava/lang/String;)[B", (targetObject, args, context) -> DatatypeConverter.parseHexBinary(args.get(0).as(String.class)));
-        }});
-        put("javax/crypto/spec/SecretKeySpec", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>([BLjava/lang/String;)V", (targetObject, args, context) -> {
+        owner("javax/xml/bind/DatatypeConverter", methods -> {
+            methods.put("parseBase64Binary(Ljava/lang/String;)[B", (targetObject, args, context) -> DatatypeConverter.parseBase64Binary(args.get(0).as(String.class)));
+            methods.put("parseHexBinary(Ljava/lang/String;)[B", (targetObject, args, context) -> DatatypeConverter.parseHexBinary(args.get(0).as(String.class)));
+        });
+        owner("javax/crypto/spec/SecretKeySpec", methods -> {
+        	methods.put("<init>([BLjava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "javax/crypto/spec/SecretKeySpec");
                 targetObject.initialize(new SecretKeySpec(args.get(0).as(byte[].class), args.get(1).as(String.class)));
                 return null;
             });
-        	put("<init>([BIILjava/lang/String;)V", (targetObject, args, context) -> {
+        	methods.put("<init>([BIILjava/lang/String;)V", (targetObject, args, context) -> {
                 expect(targetObject, "javax/crypto/spec/SecretKeySpec");
                 targetObject.initialize(new SecretKeySpec(args.get(0).as(byte[].class), args.get(1).intValue(), args.get(2).intValue(), args.get(3).as(String.class)));
                 return null;
             });
-        }});
-        put("javax/crypto/spec/DESKeySpec", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>([B)V", (targetObject, args, context) -> {
+        });
+        owner("javax/crypto/spec/DESKeySpec", methods -> {
+        	methods.put("<init>([B)V", (targetObject, args, context) -> {
                 expect(targetObject, "javax/crypto/spec/DESKeySpec");
                 targetObject.initialize(new DESKeySpec(args.get(0).as(byte[].class)));
                 return null;
             });
-        }});
-        put("javax/crypto/spec/IvParameterSpec", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("<init>([B)V", (targetObject, args, context) -> {
+        });
+        owner("javax/crypto/spec/IvParameterSpec", methods -> {
+        	methods.put("<init>([B)V", (targetObject, args, context) -> {
                 expect(targetObject, "javax/crypto/spec/IvParameterSpec");
                 targetObject.initialize(new IvParameterSpec(args.get(0).as(byte[].class)));
                 return null;
             });
-        }});
-        put("javax/crypto/Cipher", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("getInstance(Ljava/lang/String;)Ljavax/crypto/Cipher;", (targetObject, args, context) -> Cipher.getInstance(args.get(0).as(String.class)));
-        	put("init(ILjava/security/Key;)V", (targetObject, args, context) -> {
+        });
+        owner("javax/crypto/Cipher", methods -> {
+        	methods.put("getInstance(Ljava/lang/String;)Ljavax/crypto/Cipher;", (targetObject, args, context) -> Cipher.getInstance(args.get(0).as(String.class)));
+        	methods.put("init(ILjava/security/Key;)V", (targetObject, args, context) -> {
         		targetObject.as(Cipher.class).init(args.get(0).intValue(), args.get(1).as(Key.class));
         		return null;
         	});
-        	put("init(ILjava/security/Key;Ljava/security/spec/AlgorithmParameterSpec;)V", (targetObject, args, context) -> {
+        	methods.put("init(ILjava/security/Key;Ljava/security/spec/AlgorithmParameterSpec;)V", (targetObject, args, context) -> {
         		targetObject.as(Cipher.class).init(args.get(0).intValue(), args.get(1).as(Key.class), args.get(2).as(AlgorithmParameterSpec.class));
         		return null;
         	});
-        	put("doFinal([B)[B", (targetObject, args, context) -> targetObject.as(Cipher.class).doFinal(args.get(0).as(byte[].class)));
-        }});
-        put("javax/crypto/SecretKeyFactory", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("getInstance(Ljava/lang/String;)Ljavax/crypto/SecretKeyFactory;", (targetObject, args, context) -> SecretKeyFactory.getInstance(args.get(0).as(String.class)));
-        	put("generateSecret(Ljava/security/spec/KeySpec;)Ljavax/crypto/SecretKey;", (targetObject, args, context) -> targetObject.as(SecretKeyFactory.class).generateSecret(args.get(0).as(KeySpec.class)));
-        }});
+        	methods.put("doFinal([B)[B", (targetObject, args, context) -> targetObject.as(Cipher.class).doFinal(args.get(0).as(byte[].class)));
+        });
+        owner("javax/crypto/SecretKeyFactory", methods -> {
+        	methods.put("getInstance(Ljava/lang/String;)Ljavax/crypto/SecretKeyFactory;", (targetObject, args, context) -> SecretKeyFactory.getInstance(args.get(0).as(String.class)));
+        	methods.put("generateSecret(Ljava/security/spec/KeySpec;)Ljavax/crypto/SecretKey;", (targetObject, args, context) -> targetObject.as(SecretKeyFactory.class).generateSecret(args.get(0).as(KeySpec.class)));
+        });
 
         // Sun
-        put("sun/misc/SharedSecrets", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getJavaLangAccess()Lsun/misc/JavaLangAccess;", (targetObject, args, context) -> null);
-        }});
-        put("sun/misc/JavaLangAccess", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-        	put("getConstantPool(Ljava/lang/Class;)Lsun/reflect/ConstantPool;", (targetObject, args, context) -> new JavaConstantPool(context.constantPools.get(args.get(0).as(JavaClass.class).getClassNode())));
-        }});
-        put("sun/reflect/ConstantPool", new HashMap<String, Function3<JavaValue, List<JavaValue>, Context, Object>>() {{
-            put("getSize()I", (targetObject, args, context) -> targetObject.as(JavaConstantPool.class).getSize());
-        }});
-
-    }};
+        owner("sun/misc/SharedSecrets", methods -> {
+            methods.put("getJavaLangAccess()Lsun/misc/JavaLangAccess;", (targetObject, args, context) -> null);
+        });
+        owner("sun/misc/JavaLangAccess", methods -> {
+        	methods.put("getConstantPool(Ljava/lang/Class;)Lsun/reflect/ConstantPool;", (targetObject, args, context) -> new JavaConstantPool(context.constantPools.get(args.get(0).as(JavaClass.class).getClassNode())));
+        });
+        owner("sun/reflect/ConstantPool", methods -> {
+            methods.put("getSize()I", (targetObject, args, context) -> targetObject.as(JavaConstantPool.class).getSize());
+        });
+
+
+        PURE_CLASSES.add(String.class);
+        PURE_CLASSES.add(Math.class);
+    }
     //@formatter:on
 
+    private static void owner(String owner, Consumer<Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>> registration) {
+        REGISTRY.computeIfAbsent(owner, k -> new ArrayList<>()).add(registration);
+    }
+
+    /**
+     * Makes the public methods of the class available to emulated code by binding them with method handles. Only methods which take and
+     * return primitives, strings and primitive arrays are bound, and only static ones unless the class is {@link String}. The class must not
+     * have side effects beyond writing into array arguments, as the real methods are called.
+     */
+    public static void registerPure(Class<?> clazz) {
+        PURE_CLASSES.add(clazz);
+        TABLES.remove(Type.getInternalName(clazz));
+    }
+
     @Override
     public boolean instanceOf(JavaValue target, Type type, Context context) {
         return false;
@@ -883,14 +917,20 @@ public class JVMMethodProvider extends MethodProvider {
 
     @Override
     public Object invokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
-        Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>> map = functions.get(className);
-        return map.get(methodName + methodDesc).applyUnchecked(targetObject, args, context);
+        return table(className).find(methodName, methodDesc).applyUnchecked(targetObject, args, context);
     }
 
     @Override
     public boolean canInvokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
-        Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>> map = functions.get(className);
-        return map != null && map.containsKey(methodName + methodDesc);
+        return table(className).find(methodName, methodDesc) != null;
+    }
+
+    private static OwnerTable table(String className) {
+        OwnerTable table = TABLES.get(className);
+        if (table == null) {
+            table = TABLES.computeIfAbsent(className, OwnerTable::build);
+        }
+        return table;
     }
 
     @Override
@@ -964,6 +1004,106 @@ public class JVMMethodProvider extends MethodProvider {
         return clazz;
     }
 
+    /**
+     * The implementations of one owner by name and then descriptor, so that looking one up doesn't need the two to be concatenated.
+     */
+    private static class OwnerTable {
+        private final Map<String, Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>> methods = new HashMap<>();
+
+        private static OwnerTable build(String owner) {
+            Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>> functions = new HashMap<>();
+            for (Class<?> clazz : PURE_CLASSES) {
+                if (Type.getInternalName(clazz).equals(owner)) {
+                    bindPure(clazz, functions);
+                }
+            }
+            // Hand-written implementations win over bound ones
+            List<Consumer<Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>>> registrations = REGISTRY.get(owner);
+            if (registrations != null) {
+                for (Consumer<Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>>> registration : registrations) {
+                    registration.accept(functions);
+                }
+            }
+            if (functions.isEmpty()) {
+                return EMPTY;
+            }
+            OwnerTable table = new OwnerTable();
+            for (Map.Entry<String, Function3<JavaValue, List<JavaValue>, Context, Object>> entry : functions.entrySet()) {
+                String key = entry.getKey();
+                int split = key.indexOf('(');
+                table.methods.computeIfAbsent(key.substring(0, split), k -> new HashMap<>()).put(key.substring(split), entry.getValue());
+            }
+            return table;
+        }
+
+        private Function3<JavaValue, List<JavaValue>, Context, Object> find(String name, String desc) {
+            Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>> overloads = methods.get(name);
+            return overloads == null ? null : overloads.get(desc);
+        }
+    }
+
+    private static void bindPure(Class<?> clazz, Map<String, Function3<JavaValue, List<JavaValue>, Context, Object>> functions) {
+        for (Method method : clazz.getDeclaredMethods()) {
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            if (!Modifier.isPublic(method.getModifiers()) || (!isStatic && clazz != String.class) || method.isSynthetic()
+                    || method.getName().equals("random") || !isPureType(method.getReturnType()) && method.getReturnType() != void.class) {
+                continue;
+            }
+            Class<?>[] params = method.getParameterTypes();
+            boolean bindable = true;
+            for (Class<?> param : params) {
+                bindable &= isPureType(param);
+            }
+            if (!bindable) {
+                continue;
+            }
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            int receivers = isStatic ? 0 : 1;
+            MethodHandle spread = handle.asType(handle.type().generic()).asSpreader(Object[].class, params.length + receivers);
+            functions.put(method.getName() + Type.getMethodDescriptor(method), (targetObject, args, context) -> {
+                Object[] values = new Object[params.length + receivers];
+                if (!isStatic) {
+                    values[0] = targetObject.as(clazz);
+                }
+                for (int i = 0; i < params.length; i++) {
+                    values[i + receivers] = toArgument(args.get(i), params[i]);
+                }
+                return (Object) spread.invokeExact(values);
+            });
+        }
+    }
+
+    private static boolean isPureType(Class<?> type) {
+        return type.isPrimitive() && type != void.class || type == String.class || type == char[].class || type == byte[].class;
+    }
+
+    private static Object toArgument(JavaValue value, Class<?> type) {
+        if (!type.isPrimitive()) {
+            return value.as(type);
+        }
+        if (type == long.class) {
+            return value.longValue();
+        } else if (type == double.class) {
+            return value.doubleValue();
+        } else if (type == float.class) {
+            return value.floatValue();
+        } else if (type == boolean.class) {
+            return value.intValue() != 0;
+        } else if (type == char.class) {
+            return (char) value.intValue();
+        } else if (type == short.class) {
+            return (short) value.intValue();
+        } else if (type == byte.class) {
+            return (byte) value.intValue();
+        }
+        return value.intValue();
+    }
+
     @FunctionalInterface
     public interface Function3<T1, T2, T3, R> {
 
@@ -16,46 +16,49 @@
 
 package com.javadeobfuscator.deobfuscator.executor.defined;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.FieldSlots;
 import com.javadeobfuscator.deobfuscator.executor.providers.FieldProvider;
 import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
 
+/**
+ * Keeps the fields of emulated classes and objects in {@link FieldSlots}. Access is only synchronized once the context has started an
+ * emulated thread, see {@link com.javadeobfuscator.deobfuscator.executor.ThreadStore#isMultithreaded()}.
+ */
 public class MappedFieldProvider extends FieldProvider {
-    private final Map<String, Object> staticFields = Collections.synchronizedMap(new HashMap<>());
-    private final Map<Object, Map<String, Object>> instanceFields = new ConcurrentHashMap<>();
+    private final FieldSlots<Object> fields = new FieldSlots<>();
 
     public Object getField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Context context) {
-        if (targetObject == null) {
-            return staticFields.get(className + fieldName + fieldDesc);
-        } else {
-            synchronized (instanceFields) {
-                Object field = instanceFields.get(targetObject.value());
-                if (field != null) {
-                    return ((Map<String, Object>) field).get(className + fieldName + fieldDesc);
-                }
+        if (context != null && context.threadStore.isMultithreaded()) {
+            synchronized (fields) {
+                return get(className, fieldName, fieldDesc, targetObject);
             }
-
-            return null;
         }
+        return get(className, fieldName, fieldDesc, targetObject);
     }
 
     public void setField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Object value, Context context) {
+        if (context != null && context.threadStore.isMultithreaded()) {
+            synchronized (fields) {
+                set(className, fieldName, fieldDesc, targetObject, value);
+            }
+        } else {
+            set(className, fieldName, fieldDesc, targetObject, value);
+        }
+    }
+
+    private Object get(String className, String fieldName, String fieldDesc, JavaValue targetObject) {
         if (targetObject == null) {
-            staticFields.put(className + fieldName + fieldDesc, value);
+            return fields.getStatic(className, fieldName, fieldDesc);
+        }
+        return fields.getInstance(className, fieldName, fieldDesc, targetObject.value());
+    }
+
+    private void set(String className, String fieldName, String fieldDesc, JavaValue targetObject, Object value) {
+        if (targetObject == null) {
+            fields.setStatic(className, fieldName, fieldDesc, value);
         } else {
-            synchronized (instanceFields) {
-                Object field = instanceFields.get(targetObject.value());
-                if (field == null) {
-                    field = new HashMap<>();
-                }
-                ((Map<String, Object>) field).put(className + fieldName + fieldDesc, value);
-                instanceFields.put(targetObject.value(), (Map<String, Object>) field);
-            }
+            fields.setInstance(className, fieldName, fieldDesc, targetObject.value(), value);
         }
     }
 
@@ -28,6 +28,7 @@ import java.util.*;
 
 public class MappedMethodProvider extends MethodProvider {
     private Map<String, ClassNode> classpath = new HashMap<>();
+    private final MethodTable methods = new MethodTable();
 
     public MappedMethodProvider(Map<String, ClassNode> classpath) {
         this.classpath = classpath;
@@ -37,7 +38,7 @@ public class MappedMethodProvider extends MethodProvider {
         ClassNode classNode = classpath.get(className);
         if(classNode == null)
         	return false;
-        MethodNode methodNode = classNode.methods.stream().filter(mn -> mn.name.equals(methodName) && mn.desc.equals(methodDesc)).findFirst().orElse(null);
+        MethodNode methodNode = methods.find(classNode, methodName, methodDesc);
         return methodNode != null;
     }
 
@@ -45,7 +46,7 @@ public class MappedMethodProvider extends MethodProvider {
     public Object invokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
         ClassNode classNode = classpath.get(className);
         if (classNode != null) {
-            MethodNode methodNode = classNode.methods.stream().filter(mn -> mn.name.equals(methodName) && mn.desc.equals(methodDesc)).findFirst().orElse(null);
+            MethodNode methodNode = methods.find(classNode, methodName, methodDesc);
             if (methodNode != null) {
                 List<JavaValue> argsClone = new ArrayList<>();
                 for (JavaValue arg : args) {
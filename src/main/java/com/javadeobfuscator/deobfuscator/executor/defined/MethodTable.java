@@ -0,0 +1,95 @@
+package com.javadeobfuscator.deobfuscator.executor.defined;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.MapMaker;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Finds the methods of classes by name and descriptor without scanning {@link ClassNode#methods} on every call.
+ * <p>
+ * The table of a class is rebuilt when the method list, its size or its first or last method no longer match what it was built from, so
+ * that transformers can keep adding and removing methods while classes are being emulated. Like the check of {@link
+ * com.javadeobfuscator.deobfuscator.executor.PreparedMethod}, this is cheap but can't see every edit, so code which renames or replaces
+ * methods in place and then executes the class again should call {@link #invalidate()}. The deobfuscator does so after each transformer. As
+ * long as the table matches, a method it doesn't hold doesn't exist, so misses are answered from the table as well.
+ */
+public class MethodTable {
+    /**
+     * Bumped by {@link #invalidate()}; tables built before are rebuilt
+     */
+    private static volatile int generation;
+
+    private final Map<ClassNode, Table> tables = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Drops the tables of all classes.
+     */
+    public static void invalidate() {
+        generation++;
+    }
+
+    MethodNode find(ClassNode classNode, String name, String desc) {
+        Table table = tables.get(classNode);
+        if (table == null || !table.matches(classNode.methods)) {
+            table = new Table(classNode.methods);
+            tables.put(classNode, table);
+        }
+        return table.find(name, desc);
+    }
+
+    private static class Table {
+        private final List<MethodNode> list;
+        private final int size;
+        private final MethodNode first;
+        private final MethodNode last;
+        private final int generation = MethodTable.generation;
+        /**
+         * Methods by name, overloads in declaration order
+         */
+        private final Map<String, MethodNode[]> methods = new HashMap<>();
+
+        private Table(List<MethodNode> list) {
+            this.list = list;
+            this.size = list.size();
+            this.first = size == 0 ? null : list.get(0);
+            this.last = size == 0 ? null : list.get(size - 1);
+            for (MethodNode method : list) {
+                MethodNode[] overloads = methods.get(method.name);
+                if (overloads == null) {
+                    overloads = new MethodNode[] {method};
+                } else {
+                    MethodNode[] grown = new MethodNode[overloads.length + 1];
+                    System.arraycopy(overloads, 0, grown, 0, overloads.length);
+                    grown[overloads.length] = method;
+                    overloads = grown;
+                }
+                methods.put(method.name, overloads);
+            }
+        }
+
+        /**
+         * @return whether the list looks unchanged since this table was built
+         */
+        private boolean matches(List<MethodNode> list) {
+            int size = list.size();
+            return list == this.list && size == this.size && generation == MethodTable.generation
+                    && (size == 0 || list.get(0) == first && list.get(size - 1) == last);
+        }
+
+        private MethodNode find(String name, String desc) {
+            MethodNode[] overloads = methods.get(name);
+            if (overloads != null) {
+                for (MethodNode method : overloads) {
+                    if (method.desc.equals(desc)) {
+                        return method;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
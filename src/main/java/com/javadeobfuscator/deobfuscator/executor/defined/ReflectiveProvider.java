@@ -23,24 +23,38 @@ import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
 import org.objectweb.asm.Type;
 import com.javadeobfuscator.deobfuscator.utils.Utils;
 import org.objectweb.asm.tree.ClassNode;
-import sun.invoke.util.BytecodeDescriptor;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * Not recommended for production usage
+ *
+ * Methods are resolved once per owner, name and descriptor into a method handle, which is called without spreading its arguments into an
+ * array for up to four arguments. Classes which fail to load are remembered, so that they aren't looked for again on every call.
  */
 public class ReflectiveProvider implements Provider {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final int MAX_DIRECT_ARITY = 4;
+
     private Map<String, ClassNode> dictionary;
-    private Map<String, Method> methodCache = new HashMap<>();
-    private Map<String, Constructor<?>> ctorCache = new HashMap<>();
-    private Map<String, Field> fieldCache = new HashMap<>();
+    /**
+     * Classes by internal name or array descriptor, or the error loading them threw
+     */
+    private final Map<String, Object> classes = new ConcurrentHashMap<>();
+    /**
+     * Invokers by owner, then name, then descriptor
+     */
+    private final Map<String, Map<String, Map<String, Invoker>>> invokers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Map<String, Field>>> fields = new ConcurrentHashMap<>();
 
     public ReflectiveProvider(Map<String, ClassNode> dictionary) {
         this.dictionary = dictionary;
@@ -51,68 +65,218 @@ public class ReflectiveProvider implements Provider {
         if (!dictionary.containsKey(className)) {
             throw new ExecutionException(className + " could not be located in dictionary");
         }
-        Class<?> targetClass;
-        Class<?>[] clazzes;
-        try {
-            targetClass = Class.forName(className.replace("/", "."));
-            List<Class<?>> l = BytecodeDescriptor.parseMethod(methodDesc, ClassLoader.getSystemClassLoader());
-            l.remove(l.size() - 1);
-            clazzes = l.toArray(new Class<?>[0]);
-        } catch (Throwable e) {
-            throw new ExecutionException(e);
+        Invoker invoker = invokers.computeIfAbsent(className, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(methodName, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(methodDesc, k -> resolve(className, methodName, methodDesc));
+        if (invoker.failure != null) {
+            throw new ExecutionException(invoker.failure);
         }
-        if (methodName.equals("<init>")) {
-            Constructor<?> ctor = ctorCache.computeIfAbsent(className + methodName + methodDesc, key -> {
-                try {
-                    Constructor<?> constructor = targetClass.getDeclaredConstructor(clazzes);
-                    constructor.setAccessible(true);
-                    return constructor;
-                } catch (Throwable t) {
-                    throw new ExecutionException(t);
-                }
-            });
-
-            List<Object> ar = new ArrayList<>();
-            for (JavaValue o : args) {
-                ar.add(o.value());
-            }
-            Object o;
-            try {
-                o = ctor.newInstance(ar.toArray());
-            } catch (ReflectiveOperationException ex) {
-                Utils.sneakyThrow(ex.getCause());
-                return null;
-            } catch (Throwable t) {
-                throw new ExecutionException(t);
-            }
+        if (invoker.constructor) {
+            Object o = invoker.invoke(null, args);
             targetObject.initialize(o);
             if (targetObject.value() instanceof Throwable) {
                 ((Throwable) targetObject.value()).setStackTrace(context.getStackTrace());
             }
             return null;
         } else {
-            Method method = methodCache.computeIfAbsent(className + methodName + methodDesc, key -> {
-                try {
-                    Method innerMethod = targetClass.getDeclaredMethod(methodName, clazzes);
-                    innerMethod.setAccessible(true);
-                    return innerMethod;
-                } catch (Throwable t) {
-                    throw new ExecutionException(t);
+            return invoker.invoke(targetObject == null ? null : targetObject.value(), args);
+        }
+    }
+
+    private Invoker resolve(String className, String methodName, String methodDesc) {
+        try {
+            Class<?> targetClass = loadClass(Type.getObjectType(className));
+            Type[] argumentTypes = Type.getArgumentTypes(methodDesc);
+            Class<?>[] clazzes = new Class<?>[argumentTypes.length];
+            for (int i = 0; i < clazzes.length; i++) {
+                clazzes[i] = loadClass(argumentTypes[i]);
+            }
+            if (methodName.equals("<init>")) {
+                Constructor<?> constructor = targetClass.getDeclaredConstructor(clazzes);
+                constructor.setAccessible(true);
+                return new Invoker(LOOKUP.unreflectConstructor(constructor), clazzes, null, true);
+            }
+            Method method = targetClass.getDeclaredMethod(methodName, clazzes);
+            method.setAccessible(true);
+            return new Invoker(LOOKUP.unreflect(method), clazzes, Modifier.isStatic(method.getModifiers()) ? null : targetClass, false);
+        } catch (Throwable t) {
+            return new Invoker(t);
+        }
+    }
+
+    /**
+     * @param type a primitive, array or object type
+     */
+    private Class<?> loadClass(Type type) throws Throwable {
+        switch (type.getSort()) {
+            case Type.VOID:
+                return void.class;
+            case Type.BOOLEAN:
+                return boolean.class;
+            case Type.CHAR:
+                return char.class;
+            case Type.BYTE:
+                return byte.class;
+            case Type.SHORT:
+                return short.class;
+            case Type.INT:
+                return int.class;
+            case Type.FLOAT:
+                return float.class;
+            case Type.LONG:
+                return long.class;
+            case Type.DOUBLE:
+                return double.class;
+            default:
+                break;
+        }
+        String name = type.getInternalName();
+        Object loaded = classes.get(name);
+        if (loaded == null) {
+            try {
+                loaded = Class.forName(name.replace('/', '.'));
+            } catch (Throwable t) {
+                loaded = t;
+            }
+            classes.put(name, loaded);
+        }
+        if (loaded instanceof Throwable) {
+            throw (Throwable) loaded;
+        }
+        return (Class<?>) loaded;
+    }
+
+    /**
+     * Converts an argument the way reflection would, also narrowing the integers the emulator uses for every small primitive
+     */
+    private static Object toArgument(JavaValue arg, Class<?> type) {
+        Object value = arg.value();
+        if (!type.isPrimitive()) {
+            if (value != null && !type.isInstance(value)) {
+                throw new ExecutionException(new IllegalArgumentException("argument type mismatch"));
+            }
+            return value;
+        }
+        if (value instanceof Boolean) {
+            if (type == boolean.class) {
+                return value;
+            }
+        } else if (value instanceof Number || value instanceof Character) {
+            Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+            if (type == int.class) {
+                return number.intValue();
+            } else if (type == long.class) {
+                return number.longValue();
+            } else if (type == double.class) {
+                return number.doubleValue();
+            } else if (type == float.class) {
+                return number.floatValue();
+            } else if (type == boolean.class) {
+                return number.intValue() != 0;
+            } else if (type == char.class) {
+                return (char) number.intValue();
+            } else if (type == short.class) {
+                return number.shortValue();
+            } else if (type == byte.class) {
+                return number.byteValue();
+            }
+        }
+        throw new ExecutionException(new IllegalArgumentException("argument type mismatch"));
+    }
+
+    private static class Invoker {
+        private final MethodHandle handle;
+        private final MethodHandle spreader;
+        private final Class<?>[] parameters;
+        /**
+         * The class declaring the method if it takes a receiver
+         */
+        private final Class<?> receiver;
+        private final boolean constructor;
+        private final Throwable failure;
+
+        private Invoker(MethodHandle handle, Class<?>[] parameters, Class<?> receiver, boolean constructor) {
+            MethodHandle generic = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+            int arity = handle.type().parameterCount();
+            this.handle = arity <= MAX_DIRECT_ARITY ? generic : null;
+            this.spreader = arity <= MAX_DIRECT_ARITY ? null : generic.asSpreader(Object[].class, arity);
+            this.parameters = parameters;
+            this.receiver = receiver;
+            this.constructor = constructor;
+            this.failure = null;
+        }
+
+        private Invoker(Throwable failure) {
+            this.handle = null;
+            this.spreader = null;
+            this.parameters = null;
+            this.receiver = null;
+            this.constructor = false;
+            this.failure = failure;
+        }
+
+        private Object invoke(Object instance, List<JavaValue> args) {
+            if (receiver != null) {
+                if (instance == null) {
+                    throw new ExecutionException(new NullPointerException());
+                }
+                if (!receiver.isInstance(instance)) {
+                    throw new ExecutionException(new IllegalArgumentException("object is not an instance of declaring class"));
                 }
-            });
-            Object instance = targetObject == null ? null : targetObject.value();
-            List<Object> ar = new ArrayList<>();
-            for (JavaValue o : args) {
-                ar.add(o.value());
+            }
+            if (args.size() != parameters.length) {
+                throw new ExecutionException(new IllegalArgumentException("wrong number of arguments"));
             }
             try {
-                return method.invoke(instance, ar.toArray());
-            } catch (ReflectiveOperationException ex) {
-                Utils.sneakyThrow(ex.getCause());
-                return null;
+                if (spreader != null) {
+                    return (Object) spreader.invokeExact(arguments(instance, args));
+                }
+                // Arguments are converted before the call, so anything it throws comes from the method itself
+                if (receiver == null) {
+                    switch (parameters.length) {
+                        case 0:
+                            return (Object) handle.invokeExact();
+                        case 1:
+                            return (Object) handle.invokeExact(toArgument(args.get(0), parameters[0]));
+                        case 2:
+                            return (Object) handle.invokeExact(toArgument(args.get(0), parameters[0]), toArgument(args.get(1), parameters[1]));
+                        case 3:
+                            return (Object) handle.invokeExact(toArgument(args.get(0), parameters[0]), toArgument(args.get(1), parameters[1]),
+                                    toArgument(args.get(2), parameters[2]));
+                        default:
+                            return (Object) handle.invokeExact(toArgument(args.get(0), parameters[0]), toArgument(args.get(1), parameters[1]),
+                                    toArgument(args.get(2), parameters[2]), toArgument(args.get(3), parameters[3]));
+                    }
+                }
+                switch (parameters.length) {
+                    case 0:
+                        return (Object) handle.invokeExact(instance);
+                    case 1:
+                        return (Object) handle.invokeExact(instance, toArgument(args.get(0), parameters[0]));
+                    case 2:
+                        return (Object) handle.invokeExact(instance, toArgument(args.get(0), parameters[0]), toArgument(args.get(1), parameters[1]));
+                    default:
+                        return (Object) handle.invokeExact(instance, toArgument(args.get(0), parameters[0]), toArgument(args.get(1), parameters[1]),
+                                toArgument(args.get(2), parameters[2]));
+                }
+            } catch (ExecutionException e) {
+                throw e;
             } catch (Throwable t) {
-                throw new ExecutionException(t);
+                Utils.sneakyThrow(t);
+                return null;
+            }
+        }
+
+        private Object[] arguments(Object instance, List<JavaValue> args) {
+            int offset = receiver == null ? 0 : 1;
+            Object[] values = new Object[parameters.length + offset];
+            if (receiver != null) {
+                values[0] = instance;
             }
+            for (int i = 0; i < parameters.length; i++) {
+                values[i + offset] = toArgument(args.get(i), parameters[i]);
+            }
+            return values;
         }
     }
 
@@ -141,21 +305,27 @@ public class ReflectiveProvider implements Provider {
         if (!dictionary.containsKey(className)) {
             throw new ExecutionException(className + " could not be located in dictionary");
         }
-        Class<?> targetClass;
-        try {
-            targetClass = Class.forName(className.replace("/", "."));
-        } catch (Throwable e) {
-            throw new ExecutionException(e);
-        }
-        Field field = fieldCache.computeIfAbsent(className + fieldName + fieldDesc, key -> {
-            Field[] fields = targetClass.getDeclaredFields();
-            for (Field f : fields) {
+        Map<String, Field> byDesc = fields.computeIfAbsent(className, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(fieldName, k -> new ConcurrentHashMap<>());
+        Field field = byDesc.get(fieldDesc);
+        if (field == null) {
+            Class<?> targetClass;
+            try {
+                targetClass = loadClass(Type.getObjectType(className));
+            } catch (Throwable e) {
+                throw new ExecutionException(e);
+            }
+            for (Field f : targetClass.getDeclaredFields()) {
                 if (f.getName().equals(fieldName) && Type.getType(f.getType()).getDescriptor().equals(fieldDesc)) {
-                    return f;
+                    field = f;
+                    break;
                 }
             }
-            throw new ExecutionException("Could not find field");
-        });
+            if (field == null) {
+                throw new ExecutionException("Could not find field");
+            }
+            byDesc.put(fieldDesc, field);
+        }
         try {
             return field.get(targetObject == null ? null : targetObject.value());
         } catch (ReflectiveOperationException ex) {
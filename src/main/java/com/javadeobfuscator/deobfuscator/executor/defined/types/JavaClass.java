@@ -34,7 +34,7 @@ import com.javadeobfuscator.deobfuscator.utils.Utils;
 
 public class JavaClass {
 
-    private static final WeakHashMap<Provider, Set<String>> notFound = new WeakHashMap<>();
+    private static final Map<Provider, Set<String>> notFound = Collections.synchronizedMap(new WeakHashMap<>());
 
     private final String name;
     private final Type type;
@@ -7,24 +7,34 @@ import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class JavaThread {
     private Thread thread;
     private Context context;
     private JavaObject instance;
+    private long id;
+    private volatile FutureTask<Void> task;
 
     private boolean started;
 
     public JavaThread(Context context, JavaObject instance) {
         this.context = context;
         this.instance = instance;
+        this.id = context.threadStore.nextId();
     }
 
     public JavaThread(Context context, Thread thread) {
         this.context = context;
         this.thread = thread;
+        this.id = thread.getId();
     }
 
+    /**
+     * @return the real thread this wraps, or null for a thread started by the emulated program
+     */
     public Thread getThread() {
         return thread;
     }
@@ -37,6 +47,10 @@ public class JavaThread {
         return instance;
     }
 
+    public long getId() {
+        return id;
+    }
+
     public void start() {
         if (!started) {
             started = true;
@@ -45,12 +59,13 @@ public class JavaThread {
                 MethodNode method = classNode.methods.stream().filter(mn -> mn.name.equals("run") && mn.desc.equals("()V")).findFirst().orElse(null);
                 if (method != null) {
                     Context threadContext = context.copyForNewThread();
+                    threadContext.thread = this;
 
-                    thread = new Thread(() -> MethodExecutor.execute(classNode, method, Collections.emptyList(), instance, threadContext));
-                    context.threadStore.addThread(thread.getId(), this);
+                    task = new FutureTask<>(() -> MethodExecutor.execute(classNode, method, Collections.emptyList(), instance, threadContext), null);
+                    Context parent = context;
                     this.context = threadContext;
 
-                    thread.start();
+                    parent.threadStore.start(task);
                     return;
                 }
                 throw new IllegalArgumentException("Could not find run() method on " + classNode.name);
@@ -60,4 +75,23 @@ public class JavaThread {
             throw new IllegalStateException("Thread already started");
         }
     }
+
+    /**
+     * Waits for the thread to die, running it on the calling thread if it hasn't started running yet
+     */
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+            return;
+        }
+        if (task == null) {
+            return;
+        }
+        task.run();
+        try {
+            task.get();
+        } catch (ExecutionException | CancellationException e) {
+            // Like an uncaught exception, this ends the thread but not the one joining it
+        }
+    }
 }
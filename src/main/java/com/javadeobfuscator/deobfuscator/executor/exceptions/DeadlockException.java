@@ -0,0 +1,13 @@
+package com.javadeobfuscator.deobfuscator.executor.exceptions;
+
+/**
+ * Thrown when an emulated thread would wait for something that can never happen, such as a lock held by a thread which is suspended until
+ * it finishes. Like {@link ExecutionBudgetExceededException}, emulated exception handlers never see it.
+ */
+public class DeadlockException extends ExecutionException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlockException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,13 @@
+package com.javadeobfuscator.deobfuscator.executor.exceptions;
+
+/**
+ * Thrown when an execution uses up its {@link com.javadeobfuscator.deobfuscator.executor.ExecutionBudget}. Emulated exception handlers
+ * never see it, so it always ends the outermost execution.
+ */
+public class ExecutionBudgetExceededException extends ExecutionException {
+    private static final long serialVersionUID = 1L;
+
+    public ExecutionBudgetExceededException(String msg) {
+        super(msg);
+    }
+}
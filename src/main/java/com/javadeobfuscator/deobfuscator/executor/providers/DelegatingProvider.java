@@ -17,92 +17,120 @@
 package com.javadeobfuscator.deobfuscator.executor.providers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.javadeobfuscator.deobfuscator.executor.Context;
 import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionException;
 import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
 import org.objectweb.asm.Type;
 
+/**
+ * Hands each request to the first registered provider which accepts it.
+ * <p>
+ * Which provider handles a method or field is remembered per class, member name and descriptor. This is only done while the providers asked
+ * are ones whose {@code can} checks look at nothing but those: the executor's own providers, unless a subclass overrides the check. Any other
+ * provider is asked every time, as it may decide based on the target or arguments. A remembered provider is still asked before it is used,
+ * and if it refuses the search starts over. {@link #clearDispatchCache()} forgets everything, for when a provider starts accepting members
+ * it refused before.
+ */
 public class DelegatingProvider implements Provider {
 
+    private static final int INVOKE = 0;
+    private static final int GET_FIELD = 1;
+    private static final int SET_FIELD = 2;
+    private static final Map<Class<?>, boolean[]> TARGET_INDEPENDENT = new ConcurrentHashMap<>();
+
     private List<Provider> providers = new ArrayList<>();
+    /**
+     * Cached dispatches by kind: {@link #INVOKE}, {@link #GET_FIELD} and {@link #SET_FIELD}
+     */
+    private final List<Map<Member, Dispatch>> dispatches = Arrays.asList(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
 
     @Override
     public Object invokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
-        for (Provider provider : providers) {
-            if (provider.canInvokeMethod(className, methodName, methodDesc, targetObject, args, context)) {
-                return provider.invokeMethod(className, methodName, methodDesc, targetObject, args, context);
-            }
+        Provider provider = dispatch(INVOKE, className, methodName, methodDesc, targetObject, args, null, context);
+        if (provider == null) {
+            throw new ExecutionException("invokeMethod failed");
         }
-        throw new ExecutionException("invokeMethod failed");
+        count(provider, context);
+        return provider.invokeMethod(className, methodName, methodDesc, targetObject, args, context);
     }
 
     @Override
     public boolean instanceOf(JavaValue target, Type type, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckInstanceOf(target, type, context)).findFirst().get().instanceOf(target, type, context);
+        for (Provider provider : providers) {
+            if (provider.canCheckInstanceOf(target, type, context)) {
+                count(provider, context);
+                return provider.instanceOf(target, type, context);
+            }
+        }
+        throw new ExecutionException("instanceOf failed");
     }
 
     @Override
     public boolean checkcast(JavaValue target, Type type, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckcast(target, type, context)).findFirst().get().checkcast(target, type, context);
+        for (Provider provider : providers) {
+            if (provider.canCheckcast(target, type, context)) {
+                count(provider, context);
+                return provider.checkcast(target, type, context);
+            }
+        }
+        throw new ExecutionException("checkcast failed");
     }
 
     @Override
     public boolean checkEquality(JavaValue first, JavaValue second, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckEquality(first, second, context)).findFirst().get().checkEquality(first, second, context);
+        for (Provider provider : providers) {
+            if (provider.canCheckEquality(first, second, context)) {
+                count(provider, context);
+                return provider.checkEquality(first, second, context);
+            }
+        }
+        throw new ExecutionException("checkEquality failed");
     }
 
     @Override
     public void setField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Object value, Context context) {
-        for (Provider provider : providers) {
-            if (provider.canSetField(className, fieldName, fieldDesc, targetObject, value, context)) {
-                provider.setField(className, fieldName, fieldDesc, targetObject, value, context);
-                return;
-            }
+        Provider provider = dispatch(SET_FIELD, className, fieldName, fieldDesc, targetObject, null, value, context);
+        if (provider == null) {
+            throw new ExecutionException("setField failed");
         }
-        throw new ExecutionException("setField failed");
+        count(provider, context);
+        provider.setField(className, fieldName, fieldDesc, targetObject, value, context);
     }
 
     @Override
     public Object getField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Context context) {
-        for (Provider provider : providers) {
-            if (provider.canGetField(className, fieldName, fieldDesc, targetObject, context)) {
-                return provider.getField(className, fieldName, fieldDesc, targetObject, context);
-            }
+        Provider provider = dispatch(GET_FIELD, className, fieldName, fieldDesc, targetObject, null, null, context);
+        if (provider == null) {
+            throw new ExecutionException("getField failed");
         }
-        throw new ExecutionException("getField failed");
+        count(provider, context);
+        return provider.getField(className, fieldName, fieldDesc, targetObject, context);
     }
 
     @Override
     public boolean canInvokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args, Context context) {
+        return dispatch(INVOKE, className, methodName, methodDesc, targetObject, args, null, context) != null;
+    }
+
+    @Override
+    public boolean canCheckInstanceOf(JavaValue target, Type type, Context context) {
         for (Provider provider : providers) {
-            if (provider.canInvokeMethod(className, methodName, methodDesc, targetObject, args, context)) {
+            if (provider.canCheckInstanceOf(target, type, context)) {
                 return true;
             }
         }
         return false;
     }
 
-    @Override
-    public boolean canCheckInstanceOf(JavaValue target, Type type, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckInstanceOf(target, type, context)).findFirst().isPresent();
-    }
-
     @Override
     public boolean canCheckcast(JavaValue target, Type type, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckcast(target, type, context)).findFirst().isPresent();
-    }
-
-    @Override
-    public boolean canCheckEquality(JavaValue first, JavaValue second, Context context) {
-        return providers.stream().filter(provider -> provider.canCheckEquality(first, second, context)).findFirst().isPresent();
-    }
-
-    @Override
-    public boolean canSetField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Object value, Context context) {
         for (Provider provider : providers) {
-            if (provider.canSetField(className, fieldName, fieldDesc, targetObject, value, context)) {
+            if (provider.canCheckcast(target, type, context)) {
                 return true;
             }
         }
@@ -110,17 +138,164 @@ public class DelegatingProvider implements Provider {
     }
 
     @Override
-    public boolean canGetField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Context context) {
+    public boolean canCheckEquality(JavaValue first, JavaValue second, Context context) {
         for (Provider provider : providers) {
-            if (provider.canGetField(className, fieldName, fieldDesc, targetObject, context)) {
+            if (provider.canCheckEquality(first, second, context)) {
                 return true;
             }
         }
         return false;
     }
 
+    @Override
+    public boolean canSetField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Object value, Context context) {
+        return dispatch(SET_FIELD, className, fieldName, fieldDesc, targetObject, null, value, context) != null;
+    }
+
+    @Override
+    public boolean canGetField(String className, String fieldName, String fieldDesc, JavaValue targetObject, Context context) {
+        return dispatch(GET_FIELD, className, fieldName, fieldDesc, targetObject, null, null, context) != null;
+    }
+
     public DelegatingProvider register(Provider provider) {
         this.providers.add(provider);
+        clearDispatchCache();
         return this;
     }
+
+    /**
+     * Forgets which provider handles which member.
+     */
+    public void clearDispatchCache() {
+        for (Map<Member, Dispatch> cache : dispatches) {
+            cache.clear();
+        }
+    }
+
+    private static void count(Provider provider, Context context) {
+        if (context != null && context.profile != null) {
+            context.profile.dispatched(provider);
+        }
+    }
+
+    /**
+     * @return the provider which accepts the request, or null if none does
+     */
+    private Provider dispatch(int kind, String className, String name, String desc, JavaValue targetObject, List<JavaValue> args, Object value,
+                              Context context) {
+        Member member = className == null ? null : new Member(className, name, desc);
+        Dispatch dispatch = member == null ? null : dispatches.get(kind).get(member);
+        int start = 0;
+        if (dispatch != null) {
+            if (dispatch.provider == null) {
+                start = dispatch.start;
+            } else if (accepts(dispatch.provider, kind, className, name, desc, targetObject, args, value, context)) {
+                return dispatch.provider;
+            }
+        }
+        // Providers before this index are target independent and refused
+        int skip = start;
+        for (int i = start; i < providers.size(); i++) {
+            Provider provider = providers.get(i);
+            boolean independent = skip == i && isTargetIndependent(provider, kind);
+            if (accepts(provider, kind, className, name, desc, targetObject, args, value, context)) {
+                if (independent) {
+                    remember(kind, member, new Dispatch(i, provider));
+                } else if (skip > 0) {
+                    remember(kind, member, new Dispatch(skip, null));
+                }
+                return provider;
+            }
+            if (independent) {
+                skip = i + 1;
+            }
+        }
+        if (skip > 0) {
+            remember(kind, member, new Dispatch(skip, null));
+        }
+        return null;
+    }
+
+    private void remember(int kind, Member member, Dispatch dispatch) {
+        if (member != null) {
+            dispatches.get(kind).put(member, dispatch);
+        }
+    }
+
+    private static boolean accepts(Provider provider, int kind, String className, String name, String desc, JavaValue targetObject,
+                                   List<JavaValue> args, Object value, Context context) {
+        switch (kind) {
+            case INVOKE:
+                return provider.canInvokeMethod(className, name, desc, targetObject, args, context);
+            case GET_FIELD:
+                return provider.canGetField(className, name, desc, targetObject, context);
+            default:
+                return provider.canSetField(className, name, desc, targetObject, value, context);
+        }
+    }
+
+    /**
+     * @return whether the provider's check for this kind of request is one of the executor's own, which only look at the class and member
+     */
+    private static boolean isTargetIndependent(Provider provider, int kind) {
+        return TARGET_INDEPENDENT.computeIfAbsent(provider.getClass(), clazz -> {
+            boolean[] result = new boolean[3];
+            try {
+                result[INVOKE] = isExecutorCheck(clazz.getMethod("canInvokeMethod", String.class, String.class, String.class, JavaValue.class,
+                        List.class, Context.class).getDeclaringClass());
+                result[GET_FIELD] = isExecutorCheck(clazz.getMethod("canGetField", String.class, String.class, String.class, JavaValue.class,
+                        Context.class).getDeclaringClass());
+                result[SET_FIELD] = isExecutorCheck(clazz.getMethod("canSetField", String.class, String.class, String.class, JavaValue.class,
+                        Object.class, Context.class).getDeclaringClass());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+            return result;
+        })[kind];
+    }
+
+    private static boolean isExecutorCheck(Class<?> declaringClass) {
+        return declaringClass != DelegatingProvider.class && declaringClass.getName().startsWith("com.javadeobfuscator.deobfuscator.executor.");
+    }
+
+    private static class Member {
+        private final String owner;
+        private final String name;
+        private final String desc;
+        private final int hash;
+
+        private Member(String owner, String name, String desc) {
+            this.owner = owner;
+            this.name = name;
+            this.desc = desc;
+            this.hash = (owner.hashCode() * 31 + name.hashCode()) * 31 + desc.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Member)) {
+                return false;
+            }
+            Member other = (Member) obj;
+            return hash == other.hash && owner.equals(other.owner) && name.equals(other.name) && desc.equals(other.desc);
+        }
+    }
+
+    /**
+     * Either the provider which handles a member, or how many providers at the start of the list are known to refuse it
+     */
+    private static class Dispatch {
+        private final int start;
+        private final Provider provider;
+
+        private Dispatch(int start, Provider provider) {
+            this.start = start;
+            this.provider = provider;
+        }
+    }
 }
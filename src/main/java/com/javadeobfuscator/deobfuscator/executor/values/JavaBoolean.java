@@ -17,6 +17,9 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaBoolean extends JavaInteger {
+    private static final JavaBoolean TRUE = new JavaBoolean(true);
+    private static final JavaBoolean FALSE = new JavaBoolean(false);
+
     private final boolean value;
 
     public JavaBoolean(boolean value) {
@@ -24,12 +27,21 @@ public class JavaBoolean extends JavaInteger {
         this.value = value;
     }
 
+    public static JavaBoolean of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     public boolean booleanValue() {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaBoolean copy() {
-        return new JavaBoolean(value);
+        return this;
     }
 
     public String toString() {
@@ -17,6 +17,14 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaByte extends JavaInteger {
+    private static final JavaByte[] CACHE = new JavaByte[256];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JavaByte((byte) (i - 128));
+        }
+    }
+
     private final byte value;
 
     public JavaByte(byte value) {
@@ -24,13 +32,23 @@ public class JavaByte extends JavaInteger {
         this.value = value;
     }
 
+    public static JavaByte of(byte value) {
+        return CACHE[value + 128];
+    }
+
     public byte byteValue() {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaByte copy() {
-        return new JavaByte(value);
+        return this;
     }
+
     public String toString() {
         return "JavaByte(value=" + value + ")";
     }
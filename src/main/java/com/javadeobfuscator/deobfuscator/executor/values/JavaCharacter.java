@@ -17,6 +17,14 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaCharacter extends JavaInteger {
+    private static final JavaCharacter[] CACHE = new JavaCharacter[1024];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JavaCharacter((char) i);
+        }
+    }
+
     private final char value;
 
     public JavaCharacter(char value) {
@@ -24,13 +32,26 @@ public class JavaCharacter extends JavaInteger {
         this.value = value;
     }
 
+    public static JavaCharacter of(char value) {
+        if (value < CACHE.length) {
+            return CACHE[value];
+        }
+        return new JavaCharacter(value);
+    }
+
     public char charValue() {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaCharacter copy() {
-        return new JavaCharacter(value);
+        return this;
     }
+
     public String toString() {
         return "JavaCharacter(value=" + value + ")";
     }
@@ -28,9 +28,15 @@ public class JavaDouble extends JavaValue {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaDouble copy() {
-        return new JavaDouble(value);
+        return this;
     }
+
     public String toString() {
         return "JavaDouble(value=" + value + ")";
     }
@@ -28,9 +28,15 @@ public class JavaFloat extends JavaValue {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaFloat copy() {
-        return new JavaFloat(value);
+        return this;
     }
+
     public String toString() {
         return "JavaFloat(value=" + value + ")";
     }
@@ -17,24 +17,47 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaInteger extends JavaValue {
-    private int value;
+    private static final JavaInteger[] CACHE = new JavaInteger[1024 + 128];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JavaInteger(i - 128);
+        }
+    }
+
+    private final int value;
 
     public JavaInteger(int value) {
         this.value = value;
     }
 
+    /**
+     * @return a shared instance for small values, a new one otherwise
+     */
+    public static JavaInteger of(int value) {
+        if (value >= -128 && value < CACHE.length - 128) {
+            return CACHE[value + 128];
+        }
+        return new JavaInteger(value);
+    }
+
     @Override
     public int intValue() {
         return this.value;
     }
 
-    public JavaInteger copy() {
-        return new JavaInteger(value);
+    @Override
+    public Object value() {
+        return this.value;
     }
 
-    public void increment(int amount) {
-        value += amount;
+    /**
+     * Primitive values are immutable, so this returns the value itself
+     */
+    public JavaInteger copy() {
+        return this;
     }
+
     public String toString() {
         return "JavaInteger(value=" + value + ")";
     }
@@ -17,20 +17,41 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaLong extends JavaValue {
+    private static final JavaLong[] CACHE = new JavaLong[256];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JavaLong(i - 128);
+        }
+    }
+
     private final long value;
 
     public JavaLong(long value) {
         this.value = value;
     }
 
+    public static JavaLong of(long value) {
+        if (value >= -128 && value < 128) {
+            return CACHE[(int) value + 128];
+        }
+        return new JavaLong(value);
+    }
+
     @Override
     public long longValue() {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaLong copy() {
-        return new JavaLong(value);
+        return this;
     }
+
     public String toString() {
         return "JavaLong(value=" + value + ")";
     }
@@ -17,6 +17,14 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaShort extends JavaInteger {
+    private static final JavaShort[] CACHE = new JavaShort[1024 + 128];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JavaShort((short) (i - 128));
+        }
+    }
+
     private final short value;
 
     public JavaShort(short value) {
@@ -24,13 +32,26 @@ public class JavaShort extends JavaInteger {
         this.value = value;
     }
 
+    public static JavaShort of(short value) {
+        if (value >= -128 && value < -128 + CACHE.length) {
+            return CACHE[value + 128];
+        }
+        return new JavaShort(value);
+    }
+
     public short shortValue() {
         return this.value;
     }
 
+    @Override
+    public Object value() {
+        return this.value;
+    }
+
     public JavaShort copy() {
-        return new JavaShort(value);
+        return this;
     }
+
     public String toString() {
         return "JavaShort(value=" + value + ")";
     }
@@ -17,9 +17,15 @@
 package com.javadeobfuscator.deobfuscator.executor.values;
 
 public class JavaTop extends JavaValue {
+    /**
+     * Tops carry no state, so one instance is enough
+     */
+    public static final JavaTop INSTANCE = new JavaTop();
+
     public JavaTop copy() {
-        return new JavaTop();
+        return this;
     }
+
     public String toString() {
         return "JavaTop()";
     }
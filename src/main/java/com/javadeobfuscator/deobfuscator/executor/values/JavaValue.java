@@ -19,7 +19,6 @@ package com.javadeobfuscator.deobfuscator.executor.values;
 import org.objectweb.asm.Type;
 
 import com.google.common.primitives.Primitives;
-import com.javadeobfuscator.deobfuscator.executor.MethodExecutor;
 import com.javadeobfuscator.deobfuscator.executor.defined.types.*;
 import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionException;
 
@@ -45,8 +44,11 @@ public abstract class JavaValue {
         throw new ExecutionException(new UnsupportedOperationException());
     }
 
+    /**
+     * @return the boxed primitive or the object this value represents
+     */
     public Object value() {
-        return MethodExecutor.value(this);
+        throw new ExecutionException("Unknown value type " + getClass().getSimpleName());
     }
 
     public <T> T as(Class<T> clazz) {
@@ -16,11 +16,19 @@
 
 package com.javadeobfuscator.deobfuscator.transformers;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import com.javadeobfuscator.deobfuscator.Deobfuscator;
 import com.javadeobfuscator.deobfuscator.config.TransformerConfig;
+import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.ExecutionBudget;
+import com.javadeobfuscator.deobfuscator.executor.ExecutionProfile;
+import com.javadeobfuscator.deobfuscator.executor.MethodCompiler;
+import com.javadeobfuscator.deobfuscator.executor.ThreadStore;
+import com.javadeobfuscator.deobfuscator.executor.providers.Provider;
 import com.javadeobfuscator.deobfuscator.exceptions.*;
 import com.javadeobfuscator.javavm.*;
 import com.javadeobfuscator.javavm.exceptions.*;
@@ -38,6 +46,8 @@ public abstract class Transformer<T extends TransformerConfig> implements Opcode
 
     private Deobfuscator deobfuscator;
     private T config;
+    private ExecutionProfile profile;
+    private MethodCompiler compiler;
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -67,6 +77,61 @@ public abstract class Transformer<T extends TransformerConfig> implements Opcode
         return this.deobfuscator;
     }
 
+    /**
+     * @return a new emulation context set up as the config of this transformer asks
+     */
+    protected Context newContext(Provider provider) {
+        Context context = new Context(provider);
+        context.budget = newBudget();
+        context.profile = profile();
+        context.compiler = compiler();
+        if (config.getEmulatorThreads() > 0) {
+            context.threadStore = new ThreadStore(config.getEmulatorThreads());
+        }
+        return context;
+    }
+
+    /**
+     * @return a budget with the limits from the config of this transformer for a new emulation context, or null if the config sets none
+     */
+    protected ExecutionBudget newBudget() {
+        if (config.getMaxInstructions() <= 0 && config.getMaxCallDepth() <= 0 && config.getExecutionTimeout() <= 0) {
+            return null;
+        }
+        return new ExecutionBudget(config.getMaxInstructions(), config.getMaxCallDepth(), config.getExecutionTimeout(),
+                deobfuscator == null ? null : deobfuscator.getBudgetAborts(getClass().getName()));
+    }
+
+    /**
+     * @return the profile shared by the emulation contexts of this transformer, or null if the config doesn't ask for profiling
+     */
+    protected ExecutionProfile profile() {
+        if (profile == null && config.getProfileOutput() != null) {
+            profile = new ExecutionProfile();
+        }
+        return profile;
+    }
+
+    /**
+     * @return the compiler shared by the emulation contexts of this transformer, or null if the config doesn't ask for compiling
+     */
+    protected MethodCompiler compiler() {
+        if (compiler == null && config.getCompileThreshold() > 0) {
+            compiler = new MethodCompiler(config.getCompileThreshold());
+        }
+        return compiler;
+    }
+
+    /**
+     * Writes the profile of this transformer to the file named in its config, if anything was profiled.
+     */
+    public void writeProfile() throws IOException {
+        if (profile != null) {
+            profile.write(new File(config.getProfileOutput()));
+            logger.info("Wrote emulator profile to {}", config.getProfileOutput());
+        }
+    }
+
     protected void oops(String why, Object... args) {
         logger.debug("oops: " + why, args);
     }
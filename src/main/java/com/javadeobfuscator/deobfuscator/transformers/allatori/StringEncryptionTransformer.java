@@ -144,7 +144,7 @@ public class StringEncryptionTransformer extends Transformer<StringEncryptionTra
                         continue;
                     }
 
-                    Context context = new Context(provider);
+                    Context context = newContext(provider);
                     context.push(classNode.name, method.name, getDeobfuscator().getConstantPool(classNode).getSize());
 
                     ClassNode targetClassNode = classes.get(targetClass);
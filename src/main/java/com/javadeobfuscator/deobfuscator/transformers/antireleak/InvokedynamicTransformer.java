@@ -208,7 +208,7 @@ public class InvokedynamicTransformer extends Transformer<TransformerConfig>
 																	// name
 							args.add(new JavaObject(null, "java/lang/invoke/MethodType")); // dyn method
 																// type
-							Context context = new Context(provider);
+							Context context = newContext(provider);
 							context.dictionary = classpath;
 							context.constantPools = getDeobfuscator().getConstantPools();
 							context.file = getDeobfuscator().getConfig().getInput();
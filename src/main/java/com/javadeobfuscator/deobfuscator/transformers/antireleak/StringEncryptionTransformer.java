@@ -147,7 +147,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
 							LdcInsnNode ldc = (LdcInsnNode)previous;
 							if(ldc.cst instanceof String)
 							{
-								Context context = new Context(provider);
+								Context context = newContext(provider);
 								MethodNode decryptMethod =
 									classNode.methods.stream()
 										.filter(mn -> mn.name.equals(min.name)
@@ -227,7 +227,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
 								}
 								patched.put(classNode, toNull);
 							}
-							Context context = new Context(provider);
+							Context context = newContext(provider);
 							context.dictionary = classpath;
 							context.file = getDeobfuscator().getConfig().getInput();
 							List<JavaValue> args = new ArrayList<>();
@@ -262,7 +262,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
 								+ "Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;"
 								+ "Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;"))
 						{
-							Context context = new Context(provider);
+							Context context = newContext(provider);
 							context.dictionary = classpath;
 							context.file = getDeobfuscator().getConfig().getInput();
 							context.constantPools = getDeobfuscator().getConstantPools();
@@ -98,7 +98,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
                             stackOffset++;
                         }
                         instructions = new ArrayList<>(new HashSet<>(instructions));
-                        Context context = new Context(provider);
+                        Context context = newContext(provider);
                         context.dictionary = classpath;
                         context.push(classNode.name, method.name, getDeobfuscator().getConstantPool(classNode).getSize());
                         if(classes.containsKey(strCl)) 
@@ -421,7 +421,7 @@ public class DuplicateRenamer extends AbstractNormalizer<DuplicateRenamer.Config
 						}
 					}
 					//Check for superclass/interface method clashes
-					Context context = new Context(new DelegatingProvider());
+					Context context = newContext(new DelegatingProvider());
 					context.dictionary = classpath;
 					JavaClass clazz = new JavaClass(classNode.name, context);
 					List<JavaMethod> conflicters = new ArrayList<>();
@@ -115,7 +115,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
                     }
 
                     if (classes.containsKey(methodInsnNode.owner)) {
-                        Context context = new Context(provider);
+                        Context context = newContext(provider);
                         context.push(classNode.name, methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
                         ClassNode innerClassNode = classes.get(methodInsnNode.owner);
                         MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(methodInsnNode.name) && mn.desc.equals(methodInsnNode.desc)).findFirst().orElse(null);
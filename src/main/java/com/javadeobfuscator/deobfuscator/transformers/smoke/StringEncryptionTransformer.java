@@ -79,7 +79,7 @@ public class StringEncryptionTransformer extends Transformer<TransformerConfig>
 								continue;
 							Object obfString = ((LdcInsnNode)a1).cst;
 							int number = Utils.getIntValue(a2);
-    						Context context = new Context(provider);
+    						Context context = newContext(provider);
     						if(classes.containsKey(strCl)) 
     						{
     							ClassNode innerClassNode = classes.get(strCl);
@@ -834,7 +834,7 @@ public class BinscureTransformer extends Transformer<BinscureTransformer.Config>
 				}
 			}
 
-        Context context = new Context(provider);
+        Context context = newContext(provider);
 		context.dictionary = classpath;
         
 		//String Encryption
@@ -326,7 +326,7 @@ public class ParamorphismTransformer extends Transformer<TransformerConfig>
 			        		 }
 			        	 if(mode == null)
 			        		 throw new IllegalStateException("Could not find decryptor for method");
-			        	 Context context = new Context(provider);
+			        	 Context context = newContext(provider);
 			        	 if(mode.getOpcode() == Opcodes.GETFIELD && ((FieldInsnNode)mode).owner.equals(node.name))
 			        	 {
 			        		 String res = MethodExecutor.execute(node, method, Arrays.asList(), instance, context);
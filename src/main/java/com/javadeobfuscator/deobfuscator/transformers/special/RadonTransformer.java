@@ -354,7 +354,7 @@ public class RadonTransformer extends Transformer<RadonConfig> {
                             if (isCorrectStringPool(decryptorMethod, 0)) {
                                 int prev = Utils.getIntValue(ain.getPrevious());
                                 try {
-                                    Context context = new Context(provider);
+                                    Context context = newContext(provider);
                                     context.push(classNode.name, method.name, getDeobfuscator().getConstantPools().get(classNode).getSize());
                                     context.dictionary = classpath;
                                     String res = MethodExecutor.execute(decryptorNode, decryptorMethod, Arrays.asList(new JavaInteger(prev)), null, context);
@@ -394,7 +394,7 @@ public class RadonTransformer extends Transformer<RadonConfig> {
                                 FieldNode poolField = classNode.fields.stream().filter(f -> f.name.equals(putstaticF.name)
                                                                                             && f.desc.equals(putstaticF.desc)).findFirst().orElse(null);
                                 if (poolField != null) {
-                                    Context context = new Context(provider);
+                                    Context context = newContext(provider);
                                     context.dictionary = classpath;
                                     MethodExecutor.execute(classNode, pool, Arrays.asList(), null, context);
                                     Object[] value = (Object[]) context.provider.getField(classNode.name, poolField.name, poolField.desc, null, context);
@@ -470,7 +470,7 @@ public class RadonTransformer extends Transformer<RadonConfig> {
                                     stackOffset++;
                                 }
                                 instructions = new ArrayList<>(new HashSet<>(instructions));
-                                Context context = new Context(provider);
+                                Context context = newContext(provider);
                                 context.dictionary = classpath;
                                 context.push(classNode.name, method.name, getDeobfuscator().getConstantPool(classNode).getSize());
                                 try {
@@ -514,7 +514,7 @@ public class RadonTransformer extends Transformer<RadonConfig> {
         Map<ClassNode, Set<MethodNode>> indyBootstrap = new HashMap<>();
         Map<ClassNode, Set<MethodNode>> indyBootstrap1 = new HashMap<>();
         if (getConfig().isIndy()) {
-            Context context = new Context(provider);
+            Context context = newContext(provider);
             context.dictionary = this.classpath;
             for (ClassNode classNode : classNodes()) {
                 for (MethodNode method : classNode.methods) {
@@ -14,6 +14,7 @@ public class RadonV2Config extends TransformerConfig {
     private boolean numberContextObf = true;
     private boolean indy = true;
     private boolean string = true;
+    private boolean memoizeDecryptors = false;
 
     public RadonV2Config() {
         super(RadonTransformerV2.class);
@@ -98,4 +99,12 @@ public class RadonV2Config extends TransformerConfig {
     public void setString(boolean string) {
         this.string = string;
     }
+
+    public boolean isMemoizeDecryptors() {
+        return memoizeDecryptors;
+    }
+
+    public void setMemoizeDecryptors(boolean memoizeDecryptors) {
+        this.memoizeDecryptors = memoizeDecryptors;
+    }
 }
@@ -334,7 +334,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
                 }
                 FieldInsnNode insnNode = (FieldInsnNode) thirdInsn;
                 FieldNode field = TransformerHelper.findFieldNode(classNode, insnNode.name, insnNode.desc);
-                Context context = new Context(provider);
+                Context context = newContext(provider);
                 MethodExecutor.execute(classNode, refMethod, null, null, context);
                 int[] result = (int[]) context.provider.getField(classNode.name, insnNode.name, insnNode.desc, null, context);
                 classNode.methods.remove(refMethod);
@@ -386,7 +386,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
                 }
                 FieldInsnNode insnNode = (FieldInsnNode) lastPrev;
                 FieldNode field = TransformerHelper.findFieldNode(classNode, insnNode.name, insnNode.desc);
-                Context context = new Context(provider);
+                Context context = newContext(provider);
                 context.dictionary = classpath;
                 MethodExecutor.execute(classNode, refMethod, null, null, context);
                 Object[] resultArray = (Object[]) context.provider.getField(classNode.name, insnNode.name, insnNode.desc, null, context);
@@ -453,7 +453,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
                 }
                 FieldInsnNode insnNode = (FieldInsnNode) possPutStaticInsn;
                 FieldNode field = TransformerHelper.findFieldNode(classNode, insnNode.name, insnNode.desc);
-                Context context = new Context(provider);
+                Context context = newContext(provider);
                 context.dictionary = classpath;
                 Set<MethodNode> toRemove = new HashSet<>();
                 for (AbstractInsnNode ain : refMethod.instructions.toArray()) {
@@ -562,7 +562,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
                         }
                     }
                 } else {
-                    Context refCtx = new Context(provider);
+                    Context refCtx = newContext(provider);
                     refCtx.dictionary = classpath;
                     MethodExecutor.execute(classNode, refMethod, null, null, refCtx);
                     for (MethodNode method : classNode.methods) {
@@ -575,7 +575,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
                             args.add(JavaValue.valueOf(((InvokeDynamicInsnNode) ain).name)); //dyn method name
                             args.add(new JavaObject(null, "java/lang/invoke/MethodType")); //dyn method type
                             try {
-                                Context context = new Context(provider);
+                                Context context = newContext(provider);
                                 context.dictionary = classpath;
 
                                 JavaHandle result = MethodExecutor.execute(classNode, bootstrap, args, null, context);
@@ -651,7 +651,7 @@ public class SuperblaubeereTransformer extends Transformer<SuperblaubeereTransfo
             if (loader == null) {
                 break classEncryption;
             }
-            Context context = new Context(provider);
+            Context context = newContext(provider);
             context.dictionary = classpath;
             MethodNode clinit = TransformerHelper.findClinit(loader);
             MethodExecutor.execute(loader, clinit, null, null, context);
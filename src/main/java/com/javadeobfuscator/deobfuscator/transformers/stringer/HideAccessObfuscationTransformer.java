@@ -19,6 +19,7 @@ package com.javadeobfuscator.deobfuscator.transformers.stringer;
 import com.javadeobfuscator.deobfuscator.analyzer.ArgsAnalyzer;
 import com.javadeobfuscator.deobfuscator.config.TransformerConfig;
 import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.InvocationCache;
 import com.javadeobfuscator.deobfuscator.executor.MethodExecutor;
 import com.javadeobfuscator.deobfuscator.executor.defined.JVMMethodProvider;
 import com.javadeobfuscator.deobfuscator.executor.defined.MappedFieldProvider;
@@ -114,193 +115,169 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
             }
         });
 
-        Context context = new Context(provider);
-        context.dictionary = this.classpath;
+        Context context = newContext(provider);
+        try {
+            context.dictionary = this.classpath;
 
-        decryptors.forEach(decryptor -> {
-            MethodNode clinit = decryptor.methods.stream().filter(m -> m.name.equals("<clinit>")).findFirst().orElse(null);
-            if (clinit == null) throw new RuntimeException("Could not find a method <clinit> in " + decryptor.name);
+            decryptors.forEach(decryptor -> {
+                MethodNode clinit = decryptor.methods.stream().filter(m -> m.name.equals("<clinit>")).findFirst().orElse(null);
+                if (clinit == null) throw new RuntimeException("Could not find a method <clinit> in " + decryptor.name);
 
-            MethodExecutor.execute(decryptor, clinit, Collections.emptyList(), null, context);
-        });
+                MethodExecutor.execute(decryptor, clinit, Collections.emptyList(), null, context);
+            });
 
-        String bootstrapDesc = "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
-
-        classNodes().forEach(classNode ->
-                classNode.methods.stream().filter(methodNode -> !methodNode.desc.equals(bootstrapDesc)).forEach(methodNode -> {
-                    InsnList copy = Utils.copyInsnList(methodNode.instructions);
-                    for (int i = 0; i < copy.size(); i++) {
-                        AbstractInsnNode insn = copy.get(i);
-                        if (insn instanceof InvokeDynamicInsnNode) {
-                            Handle bootstrap = ((InvokeDynamicInsnNode) insn).bsm;
-
-                            if (bootstrap.getDesc().equals(bootstrapDesc)) {
-                                MethodNode bootstrapMethod = classNode.methods.stream().filter(m -> m.name.equals(bootstrap.getName()) && m.desc.equals(bootstrap.getDesc())).findFirst().orElse(null);
-
-                                if (bootstrapMethod == null) throw new RuntimeException("Could not find bootstrap");
-                                decryptMethods.add(bootstrapMethod);
-
-                                List<JavaValue> args = new ArrayList<>();
-                                args.add(new JavaObject(null, "java/lang/invoke/MethodHandles$Lookup"));
-                                args.add(JavaValue.valueOf(((InvokeDynamicInsnNode) insn).name));
-                                args.add(new JavaObject(null, "java/lang/invoke/MethodType"));
-
-                                JavaMethodHandle result;
-                                try
-                                {
-                                	result = MethodExecutor.execute(classNode, bootstrapMethod, args, null, context);
-                                	if(result == null)
-                                		throw new NullPointerException("Null result returned");
-                                }catch(Exception e)
-                                {
-                                	if(getConfig().shouldIgnoreFailures())
-                                	{
-                                		System.out.println("Failed to decrypt invokedynamic call at class " + classNode.name
-                                			+ " method " + methodNode.name + methodNode.desc);
-                                		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                		failedDecryptors.add(bootstrapMethod);
-                                		continue;
-                                	}else
-                                		throw e;
-                                }
-                                switch (result.type) {
-                                    case "virtual":
-                                        methodNode.instructions.set(insn, new MethodInsnNode(Opcodes.INVOKEVIRTUAL, result.clazz, result.name, result.desc, false));
-                                        break;
-                                    case "static":
-                                        methodNode.instructions.set(insn, new MethodInsnNode(Opcodes.INVOKESTATIC, result.clazz, result.name, result.desc, false));
-                                        break;
-                                    default:
-                                        throw new RuntimeException("Unknown type");
+            if (getConfig().isMemoizeDecryptors()) {
+                // The same key is decrypted at every call site of a member, and the result only depends on the key
+                context.invocationCache = new InvocationCache(false);
+                decryptors.forEach(decryptor -> decryptor.methods.stream()
+                        .filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Method;") || m.desc.equals("(I)Ljava/lang/reflect/Field;"))
+                        .forEach(context.invocationCache::markPure));
+            }
+
+            String bootstrapDesc = "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
+
+            classNodes().forEach(classNode ->
+                    classNode.methods.stream().filter(methodNode -> !methodNode.desc.equals(bootstrapDesc)).forEach(methodNode -> {
+                        InsnList copy = Utils.copyInsnList(methodNode.instructions);
+                        for (int i = 0; i < copy.size(); i++) {
+                            AbstractInsnNode insn = copy.get(i);
+                            if (insn instanceof InvokeDynamicInsnNode) {
+                                Handle bootstrap = ((InvokeDynamicInsnNode) insn).bsm;
+
+                                if (bootstrap.getDesc().equals(bootstrapDesc)) {
+                                    MethodNode bootstrapMethod = classNode.methods.stream().filter(m -> m.name.equals(bootstrap.getName()) && m.desc.equals(bootstrap.getDesc())).findFirst().orElse(null);
+
+                                    if (bootstrapMethod == null) throw new RuntimeException("Could not find bootstrap");
+                                    decryptMethods.add(bootstrapMethod);
+
+                                    List<JavaValue> args = new ArrayList<>();
+                                    args.add(new JavaObject(null, "java/lang/invoke/MethodHandles$Lookup"));
+                                    args.add(JavaValue.valueOf(((InvokeDynamicInsnNode) insn).name));
+                                    args.add(new JavaObject(null, "java/lang/invoke/MethodType"));
+
+                                    JavaMethodHandle result;
+                                    try
+                                    {
+                                    	result = MethodExecutor.execute(classNode, bootstrapMethod, args, null, context);
+                                    	if(result == null)
+                                    		throw new NullPointerException("Null result returned");
+                                    }catch(Exception e)
+                                    {
+                                    	if(getConfig().shouldIgnoreFailures())
+                                    	{
+                                    		System.out.println("Failed to decrypt invokedynamic call at class " + classNode.name
+                                    			+ " method " + methodNode.name + methodNode.desc);
+                                    		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                    		failedDecryptors.add(bootstrapMethod);
+                                    		continue;
+                                    	}else
+                                    		throw e;
+                                    }
+                                    switch (result.type) {
+                                        case "virtual":
+                                            methodNode.instructions.set(insn, new MethodInsnNode(Opcodes.INVOKEVIRTUAL, result.clazz, result.name, result.desc, false));
+                                            break;
+                                        case "static":
+                                            methodNode.instructions.set(insn, new MethodInsnNode(Opcodes.INVOKESTATIC, result.clazz, result.name, result.desc, false));
+                                            break;
+                                        default:
+                                            throw new RuntimeException("Unknown type");
+                                    }
+                                    count.getAndIncrement();
                                 }
-                                count.getAndIncrement();
                             }
                         }
-                    }
-                }));
-
-        classNodes().stream().filter(classNode -> !decryptors.contains(classNode)).forEach(classNode ->
-                classNode.methods.stream().filter(methodNode -> !methodNode.desc.equals(bootstrapDesc)).forEach(methodNode -> {
-                    InsnList copy = Utils.copyInsnList(methodNode.instructions);
-                    for (int i = 0; i < copy.size(); i++) {
-                        AbstractInsnNode insn = copy.get(i);
-                        if (insn instanceof MethodInsnNode && decryptors.stream().map(decryptor -> decryptor.name).collect(Collectors.toList()).contains(((MethodInsnNode) insn).owner)) {
-                            String owner = ((MethodInsnNode) insn).owner;
-                            String name = ((MethodInsnNode) insn).name;
-                            String desc = ((MethodInsnNode) insn).desc;
-                            switch (desc) {
-                                case "(I[Ljava/lang/Object;)Ljava/lang/Object;": { // INVOKESTATIC and INVOKESPECIAL
-                                    MethodNode hideAccessMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals(desc) && m.name.equals(name)).findFirst().orElse(null);
-                                    if (hideAccessMethod != null && hideAccessMethod.instructions.size() > 2
-                                            && hideAccessMethod.instructions.get(2).getOpcode() == Opcodes.LDC) {
-                                        if (insn.getPrevious().getOpcode() == Opcodes.SWAP) {
-                                            Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
-                                            AbstractInsnNode returnInsert = null;
-                                            //Invokespecial
-                                            //Patches the hide access method first to return a constructor
-                                            for (AbstractInsnNode ain : hideAccessMethod.instructions.toArray()) {
-                                                if (ain.getOpcode() == Opcodes.INVOKEVIRTUAL
-                                                        && ((MethodInsnNode) ain).name.equals("newInstance")
-                                                        && ((MethodInsnNode) ain).owner.equals("java/lang/reflect/Constructor")
-                                                        && ain.getPrevious() != null
-                                                        && ain.getPrevious().getOpcode() == Opcodes.ALOAD
-                                                        && ain.getPrevious().getPrevious() != null
-                                                        && ain.getPrevious().getPrevious().getOpcode() == Opcodes.ALOAD) {
-                                                    hideAccessMethod.instructions.insert(ain.getPrevious().getPrevious(),
-                                                            returnInsert = new InsnNode(Opcodes.ARETURN));
-                                                    break;
+                    }));
+
+            classNodes().stream().filter(classNode -> !decryptors.contains(classNode)).forEach(classNode ->
+                    classNode.methods.stream().filter(methodNode -> !methodNode.desc.equals(bootstrapDesc)).forEach(methodNode -> {
+                        InsnList copy = Utils.copyInsnList(methodNode.instructions);
+                        for (int i = 0; i < copy.size(); i++) {
+                            AbstractInsnNode insn = copy.get(i);
+                            if (insn instanceof MethodInsnNode && decryptors.stream().map(decryptor -> decryptor.name).collect(Collectors.toList()).contains(((MethodInsnNode) insn).owner)) {
+                                String owner = ((MethodInsnNode) insn).owner;
+                                String name = ((MethodInsnNode) insn).name;
+                                String desc = ((MethodInsnNode) insn).desc;
+                                switch (desc) {
+                                    case "(I[Ljava/lang/Object;)Ljava/lang/Object;": { // INVOKESTATIC and INVOKESPECIAL
+                                        MethodNode hideAccessMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals(desc) && m.name.equals(name)).findFirst().orElse(null);
+                                        if (hideAccessMethod != null && hideAccessMethod.instructions.size() > 2
+                                                && hideAccessMethod.instructions.get(2).getOpcode() == Opcodes.LDC) {
+                                            if (insn.getPrevious().getOpcode() == Opcodes.SWAP) {
+                                                Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
+                                                AbstractInsnNode returnInsert = null;
+                                                //Invokespecial
+                                                //Patches the hide access method first to return a constructor
+                                                for (AbstractInsnNode ain : hideAccessMethod.instructions.toArray()) {
+                                                    if (ain.getOpcode() == Opcodes.INVOKEVIRTUAL
+                                                            && ((MethodInsnNode) ain).name.equals("newInstance")
+                                                            && ((MethodInsnNode) ain).owner.equals("java/lang/reflect/Constructor")
+                                                            && ain.getPrevious() != null
+                                                            && ain.getPrevious().getOpcode() == Opcodes.ALOAD
+                                                            && ain.getPrevious().getPrevious() != null
+                                                            && ain.getPrevious().getPrevious().getOpcode() == Opcodes.ALOAD) {
+                                                        hideAccessMethod.instructions.insert(ain.getPrevious().getPrevious(),
+                                                                returnInsert = new InsnNode(Opcodes.ARETURN));
+                                                        break;
+                                                    }
                                                 }
-                                            }
-                                            //Execute the method
-                                            List<JavaValue> args = new ArrayList<>();
-                                            args.add(new JavaInteger(value));
-                                            args.add(new JavaObject(null, "java/lang/Object"));
-                                            JavaConstructor result;
-                                            try
-                                            {
-                                            	result = MethodExecutor.execute(classes.get(owner), hideAccessMethod, Collections.singletonList(new JavaInteger(value)), null, context);
-                                            	if(result == null)
-                                            		throw new NullPointerException("Null result returned");
-                                            }catch(Exception e)
-                                            {
-                                            	if(getConfig().shouldIgnoreFailures())
-                                            	{
-                                            		System.out.println("Failed to decrypt invokespecial call at class " + classNode.name
-                                            			+ " method " + methodNode.name + methodNode.desc);
-                                            		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                            		failedClasses.add(classes.get(owner));
-                                            		continue;
-                                            	}else
-                                            		throw e;
-                                            }
-                                            hideAccessMethod.instructions.remove(returnInsert);
-                                            //Remove the array of objects
-                                            while (insn.getPrevious() != null) {
-                                                if (insn.getPrevious().getOpcode() == Opcodes.ANEWARRAY) {
-                                                    methodNode.instructions.remove(insn.getPrevious().getPrevious());
-                                                    methodNode.instructions.remove(insn.getPrevious());
-                                                    break;
-                                                } else if (insn.getPrevious().getOpcode() == Opcodes.ACONST_NULL) {
+                                                //Execute the method
+                                                List<JavaValue> args = new ArrayList<>();
+                                                args.add(new JavaInteger(value));
+                                                args.add(new JavaObject(null, "java/lang/Object"));
+                                                JavaConstructor result;
+                                                try
+                                                {
+                                                	result = MethodExecutor.execute(classes.get(owner), hideAccessMethod, Collections.singletonList(new JavaInteger(value)), null, context);
+                                                	if(result == null)
+                                                		throw new NullPointerException("Null result returned");
+                                                }catch(Exception e)
+                                                {
+                                                	if(getConfig().shouldIgnoreFailures())
+                                                	{
+                                                		System.out.println("Failed to decrypt invokespecial call at class " + classNode.name
+                                                			+ " method " + methodNode.name + methodNode.desc);
+                                                		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                                		failedClasses.add(classes.get(owner));
+                                                		continue;
+                                                	}else
+                                                		throw e;
+                                                }
+                                                hideAccessMethod.instructions.remove(returnInsert);
+                                                //Remove the array of objects
+                                                while (insn.getPrevious() != null) {
+                                                    if (insn.getPrevious().getOpcode() == Opcodes.ANEWARRAY) {
+                                                        methodNode.instructions.remove(insn.getPrevious().getPrevious());
+                                                        methodNode.instructions.remove(insn.getPrevious());
+                                                        break;
+                                                    } else if (insn.getPrevious().getOpcode() == Opcodes.ACONST_NULL) {
+                                                        methodNode.instructions.remove(insn.getPrevious());
+                                                        break;
+                                                    }
                                                     methodNode.instructions.remove(insn.getPrevious());
-                                                    break;
                                                 }
-                                                methodNode.instructions.remove(insn.getPrevious());
-                                            }
-                                            AbstractInsnNode firstArgInsn = null;
-                                            if(Type.getArgumentTypes(result.getDesc()).length == 0)
-                                            	firstArgInsn = insn;
-                                            else
-                                            {
-                                            	int length = 0;
-                                            	for(Type t : Type.getArgumentTypes(result.getDesc()))
-                                            		if(t.getSort() == Type.LONG || t.getSort() == Type.DOUBLE)
-                                            			length += 2;
-                                            		else
-                                            			length++;
-                                            	ArgsAnalyzer.Result res = new ArgsAnalyzer(insn.getPrevious(), length, ArgsAnalyzer.Mode.BACKWARDS).lookupArgs();
-                                            	if(res instanceof ArgsAnalyzer.FailedResult)
-                                            	{
-                                            		boolean passed = false;
-                                            		AbstractInsnNode replace;
-                                            		methodNode.instructions.set(insn, replace = new MethodInsnNode(
-                                            			Opcodes.INVOKESPECIAL, result.getClassName(),
-                                            			"<init>", result.getDesc(), false));
-                                            		AbstractInsnNode newInsn = new TypeInsnNode(Opcodes.NEW, result.getClassName());
-                                            		AbstractInsnNode dupInsn = new InsnNode(Opcodes.DUP);
-                                            		for(int i1 = methodNode.instructions.indexOf(replace); i1 >= 0; i1--)
-                                            		{
-                                            			AbstractInsnNode a = methodNode.instructions.get(i1);
-                                            			if(!Utils.isInstruction(a) || a.getOpcode() == Opcodes.IINC)
-                                            				continue;
-                                            			methodNode.instructions.insertBefore(a, newInsn);
-                                            			methodNode.instructions.insertBefore(a, dupInsn);
-                                            			Frame<SourceValue>[] tempFrames;
-                                            			try {
-                                            				tempFrames = new Analyzer<>(new SourceInterpreter()).analyze(classNode.name, methodNode);
-                                            			} catch (AnalyzerException e) {
-                                            				methodNode.instructions.remove(newInsn);
-                                            				methodNode.instructions.remove(dupInsn);
-                                                         	continue;
-                                            			}
-                                            			Frame<SourceValue> currentFrame = tempFrames[methodNode.instructions.indexOf(replace)];
-                                            			Set<AbstractInsnNode> insns = new HashSet<>(currentFrame.getStack(currentFrame.getStackSize() -
-                                            				Type.getArgumentTypes(result.getDesc()).length - 2).insns);
-                                            			if(insns.size() == 1)
-                                            			{
-                                            				AbstractInsnNode singleton = null;
-                                            				for(AbstractInsnNode ain1 : insns)
-                                            					singleton = ain1;
-                                            				if(singleton == newInsn)
-                                            				{
-                                            					passed = true;
-                                            					break;
-                                            				}
-                                            			}
-                                            			methodNode.instructions.remove(newInsn);
-                                        				methodNode.instructions.remove(dupInsn);
-                                            		}
-                                            		if(!passed)
-                                            			for(int i1 = methodNode.instructions.indexOf(replace); i1 < methodNode.instructions.size(); i1++)
+                                                AbstractInsnNode firstArgInsn = null;
+                                                if(Type.getArgumentTypes(result.getDesc()).length == 0)
+                                                	firstArgInsn = insn;
+                                                else
+                                                {
+                                                	int length = 0;
+                                                	for(Type t : Type.getArgumentTypes(result.getDesc()))
+                                                		if(t.getSort() == Type.LONG || t.getSort() == Type.DOUBLE)
+                                                			length += 2;
+                                                		else
+                                                			length++;
+                                                	ArgsAnalyzer.Result res = new ArgsAnalyzer(insn.getPrevious(), length, ArgsAnalyzer.Mode.BACKWARDS).lookupArgs();
+                                                	if(res instanceof ArgsAnalyzer.FailedResult)
+                                                	{
+                                                		boolean passed = false;
+                                                		AbstractInsnNode replace;
+                                                		methodNode.instructions.set(insn, replace = new MethodInsnNode(
+                                                			Opcodes.INVOKESPECIAL, result.getClassName(),
+                                                			"<init>", result.getDesc(), false));
+                                                		AbstractInsnNode newInsn = new TypeInsnNode(Opcodes.NEW, result.getClassName());
+                                                		AbstractInsnNode dupInsn = new InsnNode(Opcodes.DUP);
+                                                		for(int i1 = methodNode.instructions.indexOf(replace); i1 >= 0; i1--)
                                                 		{
                                                 			AbstractInsnNode a = methodNode.instructions.get(i1);
                                                 			if(!Utils.isInstruction(a) || a.getOpcode() == Opcodes.IINC)
@@ -317,7 +294,7 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
                                                 			}
                                                 			Frame<SourceValue> currentFrame = tempFrames[methodNode.instructions.indexOf(replace)];
                                                 			Set<AbstractInsnNode> insns = new HashSet<>(currentFrame.getStack(currentFrame.getStackSize() -
-                                                				Type.getArgumentTypes(result.getDesc()).length - 1).insns);
+                                                				Type.getArgumentTypes(result.getDesc()).length - 2).insns);
                                                 			if(insns.size() == 1)
                                                 			{
                                                 				AbstractInsnNode singleton = null;
@@ -332,30 +309,125 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
                                                 			methodNode.instructions.remove(newInsn);
                                             				methodNode.instructions.remove(dupInsn);
                                                 		}
-                                            		if(!passed)
-                                            			throw new RuntimeException("Could not insert constructor!");
-                                            		count.getAndIncrement();
-                                            		break;
+                                                		if(!passed)
+                                                			for(int i1 = methodNode.instructions.indexOf(replace); i1 < methodNode.instructions.size(); i1++)
+                                                    		{
+                                                    			AbstractInsnNode a = methodNode.instructions.get(i1);
+                                                    			if(!Utils.isInstruction(a) || a.getOpcode() == Opcodes.IINC)
+                                                    				continue;
+                                                    			methodNode.instructions.insertBefore(a, newInsn);
+                                                    			methodNode.instructions.insertBefore(a, dupInsn);
+                                                    			Frame<SourceValue>[] tempFrames;
+                                                    			try {
+                                                    				tempFrames = new Analyzer<>(new SourceInterpreter()).analyze(classNode.name, methodNode);
+                                                    			} catch (AnalyzerException e) {
+                                                    				methodNode.instructions.remove(newInsn);
+                                                    				methodNode.instructions.remove(dupInsn);
+                                                                 	continue;
+                                                    			}
+                                                    			Frame<SourceValue> currentFrame = tempFrames[methodNode.instructions.indexOf(replace)];
+                                                    			Set<AbstractInsnNode> insns = new HashSet<>(currentFrame.getStack(currentFrame.getStackSize() -
+                                                    				Type.getArgumentTypes(result.getDesc()).length - 1).insns);
+                                                    			if(insns.size() == 1)
+                                                    			{
+                                                    				AbstractInsnNode singleton = null;
+                                                    				for(AbstractInsnNode ain1 : insns)
+                                                    					singleton = ain1;
+                                                    				if(singleton == newInsn)
+                                                    				{
+                                                    					passed = true;
+                                                    					break;
+                                                    				}
+                                                    			}
+                                                    			methodNode.instructions.remove(newInsn);
+                                                				methodNode.instructions.remove(dupInsn);
+                                                    		}
+                                                		if(!passed)
+                                                			throw new RuntimeException("Could not insert constructor!");
+                                                		count.getAndIncrement();
+                                                		break;
+                                                	}else
+                                                		firstArgInsn = res.getFirstArgInsn();
+                                                }
+                                                methodNode.instructions.insertBefore(firstArgInsn, new TypeInsnNode(Opcodes.NEW, result.getClassName()));
+                                                methodNode.instructions.insertBefore(firstArgInsn, new InsnNode(Opcodes.DUP));
+                                                //The constructor is used to write a desc
+                                                methodNode.instructions.set(insn, new MethodInsnNode(
+                                                        Opcodes.INVOKESPECIAL, result.getClassName(),
+                                                        "<init>", result.getDesc(), false));
+                                                count.getAndIncrement();
+                                            }
+                                            break;
+                                        }
+                                        //Invokestatic goes below
+                                    }
+                                    case "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;": { // INVOKEVIRTUAL
+                                        MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Method;")).findFirst().orElse(null);
+                                        if (insn.getPrevious().getOpcode() == Opcodes.SWAP) {
+                                            Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
+                                            JavaMethod result;
+                                            try
+                                            {
+                                            	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
+                                            	if(result == null)
+                                            		throw new NullPointerException("Null result returned");
+                                            }catch(Exception e)
+                                            {
+                                            	if(getConfig().shouldIgnoreFailures())
+                                            	{
+                                            		System.out.println("Failed to decrypt encrypted method call at class " + classNode.name
+                                            			+ " method " + methodNode.name + methodNode.desc);
+                                            		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                            		failedClasses.add(classes.get(owner));
+                                            		continue;
                                             	}else
-                                            		firstArgInsn = res.getFirstArgInsn();
+                                            		throw e;
+                                            }
+                                            //Remove the array of objects
+                                            while (insn.getPrevious() != null) {
+                                                if (insn.getPrevious().getOpcode() == Opcodes.ANEWARRAY) {
+                                                    methodNode.instructions.remove(insn.getPrevious().getPrevious());
+                                                    methodNode.instructions.remove(insn.getPrevious());
+                                                    break;
+                                                } else if (insn.getPrevious().getOpcode() == Opcodes.ACONST_NULL) {
+                                                    methodNode.instructions.remove(insn.getPrevious());
+                                                    break;
+                                                }
+                                                methodNode.instructions.remove(insn.getPrevious());
                                             }
-                                            methodNode.instructions.insertBefore(firstArgInsn, new TypeInsnNode(Opcodes.NEW, result.getClassName()));
-                                            methodNode.instructions.insertBefore(firstArgInsn, new InsnNode(Opcodes.DUP));
-                                            //The constructor is used to write a desc
+                                            //Remove extra pop
+                                            if (Type.getReturnType(result.getDesc()).getSort() == Type.VOID &&
+                                                    insn.getNext() != null && insn.getNext().getOpcode() == Opcodes.POP)
+                                                methodNode.instructions.remove(insn.getNext());
+                                            //Removes the casts from a primitive to non primitive (doesn't solve the cast problem completely)
+                                            if (insn.getNext() != null && insn.getNext().getOpcode() == Opcodes.CHECKCAST
+                                                    && insn.getNext().getNext() != null && insn.getNext().getNext().getOpcode() == Opcodes.INVOKEVIRTUAL) {
+                                                TypeInsnNode next = (TypeInsnNode) insn.getNext();
+                                                if (isUnboxingMethod(next)
+                                                        && Type.getReturnType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(next.desc))) {
+                                                    methodNode.instructions.remove(next.getNext());
+                                                    methodNode.instructions.remove(next);
+                                                }
+                                            }
+                                            //Uses invokeinterface if owner class is interface
+                                            boolean useInterface = false;
+                                            JavaClass clazz = new JavaClass(result.getOwner(), context);
+                                            if ((clazz.getClassNode().access & Opcodes.ACC_INTERFACE) != 0)
+                                                useInterface = true;
+                                            int opcode = desc.equals("(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;") ? Opcodes.INVOKEVIRTUAL :
+                                                    Opcodes.INVOKESTATIC;
+                                            if (opcode == Opcodes.INVOKEVIRTUAL && useInterface)
+                                                opcode = Opcodes.INVOKEINTERFACE;
                                             methodNode.instructions.set(insn, new MethodInsnNode(
-                                                    Opcodes.INVOKESPECIAL, result.getClassName(),
-                                                    "<init>", result.getDesc(), false));
+                                                    opcode, result.getOwner(), result.getName(), result.getDesc(), opcode == Opcodes.INVOKEINTERFACE));
                                             count.getAndIncrement();
                                         }
                                         break;
                                     }
-                                    //Invokestatic goes below
-                                }
-                                case "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;": { // INVOKEVIRTUAL
-                                    MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Method;")).findFirst().orElse(null);
-                                    if (insn.getPrevious().getOpcode() == Opcodes.SWAP) {
-                                        Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
-                                        JavaMethod result;
+                                    case "(I)Ljava/lang/Object;": {  // GETSTATIC
+                                        MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
+                                        Integer value = (Integer) ((LdcInsnNode) insn.getPrevious()).cst;
+                                        JavaField result;
                                         try
                                         {
                                         	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
@@ -365,7 +437,7 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
                                         {
                                         	if(getConfig().shouldIgnoreFailures())
                                         	{
-                                        		System.out.println("Failed to decrypt encrypted method call at class " + classNode.name
+                                        		System.out.println("Failed to decrypt getstatic call at class " + classNode.name
                                         			+ " method " + methodNode.name + methodNode.desc);
                                         		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
                                         		failedClasses.add(classes.get(owner));
@@ -373,195 +445,139 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
                                         	}else
                                         		throw e;
                                         }
-                                        //Remove the array of objects
-                                        while (insn.getPrevious() != null) {
-                                            if (insn.getPrevious().getOpcode() == Opcodes.ANEWARRAY) {
-                                                methodNode.instructions.remove(insn.getPrevious().getPrevious());
-                                                methodNode.instructions.remove(insn.getPrevious());
-                                                break;
-                                            } else if (insn.getPrevious().getOpcode() == Opcodes.ACONST_NULL) {
-                                                methodNode.instructions.remove(insn.getPrevious());
-                                                break;
-                                            }
-                                            methodNode.instructions.remove(insn.getPrevious());
-                                        }
-                                        //Remove extra pop
-                                        if (Type.getReturnType(result.getDesc()).getSort() == Type.VOID &&
-                                                insn.getNext() != null && insn.getNext().getOpcode() == Opcodes.POP)
-                                            methodNode.instructions.remove(insn.getNext());
-                                        //Removes the casts from a primitive to non primitive (doesn't solve the cast problem completely)
-                                        if (insn.getNext() != null && insn.getNext().getOpcode() == Opcodes.CHECKCAST
-                                                && insn.getNext().getNext() != null && insn.getNext().getNext().getOpcode() == Opcodes.INVOKEVIRTUAL) {
-                                            TypeInsnNode next = (TypeInsnNode) insn.getNext();
-                                            if (isUnboxingMethod(next)
-                                                    && Type.getReturnType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(next.desc))) {
-                                                methodNode.instructions.remove(next.getNext());
-                                                methodNode.instructions.remove(next);
-                                            }
+                                    
+                                        if (insn.getNext().getOpcode() == Opcodes.CHECKCAST && isUnboxingMethod((TypeInsnNode)insn.getNext())
+                                        	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((TypeInsnNode)insn.getNext()).desc))) {
+                                        	methodNode.instructions.remove(insn.getNext().getNext());
+                                        	methodNode.instructions.remove(insn.getNext());
                                         }
-                                        //Uses invokeinterface if owner class is interface
-                                        boolean useInterface = false;
-                                        JavaClass clazz = new JavaClass(result.getOwner(), context);
-                                        if ((clazz.getClassNode().access & Opcodes.ACC_INTERFACE) != 0)
-                                            useInterface = true;
-                                        int opcode = desc.equals("(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;") ? Opcodes.INVOKEVIRTUAL :
-                                                Opcodes.INVOKESTATIC;
-                                        if (opcode == Opcodes.INVOKEVIRTUAL && useInterface)
-                                            opcode = Opcodes.INVOKEINTERFACE;
-                                        methodNode.instructions.set(insn, new MethodInsnNode(
-                                                opcode, result.getOwner(), result.getName(), result.getDesc(), opcode == Opcodes.INVOKEINTERFACE));
+                                        methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.GETSTATIC, result.getClassName(), result.getName(), result.getDesc()));
                                         count.getAndIncrement();
+                                        break;
                                     }
-                                    break;
-                                }
-                                case "(I)Ljava/lang/Object;": {  // GETSTATIC
-                                    MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
-                                    Integer value = (Integer) ((LdcInsnNode) insn.getPrevious()).cst;
-                                    JavaField result;
-                                    try
-                                    {
-                                    	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
-                                    	if(result == null)
-                                    		throw new NullPointerException("Null result returned");
-                                    }catch(Exception e)
-                                    {
-                                    	if(getConfig().shouldIgnoreFailures())
-                                    	{
-                                    		System.out.println("Failed to decrypt getstatic call at class " + classNode.name
-                                    			+ " method " + methodNode.name + methodNode.desc);
-                                    		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                    		failedClasses.add(classes.get(owner));
-                                    		continue;
-                                    	}else
-                                    		throw e;
-                                    }
-                                    
-                                    if (insn.getNext().getOpcode() == Opcodes.CHECKCAST && isUnboxingMethod((TypeInsnNode)insn.getNext())
-                                    	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((TypeInsnNode)insn.getNext()).desc))) {
-                                    	methodNode.instructions.remove(insn.getNext().getNext());
-                                    	methodNode.instructions.remove(insn.getNext());
-                                    }
-                                    methodNode.instructions.remove(insn.getPrevious());
-                                    methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.GETSTATIC, result.getClassName(), result.getName(), result.getDesc()));
-                                    count.getAndIncrement();
-                                    break;
-                                }
-                                case "(ILjava/lang/Object;)V": { // PUTSTATIC
-                                    MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
+                                    case "(ILjava/lang/Object;)V": { // PUTSTATIC
+                                        MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
                                     
-                                    boolean swap = insn.getPrevious().getOpcode() == Opcodes.SWAP;
-                                    Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
-                                    JavaField result;
-                                    try
-                                    {
-                                    	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
-                                    	if(result == null)
-                                    		throw new NullPointerException("Null result returned");
-                                    }catch(Exception e)
-                                    {
-                                    	if(getConfig().shouldIgnoreFailures())
-                                    	{
-                                    		System.out.println("Failed to decrypt putstatic call at class " + classNode.name
-                                    			+ " method " + methodNode.name + methodNode.desc);
-                                    		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                    		failedClasses.add(classes.get(owner));
-                                    		continue;
-                                    	}else
-                                    		throw e;
-                                    }
+                                        boolean swap = insn.getPrevious().getOpcode() == Opcodes.SWAP;
+                                        Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
+                                        JavaField result;
+                                        try
+                                        {
+                                        	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
+                                        	if(result == null)
+                                        		throw new NullPointerException("Null result returned");
+                                        }catch(Exception e)
+                                        {
+                                        	if(getConfig().shouldIgnoreFailures())
+                                        	{
+                                        		System.out.println("Failed to decrypt putstatic call at class " + classNode.name
+                                        			+ " method " + methodNode.name + methodNode.desc);
+                                        		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                        		failedClasses.add(classes.get(owner));
+                                        		continue;
+                                        	}else
+                                        		throw e;
+                                        }
 
-                                    methodNode.instructions.remove(insn.getPrevious().getPrevious());
-                                    if(swap)
-                                    	methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.remove(insn.getPrevious().getPrevious());
+                                        if(swap)
+                                        	methodNode.instructions.remove(insn.getPrevious());
 
-                                    if (isValueOf(insn.getPrevious())
-                                    	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((MethodInsnNode)insn.getPrevious()).owner)))
-                                    	methodNode.instructions.remove(insn.getPrevious());
-                                    methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.PUTSTATIC, result.getClassName(), result.getName(), result.getDesc()));
-                                    count.getAndIncrement();
-                                    break;
-                                }
-                                case "(Ljava/lang/Object;I)Ljava/lang/Object;": { // GETFIELD
-                                    MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
-                                    Integer value = (Integer) ((LdcInsnNode) insn.getPrevious()).cst;
-                                    JavaField result;
-                                    try
-                                    {
-                                    	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
-                                    	if(result == null)
-                                    		throw new NullPointerException("Null result returned");
-                                    }catch(Exception e)
-                                    {
-                                    	if(getConfig().shouldIgnoreFailures())
-                                    	{
-                                    		System.out.println("Failed to decrypt getfield call at class " + classNode.name
-                                    			+ " method " + methodNode.name + methodNode.desc);
-                                    		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                    		failedClasses.add(classes.get(owner));
-                                    		continue;
-                                    	}else
-                                    		throw e;
+                                        if (isValueOf(insn.getPrevious())
+                                        	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((MethodInsnNode)insn.getPrevious()).owner)))
+                                        	methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.PUTSTATIC, result.getClassName(), result.getName(), result.getDesc()));
+                                        count.getAndIncrement();
+                                        break;
                                     }
+                                    case "(Ljava/lang/Object;I)Ljava/lang/Object;": { // GETFIELD
+                                        MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
+                                        Integer value = (Integer) ((LdcInsnNode) insn.getPrevious()).cst;
+                                        JavaField result;
+                                        try
+                                        {
+                                        	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
+                                        	if(result == null)
+                                        		throw new NullPointerException("Null result returned");
+                                        }catch(Exception e)
+                                        {
+                                        	if(getConfig().shouldIgnoreFailures())
+                                        	{
+                                        		System.out.println("Failed to decrypt getfield call at class " + classNode.name
+                                        			+ " method " + methodNode.name + methodNode.desc);
+                                        		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                        		failedClasses.add(classes.get(owner));
+                                        		continue;
+                                        	}else
+                                        		throw e;
+                                        }
 
-                                    if (insn.getNext().getOpcode() == Opcodes.CHECKCAST && isUnboxingMethod((TypeInsnNode)insn.getNext())
-                                    	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((TypeInsnNode)insn.getNext()).desc))) {
-                                    	methodNode.instructions.remove(insn.getNext().getNext());
-                                    	methodNode.instructions.remove(insn.getNext());
+                                        if (insn.getNext().getOpcode() == Opcodes.CHECKCAST && isUnboxingMethod((TypeInsnNode)insn.getNext())
+                                        	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((TypeInsnNode)insn.getNext()).desc))) {
+                                        	methodNode.instructions.remove(insn.getNext().getNext());
+                                        	methodNode.instructions.remove(insn.getNext());
+                                        }
+                                        methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.GETFIELD, result.getClassName(), result.getName(), result.getDesc()));
+                                        count.getAndIncrement();
+                                        break;
                                     }
-                                    methodNode.instructions.remove(insn.getPrevious());
-                                    methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.GETFIELD, result.getClassName(), result.getName(), result.getDesc()));
-                                    count.getAndIncrement();
-                                    break;
-                                }
-                                case "(Ljava/lang/Object;ILjava/lang/Object;)V": { // PUTFIELD
-                                    MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
+                                    case "(Ljava/lang/Object;ILjava/lang/Object;)V": { // PUTFIELD
+                                        MethodNode decryptMethod = classes.get(owner).methods.stream().filter(m -> m.desc.equals("(I)Ljava/lang/reflect/Field;")).findFirst().orElse(null);
 
-                                    boolean swap = insn.getPrevious().getOpcode() == Opcodes.SWAP;
-                                    Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
-                                    JavaField result;
-                                    try
-                                    {
-                                    	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
-                                    	if(result == null)
-                                    		throw new NullPointerException("Null result returned");
-                                    }catch(Exception e)
-                                    {
-                                    	if(getConfig().shouldIgnoreFailures())
-                                    	{
-                                    		System.out.println("Failed to decrypt putfield call at class " + classNode.name
-                                    			+ " method " + methodNode.name + methodNode.desc);
-                                    		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
-                                    		failedClasses.add(classes.get(owner));
-                                    		continue;
-                                    	}else
-                                    		throw e;
-                                    }
+                                        boolean swap = insn.getPrevious().getOpcode() == Opcodes.SWAP;
+                                        Integer value = (Integer) ((LdcInsnNode) insn.getPrevious().getPrevious()).cst;
+                                        JavaField result;
+                                        try
+                                        {
+                                        	result = MethodExecutor.execute(classes.get(owner), decryptMethod, Collections.singletonList(new JavaInteger(value)), null, context);
+                                        	if(result == null)
+                                        		throw new NullPointerException("Null result returned");
+                                        }catch(Exception e)
+                                        {
+                                        	if(getConfig().shouldIgnoreFailures())
+                                        	{
+                                        		System.out.println("Failed to decrypt putfield call at class " + classNode.name
+                                        			+ " method " + methodNode.name + methodNode.desc);
+                                        		System.out.println(e.toString() + " @ " + e.getStackTrace()[0].toString());
+                                        		failedClasses.add(classes.get(owner));
+                                        		continue;
+                                        	}else
+                                        		throw e;
+                                        }
 
-                                    methodNode.instructions.remove(insn.getPrevious().getPrevious());
-                                    if(swap)
-                                    	methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.remove(insn.getPrevious().getPrevious());
+                                        if(swap)
+                                        	methodNode.instructions.remove(insn.getPrevious());
 
-                                    if (isValueOf(insn.getPrevious())
-                                    	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((MethodInsnNode)insn.getPrevious()).owner)))
-                                    	methodNode.instructions.remove(insn.getPrevious());
-                                    methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.PUTFIELD, result.getClassName(), result.getName(), result.getDesc()));
-                                    count.getAndIncrement();
-                                    break;
+                                        if (isValueOf(insn.getPrevious())
+                                        	&& Type.getType(result.getDesc()).getClassName().equals(getPrimitiveFromClass(((MethodInsnNode)insn.getPrevious()).owner)))
+                                        	methodNode.instructions.remove(insn.getPrevious());
+                                        methodNode.instructions.set(insn, new FieldInsnNode(Opcodes.PUTFIELD, result.getClassName(), result.getName(), result.getDesc()));
+                                        count.getAndIncrement();
+                                        break;
+                                    }
                                 }
                             }
                         }
-                    }
-                }));
-        castFix(context);
-        decryptors.removeAll(failedClasses);
-        decryptMethods.removeAll(failedDecryptors);
-        System.out.println("[Stringer] [HideAccessTransformer] Removed " + count.get() + " hide access");
-        long cleanedup = cleanup(decryptors, decryptMethods);
-        System.out.println("[Stringer] [HideAccessTransformer] Removed " + (cleanedup >> 32) + " decryptor classes");
-        System.out.println("[Stringer] [HideAccessTransformer] Removed " + (int) cleanedup + " invokedynamic bootstrap methods");
-
-        System.out.println("[Stringer] [HideAccessTransformer] Done");
-        return count.get() > 0;
+                    }));
+            if (context.invocationCache != null) {
+                System.out.println("[Stringer] [HideAccessTransformer] Decryptor cache: " + context.invocationCache);
+            }
+            castFix(context);
+            decryptors.removeAll(failedClasses);
+            decryptMethods.removeAll(failedDecryptors);
+            System.out.println("[Stringer] [HideAccessTransformer] Removed " + count.get() + " hide access");
+            long cleanedup = cleanup(decryptors, decryptMethods);
+            System.out.println("[Stringer] [HideAccessTransformer] Removed " + (cleanedup >> 32) + " decryptor classes");
+            System.out.println("[Stringer] [HideAccessTransformer] Removed " + (int) cleanedup + " invokedynamic bootstrap methods");
+
+            System.out.println("[Stringer] [HideAccessTransformer] Done");
+            return count.get() > 0;
+        } finally {
+            context.close();
+        }
     }
 
     private void castFix(Context context) {
@@ -775,6 +791,11 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
 		 * a few encrypted calls that cannot be resolved by adding libraries.
 		 */
         private boolean ignoreFailures = false;
+        /**
+         * Should we remember what each decryptor returned for a key? Stringer decrypts the
+         * same key at every call site of a member.
+         */
+        private boolean memoizeDecryptors = false;
 
         public Config() 
         {
@@ -790,5 +811,15 @@ public class HideAccessObfuscationTransformer extends Transformer<HideAccessObfu
         {
             this.ignoreFailures = ignoreFailures;
         }
+
+        public boolean isMemoizeDecryptors() 
+        {
+            return memoizeDecryptors;
+        }
+
+        public void setMemoizeDecryptors(boolean memoizeDecryptors) 
+        {
+            this.memoizeDecryptors = memoizeDecryptors;
+        }
     }
 }
@@ -146,7 +146,7 @@ public class InvokedynamicTransformer extends Transformer<TransformerConfig> {
                                 args.add(JavaValue.valueOf(o));
                             }
                             try {
-                                Context context = new Context(provider);
+                                Context context = newContext(provider);
                                 context.dictionary = this.classpath;
 
                                 JavaMethodHandle result = MethodExecutor.execute(bootstrapClassNode, bootstrapMethodNode, args, null, context);
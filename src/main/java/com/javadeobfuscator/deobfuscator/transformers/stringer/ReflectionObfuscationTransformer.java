@@ -169,7 +169,7 @@ public class ReflectionObfuscationTransformer extends Transformer<TransformerCon
                                     });
 
                                     if (initted.add(target) || true) {
-                                        Context context = new Context(provider);
+                                        Context context = newContext(provider);
                                         context.dictionary = this.classpath;
                                         context.constantPools = getDeobfuscator().getConstantPools();
                                         context.file = getDeobfuscator().getConfig().getInput();
@@ -186,7 +186,7 @@ public class ReflectionObfuscationTransformer extends Transformer<TransformerCon
                                             args.add(new JavaObject(null, "java/lang/Object"));
                                         }
                                     }
-                                    Context context = new Context(provider);
+                                    Context context = newContext(provider);
                                     context.dictionary = this.classpath;
                                     context.file = getDeobfuscator().getConfig().getInput();
                                     try {
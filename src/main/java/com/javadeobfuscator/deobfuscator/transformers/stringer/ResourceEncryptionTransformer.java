@@ -133,7 +133,7 @@ public class ResourceEncryptionTransformer extends Transformer<TransformerConfig
         }
         if(decryptor != null)
         {
-        	Context context = new Context(provider);
+        	Context context = newContext(provider);
     		context.dictionary = classpath;
     		String inflaterClass = null;
     		//Patch
@@ -19,6 +19,7 @@ package com.javadeobfuscator.deobfuscator.transformers.stringer;
 import com.javadeobfuscator.deobfuscator.config.TransformerConfig;
 import com.javadeobfuscator.deobfuscator.executor.Context;
 import com.javadeobfuscator.deobfuscator.executor.MethodExecutor;
+import com.javadeobfuscator.deobfuscator.executor.StaticSnapshot;
 import com.javadeobfuscator.deobfuscator.executor.defined.JVMMethodProvider;
 import com.javadeobfuscator.deobfuscator.executor.defined.MappedFieldProvider;
 import com.javadeobfuscator.deobfuscator.executor.defined.MappedMethodProvider;
@@ -33,7 +34,6 @@ import com.javadeobfuscator.deobfuscator.matcher.LoadIntStep;
 import com.javadeobfuscator.deobfuscator.matcher.OpcodeStep;
 import com.javadeobfuscator.deobfuscator.transformers.Transformer;
 import com.javadeobfuscator.deobfuscator.utils.TransformerHelper;
-import com.javadeobfuscator.deobfuscator.utils.TypeStore;
 import com.javadeobfuscator.deobfuscator.utils.Utils;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
@@ -309,187 +309,135 @@ public class StringEncryptionTransformer extends Transformer<StringEncryptionTra
         Map<AbstractInsnNode, String> enhanced = new HashMap<>();
         List<ClassNode> mapped = new ArrayList<>();
 
-        Context context = new Context(provider);
-        context.dictionary = classpath;
-        context.constantPools = getDeobfuscator().getConstantPools();
-        context.file = getDeobfuscator().getConfig().getInput();
+        Context context = newContext(provider);
+        try {
+            context.dictionary = classpath;
+            context.constantPools = getDeobfuscator().getConstantPools();
+            context.file = getDeobfuscator().getConfig().getInput();
 
-        for (ClassNode classNode : classNodes()) {
-            for (MethodNode methodNode : classNode.methods) {
-                InsnList methodInsns = methodNode.instructions;
-                Map<LabelNode, LabelNode> cloneMap = Utils.generateCloneMap(methodNode.instructions);
-                for (int insnIndex = 0; insnIndex < methodInsns.size(); insnIndex++) {
-                    AbstractInsnNode currentInsn = methodInsns.get(insnIndex);
-                    if (currentInsn != null) {
-                    	//Stringer 9.1
-                    	InstructionMatcher matcher91 = DECRYPT_PATTERNV_91.matcher(currentInsn);
-                        if (matcher91.find() && matcher91.getCapturedInstructions("all").get(0) == currentInsn) {
-                    		MethodInsnNode m = (MethodInsnNode) matcher91.getCapturedInstructions("all").get(14);
-                            String strCl = m.owner;
-                            Type type = Type.getType(m.desc);
-                            if (type.getArgumentTypes().length == 4 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
-                            	ClassNode innerClassNode = classes.get(strCl);
-                                FieldNode signature = innerClassNode.fields.stream().filter(fn -> fn.desc.equals("[Ljava/lang/Object;")).findFirst().orElse(null);
-
-                                if (signature != null) {
-                                    MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(m.name) && mn.desc.equals(m.desc) && Modifier.isStatic(mn.access)).findFirst().orElse(null);
-                                    if (decrypterNode != null) {
-                                    	decryptors.add(innerClassNode);
-                                    	context.clearStackTrace();
-                                        context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
-                                        MethodNode clinitMethod = classes.get(strCl).methods.stream().filter(mn -> mn.name.equals("<clinit>")).findFirst().orElse(null);
-                                        if (clinitMethod != null) {
-                                            MethodExecutor.execute(classes.get(strCl), clinitMethod, Collections.emptyList(), null, context);
-                                        }
-                                        // Map INDYs
-                                        if(!mapped.contains(innerClassNode)) {
-                                            for(MethodNode innerMethod : innerClassNode.methods)
-                                            	for(AbstractInsnNode innerInsn : innerMethod.instructions.toArray())
-                                            		if(innerInsn instanceof InvokeDynamicInsnNode)
-                                            		{
-                                            			InvokeDynamicInsnNode innerIndy = (InvokeDynamicInsnNode)innerInsn;
-                                            			context.customMethodFunc.put(innerIndy, (args, ctx) -> {
-                                            				MethodNode innerBootstrap = innerClassNode.methods.stream().filter(mn -> mn.name.equals(innerIndy.bsm.getName())
-                                            					&& mn.desc.equals(innerIndy.bsm.getDesc())).findFirst().orElse(null);
-                                            				//Execute bootstrap
-                                            				List<JavaValue> bootstrapArgs = new ArrayList<>();
-                                            				for(int i = 0 ; i < innerIndy.bsmArgs.length + 3; i++)
-                                            					bootstrapArgs.add(args.remove(0));
-                                            				JavaMethodHandle handle = MethodExecutor.execute(innerClassNode, innerBootstrap, bootstrapArgs,
-                                            					null, ctx);
-                                            				Object result = null;
-                                            				switch (handle.type) {
-                                            					case "virtual":
-                                            					case "static":
-                                            						JavaValue instanceArg = handle.type.equals("virtual") ? args.remove(0) : null;
-                                            						result = context.provider.invokeMethod(handle.clazz, handle.name,
-                                            							handle.desc, instanceArg, args, ctx);
-                                            						break;
-                                            					default:
-                                            						throw new IllegalStateException("Unexpected handle type " + handle.type);
-            				                                }
-                                            				Type returnType = Type.getReturnType(handle.desc);
-                                            				switch(returnType.getSort())
-                                            				{
-                                            					case Type.VOID:
-                                            						return null;
-                                            					case Type.BOOLEAN:
-                                                                    return new JavaBoolean((Boolean)result);
-                                                                case Type.CHAR:
-                                                                    return new JavaCharacter((Character)result);
-                                                                case Type.BYTE:
-                                                                    return new JavaByte((Byte)result);
-                                                                case Type.SHORT:
-                                                                    return new JavaShort((Short)result);
-                                                                case Type.INT:
-                                                                    return new JavaInteger((Integer)result);
-                                                                case Type.FLOAT:
-                                                                    return new JavaFloat((Float)result);
-                                                                case Type.LONG:
-                                                                    return new JavaLong((Long)result);
-                                                                case Type.DOUBLE:
-                                                                    return new JavaDouble((Double)result);
-                                                                case Type.ARRAY:
-                                                                case Type.OBJECT:
-                                                                	if(result != null && result.getClass().isArray())
-                                                                	{
-                                                                		if(TypeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null) != null)
-                                                                		{
-                                                                			Entry<Object, String[]> entry = (Entry<Object, String[]>)
-                                                                				TypeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null).getKey();
-                                                                			return new JavaArray(entry.getKey(), entry.getValue());
-                                                                		}else if(handle != null)
-                                                                			return new JavaArray(result);
-                                                                	}else if(TypeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null) == null)
-                                                                		return JavaValue.valueOf(result);
-                                                                	else
-                                                                		return new JavaObject(result, TypeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null).getValue());
-                                            					default:
-                                            						throw new IllegalStateException("Unexpected return type " + returnType.getSort());
-                                            				}
-                                            			});
-                                            		}
-                                            mapped.add(innerClassNode);
-                                        }
-                                        MethodNode decryptorMethod = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, methodNode.name, "()Ljava/lang/String;", null, null);
-                                        for (AbstractInsnNode matched : matcher91.getCapturedInstructions("all")) {
-                                            decryptorMethod.instructions.add(matched.clone(cloneMap));
-                                        }
-                                        decryptorMethod.instructions.add(new InsnNode(ARETURN));
-                                        String result = MethodExecutor.execute(classNode, decryptorMethod, Arrays.asList(), null, context);
-                                        for(int i = 0; i < matcher91.getCapturedInstructions("all").size() - 1; i++)
-                                        	methodNode.instructions.remove(matcher91.getCapturedInstructions("all").get(i));
-                                        methodNode.instructions.set(matcher91.getCapturedInstructions("all").get(
-                                        	matcher91.getCapturedInstructions("all").size() - 1), new LdcInsnNode(result));
-                                        total.incrementAndGet();
-                                        int x = (int) ((total.get() * 1.0d / expected) * 100);
-                                        if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
-                                            System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
-                                            alerted[x - 1] = true;
-                                        }
-                                        continue;
-                                    }
-                                }
-                            }
-                        }
-                        //Stringer 3.1
-                    	InstructionMatcher matcher31 = DECRYPT_PATTERNV_31.matcher(currentInsn);
-                        if (matcher31.find() && matcher31.getCapturedInstructions("all").get(0) == currentInsn) {
-                    		MethodInsnNode m = (MethodInsnNode) matcher31.getCapturedInstructions("all").get(16);
-                            String strCl = m.owner;
-                            Type type = Type.getType(m.desc);
-                            if (type.getArgumentTypes().length == 2 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
-                                ClassNode innerClassNode = classes.get(strCl);
-                                FieldNode signature = innerClassNode.fields.stream().filter(fn -> fn.desc.equals("[Ljava/lang/Object;")).findFirst().orElse(null);
+            for (ClassNode classNode : classNodes()) {
+                for (MethodNode methodNode : classNode.methods) {
+                    InsnList methodInsns = methodNode.instructions;
+                    Map<LabelNode, LabelNode> cloneMap = Utils.generateCloneMap(methodNode.instructions);
+                    for (int insnIndex = 0; insnIndex < methodInsns.size(); insnIndex++) {
+                        AbstractInsnNode currentInsn = methodInsns.get(insnIndex);
+                        if (currentInsn != null) {
+                        	//Stringer 9.1
+                        	InstructionMatcher matcher91 = DECRYPT_PATTERNV_91.matcher(currentInsn);
+                            if (matcher91.find() && matcher91.getCapturedInstructions("all").get(0) == currentInsn) {
+                        		MethodInsnNode m = (MethodInsnNode) matcher91.getCapturedInstructions("all").get(14);
+                                String strCl = m.owner;
+                                Type type = Type.getType(m.desc);
+                                if (type.getArgumentTypes().length == 4 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
+                                	ClassNode innerClassNode = classes.get(strCl);
+                                    FieldNode signature = innerClassNode.fields.stream().filter(fn -> fn.desc.equals("[Ljava/lang/Object;")).findFirst().orElse(null);
 
-                                if (signature != null) {
-                                    MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(m.name) && mn.desc.equals(m.desc) && Modifier.isStatic(mn.access)).findFirst().orElse(null);
-                                    if (decrypterNode != null) {
-                                    	decryptors.add(innerClassNode);
-                                        context.clearStackTrace();
-                                        context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
-                                        // Stringer3
-                                        if (innerClassNode.superName.equals("java/lang/Thread")) {
+                                    if (signature != null) {
+                                        MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(m.name) && mn.desc.equals(m.desc) && Modifier.isStatic(mn.access)).findFirst().orElse(null);
+                                        if (decrypterNode != null) {
+                                        	decryptors.add(innerClassNode);
+                                        	context.clearStackTrace();
+                                            context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
                                             MethodNode clinitMethod = classes.get(strCl).methods.stream().filter(mn -> mn.name.equals("<clinit>")).findFirst().orElse(null);
-                                            if (clinitMethod != null) {
-                                                MethodExecutor.execute(classes.get(strCl), clinitMethod, Collections.emptyList(), null, context);
+                                            StaticSnapshot.initialize(classes.get(strCl), clinitMethod, context);
+                                            // Map INDYs
+                                            if(!mapped.contains(innerClassNode)) {
+                                                for(MethodNode innerMethod : innerClassNode.methods)
+                                                	for(AbstractInsnNode innerInsn : innerMethod.instructions.toArray())
+                                                		if(innerInsn instanceof InvokeDynamicInsnNode)
+                                                		{
+                                                			InvokeDynamicInsnNode innerIndy = (InvokeDynamicInsnNode)innerInsn;
+                                                			context.customMethodFunc.put(innerIndy, (args, ctx) -> {
+                                                				MethodNode innerBootstrap = innerClassNode.methods.stream().filter(mn -> mn.name.equals(innerIndy.bsm.getName())
+                                                					&& mn.desc.equals(innerIndy.bsm.getDesc())).findFirst().orElse(null);
+                                                				//Execute bootstrap
+                                                				List<JavaValue> bootstrapArgs = new ArrayList<>();
+                                                				for(int i = 0 ; i < innerIndy.bsmArgs.length + 3; i++)
+                                                					bootstrapArgs.add(args.remove(0));
+                                                				JavaMethodHandle handle = MethodExecutor.execute(innerClassNode, innerBootstrap, bootstrapArgs,
+                                                					null, ctx);
+                                                				Object result = null;
+                                                				switch (handle.type) {
+                                                					case "virtual":
+                                                					case "static":
+                                                						JavaValue instanceArg = handle.type.equals("virtual") ? args.remove(0) : null;
+                                                						result = context.provider.invokeMethod(handle.clazz, handle.name,
+                                                							handle.desc, instanceArg, args, ctx);
+                                                						break;
+                                                					default:
+                                                						throw new IllegalStateException("Unexpected handle type " + handle.type);
+                				                                }
+                                                				Type returnType = Type.getReturnType(handle.desc);
+                                                				switch(returnType.getSort())
+                                                				{
+                                                					case Type.VOID:
+                                                						return null;
+                                                					case Type.BOOLEAN:
+                                                                        return new JavaBoolean((Boolean)result);
+                                                                    case Type.CHAR:
+                                                                        return new JavaCharacter((Character)result);
+                                                                    case Type.BYTE:
+                                                                        return new JavaByte((Byte)result);
+                                                                    case Type.SHORT:
+                                                                        return new JavaShort((Short)result);
+                                                                    case Type.INT:
+                                                                        return new JavaInteger((Integer)result);
+                                                                    case Type.FLOAT:
+                                                                        return new JavaFloat((Float)result);
+                                                                    case Type.LONG:
+                                                                        return new JavaLong((Long)result);
+                                                                    case Type.DOUBLE:
+                                                                        return new JavaDouble((Double)result);
+                                                                    case Type.ARRAY:
+                                                                    case Type.OBJECT:
+                                                                    	if(result != null && result.getClass().isArray())
+                                                                    	{
+                                                                    		if(ctx.typeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null) != null)
+                                                                    		{
+                                                                    			Entry<Object, String[]> entry = (Entry<Object, String[]>)
+                                                                    				ctx.typeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null).getKey();
+                                                                    			return new JavaArray(entry.getKey(), entry.getValue());
+                                                                    		}else if(handle != null)
+                                                                    			return new JavaArray(result);
+                                                                    	}else if(ctx.typeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null) == null)
+                                                                    		return JavaValue.valueOf(result);
+                                                                    	else
+                                                                    		return new JavaObject(result, ctx.typeStore.getFieldFromStore(handle.clazz, handle.name, handle.desc, null).getValue());
+                                                					default:
+                                                						throw new IllegalStateException("Unexpected return type " + returnType.getSort());
+                                                				}
+                                                			});
+                                                		}
+                                                mapped.add(innerClassNode);
                                             }
+                                            MethodNode decryptorMethod = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, methodNode.name, "()Ljava/lang/String;", null, null);
+                                            for (AbstractInsnNode matched : matcher91.getCapturedInstructions("all")) {
+                                                decryptorMethod.instructions.add(matched.clone(cloneMap));
+                                            }
+                                            decryptorMethod.instructions.add(new InsnNode(ARETURN));
+                                            String result = MethodExecutor.execute(classNode, decryptorMethod, Arrays.asList(), null, context);
+                                            for(int i = 0; i < matcher91.getCapturedInstructions("all").size() - 1; i++)
+                                            	methodNode.instructions.remove(matcher91.getCapturedInstructions("all").get(i));
+                                            methodNode.instructions.set(matcher91.getCapturedInstructions("all").get(
+                                            	matcher91.getCapturedInstructions("all").size() - 1), new LdcInsnNode(result));
+                                            total.incrementAndGet();
+                                            int x = (int) ((total.get() * 1.0d / expected) * 100);
+                                            if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
+                                                System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
+                                                alerted[x - 1] = true;
+                                            }
+                                            continue;
                                         }
-                                        MethodNode decryptorMethod = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, methodNode.name, "()Ljava/lang/String;", null, null);
-                                        for (AbstractInsnNode matched : matcher31.getCapturedInstructions("all")) {
-                                            decryptorMethod.instructions.add(matched.clone(cloneMap));
-                                        }
-                                        decryptorMethod.instructions.add(new InsnNode(ARETURN));
-                                        String result = MethodExecutor.execute(classNode, decryptorMethod, Arrays.asList(), null, context);
-                                        for(int i = 0; i < matcher31.getCapturedInstructions("all").size() - 1; i++)
-                                        	methodNode.instructions.remove(matcher31.getCapturedInstructions("all").get(i));
-                                        methodNode.instructions.set(matcher31.getCapturedInstructions("all").get(
-                                        	matcher31.getCapturedInstructions("all").size() - 1), new LdcInsnNode(result));
-                                        total.incrementAndGet();
-                                        int x = (int) ((total.get() * 1.0d / expected) * 100);
-                                        if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
-                                            System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
-                                            alerted[x - 1] = true;
-                                        }
-                                        continue;
                                     }
                                 }
                             }
-                        }
-                        InstructionMatcher matcher1 = DECRYPT_PATTERNV_3.matcher(currentInsn);
-                        boolean switched = false;
-                        if(!matcher1.find())
-                        {
-                        	matcher1 = DECRYPT_PATTERN_LEGACY.matcher(currentInsn);
-                        	switched = true;
-                        }
-                        if ((!switched || matcher1.find()) && matcher1.getCapturedInstructions("all").get(0) == currentInsn) {
-                            LdcInsnNode ldc = (LdcInsnNode) matcher1.getCapturedInstructions("all").get(0);
-                            MethodInsnNode m = (MethodInsnNode) matcher1.getCapturedInstructions("all").get(1);
-                            if (ldc.cst instanceof String) {
+                            //Stringer 3.1
+                        	InstructionMatcher matcher31 = DECRYPT_PATTERNV_31.matcher(currentInsn);
+                            if (matcher31.find() && matcher31.getCapturedInstructions("all").get(0) == currentInsn) {
+                        		MethodInsnNode m = (MethodInsnNode) matcher31.getCapturedInstructions("all").get(16);
                                 String strCl = m.owner;
                                 Type type = Type.getType(m.desc);
-                                if (type.getArgumentTypes().length == 1 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
+                                if (type.getArgumentTypes().length == 2 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
                                     ClassNode innerClassNode = classes.get(strCl);
                                     FieldNode signature = innerClassNode.fields.stream().filter(fn -> fn.desc.equals("[Ljava/lang/Object;")).findFirst().orElse(null);
 
@@ -497,85 +445,73 @@ public class StringEncryptionTransformer extends Transformer<StringEncryptionTra
                                         MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(m.name) && mn.desc.equals(m.desc) && Modifier.isStatic(mn.access)).findFirst().orElse(null);
                                         if (decrypterNode != null) {
                                         	decryptors.add(innerClassNode);
-                                        	context.clearStackTrace();
+                                            context.clearStackTrace();
                                             context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
-
                                             // Stringer3
                                             if (innerClassNode.superName.equals("java/lang/Thread")) {
                                                 MethodNode clinitMethod = classes.get(strCl).methods.stream().filter(mn -> mn.name.equals("<clinit>")).findFirst().orElse(null);
-                                                if (clinitMethod != null) {
-                                                    MethodExecutor.execute(classes.get(strCl), clinitMethod, Collections.emptyList(), null, context);
-                                                }
+                                                StaticSnapshot.initialize(classes.get(strCl), clinitMethod, context);
                                             }
-
-                                            Object o = null;
-                                            try {
-                                                o = MethodExecutor.execute(classes.get(strCl), decrypterNode, Collections.singletonList(new JavaObject(ldc.cst, "java/lang/String")), null, context);
-                                            } catch (ArrayIndexOutOfBoundsException e) {
-                                                enhanced.put(ldc, classNode.name + " " + methodNode.name);
+                                            MethodNode decryptorMethod = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, methodNode.name, "()Ljava/lang/String;", null, null);
+                                            for (AbstractInsnNode matched : matcher31.getCapturedInstructions("all")) {
+                                                decryptorMethod.instructions.add(matched.clone(cloneMap));
                                             }
-                                            if (o != null) {
-                                                ldc.cst = (String) o;
-                                                methodNode.instructions.remove(m);
-                                                total.incrementAndGet();
-                                                int x = (int) ((total.get() * 1.0d / expected) * 100);
-                                                if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
-                                                    System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
-                                                    alerted[x - 1] = true;
-                                                }
+                                            decryptorMethod.instructions.add(new InsnNode(ARETURN));
+                                            String result = MethodExecutor.execute(classNode, decryptorMethod, Arrays.asList(), null, context);
+                                            for(int i = 0; i < matcher31.getCapturedInstructions("all").size() - 1; i++)
+                                            	methodNode.instructions.remove(matcher31.getCapturedInstructions("all").get(i));
+                                            methodNode.instructions.set(matcher31.getCapturedInstructions("all").get(
+                                            	matcher31.getCapturedInstructions("all").size() - 1), new LdcInsnNode(result));
+                                            total.incrementAndGet();
+                                            int x = (int) ((total.get() * 1.0d / expected) * 100);
+                                            if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
+                                                System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
+                                                alerted[x - 1] = true;
                                             }
+                                            continue;
                                         }
                                     }
                                 }
                             }
-                        }
-                    }
-                }
-            }
-        }
-        for (ClassNode classNode : classNodes()) {
-            for (MethodNode methodNode : classNode.methods) {
-                InsnList methodInsns = methodNode.instructions;
-                for (int insnIndex = 0; insnIndex < methodInsns.size(); insnIndex++) {
-                    AbstractInsnNode currentInsn = methodInsns.get(insnIndex);
-                    if (currentInsn instanceof MethodInsnNode) {
-                        MethodInsnNode m = (MethodInsnNode) currentInsn;
-                        ClassNode targetClassNode = classes.get(m.owner);
-                        if (targetClassNode != null) {
-                            MethodNode targetMethodNode = null;
-                            for (MethodNode tempMethodNode : targetClassNode.methods) {
-                                if (tempMethodNode.name.equals(m.name) && tempMethodNode.desc.equals(m.desc)) {
-                                    targetMethodNode = tempMethodNode;
-                                    break;
-                                }
+                            InstructionMatcher matcher1 = DECRYPT_PATTERNV_3.matcher(currentInsn);
+                            boolean switched = false;
+                            if(!matcher1.find())
+                            {
+                            	matcher1 = DECRYPT_PATTERN_LEGACY.matcher(currentInsn);
+                            	switched = true;
                             }
-                            if (targetMethodNode != null) {
-                                InsnList innerMethodInsns = targetMethodNode.instructions;
-                                for (int innerInsnIndex = 0; innerInsnIndex < innerMethodInsns.size(); innerInsnIndex++) {
-                                    AbstractInsnNode innerCurrentInsn = innerMethodInsns.get(innerInsnIndex);
-                                    InstructionMatcher matcher = DECRYPT_PATTERNV_3.matcher(innerCurrentInsn);
-                                    boolean switched = false;
-                                    if(!matcher.find())
-                                    {
-                                    	matcher = DECRYPT_PATTERN_LEGACY.matcher(innerCurrentInsn);
-                                    	switched = true;
-                                    }
-                                    if ((!switched || matcher.find()) && matcher.getCapturedInstructions("all").get(0) == innerCurrentInsn) {
-                                        LdcInsnNode innerLdc = (LdcInsnNode) matcher.getCapturedInstructions("all").get(0);
-                                        MethodInsnNode innerMethod = (MethodInsnNode) matcher.getCapturedInstructions("all").get(1);
-                                        if (innerLdc.cst instanceof String) {
-                                            String strCl = innerMethod.owner;
-                                            if (innerMethod.desc.endsWith(")Ljava/lang/String;")) {
-                                                if (enhanced.remove(innerLdc) != null) {
-                                                    ClassNode innerClassNode = classes.get(strCl);
-                                                    decryptors.add(innerClassNode);
-                                                    MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(innerMethod.name) && mn.desc.equals(innerMethod.desc)).findFirst().orElse(null);
-                                                    context.clearStackTrace();
-                                                    context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
-                                                    context.push(targetClassNode.name.replace('/', '.'), targetMethodNode.name, getDeobfuscator().getConstantPool(targetClassNode).getSize());
-                                                    Object o = MethodExecutor.execute(classes.get(strCl), decrypterNode, Arrays.asList(new JavaObject(innerLdc.cst, "java/lang/String")), null, context);
-                                                    innerLdc.cst = o;
-                                                    targetMethodNode.instructions.remove(innerMethod);
+                            if ((!switched || matcher1.find()) && matcher1.getCapturedInstructions("all").get(0) == currentInsn) {
+                                LdcInsnNode ldc = (LdcInsnNode) matcher1.getCapturedInstructions("all").get(0);
+                                MethodInsnNode m = (MethodInsnNode) matcher1.getCapturedInstructions("all").get(1);
+                                if (ldc.cst instanceof String) {
+                                    String strCl = m.owner;
+                                    Type type = Type.getType(m.desc);
+                                    if (type.getArgumentTypes().length == 1 && type.getReturnType().getDescriptor().equals("Ljava/lang/String;") && classes.containsKey(strCl)) {
+                                        ClassNode innerClassNode = classes.get(strCl);
+                                        FieldNode signature = innerClassNode.fields.stream().filter(fn -> fn.desc.equals("[Ljava/lang/Object;")).findFirst().orElse(null);
+
+                                        if (signature != null) {
+                                            MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(m.name) && mn.desc.equals(m.desc) && Modifier.isStatic(mn.access)).findFirst().orElse(null);
+                                            if (decrypterNode != null) {
+                                            	decryptors.add(innerClassNode);
+                                            	context.clearStackTrace();
+                                                context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
+
+                                                // Stringer3
+                                                if (innerClassNode.superName.equals("java/lang/Thread")) {
+                                                    MethodNode clinitMethod = classes.get(strCl).methods.stream().filter(mn -> mn.name.equals("<clinit>")).findFirst().orElse(null);
+                                                    StaticSnapshot.initialize(classes.get(strCl), clinitMethod, context);
+                                                }
+
+                                                Object o = null;
+                                                try {
+                                                    o = MethodExecutor.execute(classes.get(strCl), decrypterNode, Collections.singletonList(new JavaObject(ldc.cst, "java/lang/String")), null, context);
+                                                } catch (ArrayIndexOutOfBoundsException e) {
+                                                    enhanced.put(ldc, classNode.name + " " + methodNode.name);
+                                                }
+                                                if (o != null) {
+                                                    ldc.cst = (String) o;
+                                                    methodNode.instructions.remove(m);
                                                     total.incrementAndGet();
                                                     int x = (int) ((total.get() * 1.0d / expected) * 100);
                                                     if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
@@ -592,8 +528,70 @@ public class StringEncryptionTransformer extends Transformer<StringEncryptionTra
                     }
                 }
             }
+            for (ClassNode classNode : classNodes()) {
+                for (MethodNode methodNode : classNode.methods) {
+                    InsnList methodInsns = methodNode.instructions;
+                    for (int insnIndex = 0; insnIndex < methodInsns.size(); insnIndex++) {
+                        AbstractInsnNode currentInsn = methodInsns.get(insnIndex);
+                        if (currentInsn instanceof MethodInsnNode) {
+                            MethodInsnNode m = (MethodInsnNode) currentInsn;
+                            ClassNode targetClassNode = classes.get(m.owner);
+                            if (targetClassNode != null) {
+                                MethodNode targetMethodNode = null;
+                                for (MethodNode tempMethodNode : targetClassNode.methods) {
+                                    if (tempMethodNode.name.equals(m.name) && tempMethodNode.desc.equals(m.desc)) {
+                                        targetMethodNode = tempMethodNode;
+                                        break;
+                                    }
+                                }
+                                if (targetMethodNode != null) {
+                                    InsnList innerMethodInsns = targetMethodNode.instructions;
+                                    for (int innerInsnIndex = 0; innerInsnIndex < innerMethodInsns.size(); innerInsnIndex++) {
+                                        AbstractInsnNode innerCurrentInsn = innerMethodInsns.get(innerInsnIndex);
+                                        InstructionMatcher matcher = DECRYPT_PATTERNV_3.matcher(innerCurrentInsn);
+                                        boolean switched = false;
+                                        if(!matcher.find())
+                                        {
+                                        	matcher = DECRYPT_PATTERN_LEGACY.matcher(innerCurrentInsn);
+                                        	switched = true;
+                                        }
+                                        if ((!switched || matcher.find()) && matcher.getCapturedInstructions("all").get(0) == innerCurrentInsn) {
+                                            LdcInsnNode innerLdc = (LdcInsnNode) matcher.getCapturedInstructions("all").get(0);
+                                            MethodInsnNode innerMethod = (MethodInsnNode) matcher.getCapturedInstructions("all").get(1);
+                                            if (innerLdc.cst instanceof String) {
+                                                String strCl = innerMethod.owner;
+                                                if (innerMethod.desc.endsWith(")Ljava/lang/String;")) {
+                                                    if (enhanced.remove(innerLdc) != null) {
+                                                        ClassNode innerClassNode = classes.get(strCl);
+                                                        decryptors.add(innerClassNode);
+                                                        MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(innerMethod.name) && mn.desc.equals(innerMethod.desc)).findFirst().orElse(null);
+                                                        context.clearStackTrace();
+                                                        context.push(classNode.name.replace('/', '.'), methodNode.name, getDeobfuscator().getConstantPool(classNode).getSize());
+                                                        context.push(targetClassNode.name.replace('/', '.'), targetMethodNode.name, getDeobfuscator().getConstantPool(targetClassNode).getSize());
+                                                        Object o = MethodExecutor.execute(classes.get(strCl), decrypterNode, Arrays.asList(new JavaObject(innerLdc.cst, "java/lang/String")), null, context);
+                                                        innerLdc.cst = o;
+                                                        targetMethodNode.instructions.remove(innerMethod);
+                                                        total.incrementAndGet();
+                                                        int x = (int) ((total.get() * 1.0d / expected) * 100);
+                                                        if (x != 0 && x % 10 == 0 && !alerted[x - 1]) {
+                                                            System.out.println("[Stringer] [StringEncryptionTransformer] Done " + x + "%");
+                                                            alerted[x - 1] = true;
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return total.get();
+        } finally {
+            context.close();
         }
-        return total.get();
     }
     
     public static class Config extends TransformerConfig 
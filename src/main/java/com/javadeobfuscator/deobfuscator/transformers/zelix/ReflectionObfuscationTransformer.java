@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 import com.javadeobfuscator.deobfuscator.config.TransformerConfig;
 import com.javadeobfuscator.deobfuscator.exceptions.NoClassInPathException;
 import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.InvocationCache;
 import com.javadeobfuscator.deobfuscator.executor.MethodExecutor;
 import com.javadeobfuscator.deobfuscator.executor.defined.JVMComparisonProvider;
 import com.javadeobfuscator.deobfuscator.executor.defined.JVMMethodProvider;
@@ -64,6 +65,7 @@ import org.objectweb.asm.tree.analysis.SourceValue;
 public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfuscationTransformer.Config> {
 	public static class Config extends TransformerConfig {
 		private boolean cleanup = true;
+		private boolean memoizeDecrypters = false;
 
 		public Config() {
 			super(ReflectionObfuscationTransformer.class);
@@ -76,6 +78,14 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
 		public void setCleanup(boolean cleanup) {
 			this.cleanup = cleanup;
 		}
+
+		public boolean isMemoizeDecrypters() {
+			return memoizeDecrypters;
+		}
+
+		public void setMemoizeDecrypters(boolean memoizeDecrypters) {
+			this.memoizeDecrypters = memoizeDecrypters;
+		}
 	}
 
     static Map<String, String> PRIMITIVES = new HashMap<>();
@@ -109,6 +119,8 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
     public int inlineReflection(int expected) throws Throwable {
         AtomicInteger count = new AtomicInteger(0);
         final boolean[] alerted = new boolean[100];
+        // The decrypters only depend on their key once their class is initialized
+        InvocationCache cache = getConfig().isMemoizeDecrypters() ? new InvocationCache(false) : null;
 
         DelegatingProvider provider = new DelegatingProvider();
 
@@ -271,7 +283,7 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                                     	for(MethodNode method : init)
                                     		initReflectionMethod.get(innerClassNode).add(method);
                                     }
-                                	Context context = new Context(provider);
+                                	Context context = newContext(provider);
                                     context.dictionary = this.classpath;
                                     for(MethodNode method1 : init)
                                     	MethodExecutor.execute(innerClassNode, method1, Collections.emptyList(), null, context);
@@ -282,8 +294,12 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                                 }
                             }
                             MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(methodInsnNode.name) && mn.desc.equals(methodInsnNode.desc)).findFirst().orElse(null);
-                            Context ctx = new Context(provider);
+                            Context ctx = newContext(provider);
                             ctx.dictionary = classpath;
+                            if (cache != null) {
+                                cache.markPure(decrypterNode);
+                                ctx.invocationCache = cache;
+                            }
                             JavaMethod javaMethod;
                             try {
 								javaMethod = MethodExecutor.execute(innerClassNode, decrypterNode, Arrays.asList(new JavaLong(ldc)), null, ctx);
@@ -474,7 +490,7 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                                     	for(MethodNode method : init)
                                     		initReflectionMethod.get(innerClassNode).add(method);
                                     }
-                                	Context context = new Context(provider);
+                                	Context context = newContext(provider);
                                     context.dictionary = this.classpath;
                                     for(MethodNode method1 : init)
                                     	MethodExecutor.execute(innerClassNode, method1, Collections.emptyList(), null, context);
@@ -485,8 +501,12 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                                 }
                             }
                             MethodNode decrypterNode = innerClassNode.methods.stream().filter(mn -> mn.name.equals(methodInsnNode.name) && mn.desc.equals(methodInsnNode.desc)).findFirst().orElse(null);
-                            Context ctx = new Context(provider);
+                            Context ctx = newContext(provider);
                             ctx.dictionary = classpath;
+                            if (cache != null) {
+                                cache.markPure(decrypterNode);
+                                ctx.invocationCache = cache;
+                            }
                             JavaField javaField;
                             try {
 								javaField = MethodExecutor.execute(innerClassNode, decrypterNode, Collections.singletonList(new JavaLong(ldc)), null, ctx);
@@ -653,7 +673,7 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                                     	for(MethodNode method : init)
                                     		initReflectionMethod.get(innerClassNode).add(method);
                                     }
-                                	Context context = new Context(provider);
+                                	Context context = newContext(provider);
                                     context.dictionary = this.classpath;
                                     for(MethodNode method1 : init)
                                     	MethodExecutor.execute(innerClassNode, method1, Collections.emptyList(), null, context);
@@ -688,7 +708,7 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
                             args.add(JavaValue.valueOf(invokeDynamicInsnNode.name)); //dyn method name
                             args.add(new JavaObject(invokeDynamicInsnNode.desc, "java/lang/invoke/MethodType")); //dyn method type
                             args.add(new JavaLong(ldc));
-                            Context ctx = new Context(provider);
+                            Context ctx = newContext(provider);
                             ctx.dictionary = classpath;
                             JavaHandle handle = MethodExecutor.execute(innerClassNode, indyNode3, args, null, ctx);
                             if(indyReflectionMethods.containsKey(innerClassNode))
@@ -841,6 +861,9 @@ public class ReflectionObfuscationTransformer extends Transformer<ReflectionObfu
 				entry.getKey().methods.remove(entry.getValue());
 			}
 		}
+        if (cache != null) {
+            System.out.println("[Zelix] [ReflectionObfuscationTransformer] Decrypter cache: " + cache);
+        }
         return count.get();
     }
 
@@ -16,14 +16,15 @@
 
 package com.javadeobfuscator.deobfuscator.utils;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClassTree {
     public String thisClass;
 
-    public Set<String> subClasses = new HashSet<>();
-    public Set<String> parentClasses = new HashSet<>();
+    // Concurrent since classes are written (and their frames computed) in parallel
+    public Set<String> subClasses = ConcurrentHashMap.newKeySet();
+    public Set<String> parentClasses = ConcurrentHashMap.newKeySet();
 
     public ClassTree(String thisClass) {
         this.thisClass = thisClass;
@@ -0,0 +1,144 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.javadeobfuscator.deobfuscator.asm.ClassInfo;
+
+/**
+ * Answers assignability and common superclass queries for frame computation.
+ * <p>
+ * Every class gets an int ID and, the first time it is queried, a sorted array of the IDs of all its supertypes (itself included), so an
+ * assignability check is a binary search. Common superclasses are memoized per pair of classes. All state is safe to share between writer
+ * threads and must be thrown away with {@link #clear()} whenever the hierarchy changes.
+ */
+public class HierarchyIndex {
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private final Function<String, ClassInfo> resolver;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<String, int[]> ancestors = new ConcurrentHashMap<>();
+    private final Map<Long, String> commonSuperClasses = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver looks up the header of a class, throwing if it cannot be found
+     */
+    public HierarchyIndex(Function<String, ClassInfo> resolver) {
+        this.resolver = resolver;
+    }
+
+    public void clear() {
+        commonSuperClasses.clear();
+        ancestors.clear();
+        ids.clear();
+    }
+
+    /**
+     * @return whether type2 is type1 or one of its subtypes
+     */
+    public boolean isAssignableFrom(String type1, String type2) {
+        if (type1.equals(OBJECT) || type1.equals(type2)) {
+            return true;
+        }
+        return Arrays.binarySearch(getAncestors(type2), id(type1)) >= 0;
+    }
+
+    public String getCommonSuperClass(String type1, String type2) {
+        if (type1.equals(OBJECT) || type2.equals(OBJECT)) {
+            return OBJECT;
+        }
+        long key = ((long) id(type1) << 32) | (id(type2) & 0xFFFFFFFFL);
+        String result = commonSuperClasses.get(key);
+        if (result == null) {
+            result = computeCommonSuperClass(type1, type2);
+            commonSuperClasses.put(key, result);
+        }
+        return result;
+    }
+
+    private String computeCommonSuperClass(String type1, String type2) {
+        String a = getCommonSuperClass0(type1, type2);
+        String b = getCommonSuperClass0(type2, type1);
+        if (!a.equals(OBJECT)) {
+            return a;
+        }
+        if (!b.equals(OBJECT)) {
+            return b;
+        }
+        ClassInfo first = resolver.apply(type1);
+        ClassInfo second = resolver.apply(type2);
+        return getCommonSuperClass(first.superName, second.superName);
+    }
+
+    private String getCommonSuperClass0(String type1, String type2) {
+        ClassInfo first = resolver.apply(type1);
+        ClassInfo second = resolver.apply(type2);
+        if (isAssignableFrom(type1, type2)) {
+            return type1;
+        } else if (isAssignableFrom(type2, type1)) {
+            return type2;
+        } else if (Modifier.isInterface(first.access) || Modifier.isInterface(second.access)) {
+            return OBJECT;
+        } else {
+            do {
+                type1 = first.superName;
+                first = resolver.apply(type1);
+            } while (!isAssignableFrom(type1, type2));
+            return type1;
+        }
+    }
+
+    private int id(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = ids.computeIfAbsent(name, k -> nextId.getAndIncrement());
+        }
+        return id;
+    }
+
+    private int[] getAncestors(String name) {
+        int[] result = ancestors.get(name);
+        if (result == null) {
+            result = computeAncestors(name, new HashSet<>());
+        }
+        return result;
+    }
+
+    private int[] computeAncestors(String name, Set<String> visiting) {
+        int[] cached = ancestors.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(name)) {
+            // Circular hierarchy, only possible with junk classes
+            return new int[]{id(name)};
+        }
+        ClassInfo info = resolver.apply(name);
+        BitSet bits = new BitSet();
+        bits.set(id(name));
+        if (info.superName != null) {
+            for (int ancestor : computeAncestors(info.superName, visiting)) {
+                bits.set(ancestor);
+            }
+        }
+        for (String interfaceName : info.interfaces) {
+            for (int ancestor : computeAncestors(interfaceName, visiting)) {
+                bits.set(ancestor);
+            }
+        }
+        visiting.remove(name);
+        int[] result = bits.stream().toArray();
+        ancestors.putIfAbsent(name, result);
+        return result;
+    }
+}
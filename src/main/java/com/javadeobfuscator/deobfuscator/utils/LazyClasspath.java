@@ -0,0 +1,253 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import com.javadeobfuscator.deobfuscator.asm.ClassInfo;
+import com.javadeobfuscator.deobfuscator.asm.ConstantPool;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * A classpath which is backed by a {@link LibraryIndex} and only parses library classes the first time they are requested.
+ * <p>
+ * Classes put into this map explicitly (input classes, runtime classes, renamed classes) are held strongly by this map alone and shadow the
+ * index, so several classpaths can share one index without seeing each other's changes.
+ * <p>
+ * Indexed classes are pinned once handed out: the index may evict a class from its cache and parse it again later, but this classpath keeps
+ * returning the node it handed out first, so maps keyed by node identity and changes made to library nodes hold for the whole run.
+ * <p>
+ * Code that only needs the class hierarchy should use {@link #getInfo(String)}, which reads indexed classes as {@link ClassInfo} skeletons and
+ * never builds a full node for them.
+ */
+public class LazyClasspath extends AbstractMap<String, ClassNode> {
+
+    private final LibraryIndex libraryIndex;
+    private final Map<String, ClassNode> overlay = new HashMap<>();
+    private final Set<String> removed = new HashSet<>();
+    /**
+     * Indexed classes handed out so far, each of which has been passed to the load listener
+     */
+    private final Map<String, ClassNode> pinned = new HashMap<>();
+    private final BiConsumer<ClassNode, ConstantPool> loadListener;
+
+    /**
+     * @param loadListener called once for every indexed class this classpath hands out
+     */
+    public LazyClasspath(LibraryIndex libraryIndex, BiConsumer<ClassNode, ConstantPool> loadListener) {
+        this.libraryIndex = libraryIndex;
+        this.loadListener = loadListener;
+    }
+
+    /**
+     * @return whether the class with the given name comes from an indexed jar and has not been replaced or removed
+     */
+    public synchronized boolean isIndexed(String name) {
+        return libraryIndex.contains(name) && !overlay.containsKey(name) && !removed.contains(name);
+    }
+
+    /**
+     * @return a read-only view of the classes which were indexed from library jars
+     */
+    public Map<String, ClassNode> libraryView() {
+        return new AbstractMap<String, ClassNode>() {
+            @Override
+            public ClassNode get(Object key) {
+                return libraryIndex.isLibrary(key) ? load(key) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return libraryIndex.isLibrary(key);
+            }
+
+            @Override
+            public Set<Map.Entry<String, ClassNode>> entrySet() {
+                return new LazyEntrySet(libraryIndex.names(true), this, false);
+            }
+        };
+    }
+
+    @Override
+    public ClassNode get(Object key) {
+        synchronized (this) {
+            ClassNode node = overlay.get(key);
+            if (node != null || overlay.containsKey(key) || removed.contains(key)) {
+                return node;
+            }
+        }
+        return load(key);
+    }
+
+    /**
+     * Looks up the header of a class. Classes put into this map explicitly are snapshotted on every call, indexed classes are read without
+     * their code and remembered.
+     *
+     * @return the class header, or null if the class is unknown
+     */
+    public ClassInfo getInfo(String name) {
+        synchronized (this) {
+            ClassNode node = overlay.get(name);
+            if (node != null) {
+                return ClassInfo.of(node);
+            }
+            if (overlay.containsKey(name) || removed.contains(name)) {
+                return null;
+            }
+        }
+        return libraryIndex.getInfo(name);
+    }
+
+    private ClassNode load(Object name) {
+        synchronized (this) {
+            ClassNode node = pinned.get(name);
+            if (node != null) {
+                return node;
+            }
+        }
+        LibraryIndex.Loaded loaded = libraryIndex.load(name);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            ClassNode node = pinned.putIfAbsent((String) name, loaded.node);
+            if (node != null) {
+                return node;
+            }
+            if (loadListener != null) {
+                loadListener.accept(loaded.node, loaded.constantPool);
+            }
+        }
+        return loaded.node;
+    }
+
+    private ClassNode getIfLoaded(Object name) {
+        ClassNode node = pinned.get(name);
+        return node != null ? node : libraryIndex.getIfCached(name);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return overlay.containsKey(key) || (libraryIndex.contains(key) && !removed.contains(key));
+    }
+
+    /**
+     * Unlike a regular map, this only returns the previous value if it was put explicitly or has already been loaded, to avoid parsing classes
+     * that are about to be shadowed anyway.
+     */
+    @Override
+    public synchronized ClassNode put(String key, ClassNode value) {
+        ClassNode previous = overlay.put(key, value);
+        if (previous == null && !removed.remove(key)) {
+            previous = getIfLoaded(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized ClassNode remove(Object key) {
+        ClassNode previous = overlay.remove(key);
+        if (libraryIndex.contains(key) && removed.add((String) key) && previous == null) {
+            previous = getIfLoaded(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        overlay.clear();
+        removed.addAll(libraryIndex.names(false));
+    }
+
+    @Override
+    public synchronized int size() {
+        int size = overlay.size();
+        for (String name : libraryIndex.names(false)) {
+            if (!overlay.containsKey(name) && !removed.contains(name)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, ClassNode>> entrySet() {
+        List<String> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(overlay.keySet());
+            for (String name : libraryIndex.names(false)) {
+                if (!overlay.containsKey(name) && !removed.contains(name)) {
+                    keys.add(name);
+                }
+            }
+        }
+        return new LazyEntrySet(keys, this, true);
+    }
+
+    /**
+     * Entry set over a snapshot of keys whose values are only looked up (and parsed) when requested
+     */
+    private static class LazyEntrySet extends AbstractSet<Map.Entry<String, ClassNode>> {
+        private final List<String> keys;
+        private final Map<String, ClassNode> backing;
+        private final boolean mutable;
+
+        private LazyEntrySet(List<String> keys, Map<String, ClassNode> backing, boolean mutable) {
+            this.keys = keys;
+            this.backing = backing;
+            this.mutable = mutable;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, ClassNode>> iterator() {
+            Iterator<String> it = keys.iterator();
+            return new Iterator<Map.Entry<String, ClassNode>>() {
+                private String last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, ClassNode> next() {
+                    last = it.next();
+                    String key = last;
+                    return new AbstractMap.SimpleEntry<String, ClassNode>(key, null) {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        public ClassNode getValue() {
+                            return backing.get(key);
+                        }
+
+                        @Override
+                        public ClassNode setValue(ClassNode value) {
+                            if (!mutable) {
+                                throw new UnsupportedOperationException();
+                            }
+                            return backing.put(key, value);
+                        }
+                    };
+                }
+
+                @Override
+                public void remove() {
+                    if (!mutable) {
+                        throw new UnsupportedOperationException();
+                    }
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    it.remove();
+                    backing.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.size();
+        }
+    }
+}
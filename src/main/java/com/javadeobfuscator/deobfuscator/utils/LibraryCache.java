@@ -0,0 +1,318 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.javadeobfuscator.deobfuscator.asm.ClassInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of library jar indexes and class skeletons, so repeated runs against the same libraries neither scan their central directories
+ * nor parse their classes again.
+ * <p>
+ * Every jar gets one file named after a hash of its canonical path. The file records the size and modification time of the jar it was built
+ * from and is discarded as soon as either changes. Cache files are read whole rather than memory-mapped, so that they can be replaced while
+ * an index built from them is in use, and skeletons are only decoded when requested. A cache file which turns out to be truncated or
+ * corrupt is ignored, and the jar is read instead.
+ * <p>
+ * Layout: header (magic, version, jar size, jar mtime), string table, class table (name, entry name and skeleton offset per class), then the
+ * encoded skeletons. All strings are stored once in the string table and referenced by index.
+ */
+public class LibraryCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LibraryCache.class);
+
+    private static final int MAGIC = 0xDE0BCA5E;
+    private static final int VERSION = 2;
+
+    private final File directory;
+
+    public LibraryCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cached index of the given jar, or null if there is none or it is out of date
+     */
+    public Entry load(File jar) {
+        File file = getCacheFile(jar);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != jar.length() || buffer.getLong() != jar.lastModified()) {
+                LOGGER.info("Discarding stale library cache for {}", jar);
+                Files.deleteIfExists(file.toPath());
+                return null;
+            }
+            String[] strings = new String[checkCount(buffer.getInt(), buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[checkCount(buffer.getInt(), buffer)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8).intern();
+            }
+            int classCount = checkCount(buffer.getInt(), buffer);
+            Map<String, String> entries = new LinkedHashMap<>(classCount * 2);
+            Map<String, Integer> offsets = new ConcurrentHashMap<>(classCount * 2);
+            int[] classOffsets = new int[classCount];
+            for (int i = 0; i < classCount; i++) {
+                String name = strings[buffer.getInt()];
+                String entryName = strings[buffer.getInt()];
+                if (name == null || entryName == null) {
+                    throw new IOException("Null class or entry name");
+                }
+                entries.put(name, entryName);
+                classOffsets[i] = buffer.getInt();
+                if (classOffsets[i] >= 0) {
+                    offsets.put(name, classOffsets[i]);
+                }
+            }
+            ByteBuffer data = buffer.slice();
+            for (int offset : classOffsets) {
+                if (offset >= data.limit()) {
+                    throw new IOException("Skeleton offset " + offset + " is past the end of the data");
+                }
+            }
+            return new Entry(jar, entries, offsets, strings, data);
+        } catch (Exception ex) {
+            LOGGER.warn("Could not read library cache for " + jar + ", ignoring it", ex);
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return the count, if there are at least as many bytes left
+     */
+    private static int checkCount(int count, ByteBuffer buffer) throws IOException {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IOException("Count " + count + " exceeds the " + buffer.remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the cache file for the given jar. Skeletons may be missing for any number of classes, they are read from the jar as usual and
+     * stored the next time.
+     *
+     * @param entries   class names mapped to their jar entry names
+     * @param skeletons known skeletons by class name
+     */
+    public void store(File jar, Map<String, String> entries, Map<String, ClassInfo> skeletons) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create library cache directory " + directory);
+        }
+        StringTable strings = new StringTable();
+        List<String> names = new ArrayList<>(entries.keySet());
+        int[] offsets = new int[names.size()];
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(data);
+        for (int i = 0; i < names.size(); i++) {
+            ClassInfo info = skeletons.get(names.get(i));
+            if (info == null) {
+                offsets[i] = -1;
+                continue;
+            }
+            offsets[i] = dataOut.size();
+            dataOut.writeInt(info.access);
+            dataOut.writeInt(strings.ref(info.name));
+            dataOut.writeInt(strings.ref(info.superName));
+            dataOut.writeInt(info.interfaces.size());
+            for (String interfaceName : info.interfaces) {
+                dataOut.writeInt(strings.ref(interfaceName));
+            }
+            writeMembers(dataOut, strings, info.fields);
+            writeMembers(dataOut, strings, info.methods);
+        }
+        for (String name : names) {
+            strings.ref(name);
+            strings.ref(entries.get(name));
+        }
+
+        File file = getCacheFile(jar);
+        // A temp file of our own, as other processes may be updating the same cache file
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(jar.length());
+                out.writeLong(jar.lastModified());
+                out.writeInt(strings.values.size());
+                for (String value : strings.values) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                out.writeInt(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    out.writeInt(strings.ref(names.get(i)));
+                    out.writeInt(strings.ref(entries.get(names.get(i))));
+                    out.writeInt(offsets[i]);
+                }
+                data.writeTo(out);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writeMembers(DataOutputStream out, StringTable strings, List<ClassInfo.Member> members) throws IOException {
+        out.writeInt(members.size());
+        for (ClassInfo.Member member : members) {
+            out.writeInt(member.access);
+            out.writeInt(strings.ref(member.name));
+            out.writeInt(strings.ref(member.desc));
+        }
+    }
+
+    private File getCacheFile(File jar) {
+        String path;
+        try {
+            path = jar.getCanonicalPath();
+        } catch (IOException ex) {
+            path = jar.getAbsolutePath();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(path.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return new File(directory, name.append(".idx").toString());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The cached index of one jar
+     */
+    public static class Entry {
+        private final File jar;
+        private final Map<String, String> entries;
+        private final Map<String, Integer> offsets;
+        private final String[] strings;
+        private final ByteBuffer data;
+
+        private Entry(File jar, Map<String, String> entries, Map<String, Integer> offsets, String[] strings, ByteBuffer data) {
+            this.jar = jar;
+            this.entries = entries;
+            this.offsets = offsets;
+            this.strings = strings;
+            this.data = data;
+        }
+
+        /**
+         * @return class names mapped to their jar entry names, in jar order
+         */
+        public Map<String, String> getEntries() {
+            return Collections.unmodifiableMap(entries);
+        }
+
+        /**
+         * @return the cached skeleton of the given class, or null if it was never read or its record is corrupt
+         */
+        public ClassInfo getInfo(String name) {
+            Integer offset = offsets.get(name);
+            if (offset == null) {
+                return null;
+            }
+            try {
+                return decode(offset);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Corrupt library cache record for " + name + " in " + jar + ", reading the jar instead", ex);
+                offsets.remove(name);
+                return null;
+            }
+        }
+
+        private ClassInfo decode(int offset) {
+            ByteBuffer in = data.duplicate();
+            in.position(offset);
+            int access = in.getInt();
+            String className = string(in.getInt());
+            String superName = string(in.getInt());
+            String[] interfaces = new String[in.getInt()];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = string(in.getInt());
+            }
+            List<ClassInfo.Member> fields = readMembers(in);
+            List<ClassInfo.Member> methods = readMembers(in);
+            return new ClassInfo(access, className, superName,
+                    interfaces.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(interfaces)), fields, methods);
+        }
+
+        /**
+         * Decodes every cached skeleton
+         */
+        public Map<String, ClassInfo> getInfos() {
+            Map<String, ClassInfo> infos = new HashMap<>(offsets.size() * 2);
+            for (String name : offsets.keySet()) {
+                ClassInfo info = getInfo(name);
+                if (info != null) {
+                    infos.put(name, info);
+                }
+            }
+            return infos;
+        }
+
+        private List<ClassInfo.Member> readMembers(ByteBuffer in) {
+            int count = in.getInt();
+            if (count == 0) {
+                return Collections.emptyList();
+            }
+            ClassInfo.Member[] members = new ClassInfo.Member[count];
+            for (int i = 0; i < count; i++) {
+                members[i] = new ClassInfo.Member(in.getInt(), string(in.getInt()), string(in.getInt()));
+            }
+            return Collections.unmodifiableList(Arrays.asList(members));
+        }
+
+        private String string(int ref) {
+            return ref < 0 ? null : strings[ref];
+        }
+    }
+
+    private static class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int ref(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = values.size();
+                refs.put(value, ref);
+                values.add(value);
+            }
+            return ref;
+        }
+    }
+}
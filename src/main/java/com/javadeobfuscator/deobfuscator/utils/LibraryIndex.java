@@ -0,0 +1,303 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.javadeobfuscator.deobfuscator.asm.ClassInfo;
+import com.javadeobfuscator.deobfuscator.asm.ConstantPool;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The read-only part of a {@link LazyClasspath}: an index of the classes in path and library jars, a bounded LRU cache of parsed classes and the
+ * {@link ClassInfo} skeletons read so far.
+ * <p>
+ * The index maps class names, as read from the header of each class when its jar is indexed, to jar entries, so classes are found whatever
+ * the path of their entry is, such as under {@code BOOT-INF/classes/} or renamed by an obfuscator. It is safe to share between several
+ * {@link LazyClasspath}s, which is how batch runs load their libraries only once. Classes handed out from here must not be modified. A class
+ * evicted from the cache is parsed into a new node when it is next requested, which is why each {@link LazyClasspath} pins the nodes it has
+ * handed out.
+ * <p>
+ * With a {@link LibraryCache}, jars whose cache file is up to date are indexed from the cache instead of their classes, and skeletons
+ * read during the run are written back on {@link #close()}.
+ */
+public class LibraryIndex implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LibraryIndex.class);
+
+    private final Map<String, Location> index = new HashMap<>();
+    private final Map<String, Loaded> cache;
+    private final Map<String, ClassInfo> skeletons = new HashMap<>();
+    private final List<Source> sources = new ArrayList<>();
+    private final LibraryCache libraryCache;
+
+    /**
+     * @param cacheSize    maximum number of parsed classes to keep
+     * @param libraryCache persistent cache of jar indexes and skeletons, or null
+     */
+    public LibraryIndex(int cacheSize, LibraryCache libraryCache) {
+        this.cache = new LinkedHashMap<String, Loaded>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Loaded> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.libraryCache = libraryCache;
+    }
+
+    /**
+     * Adds every class in the given jar to the index. Classes indexed later take precedence over earlier ones.
+     *
+     * @param library whether the jar was given as a library (as opposed to a path entry)
+     */
+    public synchronized void index(File file, boolean library) throws IOException {
+        Source source = new Source(file);
+        LibraryCache.Entry cached = libraryCache != null ? libraryCache.load(file) : null;
+        if (cached != null) {
+            source.cached = cached;
+            source.entries = cached.getEntries();
+        } else {
+            Map<String, String> entries = new LinkedHashMap<>();
+            try (ZipFile zipFile = new ZipFile(file)) {
+                Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+                while (zipEntries.hasMoreElements()) {
+                    ZipEntry entry = zipEntries.nextElement();
+                    String name = entry.getName();
+                    // Multi-release variants would shadow the base class under the same name
+                    if (entry.isDirectory() || !name.endsWith(".class") || name.startsWith("META-INF/")) {
+                        continue;
+                    }
+                    String className;
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        className = new ClassReader(in).getClassName();
+                    } catch (Exception ex) {
+                        LOGGER.warn("Could not read class " + name + " from library " + file, ex);
+                        continue;
+                    }
+                    entries.put(className, name);
+                }
+            }
+            source.entries = entries;
+            source.dirty = libraryCache != null;
+        }
+        source.entries.forEach((className, entryName) -> {
+            index.put(className, new Location(source, entryName, library));
+            cache.remove(className);
+            skeletons.remove(className);
+        });
+        sources.add(source);
+    }
+
+    public synchronized boolean contains(Object name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * @return whether the class with the given name was indexed from a library jar
+     */
+    public synchronized boolean isLibrary(Object name) {
+        Location location = index.get(name);
+        return location != null && location.library;
+    }
+
+    /**
+     * @return a snapshot of the indexed class names, optionally only those from library jars
+     */
+    public synchronized List<String> names(boolean librariesOnly) {
+        List<String> names = new ArrayList<>(index.size());
+        index.forEach((name, location) -> {
+            if (!librariesOnly || location.library) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    /**
+     * @return the class header, or null if the class is unknown
+     */
+    public ClassInfo getInfo(String name) {
+        Location location;
+        synchronized (this) {
+            ClassInfo info = skeletons.get(name);
+            if (info != null) {
+                return info;
+            }
+            location = index.get(name);
+            if (location == null) {
+                return null;
+            }
+        }
+        ClassInfo info = location.source.getCachedInfo(name);
+        if (info == null) {
+            try (InputStream in = location.source.getInputStream(location.entryName)) {
+                info = ClassInfo.read(new ClassReader(in));
+            } catch (Exception ex) {
+                unreadable(name, location, ex);
+                return null;
+            }
+            location.source.learn(name, info);
+        }
+        synchronized (this) {
+            ClassInfo existing = skeletons.putIfAbsent(name, info);
+            return existing != null ? existing : info;
+        }
+    }
+
+    /**
+     * @return the parsed class with its constant pool, or null if the class is unknown
+     */
+    Loaded load(Object name) {
+        Location location;
+        synchronized (this) {
+            Loaded cached = cache.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            location = index.get(name);
+            if (location == null) {
+                return null;
+            }
+        }
+        Loaded loaded;
+        try (InputStream in = location.source.getInputStream(location.entryName)) {
+            ClassReader reader = new ClassReader(in);
+            ClassNode node = new ClassNode();
+            reader.accept(node, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            loaded = new Loaded(node, new ConstantPool(reader));
+        } catch (Exception ex) {
+            unreadable((String) name, location, ex);
+            return null;
+        }
+        synchronized (this) {
+            // Another thread may have won the race, keep a single instance per class
+            Loaded cached = cache.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            cache.put((String) name, loaded);
+        }
+        return loaded;
+    }
+
+    private void unreadable(String name, Location location, Exception ex) {
+        LOGGER.warn("Could not load class " + location.entryName + " from library " + location.source.file, ex);
+        synchronized (this) {
+            if (index.get(name) == location) {
+                index.remove(name);
+            }
+        }
+    }
+
+    /**
+     * @return the parsed class if it is currently cached, without parsing it otherwise
+     */
+    synchronized ClassNode getIfCached(Object name) {
+        Loaded cached = cache.get(name);
+        return cached != null ? cached.node : null;
+    }
+
+    /**
+     * Closes all open jars and updates the library cache. Jars are reopened if another class is requested afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (Source source : sources) {
+            source.close();
+            if (libraryCache != null) {
+                source.store(libraryCache);
+            }
+        }
+    }
+
+    static class Loaded {
+        final ClassNode node;
+        final ConstantPool constantPool;
+
+        private Loaded(ClassNode node, ConstantPool constantPool) {
+            this.node = node;
+            this.constantPool = constantPool;
+        }
+    }
+
+    private static class Location {
+        private final Source source;
+        private final String entryName;
+        private final boolean library;
+
+        private Location(Source source, String entryName, boolean library) {
+            this.source = source;
+            this.entryName = entryName;
+            this.library = library;
+        }
+    }
+
+    private static class Source {
+        private final File file;
+        private ZipFile zipFile;
+        /**
+         * Class names mapped to entry names, as indexed
+         */
+        private Map<String, String> entries;
+        private LibraryCache.Entry cached;
+        /**
+         * Skeletons read from the jar itself during this run
+         */
+        private final Map<String, ClassInfo> learned = new HashMap<>();
+        private boolean dirty;
+
+        private Source(File file) {
+            this.file = file;
+        }
+
+        private ClassInfo getCachedInfo(String name) {
+            return cached != null ? cached.getInfo(name) : null;
+        }
+
+        private synchronized void learn(String name, ClassInfo info) {
+            learned.put(name, info);
+            dirty = true;
+        }
+
+        private synchronized void store(LibraryCache libraryCache) {
+            if (!dirty) {
+                return;
+            }
+            Map<String, ClassInfo> infos = cached != null ? cached.getInfos() : new HashMap<>();
+            infos.putAll(learned);
+            try {
+                libraryCache.store(file, entries, infos);
+                dirty = false;
+            } catch (IOException ex) {
+                LOGGER.warn("Could not update library cache for " + file, ex);
+            }
+        }
+
+        private synchronized InputStream getInputStream(String entryName) throws IOException {
+            if (zipFile == null) {
+                zipFile = new ZipFile(file);
+            }
+            ZipEntry entry = zipFile.getEntry(entryName);
+            if (entry == null) {
+                throw new IOException("Entry " + entryName + " disappeared from " + file);
+            }
+            return zipFile.getInputStream(entry);
+        }
+
+        private synchronized void close() throws IOException {
+            if (zipFile != null) {
+                zipFile.close();
+                zipFile = null;
+            }
+        }
+    }
+}
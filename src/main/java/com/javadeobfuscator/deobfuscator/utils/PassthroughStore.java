@@ -0,0 +1,419 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the non-class entries of the input which are passed through to the output.
+ * <p>
+ * Entries taken from the input jar with {@link #putRaw(String)} are only recorded by their location in the archive. They are read the first
+ * time someone asks for their value, and copied to the output still compressed, with their original CRC and sizes, as long as their content
+ * did not change. Entries put with {@link #put(String, byte[])} behave like in a regular map.
+ * <p>
+ * The central directory of the input is parsed by hand since {@link java.util.zip.ZipFile} does not expose entry offsets. If the input cannot
+ * be parsed (which some obfuscators make sure of), no entry is stored raw and everything is read the usual way instead.
+ */
+public class PassthroughStore extends AbstractMap<String, byte[]> implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PassthroughStore.class);
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END = 0x06054b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private final Map<String, Slot> slots = new HashMap<>();
+    private File archive;
+    private Map<String, RawLocation> locations = Collections.emptyMap();
+    private FileChannel channel;
+
+    /**
+     * Reads the central directory of the input archive, so that its entries can be put with {@link #putRaw(String)}
+     */
+    public void open(File archive) {
+        this.archive = archive;
+        try {
+            this.locations = readCentralDirectory(archive);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.debug("Could not index {}, passthrough entries will be read in full", archive, ex);
+            this.locations = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Checks that an entry of the input archive can be stored raw. This reads its local header, but not its data.
+     *
+     * @return whether {@link #putRaw(String)} will accept the entry
+     */
+    public boolean canPutRaw(String name) {
+        RawLocation location = locations.get(name);
+        if (location == null) {
+            return false;
+        }
+        if (location.dataOffset < 0) {
+            try {
+                ByteBuffer header = read(location.headerOffset, 30);
+                if (header.getInt(0) != LOCAL_HEADER) {
+                    locations.remove(name);
+                    return false;
+                }
+                int nameLength = header.getShort(26) & 0xFFFF;
+                int extraLength = header.getShort(28) & 0xFFFF;
+                byte[] localName = new byte[nameLength];
+                read(location.headerOffset + 30, nameLength).get(localName);
+                if (!name.equals(new String(localName, StandardCharsets.UTF_8))) {
+                    locations.remove(name);
+                    return false;
+                }
+                location.dataOffset = location.headerOffset + 30 + nameLength + extraLength;
+            } catch (IOException | RuntimeException ex) {
+                locations.remove(name);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores an entry of the input archive without reading it. {@link #canPutRaw(String)} must have returned true for it.
+     */
+    public void putRaw(String name) {
+        if (!canPutRaw(name)) {
+            throw new IllegalArgumentException(name + " cannot be stored raw");
+        }
+        slots.put(name, new Slot(locations.get(name), null));
+    }
+
+    @Override
+    public byte[] get(Object key) {
+        Slot slot = slots.get(key);
+        return slot == null ? null : materialize((String) key, slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slots.containsKey(key);
+    }
+
+    /**
+     * Unlike a regular map, this only returns the previous value if it was already read, to avoid reading entries that are being replaced
+     */
+    @Override
+    public byte[] put(String key, byte[] value) {
+        Slot previous = slots.put(key, new Slot(null, value));
+        return previous == null ? null : previous.data;
+    }
+
+    /**
+     * Like {@link #put(String, byte[])}, this does not read the removed entry if it was never read before
+     */
+    @Override
+    public byte[] remove(Object key) {
+        Slot previous = slots.remove(key);
+        return previous == null ? null : previous.data;
+    }
+
+    @Override
+    public void clear() {
+        slots.clear();
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, byte[]>> entrySet() {
+        return new AbstractSet<Map.Entry<String, byte[]>>() {
+            @Override
+            public Iterator<Map.Entry<String, byte[]>> iterator() {
+                Iterator<Map.Entry<String, Slot>> it = slots.entrySet().iterator();
+                return new Iterator<Map.Entry<String, byte[]>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, byte[]> next() {
+                        Map.Entry<String, Slot> next = it.next();
+                        return new AbstractMap.SimpleEntry<String, byte[]>(next.getKey(), null) {
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            public byte[] getValue() {
+                                return materialize(next.getKey(), next.getValue());
+                            }
+
+                            @Override
+                            public byte[] setValue(byte[] value) {
+                                byte[] previous = getValue();
+                                next.setValue(new Slot(null, value));
+                                return previous;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return slots.size();
+            }
+        };
+    }
+
+    /**
+     * Writes an entry to the output. Raw entries whose content is still what was read from the input are copied compressed. Entries keep the
+     * time they had in the input.
+     */
+    public void writeTo(ZipWriter out, String name) throws IOException {
+        Slot slot = slots.get(name);
+        if (slot == null) {
+            return;
+        }
+        RawLocation raw = slot.raw;
+        if (raw != null && slot.data != null && !raw.matches(slot.data)) {
+            raw = null;
+        }
+        if (raw != null) {
+            // Not closed, that would close the channel
+            InputStream in = Channels.newInputStream(channel().position(raw.dataOffset));
+            out.copyRaw(name, raw.method, raw.flags, raw.dosTime, raw.crc, raw.compressedSize, raw.size, in);
+        } else {
+            byte[] data = materialize(name, slot);
+            if (data != null) {
+                RawLocation original = locations.get(name);
+                out.write(name, data, original != null ? original.dosTime : ZipWriter.DOS_EPOCH);
+            }
+        }
+    }
+
+    private byte[] materialize(String name, Slot slot) {
+        if (slot.data == null && slot.raw != null) {
+            try {
+                slot.data = inflate(slot.raw);
+            } catch (IOException | DataFormatException ex) {
+                LOGGER.error("Could not read {} from {}", name, archive, ex);
+                slot.raw = null;
+            }
+        }
+        return slot.data;
+    }
+
+    private byte[] inflate(RawLocation location) throws IOException, DataFormatException {
+        if (location.compressedSize > Integer.MAX_VALUE || location.size > Integer.MAX_VALUE) {
+            throw new IOException("Entry too large");
+        }
+        ByteBuffer compressed = read(location.dataOffset, (int) location.compressedSize);
+        if (location.method == ZipWriter.STORED) {
+            byte[] data = new byte[compressed.remaining()];
+            compressed.get(data);
+            return data;
+        }
+        // Raw deflate streams may need one trailing byte to finish, like ZipFile supplies
+        byte[] input = new byte[compressed.remaining() + 1];
+        compressed.get(input, 0, input.length - 1);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) location.size);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated entry");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        FileChannel channel = channel();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("Unexpected end of " + archive);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = new RandomAccessFile(archive, "r").getChannel();
+        }
+        return channel;
+    }
+
+    /**
+     * Closes the input archive. It is reopened if another raw entry is read afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private Map<String, RawLocation> readCentralDirectory(File archive) throws IOException {
+        long length = archive.length();
+        int tailLength = (int) Math.min(length, 0xFFFF + 22);
+        ByteBuffer tail = read(length - tailLength, tailLength);
+        int end = -1;
+        for (int i = tailLength - 22; i >= 0; i--) {
+            if (tail.getInt(i) == END) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            throw new IOException("No end of central directory");
+        }
+        long entries = tail.getShort(end + 10) & 0xFFFF;
+        long centralSize = tail.getInt(end + 12) & MAX_32;
+        long centralOffset = tail.getInt(end + 16) & MAX_32;
+        if (entries == 0xFFFF || centralSize == MAX_32 || centralOffset == MAX_32) {
+            if (end < 20 || tail.getInt(end - 20) != ZIP64_LOCATOR) {
+                throw new IOException("Missing ZIP64 locator");
+            }
+            ByteBuffer zip64End = read(tail.getLong(end - 20 + 8), 56);
+            if (zip64End.getInt(0) != ZIP64_END) {
+                throw new IOException("Missing ZIP64 end of central directory");
+            }
+            entries = zip64End.getLong(32);
+            centralSize = zip64End.getLong(40);
+            centralOffset = zip64End.getLong(48);
+        }
+        if (centralSize > Integer.MAX_VALUE || centralOffset + centralSize > length) {
+            throw new IOException("Invalid central directory");
+        }
+
+        ByteBuffer central = read(centralOffset, (int) centralSize);
+        Map<String, RawLocation> locations = new HashMap<>();
+        int position = 0;
+        for (long i = 0; i < entries; i++) {
+            if (central.getInt(position) != CENTRAL_HEADER) {
+                throw new IOException("Invalid central directory entry");
+            }
+            int flags = central.getShort(position + 8) & 0xFFFF;
+            int method = central.getShort(position + 10) & 0xFFFF;
+            long dosTime = central.getInt(position + 12) & MAX_32;
+            long crc = central.getInt(position + 16) & MAX_32;
+            long compressedSize = central.getInt(position + 20) & MAX_32;
+            long size = central.getInt(position + 24) & MAX_32;
+            int nameLength = central.getShort(position + 28) & 0xFFFF;
+            int extraLength = central.getShort(position + 30) & 0xFFFF;
+            int commentLength = central.getShort(position + 32) & 0xFFFF;
+            long headerOffset = central.getInt(position + 42) & MAX_32;
+            byte[] nameBytes = new byte[nameLength];
+            central.position(position + 46);
+            central.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            int extra = position + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = central.getShort(extra) & 0xFFFF;
+                int dataLength = central.getShort(extra + 2) & 0xFFFF;
+                if (id == 0x0001) {
+                    int field = extra + 4;
+                    if (size == MAX_32) {
+                        size = central.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == MAX_32) {
+                        compressedSize = central.getLong(field);
+                        field += 8;
+                    }
+                    if (headerOffset == MAX_32) {
+                        headerOffset = central.getLong(field);
+                    }
+                }
+                extra += 4 + dataLength;
+            }
+            position = extraEnd + commentLength;
+
+            // Encrypted entries and exotic compression methods are left to ZipFile
+            if ((flags & 0x0001) == 0 && (method == ZipWriter.STORED || method == ZipWriter.DEFLATED)) {
+                locations.put(name, new RawLocation(method, flags, dosTime, crc, compressedSize, size, headerOffset));
+            } else {
+                locations.remove(name);
+            }
+        }
+        return locations;
+    }
+
+    private static class Slot {
+        private RawLocation raw;
+        private byte[] data;
+
+        private Slot(RawLocation raw, byte[] data) {
+            this.raw = raw;
+            this.data = data;
+        }
+    }
+
+    private static class RawLocation {
+        private final int method;
+        private final int flags;
+        private final long dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long headerOffset;
+        private long dataOffset = -1;
+
+        private RawLocation(int method, int flags, long dosTime, long crc, long compressedSize, long size, long headerOffset) {
+            this.method = method;
+            this.flags = flags;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+        }
+
+        /**
+         * @return whether the given data is (as far as the CRC can tell) what this entry holds
+         */
+        private boolean matches(byte[] data) {
+            if (data.length != size) {
+                return false;
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(data);
+            return checksum.getValue() == crc;
+        }
+    }
+}
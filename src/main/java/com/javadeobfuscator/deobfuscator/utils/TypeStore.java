@@ -1,47 +1,51 @@
 package com.javadeobfuscator.deobfuscator.utils;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 
-import com.javadeobfuscator.deobfuscator.executor.values.JavaObject;
+import com.google.common.collect.MapMaker;
+import com.javadeobfuscator.deobfuscator.executor.FieldSlots;
+import com.javadeobfuscator.deobfuscator.executor.providers.Provider;
 import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
 
-public class TypeStore
+/**
+ * Remembers the types of the values stored in emulated fields, which the field providers only keep as plain objects. The types belong with
+ * the values, so there is one store per provider, shared by every {@link com.javadeobfuscator.deobfuscator.executor.Context} emulating on
+ * it, and it lives as long as the provider does. Objects are only weakly referenced, and {@link #close()} drops everything at once.
+ */
+public class TypeStore implements AutoCloseable
 {
-	 private static final Map<String, Entry<Object, String>> staticFields = Collections.synchronizedMap(new HashMap<>());
-	 private static final Map<Object, Map<String, Entry<Object, String>>> instanceFields = new ConcurrentHashMap<>();
-	 public static final Map<Long, JavaObject> returnObjects = new ConcurrentHashMap<>();
+	 private static final Map<Provider, TypeStore> STORES = new MapMaker().weakKeys().makeMap();
+
+	 private final FieldSlots<Entry<Object, String>> fields = new FieldSlots<>();
+
+	 /**
+	  * @return the store for the fields held by the given provider
+	  */
+	 public static TypeStore of(Provider provider) {
+		 if (provider == null) {
+			 return new TypeStore();
+		 }
+		 return STORES.computeIfAbsent(provider, p -> new TypeStore());
+	 }
 	 
-	 public static Entry<Object, String> getFieldFromStore(String className, String fieldName, String fieldDesc, JavaValue targetObject) {
+	 public synchronized Entry<Object, String> getFieldFromStore(String className, String fieldName, String fieldDesc, JavaValue targetObject) {
 		 if (targetObject == null) {
-			 return staticFields.get(className + fieldName + fieldDesc);
-		 } else {
-			 synchronized (instanceFields) {
-				 Map<String, Entry<Object, String>> field = instanceFields.get(targetObject.value());
-				 if (field != null) {
-					 return field.get(className + fieldName + fieldDesc);
-				 }
-			 }
-			 
-			 return null;
+			 return fields.getStatic(className, fieldName, fieldDesc);
 		 }
+		 return fields.getInstance(className, fieldName, fieldDesc, targetObject.value());
 	 }
 
-	 public static void setFieldToStore(String className, String fieldName, String fieldDesc, JavaValue targetObject, Entry<Object, String> value) {
+	 public synchronized void setFieldToStore(String className, String fieldName, String fieldDesc, JavaValue targetObject, Entry<Object, String> value) {
 		 if (targetObject == null) {
-			 staticFields.put(className + fieldName + fieldDesc, value);
+			 fields.setStatic(className, fieldName, fieldDesc, value);
 		 } else {
-			 synchronized (instanceFields) {
-				 Map<String, Entry<Object, String>> field = instanceFields.get(targetObject.value());
-				 if (field == null) {
-					 field = new HashMap<>();
-				 }
-				 field.put(className + fieldName + fieldDesc, value);
-				 instanceFields.put(targetObject.value(), field);
-			 }
+			 fields.setInstance(className, fieldName, fieldDesc, targetObject.value(), value);
 		 }
 	 }
+
+	 @Override
+	 public synchronized void close() {
+		 fields.clear();
+	 }
 }
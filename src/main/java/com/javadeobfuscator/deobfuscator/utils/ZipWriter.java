@@ -0,0 +1,266 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal ZIP writer which, unlike {@link java.util.zip.ZipOutputStream}, can copy already compressed entries from another archive without
+ * inflating and deflating them again.
+ * <p>
+ * Every entry is written with its sizes and CRC in the local header, so no data descriptors are used. Names are always stored as UTF-8. ZIP64
+ * records are added only when an entry, offset or the entry count needs them. Entries are never stamped with the current time, so the same
+ * input always gives the same bytes, and like {@link java.util.zip.ZipOutputStream}, a name can only be written once.
+ */
+public class ZipWriter implements Closeable {
+
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+    /**
+     * 1980-01-01 00:00, the earliest time the format can hold
+     */
+    public static final long DOS_EPOCH = (1 << 21) | (1 << 16);
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END = 0x06054b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final List<Written> written = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+
+    public ZipWriter(File file) throws IOException {
+        this.counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.out = new DataOutputStream(counter);
+    }
+
+    /**
+     * Deflates and writes an entry, stamped with {@link #DOS_EPOCH}.
+     */
+    public void write(String name, byte[] data) throws IOException {
+        write(name, data, DOS_EPOCH);
+    }
+
+    /**
+     * Deflates and writes an entry.
+     *
+     * @param dosTime modification time and date in MS-DOS format, time in the low 16 bits
+     */
+    public void write(String name, byte[] data, long dosTime) throws IOException {
+        checkName(name);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            compressed.write(buffer, 0, length);
+        }
+        Written entry = new Written(name, DEFLATED, 0, dosTime, crc.getValue(), compressed.size(), data.length);
+        writeLocalHeader(entry);
+        compressed.writeTo(out);
+    }
+
+    /**
+     * Writes an entry whose data is already compressed with the given method, copying exactly {@code compressedSize} bytes from {@code data}.
+     *
+     * @param flags   general purpose flags of the original entry, only the compression option bits are kept
+     * @param dosTime modification time and date in MS-DOS format, time in the low 16 bits
+     */
+    public void copyRaw(String name, int method, int flags, long dosTime, long crc, long compressedSize, long size, InputStream data)
+            throws IOException {
+        checkName(name);
+        Written entry = new Written(name, method, flags & 0x0006, dosTime, crc, compressedSize, size);
+        writeLocalHeader(entry);
+        byte[] buffer = new byte[8192];
+        long remaining = compressedSize;
+        while (remaining > 0) {
+            int read = data.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new IOException("Unexpected end of data for " + name);
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private void checkName(String name) throws ZipException {
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+    }
+
+    private void writeLocalHeader(Written entry) throws IOException {
+        entry.offset = counter.count;
+        boolean zip64 = entry.compressedSize >= MAX_32 || entry.size >= MAX_32;
+        out.writeInt(Integer.reverseBytes(LOCAL_HEADER));
+        writeShort(zip64 ? 45 : 20);
+        writeShort(entry.flags | UTF8_FLAG);
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(zip64 ? MAX_32 : entry.compressedSize);
+        writeInt(zip64 ? MAX_32 : entry.size);
+        writeShort(entry.name.length);
+        writeShort(zip64 ? 20 : 0);
+        out.write(entry.name);
+        if (zip64) {
+            writeShort(0x0001);
+            writeShort(16);
+            writeLong(entry.size);
+            writeLong(entry.compressedSize);
+        }
+        written.add(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long centralOffset = counter.count;
+            for (Written entry : written) {
+                boolean size64 = entry.size >= MAX_32;
+                boolean compressedSize64 = entry.compressedSize >= MAX_32;
+                boolean offset64 = entry.offset >= MAX_32;
+                int extra = (size64 ? 8 : 0) + (compressedSize64 ? 8 : 0) + (offset64 ? 8 : 0);
+                out.writeInt(Integer.reverseBytes(CENTRAL_HEADER));
+                writeShort(extra > 0 ? 45 : 20);
+                writeShort(extra > 0 ? 45 : 20);
+                writeShort(entry.flags | UTF8_FLAG);
+                writeShort(entry.method);
+                writeInt(entry.dosTime);
+                writeInt(entry.crc);
+                writeInt(compressedSize64 ? MAX_32 : entry.compressedSize);
+                writeInt(size64 ? MAX_32 : entry.size);
+                writeShort(entry.name.length);
+                writeShort(extra > 0 ? extra + 4 : 0);
+                writeShort(0); // comment
+                writeShort(0); // disk
+                writeShort(0); // internal attributes
+                writeInt(0); // external attributes
+                writeInt(offset64 ? MAX_32 : entry.offset);
+                out.write(entry.name);
+                if (extra > 0) {
+                    writeShort(0x0001);
+                    writeShort(extra);
+                    if (size64) {
+                        writeLong(entry.size);
+                    }
+                    if (compressedSize64) {
+                        writeLong(entry.compressedSize);
+                    }
+                    if (offset64) {
+                        writeLong(entry.offset);
+                    }
+                }
+            }
+            long centralSize = counter.count - centralOffset;
+            boolean zip64 = written.size() >= MAX_16 || centralOffset >= MAX_32 || centralSize >= MAX_32;
+            if (zip64) {
+                long zip64EndOffset = counter.count;
+                out.writeInt(Integer.reverseBytes(ZIP64_END));
+                writeLong(44);
+                writeShort(45);
+                writeShort(45);
+                writeInt(0);
+                writeInt(0);
+                writeLong(written.size());
+                writeLong(written.size());
+                writeLong(centralSize);
+                writeLong(centralOffset);
+                out.writeInt(Integer.reverseBytes(ZIP64_LOCATOR));
+                writeInt(0);
+                writeLong(zip64EndOffset);
+                writeInt(1);
+            }
+            out.writeInt(Integer.reverseBytes(END));
+            writeShort(0);
+            writeShort(0);
+            writeShort(zip64 ? MAX_16 : written.size());
+            writeShort(zip64 ? MAX_16 : written.size());
+            writeInt(zip64 ? MAX_32 : centralSize);
+            writeInt(zip64 ? MAX_32 : centralOffset);
+            writeShort(0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.writeShort(Short.reverseBytes((short) value));
+    }
+
+    private void writeInt(long value) throws IOException {
+        out.writeInt(Integer.reverseBytes((int) value));
+    }
+
+    private void writeLong(long value) throws IOException {
+        out.writeLong(Long.reverseBytes(value));
+    }
+
+    private static class Written {
+        private final byte[] name;
+        private final int method;
+        private final int flags;
+        private final long dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private long offset;
+
+        private Written(String name, int method, int flags, long dosTime, long crc, long compressedSize, long size) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.method = method;
+            this.flags = flags;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
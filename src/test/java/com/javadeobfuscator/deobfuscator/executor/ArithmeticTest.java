@@ -0,0 +1,80 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaDouble;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaFloat;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaLong;
+
+/**
+ * Emulated arithmetic has to give what the JVM gives
+ */
+public class ArithmeticTest {
+    @Test
+    public void countersStartedWithSmallConstantsKeepTheirIncrements() {
+        Context context = Emulation.context(Arithmetic.class);
+        assertEquals(Arithmetic.bytePushedCounter(), (int) Emulation.<Integer>call(context, Arithmetic.class, "bytePushedCounter"));
+        assertEquals(Arithmetic.shortPushedCounter(), (int) Emulation.<Integer>call(context, Arithmetic.class, "shortPushedCounter"));
+    }
+
+    @Test
+    public void integerAndLongMathWraps() {
+        Context context = Emulation.context(Arithmetic.class);
+        for (int x : new int[]{0, 1, -1, 31, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(Arithmetic.ints(x), (int) Emulation.<Integer>call(context, Arithmetic.class, "ints", new JavaInteger(x)));
+            assertEquals(Arithmetic.longs(x * 31L), (long) Emulation.<Long>call(context, Arithmetic.class, "longs", new JavaLong(x * 31L)));
+        }
+    }
+
+    @Test
+    public void floatingComparisonsTreatZerosAsEqualAndNanAsUnordered() {
+        Context context = Emulation.context(Arithmetic.class);
+        float[] floats = {0.0f, -0.0f, 1.5f, Float.NaN};
+        double[] doubles = {0.0, -0.0, 1.5, Double.NaN};
+        for (int i = 0; i < floats.length; i++) {
+            for (int j = 0; j < floats.length; j++) {
+                assertEquals(Arithmetic.compareFloats(floats[i], floats[j]),
+                        (int) Emulation.<Integer>call(context, Arithmetic.class, "compareFloats", new JavaFloat(floats[i]), new JavaFloat(floats[j])));
+                assertEquals(Arithmetic.compareDoubles(doubles[i], doubles[j]),
+                        (int) Emulation.<Integer>call(context, Arithmetic.class, "compareDoubles", new JavaDouble(doubles[i]), new JavaDouble(doubles[j])));
+            }
+        }
+    }
+
+    public static class Arithmetic {
+        static int bytePushedCounter() {
+            int total = 0;
+            for (int i = 5; i < 100; i++) {
+                total += i;
+            }
+            return total;
+        }
+
+        static int shortPushedCounter() {
+            int total = 0;
+            for (int i = 1000; i < 1010; i += 3) {
+                total ^= i;
+            }
+            return total;
+        }
+
+        static int ints(int x) {
+            return (x * 31 + 7) ^ (x >>> 3) ^ (x << 5) ^ (x >> 2) - (x % 7 == 0 ? 1 : x / 7);
+        }
+
+        static long longs(long x) {
+            return (x * 0x9E3779B97F4A7C15L + 11) ^ (x >>> 17) ^ (x << 9) ^ (x >> 2);
+        }
+
+        static int compareFloats(float a, float b) {
+            return (a < b ? 1 : 0) | (a > b ? 2 : 0) | (a == b ? 4 : 0) | (a <= b ? 8 : 0) | (a >= b ? 16 : 0);
+        }
+
+        static int compareDoubles(double a, double b) {
+            return (a < b ? 1 : 0) | (a > b ? 2 : 0) | (a == b ? 4 : 0) | (a <= b ? 8 : 0) | (a >= b ? 16 : 0);
+        }
+    }
+}
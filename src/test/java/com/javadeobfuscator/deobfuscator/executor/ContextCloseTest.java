@@ -0,0 +1,37 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+public class ContextCloseTest {
+    @Test
+    public void closeForgetsInitializedClasses() {
+        Context context = Emulation.context(Counter.class);
+        ClassNode classNode = context.dictionary.get(Type.getInternalName(Counter.class));
+        MethodNode clinit = Emulation.method(classNode, "<clinit>");
+        StaticSnapshot.initialize(classNode, clinit, context);
+        assertEquals(1, (int) Emulation.call(context, Counter.class, "next"));
+        assertEquals(2, (int) Emulation.call(context, Counter.class, "next"));
+
+        context.close();
+        assertTrue(context.staticSnapshots.isEmpty());
+        assertTrue(context.clinit.isEmpty());
+        // Field values stay with the provider until the class is initialized again
+        assertEquals(3, (int) Emulation.call(context, Counter.class, "next"));
+        StaticSnapshot.initialize(classNode, clinit, context);
+        assertEquals(1, (int) Emulation.call(context, Counter.class, "next"));
+    }
+
+    public static class Counter {
+        static int count = 0;
+
+        static int next() {
+            return ++count;
+        }
+    }
+}
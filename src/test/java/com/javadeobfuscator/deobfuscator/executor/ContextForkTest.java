@@ -0,0 +1,99 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+public class ContextForkTest {
+    private static final String OWNER = Type.getInternalName(Counter.class);
+
+    @Test(timeout = 30000)
+    public void forksRunInParallelWithHeapsOfTheirOwn() throws Exception {
+        Context template = Emulation.context(Counter.class);
+        Emulation.call(template, Counter.class, "next");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Context fork = template.fork(Emulation.provider(emulated(template)));
+                results.add(executor.submit(() -> {
+                    ClassNode classNode = fork.dictionary.get(OWNER);
+                    StaticSnapshot.initialize(classNode, Emulation.method(classNode, "<clinit>"), fork);
+                    List<Integer> counts = new ArrayList<>();
+                    for (int j = 0; j < 100; j++) {
+                        counts.add(Emulation.call(fork, Counter.class, "next"));
+                    }
+                    return counts;
+                }));
+            }
+            for (Future<List<Integer>> result : results) {
+                List<Integer> counts = result.get();
+                for (int j = 0; j < 100; j++) {
+                    assertEquals(j + 1, (int) counts.get(j));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, (int) Emulation.call(template, Counter.class, "next"));
+    }
+
+    @Test
+    public void forksShareCachesAndCopyLimits() {
+        Context template = Emulation.context(Counter.class);
+        template.invocationCache = new InvocationCache(true);
+        template.compiler = new MethodCompiler(10);
+        template.budget = new ExecutionBudget(1000, 0, 0, null);
+        template.profile = new ExecutionProfile();
+        Context fork = template.fork(Emulation.provider(emulated(template)));
+
+        assertSame(template.dictionary, fork.dictionary);
+        assertSame(template.invocationCache, fork.invocationCache);
+        assertSame(template.compiler, fork.compiler);
+        assertNotSame(template.budget, fork.budget);
+        assertNotSame(template.profile, fork.profile);
+        assertNotSame(template.threadStore, fork.threadStore);
+        assertNotSame(template.typeStore, fork.typeStore);
+        assertTrue(fork.clinit.isEmpty());
+        assertTrue(fork.staticSnapshots.isEmpty());
+    }
+
+    @Test
+    public void breakpointsOfForksAreTheirOwn() {
+        Context template = Emulation.context(Counter.class);
+        Context fork = template.fork(Emulation.provider(emulated(template)));
+        ClassNode classNode = template.dictionary.get(OWNER);
+        fork.breakpoint(Emulation.method(classNode, "next").instructions.getFirst(), info -> {
+        }, null);
+        assertTrue(fork.hasBreakpoints());
+        assertFalse(template.hasBreakpoints());
+    }
+
+    private static Map<String, ClassNode> emulated(Context context) {
+        Map<String, ClassNode> emulated = new HashMap<>();
+        emulated.put(OWNER, context.dictionary.get(OWNER));
+        return emulated;
+    }
+
+    public static class Counter {
+        static int count = 0;
+
+        static int next() {
+            return ++count;
+        }
+    }
+}
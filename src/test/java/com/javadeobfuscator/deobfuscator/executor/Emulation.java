@@ -0,0 +1,83 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.javadeobfuscator.deobfuscator.executor.defined.JVMComparisonProvider;
+import com.javadeobfuscator.deobfuscator.executor.defined.JVMMethodProvider;
+import com.javadeobfuscator.deobfuscator.executor.defined.MappedFieldProvider;
+import com.javadeobfuscator.deobfuscator.executor.defined.MappedMethodProvider;
+import com.javadeobfuscator.deobfuscator.executor.providers.DelegatingProvider;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+/**
+ * Emulates classes of the test sources, the way the string decryption transformers emulate the classes of an input.
+ */
+final class Emulation {
+    private Emulation() {
+    }
+
+    static ClassNode classNode(Class<?> clazz) {
+        String name = Type.getInternalName(clazz);
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(name + ".class")) {
+            ClassNode classNode = new ClassNode();
+            new ClassReader(in).accept(classNode, ClassReader.SKIP_FRAMES);
+            return classNode;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodNode method(ClassNode classNode, String name) {
+        return classNode.methods.stream().filter(method -> method.name.equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(classNode.name + "." + name));
+    }
+
+    /**
+     * @return a context which emulates the classes, with their static initializers already run. Everything else they call runs on the JVM.
+     */
+    static Context context(Class<?>... classes) {
+        Map<String, ClassNode> emulated = new HashMap<>();
+        for (Class<?> clazz : classes) {
+            ClassNode classNode = classNode(clazz);
+            emulated.put(classNode.name, classNode);
+        }
+        Context context = new Context(provider(emulated));
+        // Objects are created by looking up the fields of their class
+        context.dictionary = new HashMap<>(emulated);
+        context.dictionary.put("java/lang/Object", classNode(Object.class));
+        Map<String, ClassNode> dictionary = context.dictionary;
+        for (Class<?> clazz : classes) {
+            ClassNode classNode = dictionary.get(Type.getInternalName(clazz));
+            if (classNode.methods.stream().anyMatch(method -> method.name.equals("<clinit>"))) {
+                MethodExecutor.execute(classNode, method(classNode, "<clinit>"), Arrays.asList(), null, context);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @return a provider with a heap of its own, which emulates the classes of the dictionary
+     */
+    static DelegatingProvider provider(Map<String, ClassNode> emulated) {
+        DelegatingProvider provider = new DelegatingProvider();
+        provider.register(new MappedFieldProvider());
+        provider.register(new MappedMethodProvider(emulated));
+        provider.register(new JVMMethodProvider());
+        provider.register(new JVMComparisonProvider());
+        return provider;
+    }
+
+    static <T> T call(Context context, Class<?> owner, String name, JavaValue... args) {
+        ClassNode classNode = context.dictionary.get(Type.getInternalName(owner));
+        return MethodExecutor.execute(classNode, method(classNode, name), Arrays.asList(args), null, context);
+    }
+}
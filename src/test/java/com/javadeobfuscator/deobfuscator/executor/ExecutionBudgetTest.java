@@ -0,0 +1,87 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionBudgetExceededException;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+
+public class ExecutionBudgetTest {
+    @Test
+    public void instructionLimitAbortsLoops() {
+        Context context = Emulation.context(Loops.class);
+        AtomicLong aborts = new AtomicLong();
+        context.budget = new ExecutionBudget(10000, 0, 0, aborts);
+        assertEquals(100, (int) Emulation.call(context, Loops.class, "count", JavaInteger.of(100)));
+        expectAbort(context, "count", 1000000);
+        assertEquals(1, aborts.get());
+        // Every execution starts with a full budget
+        assertEquals(100, (int) Emulation.call(context, Loops.class, "count", JavaInteger.of(100)));
+    }
+
+    @Test
+    public void callDepthLimitAbortsRecursion() {
+        Context context = Emulation.context(Loops.class);
+        AtomicLong aborts = new AtomicLong();
+        context.budget = new ExecutionBudget(0, 50, 0, aborts);
+        assertEquals(40, (int) Emulation.call(context, Loops.class, "depth", JavaInteger.of(40)));
+        expectAbort(context, "depth", 100);
+        assertEquals(1, aborts.get());
+    }
+
+    @Test(timeout = 10000)
+    public void timeoutAbortsEndlessLoops() {
+        Context context = Emulation.context(Loops.class);
+        AtomicLong aborts = new AtomicLong();
+        context.budget = new ExecutionBudget(0, 0, 100, aborts);
+        expectAbort(context, "forever", 0);
+        assertEquals(1, aborts.get());
+    }
+
+    @Test
+    public void emulatedHandlersDoNotCatchAborts() {
+        Context context = Emulation.context(Loops.class);
+        context.budget = new ExecutionBudget(10000, 0, 0, null);
+        expectAbort(context, "swallow", 1000000);
+    }
+
+    private static void expectAbort(Context context, String name, int argument) {
+        try {
+            Emulation.call(context, Loops.class, name, JavaInteger.of(argument));
+            fail("expected the budget to be exceeded");
+        } catch (ExecutionBudgetExceededException expected) {
+        }
+    }
+
+    public static class Loops {
+        static int count(int n) {
+            int result = 0;
+            for (int i = 0; i < n; i++) {
+                result++;
+            }
+            return result;
+        }
+
+        static int depth(int n) {
+            return n == 0 ? 0 : depth(n - 1) + 1;
+        }
+
+        static int forever(int n) {
+            while (true) {
+                n = n * 31 + 1;
+            }
+        }
+
+        static int swallow(int n) {
+            try {
+                return count(n);
+            } catch (Throwable t) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javadeobfuscator.deobfuscator.executor.defined.MappedMethodProvider;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+
+public class ExecutionProfileTest {
+    private static final String OWNER = Type.getInternalName(Summing.class);
+
+    @Test
+    public void countsOpcodesInvocationsAndExecutions() throws IOException {
+        Context context = Emulation.context(Summing.class);
+        context.profile = new ExecutionProfile();
+        assertEquals(45, (int) Emulation.call(context, Summing.class, "sum", JavaInteger.of(10)));
+        assertEquals(3, (int) Emulation.call(context, Summing.class, "sum", JavaInteger.of(3)));
+        Map<String, Map<String, Object>> json = json(context.profile);
+
+        assertEquals(13, json.get("opcodes").get("IADD"));
+        assertEquals(13, json.get("opcodes").get("INVOKESTATIC"));
+        assertEquals(2, json.get("invocations").get(OWNER + ".sum(I)I"));
+        assertEquals(13, json.get("invocations").get(OWNER + ".add(II)I"));
+        assertEquals(13, json.get("dispatches").get(MappedMethodProvider.class.getName()));
+
+        // Only the outermost execution is timed
+        assertEquals(1, json.get("executions").size());
+        Map<?, ?> timing = (Map<?, ?>) json.get("executions").get(OWNER + ".sum(I)I");
+        assertEquals(2, timing.get("count"));
+        assertTrue(((Number) timing.get("totalNanos")).longValue() >= ((Number) timing.get("maxNanos")).longValue());
+    }
+
+    @Test
+    public void copiesShareCounters() throws IOException {
+        Context context = Emulation.context(Summing.class);
+        ExecutionProfile profile = new ExecutionProfile();
+        context.profile = profile.copy();
+        Emulation.call(context, Summing.class, "sum", JavaInteger.of(4));
+        assertEquals(4, json(profile).get("invocations").get(OWNER + ".add(II)I"));
+    }
+
+    @Test
+    public void writesCsvRows() {
+        Context context = Emulation.context(Summing.class);
+        context.profile = new ExecutionProfile();
+        Emulation.call(context, Summing.class, "sum", JavaInteger.of(2));
+        StringWriter out = new StringWriter();
+        context.profile.writeCsv(out);
+        String csv = out.toString();
+        assertTrue(csv.startsWith("section,key,count,totalNanos,maxNanos"));
+        assertTrue(csv.contains("invocation,\"" + OWNER + ".add(II)I\",2,,"));
+        assertTrue(csv.contains("execution,\"" + OWNER + ".sum(I)I\",1,"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> json(ExecutionProfile profile) throws IOException {
+        StringWriter out = new StringWriter();
+        profile.writeJson(out);
+        return new ObjectMapper().readValue(out.toString(), Map.class);
+    }
+
+    public static class Summing {
+        static int sum(int n) {
+            int result = 0;
+            for (int i = 0; i < n; i++) {
+                result = add(result, i);
+            }
+            return result;
+        }
+
+        static int add(int a, int b) {
+            return a + b;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+public class FieldSlotsTest {
+    @Test
+    public void staticsAreKeptPerOwnerNameAndDescriptor() {
+        FieldSlots<Object> slots = new FieldSlots<>();
+        slots.setStatic("a/A", "x", "I", 1);
+        slots.setStatic("a/A", "x", "J", 2L);
+        slots.setStatic("a/B", "x", "I", 3);
+        assertEquals(1, slots.getStatic("a/A", "x", "I"));
+        assertEquals(2L, slots.getStatic("a/A", "x", "J"));
+        assertEquals(3, slots.getStatic("a/B", "x", "I"));
+        assertNull(slots.getStatic("a/B", "y", "I"));
+        assertNull(slots.getStatic("a/C", "x", "I"));
+    }
+
+    @Test
+    public void instancesAreComparedByIdentity() {
+        FieldSlots<Object> slots = new FieldSlots<>();
+        String first = new String("key");
+        String second = new String("key");
+        slots.setInstance("a/A", "x", "I", first, 1);
+        slots.setInstance("a/A", "x", "I", second, 2);
+        slots.setInstance("a/A", "y", "I", null, 3);
+        assertEquals(1, slots.getInstance("a/A", "x", "I", first));
+        assertEquals(2, slots.getInstance("a/A", "x", "I", second));
+        assertEquals(3, slots.getInstance("a/A", "y", "I", null));
+        assertNull(slots.getInstance("a/A", "y", "I", first));
+    }
+
+    @Test
+    public void objectsGrowWithNewFields() {
+        FieldSlots<Object> slots = new FieldSlots<>();
+        Object target = new Object();
+        slots.setInstance("a/A", "f0", "I", target, 0);
+        for (int i = 1; i < 20; i++) {
+            slots.setInstance("a/A", "f" + i, "I", target, i);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, slots.getInstance("a/A", "f" + i, "I", target));
+        }
+    }
+
+    @Test
+    public void collectedObjectsReleaseTheirFields() throws InterruptedException {
+        FieldSlots<Object> slots = new FieldSlots<>();
+        Object target = new Object();
+        Object value = new Object();
+        WeakReference<Object> valueReference = new WeakReference<>(value);
+        slots.setInstance("a/A", "x", "Ljava/lang/Object;", target, value);
+        target = null;
+        value = null;
+        Object other = new Object();
+        for (int i = 0; i < 50 && valueReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+            // Collected objects are only dropped from the table when it is next used
+            slots.getInstance("a/A", "x", "Ljava/lang/Object;", other);
+        }
+        assertNull(valueReference.get());
+    }
+}
@@ -0,0 +1,116 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+public class InvocationCacheTest {
+    @Test
+    public void pureCallsAreEmulatedOncePerArguments() {
+        Context context = context(true);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("b", call(context, "decrypt", JavaValue.valueOf("a"), new JavaInteger(1)));
+            assertEquals("c", call(context, "decrypt", JavaValue.valueOf("a"), new JavaInteger(2)));
+        }
+        assertEquals(2, context.invocationCache.getMisses());
+        assertEquals(4, context.invocationCache.getHits());
+    }
+
+    @Test
+    public void methodsWritingStaticsAreNotCached() {
+        Context context = context(true);
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, (int) call(context, "count", new JavaInteger(1)));
+        }
+        assertEquals(0, context.invocationCache.getHits());
+    }
+
+    @Test
+    public void methodsStoringIntoStaticArraysAreOnlyCachedWhenMarkedPure() {
+        Context context = context(true);
+        call(context, "memoized", new JavaInteger(1));
+        call(context, "memoized", new JavaInteger(1));
+        assertEquals(0, context.invocationCache.getHits());
+
+        context = context(false);
+        context.invocationCache.markPure(Emulation.method(context.dictionary.get(name()), "memoized"));
+        call(context, "memoized", new JavaInteger(1));
+        call(context, "memoized", new JavaInteger(1));
+        assertEquals(1, context.invocationCache.getHits());
+    }
+
+    @Test
+    public void readingStaticsOnlyWrittenInClinitIsPure() {
+        Context context = context(true);
+        call(context, "keyed", new JavaInteger(3));
+        call(context, "keyed", new JavaInteger(3));
+        assertEquals(1, context.invocationCache.getHits());
+    }
+
+    @Test
+    public void changedMethodsAreExecutedAgain() {
+        Context context = context(true);
+        assertEquals(6, (int) call(context, "triple", new JavaInteger(2)));
+        MethodNode method = Emulation.method(context.dictionary.get(name()), "triple");
+        InsnList prefix = new InsnList();
+        prefix.add(new InsnNode(Opcodes.ICONST_1));
+        prefix.add(new InsnNode(Opcodes.IRETURN));
+        method.instructions.insert(prefix);
+        assertEquals(1, (int) call(context, "triple", new JavaInteger(2)));
+    }
+
+    private static Context context(boolean detectPure) {
+        Context context = Emulation.context(Decryptors.class);
+        context.invocationCache = new InvocationCache(detectPure);
+        return context;
+    }
+
+    private static String name() {
+        return Type.getInternalName(Decryptors.class);
+    }
+
+    private static <T> T call(Context context, String method, JavaValue... args) {
+        return Emulation.call(context, Decryptors.class, method, args);
+    }
+
+    public static class Decryptors {
+        static final int[] KEYS = {3, 5, 7, 11};
+        static final String[] CACHE = new String[4];
+        static int calls = 0;
+
+        static String decrypt(String s, int key) {
+            char[] chars = s.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] += key;
+            }
+            return new String(chars);
+        }
+
+        static int count(int x) {
+            return calls += x;
+        }
+
+        static String memoized(int i) {
+            if (CACHE[i] == null) {
+                CACHE[i] = "value" + i;
+            }
+            return CACHE[i];
+        }
+
+        static int keyed(int i) {
+            return KEYS[i] * i;
+        }
+
+        static int triple(int x) {
+            return x * 3;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaArray;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+
+public class MethodCompilerTest {
+    @Test
+    public void compiledCallReturnsWhatEmulationDoes() {
+        Context context = Emulation.context(Compiled.class);
+        context.compiler = new MethodCompiler(2);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Compiled.scale(i), (int) Emulation.<Integer>call(context, Compiled.class, "scale", new JavaInteger(i)));
+        }
+        assertEquals(1, context.compiler.getCompiled());
+    }
+
+    @Test
+    public void failingCompiledCallIsNotEmulatedAgain() {
+        Context context = Emulation.context(Compiled.class);
+        context.compiler = new MethodCompiler(1);
+        int[] array = {0, 0};
+        try {
+            Emulation.call(context, Compiled.class, "bumpThenDivide", new JavaArray(array));
+            fail("Expected an ArithmeticException");
+        } catch (ArithmeticException expected) {
+        }
+        assertEquals(1, context.compiler.getCompiled());
+        assertArrayEquals(new int[]{1, 0}, array);
+    }
+
+    @Test
+    public void staticFieldsAreReadOnEveryCall() {
+        Context context = Emulation.context(Compiled.class);
+        context.compiler = new MethodCompiler(1);
+        assertEquals(15, (int) Emulation.<Integer>call(context, Compiled.class, "scale", new JavaInteger(3)));
+        context.provider.setField("com/javadeobfuscator/deobfuscator/executor/MethodCompilerTest$Compiled", "factor", "I", null, 7, context);
+        assertEquals(21, (int) Emulation.<Integer>call(context, Compiled.class, "scale", new JavaInteger(3)));
+        assertEquals(1, context.compiler.getCompiled());
+    }
+
+    @Test
+    public void budgetedContextsAreNotCompiled() {
+        Context context = Emulation.context(Compiled.class);
+        context.compiler = new MethodCompiler(1);
+        context.budget = new ExecutionBudget(1000000, 0, 0, null);
+        for (int i = 0; i < 5; i++) {
+            Emulation.call(context, Compiled.class, "scale", new JavaInteger(i));
+        }
+        assertEquals(0, context.compiler.getCompiled());
+    }
+
+    @Test
+    public void methodsAreNotCompiledWhileTheirClassInitializes() {
+        Context context = Emulation.context(Compiled.class);
+        context.compiler = new MethodCompiler(1);
+        Emulation.call(context, Compiled.class, "<clinit>");
+        assertEquals(0, context.compiler.getCompiled());
+        Emulation.call(context, Compiled.class, "scale", new JavaInteger(1));
+        assertEquals(1, context.compiler.getCompiled());
+    }
+
+    public static class Compiled {
+        static int factor = 5;
+        static final int INITIAL = scale(2);
+
+        static int scale(int x) {
+            return x * factor;
+        }
+
+        static int bumpThenDivide(int[] array) {
+            array[0]++;
+            return 10 / array[1];
+        }
+    }
+}
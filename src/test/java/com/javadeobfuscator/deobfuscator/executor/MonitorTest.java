@@ -0,0 +1,116 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.exceptions.DeadlockException;
+import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionBudgetExceededException;
+
+public class MonitorTest {
+    @Test(timeout = 10000)
+    public void startingThreadWhichTakesHeldLockFailsInsteadOfHanging() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        try {
+            Emulation.call(context, Locking.class, "startWhileLocked");
+            fail("Expected a deadlock");
+        } catch (DeadlockException expected) {
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void startingThreadAfterReleasingLockRuns() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        try {
+            assertEquals("done", Emulation.call(context, Locking.class, "startAfterUnlocking"));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000, expected = DeadlockException.class)
+    public void waitingWithoutTimeoutFailsWhenThreadsRunToCompletion() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        try {
+            Emulation.call(context, Locking.class, "waitForever");
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void waitingWithTimeoutReturns() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        try {
+            assertEquals("done", Emulation.call(context, Locking.class, "waitBriefly"));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void startingThreadWhichTakesHeldLockRunsWhenThreadsAreConcurrent() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        context.threadStore = new ThreadStore(4);
+        try {
+            assertEquals("done", Emulation.call(context, Locking.class, "startWhileLocked"));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000, expected = ExecutionBudgetExceededException.class)
+    public void waitingWithoutTimeoutEndsAtBudgetDeadline() {
+        Context context = Emulation.context(Locking.class, Child.class);
+        context.threadStore = new ThreadStore(4);
+        context.budget = new ExecutionBudget(0, 0, 200, null);
+        try {
+            Emulation.call(context, Locking.class, "waitForever");
+        } finally {
+            context.close();
+        }
+    }
+
+    public static class Locking {
+        static final Object L = new Object();
+
+        static String startWhileLocked() {
+            synchronized (L) {
+                new Child().start();
+            }
+            return "done";
+        }
+
+        static String startAfterUnlocking() {
+            synchronized (L) {
+            }
+            new Child().start();
+            return "done";
+        }
+
+        static String waitForever() throws InterruptedException {
+            synchronized (L) {
+                L.wait();
+            }
+            return "done";
+        }
+
+        static String waitBriefly() throws InterruptedException {
+            synchronized (L) {
+                L.wait(1);
+            }
+            return "done";
+        }
+    }
+
+    public static class Child extends Thread {
+        @Override
+        public void run() {
+            synchronized (Locking.L) {
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaLong;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+/**
+ * The stack has to behave like the {@link LinkedList} the executor used before, with index 0 at the top
+ */
+public class OperandStackTest {
+    @Test
+    public void behavesLikeLinkedListAddressedFromTheTop() {
+        OperandStack stack = new OperandStack(1);
+        List<JavaValue> expected = new LinkedList<>();
+        JavaValue[] values = new JavaValue[6];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new JavaInteger(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            stack.push(values[i]);
+            expected.add(0, values[i]);
+        }
+        // DUP_X1 and friends insert below the top
+        stack.add(2, values[4]);
+        expected.add(2, values[4]);
+        stack.add(stack.size(), values[5]);
+        expected.add(expected.size(), values[5]);
+        assertEquals(expected, stack);
+        assertSame(expected.remove(3), stack.remove(3));
+        assertSame(expected.set(1, values[0]), stack.set(1, values[0]));
+        assertEquals(expected, stack);
+        assertSame(expected.get(0), stack.peek());
+        while (!expected.isEmpty()) {
+            assertSame(expected.remove(0), stack.pop());
+        }
+        assertEquals(0, stack.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void poppingEmptyStackUnderflows() {
+        new OperandStack(2).pop();
+    }
+
+    @Test
+    public void clearEmptiesTheStack() {
+        OperandStack stack = new OperandStack(2);
+        stack.push(new JavaInteger(1));
+        stack.push(new JavaInteger(2));
+        stack.clear();
+        assertEquals(0, stack.size());
+        JavaValue value = new JavaInteger(3);
+        stack.push(value);
+        assertEquals(1, stack.size());
+        assertSame(value, stack.peek());
+    }
+
+    @Test
+    public void emulatedStackManipulationMatchesTheJvm() {
+        Context context = Emulation.context(Shuffles.class);
+        assertEquals(Shuffles.shuffle(3, 4L), (long) Emulation.<Long>call(context, Shuffles.class, "shuffle", new JavaInteger(3), new JavaLong(4)));
+    }
+
+    @Test
+    public void localsGrowPastMaxLocals() {
+        LocalVariables locals = new LocalVariables(1);
+        assertNull(locals.get(5));
+        JavaValue value = new JavaInteger(7);
+        locals.set(5, value);
+        assertSame(value, locals.get(5));
+        assertNull(locals.get(0));
+    }
+
+    public static class Shuffles {
+        static int[] counter = new int[1];
+        static long total;
+
+        static long shuffle(int x, long y) {
+            // dup_x1, dup2_x1 and dup_x2 on arrays, longs and mixed categories
+            int a = counter[0] += x;
+            total = y += a;
+            long[] longs = {y};
+            longs[0] += y;
+            return a + y + longs[0] + total;
+        }
+    }
+}
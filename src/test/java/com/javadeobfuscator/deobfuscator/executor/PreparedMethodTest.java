@@ -0,0 +1,81 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+public class PreparedMethodTest {
+    @Test
+    public void preparedFormIsCachedUntilTheMethodChanges() {
+        MethodNode method = method();
+        PreparedMethod prepared = PreparedMethod.of(method);
+        assertSame(prepared, PreparedMethod.of(method));
+        method.instructions.add(new InsnNode(Opcodes.NOP));
+        PreparedMethod rebuilt = PreparedMethod.of(method);
+        assertNotSame(prepared, rebuilt);
+        assertEquals(method.instructions.size(), rebuilt.size());
+        PreparedMethod.invalidate(method);
+        assertNotSame(rebuilt, PreparedMethod.of(method));
+    }
+
+    @Test
+    public void handlersAreListedInTheOrderTheyAreTried() {
+        MethodNode method = new MethodNode(Opcodes.ACC_STATIC, "m", "()V", null, null);
+        LabelNode outerStart = new LabelNode();
+        LabelNode innerStart = new LabelNode();
+        LabelNode innerEnd = new LabelNode();
+        LabelNode outerEnd = new LabelNode();
+        LabelNode handler = new LabelNode();
+        InsnNode outside = new InsnNode(Opcodes.NOP);
+        InsnNode outer = new InsnNode(Opcodes.NOP);
+        InsnNode inner = new InsnNode(Opcodes.NOP);
+        method.instructions.add(outside);
+        method.instructions.add(outerStart);
+        method.instructions.add(outer);
+        method.instructions.add(innerStart);
+        method.instructions.add(inner);
+        method.instructions.add(innerEnd);
+        method.instructions.add(outerEnd);
+        method.instructions.add(handler);
+        method.instructions.add(new InsnNode(Opcodes.RETURN));
+        TryCatchBlockNode innerBlock = new TryCatchBlockNode(innerStart, innerEnd, handler, "java/lang/ArithmeticException");
+        TryCatchBlockNode outerBlock = new TryCatchBlockNode(outerStart, outerEnd, handler, null);
+        method.tryCatchBlocks.add(innerBlock);
+        method.tryCatchBlocks.add(outerBlock);
+
+        PreparedMethod prepared = PreparedMethod.of(method);
+        assertArrayEquals(new TryCatchBlockNode[0], prepared.getHandlers(outside));
+        assertArrayEquals(new TryCatchBlockNode[]{outerBlock}, prepared.getHandlers(outer));
+        assertArrayEquals(new TryCatchBlockNode[]{innerBlock, outerBlock}, prepared.getHandlers(inner));
+        assertEquals(4, prepared.indexOf(inner));
+        assertSame(inner, prepared.get(4));
+    }
+
+    @Test
+    public void callSitesFollowChangedDescriptors() {
+        MethodNode method = method();
+        MethodInsnNode call = (MethodInsnNode) method.instructions.getFirst();
+        PreparedMethod prepared = PreparedMethod.of(method);
+        assertEquals(Type.INT_TYPE, prepared.getCallSite(call).getReturnType());
+        call.desc = "(I)J";
+        assertEquals(Type.LONG_TYPE, prepared.getCallSite(call).getReturnType());
+        assertArrayEquals(new Type[]{Type.INT_TYPE}, prepared.getCallSite(call).getArgumentTypes());
+    }
+
+    private static MethodNode method() {
+        MethodNode method = new MethodNode(Opcodes.ACC_STATIC, "m", "()I", null, null);
+        method.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "a/B", "c", "()I", false));
+        method.instructions.add(new InsnNode(Opcodes.IRETURN));
+        return method;
+    }
+}
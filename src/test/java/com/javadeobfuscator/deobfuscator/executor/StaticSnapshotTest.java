@@ -0,0 +1,85 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.junit.Test;
+
+public class StaticSnapshotTest {
+    private static final String OWNER = Type.getInternalName(Stateful.class);
+
+    @Test
+    public void restoreBringsBackFieldsAndArrayContentsInPlace() {
+        Context context = Emulation.context(Stateful.class);
+        ClassNode classNode = context.dictionary.get(OWNER);
+        MethodNode clinit = Emulation.method(classNode, "<clinit>");
+        StaticSnapshot.initialize(classNode, clinit, context);
+        int[] state = field(context, "state");
+
+        Emulation.call(context, Stateful.class, "mutate");
+        assertArrayEquals(new int[]{100, 2, 3}, state);
+        assertEquals(1, (int) field(context, "counter"));
+
+        StaticSnapshot.initialize(classNode, clinit, context);
+        assertSame(state, field(context, "state"));
+        assertArrayEquals(new int[]{1, 2, 3}, state);
+        assertEquals(0, (int) field(context, "counter"));
+    }
+
+    @Test
+    public void changedClinitIsExecutedAgain() {
+        Context context = Emulation.context(Stateful.class);
+        ClassNode classNode = context.dictionary.get(OWNER);
+        MethodNode clinit = Emulation.method(classNode, "<clinit>");
+        StaticSnapshot.initialize(classNode, clinit, context);
+
+        InsnList store = new InsnList();
+        store.add(new IntInsnNode(Opcodes.BIPUSH, 9));
+        store.add(new FieldInsnNode(Opcodes.PUTSTATIC, OWNER, "counter", "I"));
+        clinit.instructions.insertBefore(clinit.instructions.getLast(), store);
+        StaticSnapshot.initialize(classNode, clinit, context);
+        assertEquals(9, (int) field(context, "counter"));
+    }
+
+    @Test
+    public void forksKeepStaticsOfTheirOwn() {
+        Context context = Emulation.context(Stateful.class);
+        Map<String, ClassNode> emulated = new HashMap<>();
+        emulated.put(OWNER, context.dictionary.get(OWNER));
+        Context fork = context.fork(Emulation.provider(emulated));
+        ClassNode classNode = context.dictionary.get(OWNER);
+        StaticSnapshot.initialize(classNode, Emulation.method(classNode, "<clinit>"), fork);
+
+        Emulation.call(fork, Stateful.class, "mutate");
+        assertEquals(1, (int) field(fork, "counter"));
+        assertEquals(0, (int) field(context, "counter"));
+        assertArrayEquals(new int[]{1, 2, 3}, field(context, "state"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T field(Context context, String name) {
+        String desc = name.equals("state") ? "[I" : "I";
+        return (T) context.provider.getField(OWNER, name, desc, null, context);
+    }
+
+    public static class Stateful {
+        static int[] state = {1, 2, 3};
+        static int counter = 0;
+
+        static void mutate() {
+            state[0] = 100;
+            counter++;
+        }
+    }
+}
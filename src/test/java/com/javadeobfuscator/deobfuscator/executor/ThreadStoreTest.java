@@ -0,0 +1,124 @@
+package com.javadeobfuscator.deobfuscator.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.exceptions.DeadlockException;
+
+public class ThreadStoreTest {
+    @Test
+    public void threadsRunToCompletionWhenStarted() {
+        ThreadStore store = new ThreadStore();
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        FutureTask<Void> task = new FutureTask<>(() -> ranOn.set(Thread.currentThread()), null);
+        store.start(task);
+        assertTrue(task.isDone());
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertFalse(store.isConcurrent());
+        assertFalse(store.isMultithreaded());
+    }
+
+    @Test
+    public void deadlocksEndTheStartingThreadWhenRunningToCompletion() {
+        ThreadStore store = new ThreadStore();
+        // Like an uncaught exception, anything else only ends the started thread
+        store.start(new FutureTask<Void>(() -> {
+            throw new IllegalStateException();
+        }));
+        try {
+            store.start(new FutureTask<Void>(() -> {
+                throw new DeadlockException("deadlock");
+            }));
+            fail("Expected a deadlock");
+        } catch (DeadlockException expected) {
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void emulatedThreadRunsWhenStartedByDefault() {
+        Context context = Emulation.context(Starting.class, Worker.class);
+        try {
+            assertEquals(42, (int) Emulation.call(context, Starting.class, "valueAfterStart"));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void joiningRunsThreadWhichHasNotBeenPickedUp() throws Exception {
+        Context context = Emulation.context(Starting.class, Worker.class);
+        context.threadStore = new ThreadStore(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Keeps the only pooled thread busy, where the JVM has no virtual threads
+            context.threadStore.start(new FutureTask<Void>(() -> {
+                release.await();
+                return null;
+            }));
+            assertEquals(42, (int) Emulation.call(context, Starting.class, "valueAfterJoin"));
+            assertTrue(context.threadStore.isMultithreaded());
+        } finally {
+            release.countDown();
+            context.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closeInterruptsRunningThreads() throws Exception {
+        ThreadStore store = new ThreadStore(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            stopped.countDown();
+            return null;
+        });
+        store.start(task);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        store.close();
+        assertTrue(task.isCancelled());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+    }
+
+    public static class Starting {
+        static int valueAfterStart() {
+            Worker worker = new Worker();
+            worker.start();
+            return Worker.value;
+        }
+
+        static int valueAfterJoin() throws InterruptedException {
+            Worker worker = new Worker();
+            worker.start();
+            worker.join();
+            return Worker.value;
+        }
+    }
+
+    public static class Worker extends Thread {
+        static int value = 0;
+
+        @Override
+        public void run() {
+            value = 42;
+        }
+    }
+}
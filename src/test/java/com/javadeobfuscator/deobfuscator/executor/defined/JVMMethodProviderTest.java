@@ -0,0 +1,63 @@
+package com.javadeobfuscator.deobfuscator.executor.defined;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaObject;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+public class JVMMethodProviderTest {
+    private final JVMMethodProvider provider = new JVMMethodProvider();
+
+    @Test
+    public void pureMethodsAreBound() {
+        assertEquals(2, provider.invokeMethod("java/lang/Math", "floorMod", "(II)I", null, args(JavaInteger.of(-7), JavaInteger.of(3)), null));
+        JavaValue target = new JavaObject("abc", "java/lang/String");
+        assertEquals("ABC", provider.invokeMethod("java/lang/String", "toUpperCase", "()Ljava/lang/String;", target, args(), null));
+        assertFalse(provider.canInvokeMethod("java/lang/Math", "random", "()D", null, args(), null));
+    }
+
+    @Test
+    public void handWrittenMethodsAreStillFound() {
+        JavaValue target = new JavaObject("abc", "java/lang/String");
+        assertEquals('b', provider.invokeMethod("java/lang/String", "charAt", "(I)C", target, args(JavaInteger.of(1)), null));
+        assertTrue(provider.canInvokeMethod("java/lang/Object", "getClass", "()Ljava/lang/Class;", target, args(), null));
+    }
+
+    @Test
+    public void registeredClassesAreBoundLazily() {
+        String owner = Type.getInternalName(Mixer.class);
+        assertFalse(provider.canInvokeMethod(owner, "mix", "(II)I", null, args(), null));
+        JVMMethodProvider.registerPure(Mixer.class);
+        assertEquals(3 * 31 + 4, provider.invokeMethod(owner, "mix", "(II)I", null, args(JavaInteger.of(3), JavaInteger.of(4)), null));
+        assertFalse(provider.canInvokeMethod(owner, "boxed", "(Ljava/lang/Integer;)I", null, args(), null));
+        assertFalse(provider.canInvokeMethod(owner, "instance", "()I", null, args(), null));
+    }
+
+    private static List<JavaValue> args(JavaValue... args) {
+        return args.length == 0 ? Collections.<JavaValue>emptyList() : Arrays.asList(args);
+    }
+
+    public static class Mixer {
+        public static int mix(int a, int b) {
+            return a * 31 + b;
+        }
+
+        public static int boxed(Integer value) {
+            return value;
+        }
+
+        public int instance() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.javadeobfuscator.deobfuscator.executor.defined;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+public class MethodTableTest {
+    @Test
+    public void findsOverloadsByDescriptor() {
+        ClassNode classNode = new ClassNode();
+        MethodNode first = method(classNode, "a", "()V");
+        MethodNode second = method(classNode, "a", "(I)V");
+        MethodTable table = new MethodTable();
+        assertSame(first, table.find(classNode, "a", "()V"));
+        assertSame(second, table.find(classNode, "a", "(I)V"));
+        assertNull(table.find(classNode, "a", "(J)V"));
+        assertNull(table.find(classNode, "b", "()V"));
+    }
+
+    @Test
+    public void seesAddedAndRemovedMethods() {
+        ClassNode classNode = new ClassNode();
+        MethodNode first = method(classNode, "a", "()V");
+        MethodTable table = new MethodTable();
+        assertNull(table.find(classNode, "b", "()V"));
+        MethodNode added = method(classNode, "b", "()V");
+        assertSame(added, table.find(classNode, "b", "()V"));
+        classNode.methods.remove(first);
+        assertNull(table.find(classNode, "a", "()V"));
+    }
+
+    @Test
+    public void seesMethodsRenamedInPlaceOnceInvalidated() {
+        ClassNode classNode = new ClassNode();
+        MethodNode method = method(classNode, "a", "()V");
+        MethodTable table = new MethodTable();
+        assertSame(method, table.find(classNode, "a", "()V"));
+        method.name = "b";
+        MethodTable.invalidate();
+        assertNull(table.find(classNode, "a", "()V"));
+        assertSame(method, table.find(classNode, "b", "()V"));
+    }
+
+    private static MethodNode method(ClassNode classNode, String name, String desc) {
+        MethodNode method = new MethodNode(Opcodes.ACC_STATIC, name, desc, null, null);
+        classNode.methods.add(method);
+        return method;
+    }
+}
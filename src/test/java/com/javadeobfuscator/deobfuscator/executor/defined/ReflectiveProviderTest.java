@@ -0,0 +1,113 @@
+package com.javadeobfuscator.deobfuscator.executor.defined;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+import com.javadeobfuscator.deobfuscator.executor.exceptions.ExecutionException;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaCharacter;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaInteger;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaLong;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaObject;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+public class ReflectiveProviderTest {
+    private static final String OWNER = Type.getInternalName(Target.class);
+
+    private final ReflectiveProvider provider = new ReflectiveProvider(Collections.singletonMap(OWNER, new ClassNode()));
+
+    @Test
+    public void invokesStaticMethodsOfEveryArity() {
+        assertEquals(7, invoke("add", "(II)I", null, JavaInteger.of(3), JavaInteger.of(4)));
+        // Small primitives are ints in the emulator and are narrowed for the call
+        assertEquals(3, invoke("add", "(BS)I", null, JavaInteger.of(1), JavaInteger.of(2)));
+        assertEquals(15L, invoke("sum", "(IIIIJ)J", null, JavaInteger.of(1), JavaInteger.of(2), JavaInteger.of(3), JavaInteger.of(4), JavaLong.of(5)));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, invoke("add", "(II)I", null, JavaInteger.of(i), JavaInteger.of(1)));
+        }
+    }
+
+    @Test
+    public void invokesConstructorsAndPrivateInstanceMethods() {
+        JavaObject target = new JavaObject(OWNER);
+        assertNull(invoke("<init>", "(I)V", target, JavaInteger.of(10)));
+        assertEquals("10:x", invoke("describe", "(C)Ljava/lang/String;", target, JavaCharacter.of('x')));
+    }
+
+    @Test
+    public void rejectsReceiversOfAnotherClass() {
+        try {
+            invoke("describe", "(C)Ljava/lang/String;", new JavaObject("other", "java/lang/String"), JavaCharacter.of('x'));
+            fail("Expected a mismatched receiver to be rejected");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void missingMethodsFailEveryTime() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                invoke("missing", "()V", null);
+                fail("Expected the missing method to fail");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof NoSuchMethodException);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void exceptionsOfTheMethodAreThrownUnchanged() {
+        invoke("fail", "()V", null);
+    }
+
+    @Test
+    public void readsStaticFields() {
+        assertEquals(99, provider.getField(OWNER, "constant", "I", null, null));
+    }
+
+    private Object invoke(String name, String desc, JavaValue target, JavaValue... args) {
+        List<JavaValue> arguments = Arrays.asList(args);
+        return provider.invokeMethod(OWNER, name, desc, target, arguments, null);
+    }
+
+    public static class Target {
+        static int constant = 99;
+
+        private final int value;
+
+        private Target(int value) {
+            this.value = value;
+        }
+
+        static int add(int a, int b) {
+            return a + b;
+        }
+
+        static int add(byte a, short b) {
+            return a + b;
+        }
+
+        static long sum(int a, int b, int c, int d, long e) {
+            return a + b + c + d + e;
+        }
+
+        static void fail() throws IOException {
+            throw new IOException();
+        }
+
+        private String describe(char c) {
+            return value + ":" + c;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.javadeobfuscator.deobfuscator.executor.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaValue;
+
+public class DelegatingProviderTest {
+    @Test
+    public void firstAcceptingProviderWins() {
+        Named first = new Named("first", "a");
+        Named second = new Named("second", "a", "b");
+        DelegatingProvider provider = new DelegatingProvider().register(first).register(second);
+        assertEquals("first", invoke(provider, "a"));
+        assertEquals("second", invoke(provider, "b"));
+        assertFalse(provider.canInvokeMethod("Owner", "c", "()V", null, Collections.<JavaValue>emptyList(), null));
+    }
+
+    @Test
+    public void rememberedDispatchSkipsRefusingProviders() {
+        Named first = new Named("first");
+        Named second = new Named("second", "a");
+        DelegatingProvider provider = new DelegatingProvider().register(first).register(second);
+        assertEquals("second", invoke(provider, "a"));
+        int asked = first.asked;
+        for (int i = 0; i < 5; i++) {
+            assertEquals("second", invoke(provider, "a"));
+        }
+        assertEquals(asked, first.asked);
+    }
+
+    @Test
+    public void rememberedProviderIsAskedAgain() {
+        Named first = new Named("first", "a");
+        Named second = new Named("second", "a");
+        DelegatingProvider provider = new DelegatingProvider().register(first).register(second);
+        assertEquals("first", invoke(provider, "a"));
+        first.names.remove("a");
+        assertEquals("second", invoke(provider, "a"));
+    }
+
+    @Test
+    public void clearingTheCacheAsksEveryProviderAgain() {
+        Named first = new Named("first");
+        Named second = new Named("second", "a");
+        DelegatingProvider provider = new DelegatingProvider().register(first).register(second);
+        assertEquals("second", invoke(provider, "a"));
+        first.names.add("a");
+        assertEquals("second", invoke(provider, "a"));
+        provider.clearDispatchCache();
+        assertEquals("first", invoke(provider, "a"));
+    }
+
+    private static Object invoke(Provider provider, String name) {
+        return provider.invokeMethod("Owner", name, "()V", null, Collections.<JavaValue>emptyList(), null);
+    }
+
+    /**
+     * Accepts the methods with the given names, and returns its own name from each
+     */
+    private static class Named extends MethodProvider {
+        private final String name;
+        private final Set<String> names;
+        private int asked;
+
+        private Named(String name, String... names) {
+            this.name = name;
+            this.names = new HashSet<>(Arrays.asList(names));
+        }
+
+        @Override
+        public boolean canInvokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args,
+                                       Context context) {
+            asked++;
+            return names.contains(methodName);
+        }
+
+        @Override
+        public Object invokeMethod(String className, String methodName, String methodDesc, JavaValue targetObject, List<JavaValue> args,
+                                   Context context) {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.javadeobfuscator.deobfuscator.executor.values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class JavaValueTest {
+    @Test
+    public void smallValuesAreShared() {
+        assertSame(JavaInteger.of(-128), JavaInteger.of(-128));
+        assertSame(JavaInteger.of(1000), JavaInteger.of(1000));
+        assertSame(JavaLong.of(5), JavaLong.of(5));
+        assertSame(JavaBoolean.of(true), JavaBoolean.of(true));
+        assertSame(JavaByte.of((byte) -1), JavaByte.of((byte) -1));
+        assertSame(JavaShort.of((short) 3), JavaShort.of((short) 3));
+        assertSame(JavaCharacter.of('a'), JavaCharacter.of('a'));
+    }
+
+    @Test
+    public void largeValuesAreNotShared() {
+        assertNotSame(JavaInteger.of(1 << 20), JavaInteger.of(1 << 20));
+        assertEquals(1 << 20, JavaInteger.of(1 << 20).intValue());
+        assertEquals(-129, JavaInteger.of(-129).intValue());
+        assertEquals(Long.MIN_VALUE, JavaLong.of(Long.MIN_VALUE).longValue());
+    }
+
+    @Test
+    public void primitiveValuesAreNotCopied() {
+        JavaInteger value = new JavaInteger(123456);
+        assertSame(value, value.copy());
+        JavaDouble d = new JavaDouble(1.5);
+        assertSame(d, d.copy());
+    }
+
+    @Test
+    public void valueIsBoxedByType() {
+        assertEquals(Integer.valueOf(7), JavaInteger.of(7).value());
+        assertEquals(Long.valueOf(7), JavaLong.of(7).value());
+        assertEquals(Byte.valueOf((byte) 7), JavaByte.of((byte) 7).value());
+        assertEquals(Character.valueOf('x'), JavaCharacter.of('x').value());
+        assertEquals(Boolean.TRUE, JavaBoolean.of(true).value());
+    }
+}
@@ -0,0 +1,68 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Indexes jars whose entry paths don't match the names of their classes
+ */
+public class LibraryIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void classesAreIndexedByTheirOwnName() throws IOException {
+        File jar = jar("BOOT-INF/classes/a/B.class", "a/B", "renamed.class", "c/D");
+        try (LibraryIndex index = new LibraryIndex(16, null)) {
+            index.index(jar, true);
+            assertTrue(index.contains("a/B"));
+            assertTrue(index.contains("c/D"));
+            assertFalse(index.contains("BOOT-INF/classes/a/B"));
+            assertFalse(index.contains("renamed"));
+            assertEquals("a/B", index.load("a/B").node.name);
+            assertEquals("c/D", index.getInfo("c/D").name);
+        }
+    }
+
+    @Test
+    public void cachedIndexKeepsTheNamesOfClasses() throws IOException {
+        File jar = jar("BOOT-INF/classes/a/B.class", "a/B", "renamed.class", "c/D");
+        LibraryCache cache = new LibraryCache(folder.newFolder("cache"));
+        try (LibraryIndex index = new LibraryIndex(16, cache)) {
+            index.index(jar, true);
+            index.getInfo("a/B");
+        }
+        assertNotNull(cache.load(jar));
+        try (LibraryIndex index = new LibraryIndex(16, cache)) {
+            index.index(jar, true);
+            assertEquals("a/B", index.getInfo("a/B").name);
+            assertEquals("c/D", index.load("c/D").node.name);
+        }
+    }
+
+    private File jar(String... entriesAndClasses) throws IOException {
+        File jar = folder.newFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (int i = 0; i < entriesAndClasses.length; i += 2) {
+                ClassWriter writer = new ClassWriter(0);
+                writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, entriesAndClasses[i + 1], null, "java/lang/Object", null);
+                writer.visitEnd();
+                out.putNextEntry(new ZipEntry(entriesAndClasses[i]));
+                out.write(writer.toByteArray());
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
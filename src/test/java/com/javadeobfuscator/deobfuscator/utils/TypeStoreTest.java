@@ -0,0 +1,53 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import com.javadeobfuscator.deobfuscator.executor.Context;
+import com.javadeobfuscator.deobfuscator.executor.providers.DelegatingProvider;
+import com.javadeobfuscator.deobfuscator.executor.values.JavaObject;
+
+public class TypeStoreTest {
+    @Test
+    public void contextsOnTheSameProviderShareTheStore() {
+        DelegatingProvider provider = new DelegatingProvider();
+        assertSame(TypeStore.of(provider), TypeStore.of(provider));
+        assertSame(new Context(provider).typeStore, new Context(provider).typeStore);
+        assertNotSame(TypeStore.of(provider), TypeStore.of(new DelegatingProvider()));
+        assertNotSame(TypeStore.of(null), TypeStore.of(null));
+    }
+
+    @Test
+    public void fieldsAreKeptPerTarget() {
+        TypeStore store = TypeStore.of(new DelegatingProvider());
+        JavaObject first = new JavaObject(new Object(), "java/lang/Object");
+        JavaObject second = new JavaObject(new Object(), "java/lang/Object");
+        Entry<Object, String> array = new SimpleEntry<>(new int[1], "[I");
+        Entry<Object, String> string = new SimpleEntry<>("a", "java/lang/String");
+        store.setFieldToStore("a/A", "x", "Ljava/lang/Object;", null, array);
+        store.setFieldToStore("a/A", "x", "Ljava/lang/Object;", first, string);
+        assertSame(array, store.getFieldFromStore("a/A", "x", "Ljava/lang/Object;", null));
+        assertSame(string, store.getFieldFromStore("a/A", "x", "Ljava/lang/Object;", first));
+        assertNull(store.getFieldFromStore("a/A", "x", "Ljava/lang/Object;", second));
+    }
+
+    @Test
+    public void closeDropsEverything() {
+        TypeStore store = TypeStore.of(new DelegatingProvider());
+        JavaObject target = new JavaObject(new Object(), "java/lang/Object");
+        store.setFieldToStore("a/A", "x", "I", null, new SimpleEntry<>(1, "I"));
+        store.setFieldToStore("a/A", "x", "I", target, new SimpleEntry<>(2, "I"));
+        store.close();
+        assertNull(store.getFieldFromStore("a/A", "x", "I", null));
+        assertNull(store.getFieldFromStore("a/A", "x", "I", target));
+        store.setFieldToStore("a/A", "x", "I", null, new SimpleEntry<>(3, "I"));
+        assertEquals(3, store.getFieldFromStore("a/A", "x", "I", null).getKey());
+    }
+}
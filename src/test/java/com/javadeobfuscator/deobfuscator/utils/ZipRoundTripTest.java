@@ -0,0 +1,233 @@
+package com.javadeobfuscator.deobfuscator.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Writes archives with {@link ZipWriter}, copying entries through a {@link PassthroughStore}, and reads them back with the JDK
+ */
+public class ZipRoundTripTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storedEntriesAreCopiedRaw() throws IOException {
+        byte[] data = text("stored entry ", 200);
+        File input = folder.newFile("stored.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+            ZipEntry entry = new ZipEntry("META-INF/stored.txt");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setCrc(crc.getValue());
+            out.putNextEntry(entry);
+            out.write(data);
+            out.closeEntry();
+        }
+
+        File output = passThrough(input, "META-INF/stored.txt");
+        try (ZipFile zip = new ZipFile(output)) {
+            ZipEntry entry = zip.getEntry("META-INF/stored.txt");
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertArrayEquals(data, IOUtils.toByteArray(zip.getInputStream(entry)));
+        }
+        assertStreamable(output, "META-INF/stored.txt", data);
+    }
+
+    @Test
+    public void deflatedEntriesWithDataDescriptorsAreCopiedRaw() throws IOException {
+        byte[] data = text("deflated entry ", 500);
+        File input = folder.newFile("deflated.jar");
+        // ZipOutputStream follows deflated entries with a data descriptor
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+            out.putNextEntry(new ZipEntry("config.yml"));
+            out.write(data);
+            out.closeEntry();
+        }
+        assertEquals(0x0008, localFlags(input) & 0x0008);
+
+        File output = passThrough(input, "config.yml");
+        assertEquals(0, localFlags(output) & 0x0008);
+        try (ZipFile zip = new ZipFile(output)) {
+            ZipEntry entry = zip.getEntry("config.yml");
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            assertTrue(entry.getCompressedSize() < data.length);
+            assertArrayEquals(data, IOUtils.toByteArray(zip.getInputStream(entry)));
+        }
+        assertStreamable(output, "config.yml", data);
+    }
+
+    @Test
+    public void changedEntriesAreRecompressed() throws IOException {
+        File input = folder.newFile("changed.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+            out.putNextEntry(new ZipEntry("a.txt"));
+            out.write(text("original ", 10));
+            out.closeEntry();
+        }
+        byte[] changed = text("changed ", 10);
+        File output = folder.newFile("changed-out.jar");
+        try (PassthroughStore store = new PassthroughStore(); ZipWriter writer = new ZipWriter(output)) {
+            store.open(input);
+            assertTrue(store.canPutRaw("a.txt"));
+            store.putRaw("a.txt");
+            store.put("a.txt", changed);
+            store.put("b.txt", changed);
+            store.writeTo(writer, "a.txt");
+            store.writeTo(writer, "b.txt");
+        }
+        Map<String, byte[]> entries = readAll(output);
+        assertArrayEquals(changed, entries.get("a.txt"));
+        assertArrayEquals(changed, entries.get("b.txt"));
+    }
+
+    @Test
+    public void changedEntriesKeepTheirTime() throws IOException {
+        long time = new GregorianCalendar(2015, Calendar.JUNE, 1, 12, 30, 0).getTimeInMillis();
+        File input = folder.newFile("timed.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+            ZipEntry entry = new ZipEntry("a.txt");
+            entry.setTime(time);
+            out.putNextEntry(entry);
+            out.write(text("original ", 10));
+            out.closeEntry();
+        }
+        File output = folder.newFile("timed-out.jar");
+        try (PassthroughStore store = new PassthroughStore(); ZipWriter writer = new ZipWriter(output)) {
+            store.open(input);
+            store.putRaw("a.txt");
+            store.put("a.txt", text("changed ", 10));
+            store.writeTo(writer, "a.txt");
+        }
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(time, zip.getEntry("a.txt").getTime());
+        }
+    }
+
+    @Test
+    public void writingTwiceGivesTheSameBytes() throws IOException {
+        byte[][] outputs = new byte[2][];
+        for (int i = 0; i < outputs.length; i++) {
+            File output = folder.newFile("repeat" + i + ".jar");
+            try (ZipWriter writer = new ZipWriter(output)) {
+                writer.write("a/B.class", text("class ", 50));
+                writer.write("c.txt", text("text ", 50));
+            }
+            outputs[i] = Files.readAllBytes(output.toPath());
+            if (i == 0) {
+                // Entries stamped with the current time would differ after this
+                try {
+                    Thread.sleep(2100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        assertArrayEquals(outputs[0], outputs[1]);
+    }
+
+    @Test(expected = ZipException.class)
+    public void duplicateNamesAreRejected() throws IOException {
+        try (ZipWriter writer = new ZipWriter(folder.newFile("duplicate.jar"))) {
+            writer.write("a.txt", text("first", 1));
+            writer.write("a.txt", text("second", 1));
+        }
+    }
+
+    @Test
+    public void zip64EntryCount() throws IOException {
+        int count = 0x10000;
+        File input = folder.newFile("many.jar");
+        try (ZipWriter writer = new ZipWriter(input)) {
+            for (int i = 0; i < count; i++) {
+                writer.write("e/" + i, text(Integer.toString(i), 1));
+            }
+        }
+        try (ZipFile zip = new ZipFile(input)) {
+            assertEquals(count, zip.size());
+            assertArrayEquals(text("65535", 1), IOUtils.toByteArray(zip.getInputStream(zip.getEntry("e/65535"))));
+        }
+
+        // The passthrough store must find the entries through the ZIP64 end of central directory
+        File output = passThrough(input, "e/12345");
+        Map<String, byte[]> entries = readAll(output);
+        assertEquals(1, entries.size());
+        assertArrayEquals(text("12345", 1), entries.get("e/12345"));
+    }
+
+    private File passThrough(File input, String name) throws IOException {
+        File output = folder.newFile(input.getName() + "-out.jar");
+        try (PassthroughStore store = new PassthroughStore(); ZipWriter writer = new ZipWriter(output)) {
+            store.open(input);
+            assertTrue(store.canPutRaw(name));
+            store.putRaw(name);
+            store.writeTo(writer, name);
+        }
+        return output;
+    }
+
+    /**
+     * Checks the entry can be read without the central directory, which needs the sizes in the local header
+     */
+    private static void assertStreamable(File file, String name, byte[] data) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(file))) {
+            ZipEntry entry = in.getNextEntry();
+            assertNotNull(entry);
+            assertEquals(name, entry.getName());
+            assertArrayEquals(data, IOUtils.toByteArray(in));
+            assertNull(in.getNextEntry());
+        }
+    }
+
+    private static Map<String, byte[]> readAll(File file) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(file)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                try (InputStream in = zip.getInputStream(entry)) {
+                    entries.put(entry.getName(), IOUtils.toByteArray(in));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static int localFlags(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = new byte[8];
+            IOUtils.readFully(in, header);
+            return (header[6] & 0xFF) | (header[7] & 0xFF) << 8;
+        }
+    }
+
+    private static byte[] text(String text, int repeat) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}